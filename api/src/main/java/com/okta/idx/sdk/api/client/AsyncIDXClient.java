@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client;
+
+import com.okta.commons.http.Response;
+import com.okta.idx.sdk.api.model.IDXClientContext;
+import com.okta.idx.sdk.api.request.AnswerChallengeRequest;
+import com.okta.idx.sdk.api.request.ChallengeRequest;
+import com.okta.idx.sdk.api.request.EnrollRequest;
+import com.okta.idx.sdk.api.request.EnrollUserProfileUpdateRequest;
+import com.okta.idx.sdk.api.request.IdentifyRequest;
+import com.okta.idx.sdk.api.request.PollRequest;
+import com.okta.idx.sdk.api.request.RecoverRequest;
+import com.okta.idx.sdk.api.request.SkipAuthenticatorEnrollmentRequest;
+import com.okta.idx.sdk.api.response.IDXResponse;
+import com.okta.idx.sdk.api.response.TokenResponse;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking variant of {@link IDXClient}.
+ * <p>
+ * Every method returns immediately; the returned future completes with the parsed response, or exceptionally
+ * with a {@link com.okta.idx.sdk.api.exception.ProcessingException} if the backend call fails.
+ */
+public interface AsyncIDXClient {
+
+    CompletableFuture<IDXClientContext> interact();
+
+    CompletableFuture<IDXResponse> introspect(IDXClientContext idxClientContext);
+
+    CompletableFuture<IDXResponse> identify(IdentifyRequest identifyRequest, String href);
+
+    CompletableFuture<IDXResponse> enroll(EnrollRequest enrollRequest, String href);
+
+    CompletableFuture<IDXResponse> challenge(ChallengeRequest challengeRequest, String href);
+
+    CompletableFuture<IDXResponse> answerChallenge(AnswerChallengeRequest answerChallengeRequest, String href);
+
+    CompletableFuture<IDXResponse> cancel(String stateHandle);
+
+    CompletableFuture<IDXResponse> enrollUpdateUserProfile(EnrollUserProfileUpdateRequest enrollUserProfileUpdateRequest, String href);
+
+    CompletableFuture<IDXResponse> skip(SkipAuthenticatorEnrollmentRequest skipAuthenticatorEnrollmentRequest, String href);
+
+    CompletableFuture<IDXResponse> recover(RecoverRequest recoverRequest, String href);
+
+    CompletableFuture<IDXResponse> poll(PollRequest pollRequest, String href);
+
+    CompletableFuture<TokenResponse> token(String url, String grantType, String interactionCode, IDXClientContext idxClientContext);
+
+    CompletableFuture<Void> revokeToken(String tokenType, String token);
+
+    CompletableFuture<Response> verifyEmailToken(String token);
+
+    /**
+     * @param connections the number of connections to open
+     * @return a future completed once the client is warmed up
+     * @see IDXClient#warmUp(int)
+     */
+    CompletableFuture<WarmUpReport> warmUp(int connections);
+
+    /**
+     * @return the statistics of the transport since the client was created
+     * @see IDXClient#getTransportStatistics()
+     */
+    TransportStatistics getTransportStatistics();
+}
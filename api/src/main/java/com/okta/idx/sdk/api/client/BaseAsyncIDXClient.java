@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client;
+
+import com.okta.commons.http.Response;
+import com.okta.commons.lang.Assert;
+import com.okta.idx.sdk.api.exception.ProcessingException;
+import com.okta.idx.sdk.api.model.IDXClientContext;
+import com.okta.idx.sdk.api.request.AnswerChallengeRequest;
+import com.okta.idx.sdk.api.request.ChallengeRequest;
+import com.okta.idx.sdk.api.request.EnrollRequest;
+import com.okta.idx.sdk.api.request.EnrollUserProfileUpdateRequest;
+import com.okta.idx.sdk.api.request.IdentifyRequest;
+import com.okta.idx.sdk.api.request.PollRequest;
+import com.okta.idx.sdk.api.request.RecoverRequest;
+import com.okta.idx.sdk.api.request.SkipAuthenticatorEnrollmentRequest;
+import com.okta.idx.sdk.api.response.IDXResponse;
+import com.okta.idx.sdk.api.response.TokenResponse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * {@link AsyncIDXClient} backed by an {@link IDXClient}.
+ * <p>
+ * The {@link com.okta.commons.http.RequestExecutor} SPI only exposes a blocking call, so each exchange is run on
+ * the supplied {@link Executor} and the calling thread is released as soon as the call is submitted.
+ */
+final class BaseAsyncIDXClient implements AsyncIDXClient {
+
+    private final IDXClient client;
+    private final Executor executor;
+
+    BaseAsyncIDXClient(IDXClient client, Executor executor) {
+        Assert.notNull(client, "client cannot be null");
+        Assert.notNull(executor, "executor cannot be null");
+        this.client = client;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<IDXClientContext> interact() {
+        return submit(client::interact);
+    }
+
+    @Override
+    public CompletableFuture<IDXResponse> introspect(IDXClientContext idxClientContext) {
+        return submit(() -> client.introspect(idxClientContext));
+    }
+
+    @Override
+    public CompletableFuture<IDXResponse> identify(IdentifyRequest identifyRequest, String href) {
+        return submit(() -> client.identify(identifyRequest, href));
+    }
+
+    @Override
+    public CompletableFuture<IDXResponse> enroll(EnrollRequest enrollRequest, String href) {
+        return submit(() -> client.enroll(enrollRequest, href));
+    }
+
+    @Override
+    public CompletableFuture<IDXResponse> challenge(ChallengeRequest challengeRequest, String href) {
+        return submit(() -> client.challenge(challengeRequest, href));
+    }
+
+    @Override
+    public CompletableFuture<IDXResponse> answerChallenge(AnswerChallengeRequest answerChallengeRequest, String href) {
+        return submit(() -> client.answerChallenge(answerChallengeRequest, href));
+    }
+
+    @Override
+    public CompletableFuture<IDXResponse> cancel(String stateHandle) {
+        return submit(() -> client.cancel(stateHandle));
+    }
+
+    @Override
+    public CompletableFuture<IDXResponse> enrollUpdateUserProfile(EnrollUserProfileUpdateRequest enrollUserProfileUpdateRequest,
+                                                                  String href) {
+        return submit(() -> client.enrollUpdateUserProfile(enrollUserProfileUpdateRequest, href));
+    }
+
+    @Override
+    public CompletableFuture<IDXResponse> skip(SkipAuthenticatorEnrollmentRequest skipAuthenticatorEnrollmentRequest, String href) {
+        return submit(() -> client.skip(skipAuthenticatorEnrollmentRequest, href));
+    }
+
+    @Override
+    public CompletableFuture<IDXResponse> recover(RecoverRequest recoverRequest, String href) {
+        return submit(() -> client.recover(recoverRequest, href));
+    }
+
+    @Override
+    public CompletableFuture<IDXResponse> poll(PollRequest pollRequest, String href) {
+        return submit(() -> client.poll(pollRequest, href));
+    }
+
+    @Override
+    public CompletableFuture<TokenResponse> token(String url, String grantType, String interactionCode, IDXClientContext idxClientContext) {
+        return submit(() -> client.token(url, grantType, interactionCode, idxClientContext));
+    }
+
+    @Override
+    public CompletableFuture<Void> revokeToken(String tokenType, String token) {
+        return submit(() -> {
+            client.revokeToken(tokenType, token);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Response> verifyEmailToken(String token) {
+        return submit(() -> client.verifyEmailToken(token));
+    }
+
+    @Override
+    public CompletableFuture<WarmUpReport> warmUp(int connections) {
+        return submit(() -> client.warmUp(connections));
+    }
+
+    @Override
+    public TransportStatistics getTransportStatistics() {
+        return client.getTransportStatistics();
+    }
+
+    private <T> CompletableFuture<T> submit(Call<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(IDXPriorityScheduler.withCurrentPriority(() -> {
+                try {
+                    future.complete(call.execute());
+                } catch (Throwable e) {
+                    // including errors, e.g. a StackOverflowError, which would otherwise leave the future pending
+                    future.completeExceptionally(e);
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(new ProcessingException(e));
+        }
+        return future;
+    }
+
+    private interface Call<T> {
+        T execute() throws ProcessingException;
+    }
+}
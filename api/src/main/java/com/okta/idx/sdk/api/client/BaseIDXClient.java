@@ -19,17 +19,15 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.okta.commons.http.DefaultRequest;
-import com.okta.commons.http.HttpException;
 import com.okta.commons.http.HttpHeaders;
 import com.okta.commons.http.HttpMethod;
 import com.okta.commons.http.Request;
 import com.okta.commons.http.RequestExecutor;
 import com.okta.commons.http.RequestExecutorFactory;
 import com.okta.commons.http.Response;
-import com.okta.commons.http.authc.DisabledAuthenticator;
-import com.okta.commons.http.config.HttpClientConfiguration;
 import com.okta.commons.lang.Assert;
 import com.okta.commons.lang.Classes;
 import com.okta.commons.lang.Strings;
@@ -55,13 +53,30 @@ import com.okta.idx.sdk.api.response.InteractResponse;
 import com.okta.idx.sdk.api.response.TokenResponse;
 import com.okta.idx.sdk.api.util.PkceUtil;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
 import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.UnknownHostException;
 import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
 import static com.okta.idx.sdk.api.util.ClientUtil.getNormalizedUri;
 
@@ -69,30 +84,72 @@ final class BaseIDXClient implements IDXClient {
 
     private static final String USER_AGENT_HEADER_VALUE = "okta-idx-java/2.0.0";
 
+    private static final String ACCEPT_ENCODING_HEADER = "Accept-Encoding";
+    private static final String CONTENT_ENCODING_HEADER = "Content-Encoding";
+    private static final String ACCEPT_ENCODING_HEADER_VALUE = "gzip, deflate";
+
+    /** The request bodies the client serializes, whose writers are built by {@link #warmUp(int)}. */
+    private static final List<Class<?>> REQUEST_TYPES = Arrays.asList(IntrospectRequest.class, IdentifyRequest.class,
+        EnrollRequest.class, ChallengeRequest.class, AnswerChallengeRequest.class, CancelRequest.class,
+        EnrollUserProfileUpdateRequest.class, SkipAuthenticatorEnrollmentRequest.class, RecoverRequest.class,
+        PollRequest.class);
+
     private final ClientConfiguration clientConfiguration;
 
     private final ObjectMapper objectMapper;
-    private final RequestExecutor requestExecutor;
+    private final ObjectReader idxResponseReader;
+    private final ObjectReader tokenResponseReader;
+    private final ObjectReader interactResponseReader;
+    private final ObjectReader errorResponseReader;
+    private final ConcurrentMap<Class<?>, ObjectWriter> requestWriters = new ConcurrentHashMap<>();
+    private final RequestPipeline pipeline;
+    private final RequestBodyBufferPool bufferPool = new RequestBodyBufferPool();
+    private final SingleFlight<String, IDXResponse> coalescedCalls = new SingleFlight<>();
+    private final TransportMonitor transport;
+    private final long transportLoadNanos;
 
     public BaseIDXClient(ClientConfiguration clientConfiguration, RequestExecutor requestExecutor) {
+        this(clientConfiguration, requestExecutor, Collections.emptyList());
+    }
+
+    BaseIDXClient(ClientConfiguration clientConfiguration, RequestExecutor requestExecutor, List<IDXInterceptor> interceptors) {
 
         this.clientConfiguration = clientConfiguration;
 
+        // request bodies go out compact; pretty printing is left to IDXResponse#raw() for debugging
         this.objectMapper = new ObjectMapper()
-            .enable(SerializationFeature.INDENT_OUTPUT)
             .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
             .setSerializationInclusion(JsonInclude.Include.NON_NULL);
 
-        HttpClientConfiguration httpClientConfiguration = new HttpClientConfiguration();
-        httpClientConfiguration.setBaseUrl(clientConfiguration.getBaseUrl());
-        httpClientConfiguration.setRequestAuthenticator(new DisabledAuthenticator());
+        // successful responses are bound straight from the response stream, without an intermediate JsonNode tree
+        this.idxResponseReader = objectMapper.readerFor(IDXResponse.class);
+        this.tokenResponseReader = objectMapper.readerFor(TokenResponse.class);
+        this.interactResponseReader = objectMapper.readerFor(InteractResponse.class);
+        this.errorResponseReader = objectMapper.readerFor(ErrorResponse.class);
 
-        if (requestExecutor != null) {
-            this.requestExecutor = requestExecutor;
-        } else {
+        long start = System.nanoTime();
+        if (requestExecutor == null) {
             String msg = "Unable to find a '" + RequestExecutorFactory.class.getName() + "' " + "implementation on the classpath.";
-            this.requestExecutor = Classes.loadFromService(RequestExecutorFactory.class, msg).create(httpClientConfiguration);
+            requestExecutor = Classes.loadFromService(RequestExecutorFactory.class, msg).create(transportConfiguration(clientConfiguration));
+            this.transportLoadNanos = System.nanoTime() - start;
+        } else {
+            this.transportLoadNanos = 0;
         }
+        this.transport = new TransportMonitor(requestExecutor, clientConfiguration.getMaxConnectionsPerRoute());
+        this.pipeline = new RequestPipeline(this.transport, interceptors);
+    }
+
+    /**
+     * The settings handed to the transport: base URL, disabled authenticator, timeout, pool and proxy. Retries are
+     * left out, they are done by {@link RetryInterceptor}, which knows which endpoints are safe to retry.
+     */
+    private static ClientConfiguration transportConfiguration(ClientConfiguration clientConfiguration) {
+        ClientConfiguration transportConfiguration = new ClientConfiguration();
+        transportConfiguration.setIssuer(clientConfiguration.getIssuer());
+        transportConfiguration.setConnectionTimeout(clientConfiguration.getConnectionTimeout());
+        transportConfiguration.setProxy(clientConfiguration.getProxy());
+        transportConfiguration.setRequestExecutorParams(clientConfiguration.getRequestExecutorParams());
+        return transportConfiguration;
     }
 
     @Override
@@ -101,6 +158,7 @@ final class BaseIDXClient implements IDXClient {
         InteractResponse interactResponse;
         String codeVerifier, codeChallenge, state;
 
+        RequestBodyBuffer body = bufferPool.acquire();
         try {
             codeVerifier = PkceUtil.generateCodeVerifier();
             codeChallenge = PkceUtil.generateCodeChallenge(codeVerifier);
@@ -115,29 +173,19 @@ final class BaseIDXClient implements IDXClient {
             urlParameters.append("&redirect_uri=").append(clientConfiguration.getRedirectUri());
             urlParameters.append("&state=").append(state);
 
-            Request request = new DefaultRequest(
-                HttpMethod.POST,
-                getNormalizedUri(clientConfiguration.getIssuer(), "/v1/interact"),
-                null,
-                getHttpHeaders(true),
-                new ByteArrayInputStream(urlParameters.toString().getBytes(StandardCharsets.UTF_8)),
-                -1L);
-
-            Response response = requestExecutor.executeRequest(request);
-
-            if (response.getHttpStatus() != 200) {
-                handleErrorResponse(request, response);
-            }
-
-            JsonNode responseJsonNode = objectMapper.readTree(response.getBody());
+            body.writeUtf8(urlParameters);
+            IDXRequestContext context = new IDXRequestContext(IDXEndpoint.INTERACT, HttpMethod.POST,
+                getNormalizedUri(clientConfiguration.getIssuer(), "/v1/interact"), getHttpHeaders(true), body);
 
-            interactResponse = objectMapper.convertValue(responseJsonNode, InteractResponse.class);
+            interactResponse = pipeline.execute(context, response -> readResponse(context, response, interactResponseReader));
 
             Assert.notNull(interactResponse, "interact response cannot be null");
             Assert.notNull(interactResponse.getInteractionHandle(), "interactionHandle cannot be null");
 
-        } catch (IOException | IllegalArgumentException | HttpException | NoSuchAlgorithmException e) {
+        } catch (MalformedURLException | IllegalArgumentException | NoSuchAlgorithmException e) {
             throw new ProcessingException(e);
+        } finally {
+            bufferPool.release(body);
         }
 
         return new IDXClientContext(codeVerifier, codeChallenge, interactResponse.getInteractionHandle(), state);
@@ -145,418 +193,345 @@ final class BaseIDXClient implements IDXClient {
 
     @Override
     public IDXResponse introspect(IDXClientContext idxClientContext) throws ProcessingException {
-
-        IDXResponse idxResponse;
-
         IntrospectRequest introspectRequest = new IntrospectRequest(idxClientContext.getInteractionHandle());
-
-        try {
-            Request request = new DefaultRequest(
-                HttpMethod.POST,
-                clientConfiguration.getBaseUrl() + "/idp/idx/introspect",
-                null,
-                getHttpHeaders(false),
-                new ByteArrayInputStream(objectMapper.writeValueAsBytes(introspectRequest)),
-                -1L);
-
-            Response response = requestExecutor.executeRequest(request);
-
-            if (response.getHttpStatus() != 200) {
-                handleErrorResponse(request, response);
-            }
-
-            JsonNode responseJsonNode = objectMapper.readTree(response.getBody());
-
-            idxResponse = objectMapper.convertValue(responseJsonNode, IDXResponse.class);
-
-        } catch (IOException | HttpException e) {
-            throw new ProcessingException(e);
-        }
-
-        return idxResponse;
+        return remediate(IDXEndpoint.INTROSPECT, clientConfiguration.getBaseUrl() + "/idp/idx/introspect", introspectRequest);
     }
 
     @Override
     public IDXResponse identify(IdentifyRequest identifyRequest, String href) throws ProcessingException {
-
-        IDXResponse idxResponse;
-
-        try {
-            Request request = new DefaultRequest(
-                HttpMethod.POST,
-                href,
-                null,
-                getHttpHeaders(false),
-                new ByteArrayInputStream(objectMapper.writeValueAsBytes(identifyRequest)),
-                -1L);
-
-            Response response = requestExecutor.executeRequest(request);
-
-            if (response.getHttpStatus() != 200) {
-                handleErrorResponse(request, response);
-            }
-
-            JsonNode responseJsonNode = objectMapper.readTree(response.getBody());
-
-            idxResponse = objectMapper.convertValue(responseJsonNode, IDXResponse.class);
-
-        } catch (IOException | HttpException e) {
-            throw new ProcessingException(e);
-        }
-
-        return idxResponse;
+        return remediate(IDXEndpoint.IDENTIFY, href, identifyRequest);
     }
 
     @Override
     public IDXResponse enroll(EnrollRequest enrollRequest, String href) throws ProcessingException {
-
-        IDXResponse idxResponse;
-
-        try {
-            Request request = new DefaultRequest(
-                HttpMethod.POST,
-                href,
-                null,
-                getHttpHeaders(false),
-                new ByteArrayInputStream(objectMapper.writeValueAsBytes(enrollRequest)),
-                -1L);
-
-            Response response = requestExecutor.executeRequest(request);
-
-            if (response.getHttpStatus() != 200) {
-                handleErrorResponse(request, response);
-            }
-
-            JsonNode responseJsonNode = objectMapper.readTree(response.getBody());
-
-            idxResponse = objectMapper.convertValue(responseJsonNode, IDXResponse.class);
-
-        } catch (IOException | HttpException e) {
-            throw new ProcessingException(e);
-        }
-
-        return idxResponse;
+        return remediate(IDXEndpoint.ENROLL, href, enrollRequest);
     }
 
     @Override
     public IDXResponse challenge(ChallengeRequest challengeRequest, String href) throws ProcessingException {
-
-        IDXResponse idxResponse;
-
-        try {
-            Request request = new DefaultRequest(
-                HttpMethod.POST,
-                href,
-                null,
-                getHttpHeaders(false),
-                new ByteArrayInputStream(objectMapper.writeValueAsBytes(challengeRequest)),
-                -1L);
-
-            Response response = requestExecutor.executeRequest(request);
-
-            if (response.getHttpStatus() != 200) {
-                handleErrorResponse(request, response);
-            }
-
-            JsonNode responseJsonNode = objectMapper.readTree(response.getBody());
-
-            idxResponse = objectMapper.convertValue(responseJsonNode, IDXResponse.class);
-
-        } catch (IOException | HttpException e) {
-            throw new ProcessingException(e);
-        }
-
-        return idxResponse;
+        return remediate(IDXEndpoint.CHALLENGE, href, challengeRequest);
     }
 
     @Override
     public IDXResponse answerChallenge(AnswerChallengeRequest answerChallengeRequest, String href) throws ProcessingException {
-
-        IDXResponse idxResponse;
-
-        try {
-            Request request = new DefaultRequest(
-                HttpMethod.POST,
-                href,
-                null,
-                getHttpHeaders(false),
-                new ByteArrayInputStream(objectMapper.writeValueAsBytes(answerChallengeRequest)),
-                -1L);
-
-            Response response = requestExecutor.executeRequest(request);
-
-            if (response.getHttpStatus() != 200) {
-                handleErrorResponse(request, response);
-            }
-
-            JsonNode responseJsonNode = objectMapper.readTree(response.getBody());
-
-            idxResponse = objectMapper.convertValue(responseJsonNode, IDXResponse.class);
-
-        } catch (IOException | HttpException e) {
-            throw new ProcessingException(e);
-        }
-
-        return idxResponse;
+        return remediate(IDXEndpoint.ANSWER_CHALLENGE, href, answerChallengeRequest);
     }
 
     @Override
     public IDXResponse cancel(String stateHandle) throws ProcessingException {
-
-        IDXResponse idxResponse;
-
         CancelRequest cancelRequest = CancelRequestBuilder.builder().withStateHandle(stateHandle).build();
-
-        try {
-            Request request = new DefaultRequest(
-                HttpMethod.POST,
-                clientConfiguration.getBaseUrl() + "/idp/idx/cancel",
-                null,
-                getHttpHeaders(false),
-                new ByteArrayInputStream(objectMapper.writeValueAsBytes(cancelRequest)),
-                -1L);
-
-            Response response = requestExecutor.executeRequest(request);
-
-            if (response.getHttpStatus() != 200) {
-                handleErrorResponse(request, response);
-            }
-
-            JsonNode responseJsonNode = objectMapper.readTree(response.getBody());
-
-            idxResponse = objectMapper.convertValue(responseJsonNode, IDXResponse.class);
-
-        } catch (IOException | HttpException e) {
-            throw new ProcessingException(e);
-        }
-
-        return idxResponse;
+        return remediate(IDXEndpoint.CANCEL, clientConfiguration.getBaseUrl() + "/idp/idx/cancel", cancelRequest);
     }
 
     @Override
     public IDXResponse enrollUpdateUserProfile(EnrollUserProfileUpdateRequest enrollUserProfileUpdateRequest,
                                                String href) throws ProcessingException {
+        return remediate(IDXEndpoint.ENROLL_UPDATE_USER_PROFILE, href, enrollUserProfileUpdateRequest);
+    }
 
-        IDXResponse idxResponse;
+    @Override
+    public IDXResponse skip(SkipAuthenticatorEnrollmentRequest skipAuthenticatorEnrollmentRequest, String href) throws ProcessingException {
+        return remediate(IDXEndpoint.SKIP, href, skipAuthenticatorEnrollmentRequest);
+    }
 
-        try {
-            Request request = new DefaultRequest(
-                    HttpMethod.POST,
-                    href,
-                    null,
-                    getHttpHeaders(false),
-                    new ByteArrayInputStream(objectMapper.writeValueAsBytes(enrollUserProfileUpdateRequest)),
-                    -1L);
-
-            Response response = requestExecutor.executeRequest(request);
-
-            if (response.getHttpStatus() != 200) {
-                handleErrorResponse(request, response);
-            }
+    @Override
+    public IDXResponse recover(RecoverRequest recoverRequest, String href) throws ProcessingException {
+        return remediate(IDXEndpoint.RECOVER,
+            Strings.hasText(href) ? href : clientConfiguration.getBaseUrl() + "/idp/idx/recover", recoverRequest);
+    }
 
-            JsonNode responseJsonNode = objectMapper.readTree(response.getBody());
+    @Override
+    public IDXResponse poll(PollRequest pollRequest, String href) throws ProcessingException {
+        return remediate(IDXEndpoint.POLL,
+            Strings.hasText(href) ? href : clientConfiguration.getBaseUrl() + "/idp/idx/challenge/poll", pollRequest);
+    }
 
-            idxResponse = objectMapper.convertValue(responseJsonNode, IDXResponse.class);
+    @Override
+    public TokenResponse token(String url, String grantType, String interactionCode, IDXClientContext idxClientContext) throws ProcessingException {
 
-        } catch (IOException | HttpException e) {
-            throw new ProcessingException(e);
+        StringBuilder urlParameters = new StringBuilder();
+        urlParameters.append("grant_type=").append(grantType);
+        urlParameters.append("&client_id=").append(clientConfiguration.getClientId());
+        if (Strings.hasText(clientConfiguration.getClientSecret())) {
+            urlParameters.append("&client_secret=").append(clientConfiguration.getClientSecret());
         }
+        urlParameters.append("&interaction_code=").append(interactionCode);
+        urlParameters.append("&code_verifier=").append(idxClientContext.getCodeVerifier());
 
-        return idxResponse;
+        RequestBodyBuffer body = bufferPool.acquire();
+        try {
+            body.writeUtf8(urlParameters);
+            IDXRequestContext context = new IDXRequestContext(IDXEndpoint.TOKEN, HttpMethod.POST, url, getHttpHeaders(true), body);
+            return pipeline.execute(context, response -> readResponse(context, response, tokenResponseReader));
+        } finally {
+            bufferPool.release(body);
+        }
     }
 
     @Override
-    public IDXResponse skip(SkipAuthenticatorEnrollmentRequest skipAuthenticatorEnrollmentRequest, String href) throws ProcessingException {
+    public void revokeToken(String tokenType, String token) throws ProcessingException {
 
-        IDXResponse idxResponse;
+        StringBuilder urlParameters = new StringBuilder();
+        urlParameters.append("client_id=").append(clientConfiguration.getClientId());
+        if (Strings.hasText(clientConfiguration.getClientSecret())) {
+            urlParameters.append("&client_secret=").append(clientConfiguration.getClientSecret());
+        }
+        urlParameters.append("&token_type_hint=").append(tokenType);
+        urlParameters.append("&token=").append(token);
 
+        RequestBodyBuffer body = bufferPool.acquire();
         try {
-            Request request = new DefaultRequest(
-                    HttpMethod.POST,
-                    href,
-                    null,
-                    getHttpHeaders(false),
-                    new ByteArrayInputStream(objectMapper.writeValueAsBytes(skipAuthenticatorEnrollmentRequest)),
-                    -1L);
-
-            Response response = requestExecutor.executeRequest(request);
-
-            if (response.getHttpStatus() != 200) {
-                handleErrorResponse(request, response);
-            }
-
-            JsonNode responseJsonNode = objectMapper.readTree(response.getBody());
-
-            idxResponse = objectMapper.convertValue(responseJsonNode, IDXResponse.class);
-
-        } catch (IOException | HttpException e) {
+            body.writeUtf8(urlParameters);
+            IDXRequestContext context = new IDXRequestContext(IDXEndpoint.REVOKE, HttpMethod.POST,
+                getNormalizedUri(clientConfiguration.getIssuer(), "/v1/revoke"), getHttpHeaders(true), body);
+            pipeline.execute(context, response -> null);
+        } catch (MalformedURLException e) {
             throw new ProcessingException(e);
+        } finally {
+            bufferPool.release(body);
         }
-
-        return idxResponse;
     }
 
     @Override
-    public IDXResponse recover(RecoverRequest recoverRequest, String href) throws ProcessingException {
+    public Response verifyEmailToken(String token) throws ProcessingException {
 
-        IDXResponse idxResponse;
+        StringBuilder urlParameter = new StringBuilder();
+        urlParameter.append("token=").append(token);
 
+        RequestBodyBuffer body = bufferPool.acquire();
         try {
-            Request request = new DefaultRequest(
-                    HttpMethod.POST,
-                    Strings.hasText(href) ? href : clientConfiguration.getBaseUrl() + "/idp/idx/recover",
-                    null,
-                    getHttpHeaders(false),
-                    new ByteArrayInputStream(objectMapper.writeValueAsBytes(recoverRequest)),
-                    -1L);
-
-            Response response = requestExecutor.executeRequest(request);
-
-            if (response.getHttpStatus() != 200) {
-                handleErrorResponse(request, response);
-            }
-
-            JsonNode responseJsonNode = objectMapper.readTree(response.getBody());
-
-            idxResponse = objectMapper.convertValue(responseJsonNode, IDXResponse.class);
-
-        } catch (IOException | HttpException e) {
-            throw new ProcessingException(e);
+            body.writeUtf8(urlParameter);
+            IDXRequestContext context = new IDXRequestContext(IDXEndpoint.VERIFY_EMAIL_TOKEN, HttpMethod.GET,
+                clientConfiguration.getBaseUrl() + "/email/verify", getHttpHeaders(false, false), body);
+            return pipeline.execute(context, response -> response);
+        } finally {
+            bufferPool.release(body);
         }
-
-        return idxResponse;
     }
 
+    /**
+     * Resolves the issuer host, opens the connections with requests for the issuer's OpenID Connect metadata, and
+     * builds the JSON serializers of every request and response.
+     * <p>
+     * The metadata requests go straight to the transport, so the interceptors do not count them.
+     */
     @Override
-    public IDXResponse poll(PollRequest pollRequest, String href) throws ProcessingException {
+    public WarmUpReport warmUp(int connections) throws ProcessingException {
 
-        IDXResponse idxResponse;
+        Assert.isTrue(connections >= 0, "connections cannot be a negative number.");
 
+        long start = System.nanoTime();
+        String metadataUrl;
         try {
-            Request request = new DefaultRequest(
-                    HttpMethod.POST,
-                    Strings.hasText(href) ? href : clientConfiguration.getBaseUrl() + "/idp/idx/challenge/poll",
-                    null,
-                    getHttpHeaders(false),
-                    new ByteArrayInputStream(objectMapper.writeValueAsBytes(pollRequest)),
-                    -1L);
-
-            Response response = requestExecutor.executeRequest(request);
-
-            if (response.getHttpStatus() != 200) {
-                handleErrorResponse(request, response);
-            }
-
-            JsonNode responseJsonNode = objectMapper.readTree(response.getBody());
-
-            idxResponse = objectMapper.convertValue(responseJsonNode, IDXResponse.class);
-
-        } catch (IOException | HttpException e) {
+            URL issuer = new URL(clientConfiguration.getIssuer());
+            InetAddress.getAllByName(issuer.getHost());
+            metadataUrl = clientConfiguration.getIssuer().replaceAll("/+$", "") + "/.well-known/openid-configuration";
+        } catch (MalformedURLException | UnknownHostException e) {
             throw new ProcessingException(e);
         }
+        long dnsResolutionNanos = System.nanoTime() - start;
 
-        return idxResponse;
+        start = System.nanoTime();
+        Integer maxConnectionsPerRoute = clientConfiguration.getMaxConnectionsPerRoute();
+        int openedConnections = openConnections(metadataUrl,
+            maxConnectionsPerRoute != null ? Math.min(connections, maxConnectionsPerRoute) : connections);
+        long connectionsNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        buildSerializers();
+        long serializersNanos = System.nanoTime() - start;
+
+        return new WarmUpReport(transportLoadNanos, dnsResolutionNanos, connectionsNanos, openedConnections,
+            serializersNanos);
     }
 
     @Override
-    public TokenResponse token(String url, String grantType, String interactionCode, IDXClientContext idxClientContext) throws ProcessingException {
+    public TransportStatistics getTransportStatistics() {
+        return transport.snapshot();
+    }
 
-        TokenResponse tokenResponse;
+    /**
+     * Sends {@code connections} concurrent requests to {@code url}, so that the transport opens as many connections
+     * and keeps them in its pool.
+     *
+     * @return the number of requests that succeeded
+     */
+    private int openConnections(String url, int connections) throws ProcessingException {
 
-        StringBuilder urlParameters = new StringBuilder();
-        urlParameters.append("grant_type=").append(grantType);
-        urlParameters.append("&client_id=").append(clientConfiguration.getClientId());
-        if (Strings.hasText(clientConfiguration.getClientSecret())) {
-            urlParameters.append("&client_secret=").append(clientConfiguration.getClientSecret());
+        if (connections == 0) {
+            return 0;
         }
-        urlParameters.append("&interaction_code=").append(interactionCode);
-        urlParameters.append("&code_verifier=").append(idxClientContext.getCodeVerifier());
 
+        ExecutorService executor;
+        if (clientConfiguration.isVirtualThreadsEnabled()) {
+            executor = VirtualThreads.newThreadPerTaskExecutor("okta-idx-warm-up-virtual-");
+        } else {
+            AtomicInteger threadCount = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(connections, runnable -> {
+                Thread thread = new Thread(runnable, "okta-idx-warm-up-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
         try {
-            Request request = new DefaultRequest(
-                HttpMethod.POST,
-                url,
-                null,
-                getHttpHeaders(true),
-                new ByteArrayInputStream(urlParameters.toString().getBytes(StandardCharsets.UTF_8)),
-                -1L);
-
-            Response response = requestExecutor.executeRequest(request);
-
-            if (response.getHttpStatus() != 200) {
-                handleErrorResponse(request, response);
+            // released together, so that no request finds the connection of another one idle in the pool
+            CountDownLatch go = new CountDownLatch(1);
+            List<Future<Void>> futures = new ArrayList<>(connections);
+            for (int i = 0; i < connections; i++) {
+                futures.add(executor.submit(() -> {
+                    go.await();
+                    Request request = new DefaultRequest(HttpMethod.GET, url);
+                    request.getHeaders().add("Accept", "application/json");
+                    request.getHeaders().add(HttpHeaders.USER_AGENT, USER_AGENT_HEADER_VALUE);
+                    return transport.execute(request, response -> {
+                        drain(response);
+                        return null;
+                    });
+                }));
             }
+            go.countDown();
+
+            int opened = 0;
+            Throwable failure = null;
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                    opened++;
+                } catch (ExecutionException e) {
+                    failure = e.getCause();
+                }
+            }
+            if (opened == 0) {
+                throw failure instanceof ProcessingException
+                    ? (ProcessingException) failure : new ProcessingException(failure);
+            }
+            return opened;
 
-            JsonNode responseJsonNode = objectMapper.readTree(response.getBody());
-
-            tokenResponse = objectMapper.convertValue(responseJsonNode, TokenResponse.class);
-
-        } catch (IOException | HttpException e) {
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             throw new ProcessingException(e);
+        } finally {
+            executor.shutdownNow();
         }
+    }
 
-        return tokenResponse;
+    /**
+     * Reads a response to its end and closes it, which hands its connection back to the pool.
+     */
+    private static void drain(Response response) throws IOException {
+        InputStream body = response.getBody();
+        if (body != null) {
+            try {
+                byte[] buffer = new byte[4096];
+                while (body.read(buffer) != -1) {
+                    // discarded
+                }
+            } finally {
+                body.close();
+            }
+        }
     }
 
-    @Override
-    public void revokeToken(String tokenType, String token) throws ProcessingException {
+    /**
+     * Builds the writers of every request body and runs a document through every response reader, which loads the
+     * model classes and the parser.
+     */
+    private void buildSerializers() throws ProcessingException {
 
-        StringBuilder urlParameters = new StringBuilder();
-        urlParameters.append("client_id=").append(clientConfiguration.getClientId());
-        if (Strings.hasText(clientConfiguration.getClientSecret())) {
-            urlParameters.append("&client_secret=").append(clientConfiguration.getClientSecret());
+        for (Class<?> requestType : REQUEST_TYPES) {
+            requestWriters.computeIfAbsent(requestType, objectMapper::writerFor);
         }
-        urlParameters.append("&token_type_hint=").append(tokenType);
-        urlParameters.append("&token=").append(token);
 
+        byte[] emptyDocument = "{}".getBytes(StandardCharsets.UTF_8);
         try {
-            Request request = new DefaultRequest(
-                    HttpMethod.POST,
-                    getNormalizedUri(clientConfiguration.getIssuer(), "/v1/revoke"),
-                    null,
-                    getHttpHeaders(true),
-                    new ByteArrayInputStream(urlParameters.toString().getBytes(StandardCharsets.UTF_8)),
-                    -1L);
-
-            requestExecutor.executeRequest(request);
-        } catch (HttpException | MalformedURLException e) {
+            for (ObjectReader reader : Arrays.asList(idxResponseReader, tokenResponseReader, interactResponseReader,
+                errorResponseReader)) {
+                reader.readValue(emptyDocument);
+            }
+            objectMapper.readTree(emptyDocument);
+        } catch (IOException e) {
             throw new ProcessingException(e);
         }
     }
 
-    @Override
-    public Response verifyEmailToken(String token) throws ProcessingException {
-
-        StringBuilder urlParameter = new StringBuilder();
-        urlParameter.append("token=").append(token);
+    /**
+     * Posts an IDX request body to {@code href} and reads the {@link IDXResponse} returned.
+     * <p>
+     * Concurrent introspect and poll calls with the same URL and body, e.g. from several browser tabs of one user,
+     * share a single request and its {@link IDXResponse}.
+     */
+    private IDXResponse remediate(IDXEndpoint endpoint, String href, Object requestBody) throws ProcessingException {
 
+        RequestBodyBuffer body = bufferPool.acquire();
         try {
-            Request request = new DefaultRequest(
-                    HttpMethod.GET,
-                    clientConfiguration.getBaseUrl() + "/email/verify",
-                    null,
-                    getHttpHeaders(false),
-                    new ByteArrayInputStream(urlParameter.toString().getBytes(StandardCharsets.UTF_8)),
-                    -1L);
-
-            return requestExecutor.executeRequest(request);
-        } catch (HttpException e) {
+            serialize(requestBody, body);
+            IDXRequestContext context = new IDXRequestContext(endpoint, HttpMethod.POST, href, getHttpHeaders(false), body);
+            if (endpoint == IDXEndpoint.INTROSPECT || endpoint == IDXEndpoint.POLL) {
+                String key = href + '\n' + body.toString(StandardCharsets.UTF_8.name());
+                return coalescedCalls.execute(key,
+                    () -> pipeline.execute(context, response -> readResponse(context, response, idxResponseReader)));
+            }
+            return pipeline.execute(context, response -> readResponse(context, response, idxResponseReader));
+        } catch (IOException e) {
             throw new ProcessingException(e);
+        } finally {
+            bufferPool.release(body);
+        }
+    }
+
+    private <T> T readResponse(IDXRequestContext context, Response response, ObjectReader reader)
+        throws IOException, ProcessingException {
+
+        if (response.getHttpStatus() != 200) {
+            handleErrorResponse(context, response);
         }
+        return reader.readValue(responseBody(response));
     }
 
-    private void handleErrorResponse(Request request, Response response) throws IOException, ProcessingException {
+    /**
+     * The body of a response, decompressed on the fly when it is gzip or deflate encoded. Transports that already
+     * decompress responses drop the {@code Content-Encoding} header, so their bodies are returned as is.
+     */
+    private static InputStream responseBody(Response response) throws IOException {
+
+        InputStream body = response.getBody();
+        String contentEncoding = response.getHeaders() != null
+            ? response.getHeaders().getFirst(CONTENT_ENCODING_HEADER) : null;
+        if (body == null || !Strings.hasText(contentEncoding)) {
+            return body;
+        }
+
+        switch (contentEncoding.trim().toLowerCase()) {
+            case "gzip":
+            case "x-gzip":
+                return new GZIPInputStream(body);
+            case "deflate":
+                return new InflaterInputStream(body);
+            default:
+                return body;
+        }
+    }
+
+    /**
+     * Serializes an IDX request body into {@code body} with an {@link ObjectWriter} cached for its type.
+     */
+    private void serialize(Object requestBody, RequestBodyBuffer body) throws IOException {
+        requestWriters.computeIfAbsent(requestBody.getClass(), objectMapper::writerFor)
+            .writeValue(body, requestBody);
+    }
+
+    private void handleErrorResponse(IDXRequestContext context, Response response) throws IOException, ProcessingException {
 
         int httpStatus = response.getHttpStatus();
-        String errorMsg = "Request to " + request.getResourceUrl() + " failed.";
+        String errorMsg = "Request to " + context.getUrl() + " failed.";
 
         JsonNode errorResponseJson;
 
         if (response.getHeaders().getContentType() != null &&
                 response.getHeaders().getContentType().toString().contains("application/json") ||
                 response.getHeaders().getContentType().toString().contains("application/ion+json")) {
-            errorResponseJson = objectMapper.readTree(response.getBody());
-            ErrorResponse errorResponseDetails = objectMapper.convertValue(errorResponseJson, ErrorResponse.class);
+            errorResponseJson = objectMapper.readTree(responseBody(response));
+            ErrorResponse errorResponseDetails = errorResponseReader.readValue(errorResponseJson);
             if (errorResponseDetails.getError() == null && errorResponseDetails.getMessages() == null) {
                 getErrorsFromRemediationOptions(errorResponseDetails, errorResponseJson);
             }
@@ -588,6 +563,13 @@ final class BaseIDXClient implements IDXClient {
     }
 
     private HttpHeaders getHttpHeaders(boolean isOAuth2Endpoint) {
+        return getHttpHeaders(isOAuth2Endpoint, clientConfiguration.isCompressionEnabled());
+    }
+
+    /**
+     * @param acceptCompressed whether to ask for a compressed response; only for responses the client parses itself
+     */
+    private HttpHeaders getHttpHeaders(boolean isOAuth2Endpoint, boolean acceptCompressed) {
 
         HttpHeaders httpHeaders = new HttpHeaders();
 
@@ -599,6 +581,10 @@ final class BaseIDXClient implements IDXClient {
             httpHeaders.add("Accept", "application/ion+json; okta-version=1.0.0");
         }
 
+        if (acceptCompressed) {
+            httpHeaders.add(ACCEPT_ENCODING_HEADER, ACCEPT_ENCODING_HEADER_VALUE);
+        }
+
         httpHeaders.add(HttpHeaders.USER_AGENT, USER_AGENT_HEADER_VALUE);
         return httpHeaders;
     }
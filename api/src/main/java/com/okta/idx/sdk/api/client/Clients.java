@@ -15,14 +15,17 @@
  */
 package com.okta.idx.sdk.api.client;
 
-final class Clients {
+public final class Clients {
+
+    private Clients() {
+    }
 
     /**
-     * Builds a {@link IDXClientBuilder} instance used to construct {@link IDXClient} instance.
+     * Builds a {@link IDXClientBuilder} instance used to construct {@link IDXClient} and {@link AsyncIDXClient} instances.
      *
      * @return a new {@link IDXClientBuilder} instance
      */
-    static IDXClientBuilder builder() {
+    public static IDXClientBuilder builder() {
         return new DefaultIDXClientBuilder();
     }
 }
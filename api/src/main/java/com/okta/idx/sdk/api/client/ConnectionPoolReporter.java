@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client;
+
+/**
+ * Implemented by {@link com.okta.commons.http.RequestExecutor}s that can report on their connection pool. The
+ * {@link TransportStatistics} of a client whose transport does not implement it report the pool as unavailable.
+ */
+public interface ConnectionPoolReporter {
+
+    /**
+     * Called from any thread, e.g. by a metrics scraper, so it must be cheap and must not block on the transport.
+     *
+     * @return the current state of the transport's connection pool
+     */
+    ConnectionPoolStatistics getConnectionPoolStatistics();
+}
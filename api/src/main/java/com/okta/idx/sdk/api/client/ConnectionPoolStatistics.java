@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client;
+
+/**
+ * A snapshot of a transport's connection pool, reported by a {@link ConnectionPoolReporter}. Counters accumulate
+ * from the creation of the transport.
+ */
+public final class ConnectionPoolStatistics {
+
+    private final int activeConnections;
+    private final int idleConnections;
+    private final long openedConnections;
+    private final long reusedConnections;
+    private final long connectionWaits;
+
+    /**
+     * @param activeConnections the open connections carrying an exchange
+     * @param idleConnections the open connections waiting in the pool for an exchange
+     * @param openedConnections the connections opened so far
+     * @param reusedConnections the exchanges sent over a connection that was already open
+     * @param connectionWaits the exchanges that waited for a connection, as every one allowed was busy
+     */
+    public ConnectionPoolStatistics(int activeConnections, int idleConnections, long openedConnections,
+                                    long reusedConnections, long connectionWaits) {
+        this.activeConnections = activeConnections;
+        this.idleConnections = idleConnections;
+        this.openedConnections = openedConnections;
+        this.reusedConnections = reusedConnections;
+        this.connectionWaits = connectionWaits;
+    }
+
+    public int getActiveConnections() {
+        return activeConnections;
+    }
+
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    public long getOpenedConnections() {
+        return openedConnections;
+    }
+
+    public long getReusedConnections() {
+        return reusedConnections;
+    }
+
+    public long getConnectionWaits() {
+        return connectionWaits;
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPoolStatistics {activeConnections=" + activeConnections +
+                ", idleConnections=" + idleConnections +
+                ", openedConnections=" + openedConnections +
+                ", reusedConnections=" + reusedConnections +
+                ", connectionWaits=" + connectionWaits +
+                "}";
+    }
+}
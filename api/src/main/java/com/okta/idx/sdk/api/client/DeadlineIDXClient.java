@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client;
+
+import com.okta.commons.http.Response;
+import com.okta.commons.lang.Assert;
+import com.okta.idx.sdk.api.exception.DeadlineExceededException;
+import com.okta.idx.sdk.api.exception.ProcessingException;
+import com.okta.idx.sdk.api.exception.ServiceUnavailableException;
+import com.okta.idx.sdk.api.model.IDXClientContext;
+import com.okta.idx.sdk.api.request.AnswerChallengeRequest;
+import com.okta.idx.sdk.api.request.ChallengeRequest;
+import com.okta.idx.sdk.api.request.EnrollRequest;
+import com.okta.idx.sdk.api.request.EnrollUserProfileUpdateRequest;
+import com.okta.idx.sdk.api.request.IdentifyRequest;
+import com.okta.idx.sdk.api.request.PollRequest;
+import com.okta.idx.sdk.api.request.RecoverRequest;
+import com.okta.idx.sdk.api.request.SkipAuthenticatorEnrollmentRequest;
+import com.okta.idx.sdk.api.response.IDXResponse;
+import com.okta.idx.sdk.api.response.TokenResponse;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link IDXClient} whose calls share one deadline: each call may take at most the time left until the deadline,
+ * and calls made after it fail right away with a {@link DeadlineExceededException}, without being sent.
+ * <p>
+ * The requests of the calls are {@link DeadlineRequest}s, which transports that support a per-request timeout, such
+ * as the NIO and HTTP/2 ones, bound by the time left. A request that times out after the deadline fails with a
+ * {@link DeadlineExceededException}.
+ * <p>
+ * Other transports only have their own read timeout, so each idempotent call ({@link IDXEndpoint#isIdempotent()})
+ * also runs on a pooled daemon thread, and the caller stops waiting for it when its time is up. The abandoned call
+ * is interrupted, which also ends any retry backoff of the {@link RetryInterceptor}. Calls made from a virtual thread
+ * run on a virtual thread of their own. Interrupting a thread does not stop a blocking socket read, so an abandoned
+ * request may still reach the server.
+ * <p>
+ * Other calls, e.g. answering a challenge or exchanging the interaction code, change the state of the flow: they are
+ * not abandoned by the caller, as the server could apply a step the caller treats as failed. They run on the
+ * caller's thread, and with those other transports the deadline is only checked before they are sent.
+ */
+final class DeadlineIDXClient implements IDXClient {
+
+    /** The System.nanoTime() deadline of the call running on the thread, read by {@link IDXRequestContext}. */
+    private static final ThreadLocal<Long> CALL_DEADLINE = new ThreadLocal<>();
+
+    private static final int POOL_SIZE = 64;
+    private static final int QUEUE_SIZE = 1024;
+
+    private static final ExecutorService EXECUTOR = createExecutor();
+
+    /** Runs the calls of callers on virtual threads, which would otherwise wait for a platform thread each. */
+    private static final ExecutorService VIRTUAL_EXECUTOR = VirtualThreads.isSupported()
+        ? VirtualThreads.newThreadPerTaskExecutor("okta-idx-deadline-virtual-") : null;
+
+    private final IDXClient client;
+    private final long deadlineNanos;
+
+    DeadlineIDXClient(IDXClient client, long deadlineNanos) {
+        Assert.notNull(client, "client cannot be null");
+        this.client = client;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    private static ExecutorService createExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        // calls waiting in the queue past their deadline are cancelled before they run
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_SIZE), runnable -> {
+                Thread thread = new Thread(runnable, "okta-idx-deadline-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Override
+    public IDXClientContext interact() throws ProcessingException {
+        return call(IDXEndpoint.INTERACT, client::interact);
+    }
+
+    @Override
+    public IDXResponse introspect(IDXClientContext idxClientContext) throws ProcessingException {
+        return call(IDXEndpoint.INTROSPECT, () -> client.introspect(idxClientContext));
+    }
+
+    @Override
+    public IDXResponse identify(IdentifyRequest identifyRequest, String href) throws ProcessingException {
+        return call(IDXEndpoint.IDENTIFY, () -> client.identify(identifyRequest, href));
+    }
+
+    @Override
+    public IDXResponse enroll(EnrollRequest enrollRequest, String href) throws ProcessingException {
+        return call(IDXEndpoint.ENROLL, () -> client.enroll(enrollRequest, href));
+    }
+
+    @Override
+    public IDXResponse challenge(ChallengeRequest challengeRequest, String href) throws ProcessingException {
+        return call(IDXEndpoint.CHALLENGE, () -> client.challenge(challengeRequest, href));
+    }
+
+    @Override
+    public IDXResponse answerChallenge(AnswerChallengeRequest answerChallengeRequest, String href) throws ProcessingException {
+        return call(IDXEndpoint.ANSWER_CHALLENGE, () -> client.answerChallenge(answerChallengeRequest, href));
+    }
+
+    @Override
+    public IDXResponse cancel(String stateHandle) throws ProcessingException {
+        return call(IDXEndpoint.CANCEL, () -> client.cancel(stateHandle));
+    }
+
+    @Override
+    public IDXResponse enrollUpdateUserProfile(EnrollUserProfileUpdateRequest enrollUserProfileUpdateRequest,
+                                               String href) throws ProcessingException {
+        return call(IDXEndpoint.ENROLL_UPDATE_USER_PROFILE,
+            () -> client.enrollUpdateUserProfile(enrollUserProfileUpdateRequest, href));
+    }
+
+    @Override
+    public IDXResponse skip(SkipAuthenticatorEnrollmentRequest skipAuthenticatorEnrollmentRequest, String href) throws ProcessingException {
+        return call(IDXEndpoint.SKIP, () -> client.skip(skipAuthenticatorEnrollmentRequest, href));
+    }
+
+    @Override
+    public IDXResponse recover(RecoverRequest recoverRequest, String href) throws ProcessingException {
+        return call(IDXEndpoint.RECOVER, () -> client.recover(recoverRequest, href));
+    }
+
+    @Override
+    public IDXResponse poll(PollRequest pollRequest, String href) throws ProcessingException {
+        return call(IDXEndpoint.POLL, () -> client.poll(pollRequest, href));
+    }
+
+    @Override
+    public TokenResponse token(String url, String grantType, String interactionCode, IDXClientContext idxClientContext) throws ProcessingException {
+        return call(IDXEndpoint.TOKEN, () -> client.token(url, grantType, interactionCode, idxClientContext));
+    }
+
+    @Override
+    public void revokeToken(String tokenType, String token) throws ProcessingException {
+        call(IDXEndpoint.REVOKE, () -> {
+            client.revokeToken(tokenType, token);
+            return null;
+        });
+    }
+
+    @Override
+    public Response verifyEmailToken(String token) throws ProcessingException {
+        return call(IDXEndpoint.VERIFY_EMAIL_TOKEN, () -> client.verifyEmailToken(token));
+    }
+
+    @Override
+    public WarmUpReport warmUp(int connections) throws ProcessingException {
+        return callWithTimeout(() -> client.warmUp(connections));
+    }
+
+    @Override
+    public TransportStatistics getTransportStatistics() {
+        return client.getTransportStatistics();
+    }
+
+    private <T> T call(IDXEndpoint endpoint, Call<T> call) throws ProcessingException {
+
+        if (!endpoint.isIdempotent()) {
+            // once sent, a request that changes the state of the flow is not abandoned: interrupting the thread
+            // does not stop a blocking read, so the server could apply the step while the caller treats it as failed
+            remainingNanos();
+            return callWithDeadline(call);
+        }
+        return callWithTimeout(() -> callWithDeadline(call));
+    }
+
+    /**
+     * @return the deadline of the call running on the current thread, or {@code null}
+     */
+    static Long currentDeadline() {
+        return CALL_DEADLINE.get();
+    }
+
+    private <T> T callWithDeadline(Call<T> call) throws ProcessingException {
+
+        Long previous = CALL_DEADLINE.get();
+        // a deadline of a nested wrapper can only shorten the one of the enclosing call
+        CALL_DEADLINE.set(previous != null && previous - deadlineNanos < 0 ? previous : deadlineNanos);
+        try {
+            return call.execute();
+        } catch (ProcessingException e) {
+            // the transport timed the request out at the deadline, see DeadlineRequest
+            if (!(e instanceof DeadlineExceededException) && System.nanoTime() - deadlineNanos >= 0) {
+                DeadlineExceededException exceeded =
+                    new DeadlineExceededException("Deadline exceeded while waiting for the response.");
+                exceeded.initCause(e);
+                throw exceeded;
+            }
+            throw e;
+        } finally {
+            if (previous != null) {
+                CALL_DEADLINE.set(previous);
+            } else {
+                CALL_DEADLINE.remove();
+            }
+        }
+    }
+
+    private long remainingNanos() throws DeadlineExceededException {
+        long remainingNanos = deadlineNanos - System.nanoTime();
+        if (remainingNanos <= 0) {
+            throw new DeadlineExceededException("Deadline exceeded before the request was sent.");
+        }
+        return remainingNanos;
+    }
+
+    private <T> T callWithTimeout(Call<T> call) throws ProcessingException {
+
+        long remainingNanos = remainingNanos();
+        ExecutorService executor = VirtualThreads.isVirtual(Thread.currentThread()) ? VIRTUAL_EXECUTOR : EXECUTOR;
+        FutureTask<T> future = new FutureTask<>(call::execute);
+        try {
+            executor.execute(IDXPriorityScheduler.withCurrentPriority(future));
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException("Too many calls with a deadline in flight.");
+        }
+        try {
+            return future.get(remainingNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new DeadlineExceededException("Deadline exceeded while waiting for the response.");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ProcessingException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ProcessingException) {
+                throw (ProcessingException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                // e.g. IllegalArgumentException from the flow's assertions, which the wrapper reports on its own
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new ProcessingException(cause);
+        }
+    }
+
+    private interface Call<T> {
+        T execute() throws ProcessingException;
+    }
+}
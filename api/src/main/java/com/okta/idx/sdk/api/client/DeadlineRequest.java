@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client;
+
+import com.okta.commons.http.DefaultRequest;
+import com.okta.commons.http.HttpHeaders;
+import com.okta.commons.http.HttpMethod;
+
+import java.io.InputStream;
+
+/**
+ * The transport request of a call made through a wrapper with a deadline, see
+ * {@link IDXAuthenticationWrapper#withDeadline(java.time.Duration)}.
+ * <p>
+ * The {@link com.okta.commons.http.RequestExecutor} SPI has no per-request timeout, so transports that support one
+ * bound the exchange by {@link #getRemainingNanos()} when given such a request, as well as by their own timeout.
+ */
+public final class DeadlineRequest extends DefaultRequest {
+
+    private final long deadlineNanos;
+
+    /**
+     * @param deadlineNanos the {@link System#nanoTime()} by which the call must have completed
+     */
+    public DeadlineRequest(HttpMethod method, String url, HttpHeaders headers, InputStream body, long contentLength,
+                           long deadlineNanos) {
+        super(method, url, null, headers, body, contentLength);
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * @return the time left until the deadline of the call, zero or less once it has passed
+     */
+    public long getRemainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+}
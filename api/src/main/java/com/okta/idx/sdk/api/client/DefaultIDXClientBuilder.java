@@ -16,6 +16,7 @@
 package com.okta.idx.sdk.api.client;
 
 import com.okta.commons.configcheck.ConfigurationValidator;
+import com.okta.commons.http.config.Proxy;
 import com.okta.commons.lang.Assert;
 import com.okta.commons.lang.Collections;
 import com.okta.commons.lang.Strings;
@@ -39,8 +40,14 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * <p>The default {@link IDXClientBuilder} implementation. This looks for configuration files
@@ -64,8 +71,15 @@ final class DefaultIDXClientBuilder extends IDXClientBuilder {
     private static final String OKTA_YAML       = "okta.yaml";
     private static final String OKTA_PROPERTIES = "okta.properties";
 
+    private static final int DEFAULT_ASYNC_POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    private static final int DEFAULT_ASYNC_QUEUE_SIZE = 1024;
+
     private boolean allowNonHttpsForTesting = false;
 
+    private Executor asyncExecutor;
+
+    private final List<IDXInterceptor> interceptors = new ArrayList<>();
+
     private final ClientConfiguration clientConfig = new ClientConfiguration();
 
     public DefaultIDXClientBuilder() {
@@ -129,6 +143,54 @@ final class DefaultIDXClientBuilder extends IDXClientBuilder {
         if (Strings.hasText(props.get(DEFAULT_CLIENT_TESTING_DISABLE_HTTPS_CHECK_PROPERTY_NAME))) {
             allowNonHttpsForTesting = Boolean.parseBoolean(props.get(DEFAULT_CLIENT_TESTING_DISABLE_HTTPS_CHECK_PROPERTY_NAME));
         }
+
+        if (Strings.hasText(props.get(DEFAULT_CLIENT_CONNECTION_TIMEOUT_PROPERTY_NAME))) {
+            clientConfig.setConnectionTimeout(Integer.parseInt(props.get(DEFAULT_CLIENT_CONNECTION_TIMEOUT_PROPERTY_NAME)));
+        }
+
+        if (Strings.hasText(props.get(DEFAULT_CLIENT_REQUEST_TIMEOUT_PROPERTY_NAME))) {
+            clientConfig.setRetryMaxElapsed(Integer.parseInt(props.get(DEFAULT_CLIENT_REQUEST_TIMEOUT_PROPERTY_NAME)));
+        }
+
+        if (Strings.hasText(props.get(DEFAULT_CLIENT_RETRY_MAX_ATTEMPTS_PROPERTY_NAME))) {
+            clientConfig.setRetryMaxAttempts(Integer.parseInt(props.get(DEFAULT_CLIENT_RETRY_MAX_ATTEMPTS_PROPERTY_NAME)));
+        }
+
+        if (Strings.hasText(props.get(DEFAULT_CLIENT_MAX_CONNECTIONS_PER_ROUTE_PROPERTY_NAME))) {
+            clientConfig.setMaxConnectionsPerRoute(Integer.parseInt(props.get(DEFAULT_CLIENT_MAX_CONNECTIONS_PER_ROUTE_PROPERTY_NAME)));
+        }
+
+        if (Strings.hasText(props.get(DEFAULT_CLIENT_MAX_CONNECTIONS_TOTAL_PROPERTY_NAME))) {
+            clientConfig.setMaxConnectionsTotal(Integer.parseInt(props.get(DEFAULT_CLIENT_MAX_CONNECTIONS_TOTAL_PROPERTY_NAME)));
+        }
+
+        if (Strings.hasText(props.get(DEFAULT_CLIENT_KEEP_ALIVE_PROPERTY_NAME))) {
+            clientConfig.setKeepAlive(Integer.parseInt(props.get(DEFAULT_CLIENT_KEEP_ALIVE_PROPERTY_NAME)));
+        }
+
+        if (Strings.hasText(props.get(DEFAULT_CLIENT_COMPRESSION_PROPERTY_NAME))) {
+            clientConfig.setCompressionEnabled(Boolean.parseBoolean(props.get(DEFAULT_CLIENT_COMPRESSION_PROPERTY_NAME)));
+        }
+
+        if (Strings.hasText(props.get(DEFAULT_CLIENT_VIRTUAL_THREADS_PROPERTY_NAME))) {
+            clientConfig.setVirtualThreadsEnabled(Boolean.parseBoolean(props.get(DEFAULT_CLIENT_VIRTUAL_THREADS_PROPERTY_NAME)));
+        }
+
+        if (Strings.hasText(props.get(DEFAULT_CLIENT_PROXY_HOST_PROPERTY_NAME))) {
+            clientConfig.setProxyHost(props.get(DEFAULT_CLIENT_PROXY_HOST_PROPERTY_NAME));
+        }
+
+        if (Strings.hasText(props.get(DEFAULT_CLIENT_PROXY_PORT_PROPERTY_NAME))) {
+            clientConfig.setProxyPort(Integer.parseInt(props.get(DEFAULT_CLIENT_PROXY_PORT_PROPERTY_NAME)));
+        }
+
+        if (Strings.hasText(props.get(DEFAULT_CLIENT_PROXY_USERNAME_PROPERTY_NAME))) {
+            clientConfig.setProxyUsername(props.get(DEFAULT_CLIENT_PROXY_USERNAME_PROPERTY_NAME));
+        }
+
+        if (Strings.hasText(props.get(DEFAULT_CLIENT_PROXY_PASSWORD_PROPERTY_NAME))) {
+            clientConfig.setProxyPassword(props.get(DEFAULT_CLIENT_PROXY_PASSWORD_PROPERTY_NAME));
+        }
     }
 
     @Override
@@ -161,10 +223,120 @@ final class DefaultIDXClientBuilder extends IDXClientBuilder {
         return this;
     }
 
+    @Override
+    public IDXClientBuilder setConnectionTimeout(int timeout) {
+        Assert.isTrue(timeout >= 0, "Timeout cannot be a negative number.");
+        this.clientConfig.setConnectionTimeout(timeout);
+        return this;
+    }
+
+    @Override
+    public IDXClientBuilder setRequestTimeout(int timeout) {
+        Assert.isTrue(timeout >= 0, "Timeout cannot be a negative number.");
+        this.clientConfig.setRetryMaxElapsed(timeout);
+        return this;
+    }
+
+    @Override
+    public IDXClientBuilder setRetryMaxAttempts(int maxAttempts) {
+        Assert.isTrue(maxAttempts >= 0, "Max attempts cannot be a negative number.");
+        this.clientConfig.setRetryMaxAttempts(maxAttempts);
+        return this;
+    }
+
+    @Override
+    public IDXClientBuilder setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+        Assert.isTrue(maxConnectionsPerRoute > 0, "maxConnectionsPerRoute must be greater than zero.");
+        this.clientConfig.setMaxConnectionsPerRoute(maxConnectionsPerRoute);
+        return this;
+    }
+
+    @Override
+    public IDXClientBuilder setMaxConnectionsTotal(int maxConnectionsTotal) {
+        Assert.isTrue(maxConnectionsTotal > 0, "maxConnectionsTotal must be greater than zero.");
+        this.clientConfig.setMaxConnectionsTotal(maxConnectionsTotal);
+        return this;
+    }
+
+    @Override
+    public IDXClientBuilder setKeepAlive(int keepAlive) {
+        Assert.isTrue(keepAlive >= 0, "keepAlive cannot be a negative number.");
+        this.clientConfig.setKeepAlive(keepAlive);
+        return this;
+    }
+
+    @Override
+    public IDXClientBuilder setCompressionEnabled(boolean compressionEnabled) {
+        this.clientConfig.setCompressionEnabled(compressionEnabled);
+        return this;
+    }
+
+    @Override
+    public IDXClientBuilder setVirtualThreadsEnabled(boolean virtualThreadsEnabled) {
+        this.clientConfig.setVirtualThreadsEnabled(virtualThreadsEnabled);
+        return this;
+    }
+
+    @Override
+    public IDXClientBuilder setProxy(Proxy proxy) {
+        this.clientConfig.setProxy(proxy);
+        return this;
+    }
+
+    @Override
+    public IDXClientBuilder setAsyncExecutor(Executor executor) {
+        this.asyncExecutor = executor;
+        return this;
+    }
+
+    @Override
+    public IDXClientBuilder addInterceptor(IDXInterceptor interceptor) {
+        Assert.notNull(interceptor, "interceptor cannot be null");
+        this.interceptors.add(interceptor);
+        return this;
+    }
+
     @Override
     public IDXClient build() {
         this.validate();
-        return new BaseIDXClient(this.clientConfig, null);
+        if (clientConfig.isVirtualThreadsEnabled() && !VirtualThreads.isSupported()) {
+            throw new IllegalStateException("Virtual threads require Java 21 or later.");
+        }
+        List<IDXInterceptor> pipeline = new ArrayList<>();
+        if (clientConfig.getRetryMaxAttempts() > 0 || clientConfig.getRetryMaxElapsed() > 0) {
+            // outermost, so that the other interceptors see every attempt
+            pipeline.add(new RetryInterceptor(clientConfig.getRetryMaxAttempts(),
+                TimeUnit.SECONDS.toMillis(clientConfig.getRetryMaxElapsed())));
+        }
+        pipeline.addAll(interceptors);
+        return new BaseIDXClient(this.clientConfig, null, pipeline);
+    }
+
+    @Override
+    public AsyncIDXClient buildAsync() {
+        IDXClient client = build();
+        Executor executor = asyncExecutor;
+        if (executor == null) {
+            executor = clientConfig.isVirtualThreadsEnabled()
+                ? VirtualThreads.newThreadPerTaskExecutor("okta-idx-async-virtual-") : createDefaultAsyncExecutor();
+        }
+        return new BaseAsyncIDXClient(client, executor);
+    }
+
+    /**
+     * A fixed pool of daemon threads with a bounded queue. Calls submitted while the queue is full are rejected, so
+     * that an overloaded client fails them fast rather than queueing them without limit.
+     */
+    static Executor createDefaultAsyncExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(DEFAULT_ASYNC_POOL_SIZE, DEFAULT_ASYNC_POOL_SIZE,
+            60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(DEFAULT_ASYNC_QUEUE_SIZE), runnable -> {
+                Thread thread = new Thread(runnable, "okta-idx-async-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
 
     private void validate() throws IllegalArgumentException {
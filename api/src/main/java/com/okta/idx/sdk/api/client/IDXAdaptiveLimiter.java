@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client;
+
+import com.okta.commons.http.Response;
+import com.okta.commons.lang.Assert;
+import com.okta.idx.sdk.api.exception.ProcessingException;
+import com.okta.idx.sdk.api.exception.ServiceUnavailableException;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits the number of requests in flight to a limit that adapts to how the backend copes, following the AIMD
+ * (additive increase, multiplicative decrease) scheme.
+ * <p>
+ * Each request that succeeds within the latency threshold while the limit is at least half used raises the limit
+ * by one. Each request that fails at the transport, gets a 429 or 5xx response, or takes longer than the latency
+ * threshold lowers the limit by the backoff ratio. Requests over the limit wait for a slot, for at most the
+ * maximum wait, and then fail with a {@link ServiceUnavailableException}. A request keeps its slot, and its latency
+ * runs, until its response has been read and parsed.
+ * <p>
+ * Register the limiter after the other interceptors so that it sits right in front of the transport, and read
+ * {@link #getLimit()} to scale on it:
+ * <pre>
+ * IDXAdaptiveLimiter limiter = IDXAdaptiveLimiter.builder().build();
+ * IDXClient client = Clients.builder().addInterceptor(limiter).build();
+ * int limit = limiter.getLimit();
+ * </pre>
+ */
+public final class IDXAdaptiveLimiter implements IDXInterceptor {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+    private final long maxWaitNanos;
+
+    // a lock rather than a monitor, so that virtual threads waiting for a slot do not pin their carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private double limit;
+    private int inFlight;
+
+    private IDXAdaptiveLimiter(Builder builder) {
+        this.minLimit = builder.minLimit;
+        this.maxLimit = builder.maxLimit;
+        this.backoffRatio = builder.backoffRatio;
+        this.latencyThresholdNanos = builder.latencyThreshold.toNanos();
+        this.maxWaitNanos = builder.maxWait.toNanos();
+        this.limit = builder.initialLimit;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the current number of requests allowed in flight
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of requests in flight
+     */
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Response intercept(IDXRequestContext context, Chain chain) throws ProcessingException {
+
+        context.releaseHeld(this);
+        acquire();
+        long start = System.nanoTime();
+        boolean held = false;
+        try {
+            Response response = chain.proceed(context);
+            int httpStatus = response.getHttpStatus();
+            boolean dropped = httpStatus == 429 || httpStatus >= 500;
+            // the latency of the call includes reading its response, during which the connection is still in use
+            context.holdUntilComplete(this, () -> release(System.nanoTime() - start, dropped));
+            held = true;
+            return response;
+        } finally {
+            if (!held) {
+                // a call that failed without a response, e.g. at the transport, counts as dropped
+                release(System.nanoTime() - start, true);
+            }
+        }
+    }
+
+    private void acquire() throws ProcessingException {
+
+        long deadline = System.nanoTime() + maxWaitNanos;
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new ServiceUnavailableException("Timed out waiting for one of the " + (int) limit
+                        + " requests in flight to complete.");
+                }
+                try {
+                    released.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ProcessingException(e);
+                }
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(long elapsedNanos, boolean dropped) {
+
+        lock.lock();
+        try {
+            if (dropped || elapsedNanos > latencyThresholdNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (inFlight * 2 >= limit) {
+                // only raise a limit that is actually being used
+                limit = Math.min(maxLimit, limit + 1);
+            }
+            inFlight--;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Configures an {@link IDXAdaptiveLimiter}.
+     */
+    public static final class Builder {
+
+        private int initialLimit = 20;
+        private int minLimit = 1;
+        private int maxLimit = 200;
+        private double backoffRatio = 0.9;
+        private Duration latencyThreshold = Duration.ofSeconds(5);
+        private Duration maxWait = Duration.ofSeconds(5);
+
+        private Builder() {
+        }
+
+        /**
+         * @param initialLimit the limit to start from, 20 by default
+         * @return this builder
+         */
+        public Builder withInitialLimit(int initialLimit) {
+            Assert.isTrue(initialLimit > 0, "initialLimit must be greater than zero.");
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        /**
+         * @param minLimit the lowest the limit goes, 1 by default
+         * @return this builder
+         */
+        public Builder withMinLimit(int minLimit) {
+            Assert.isTrue(minLimit > 0, "minLimit must be greater than zero.");
+            this.minLimit = minLimit;
+            return this;
+        }
+
+        /**
+         * @param maxLimit the highest the limit goes, 200 by default
+         * @return this builder
+         */
+        public Builder withMaxLimit(int maxLimit) {
+            Assert.isTrue(maxLimit > 0, "maxLimit must be greater than zero.");
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        /**
+         * @param backoffRatio the factor the limit is multiplied by when a request fails or is slow, 0.9 by default
+         * @return this builder
+         */
+        public Builder withBackoffRatio(double backoffRatio) {
+            Assert.isTrue(backoffRatio >= 0.5 && backoffRatio < 1, "backoffRatio must be between 0.5 and 1.");
+            this.backoffRatio = backoffRatio;
+            return this;
+        }
+
+        /**
+         * @param latencyThreshold the duration above which a request counts as a sign of overload, 5 seconds by
+         *                         default
+         * @return this builder
+         */
+        public Builder withLatencyThreshold(Duration latencyThreshold) {
+            Assert.notNull(latencyThreshold, "latencyThreshold cannot be null");
+            this.latencyThreshold = latencyThreshold;
+            return this;
+        }
+
+        /**
+         * @param maxWait how long a request may wait for a slot, 5 seconds by default
+         * @return this builder
+         */
+        public Builder withMaxWait(Duration maxWait) {
+            Assert.notNull(maxWait, "maxWait cannot be null");
+            this.maxWait = maxWait;
+            return this;
+        }
+
+        public IDXAdaptiveLimiter build() {
+            Assert.isTrue(minLimit <= initialLimit && initialLimit <= maxLimit,
+                "initialLimit must be between minLimit and maxLimit.");
+            return new IDXAdaptiveLimiter(this);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client;
+
+import com.okta.commons.lang.Assert;
+import com.okta.idx.sdk.api.model.AuthenticationStatus;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control for the flows of an {@link IDXAuthenticationWrapper}: when too many flows are in progress,
+ * further flows are rejected right away with a {@link AuthenticationStatus#BUSY} response instead of queueing
+ * behind them.
+ * <p>
+ * A flow is one call of a wrapper method, e.g. {@code authenticate}, whatever the number of requests it makes.
+ * Flows are admitted while fewer than the maximum concurrent flows are in progress. When the average flow latency
+ * goes above the latency threshold, the limit drops to the maximum concurrent flows when slow, until the latency
+ * recovers. Rejected flows carry a {@link #getRetryAfter() retry after} hint, e.g. for a {@code Retry-After}
+ * header on a 503 response.
+ * <pre>
+ * IDXAdmissionController admissionController = IDXAdmissionController.builder()
+ *     .withMaxConcurrentFlows(100)
+ *     .withLatencyThreshold(Duration.ofSeconds(2))
+ *     .build();
+ * IDXAuthenticationWrapper wrapper = new IDXAuthenticationWrapper(client, admissionController);
+ * </pre>
+ */
+public final class IDXAdmissionController {
+
+    /** The weight of the latest flow in the average latency, as a power of two: 1/8. */
+    private static final int LATENCY_WEIGHT_SHIFT = 3;
+
+    private final int maxConcurrentFlows;
+    private final int maxConcurrentFlowsWhenSlow;
+    private final long latencyThresholdNanos;
+    private final Duration retryAfter;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong admittedFlows = new AtomicLong();
+    private final AtomicLong shedFlows = new AtomicLong();
+    private final AtomicLong averageLatencyNanos = new AtomicLong();
+
+    private IDXAdmissionController(Builder builder) {
+        this.maxConcurrentFlows = builder.maxConcurrentFlows;
+        this.maxConcurrentFlowsWhenSlow = builder.maxConcurrentFlowsWhenSlow > 0
+            ? Math.min(builder.maxConcurrentFlowsWhenSlow, builder.maxConcurrentFlows)
+            : Math.max(1, builder.maxConcurrentFlows / 4);
+        this.latencyThresholdNanos = builder.latencyThreshold.toNanos();
+        this.retryAfter = builder.retryAfter;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the number of flows in progress
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return the number of flows admitted since the controller was created
+     */
+    public long getAdmittedFlows() {
+        return admittedFlows.get();
+    }
+
+    /**
+     * @return the number of flows rejected since the controller was created
+     */
+    public long getShedFlows() {
+        return shedFlows.get();
+    }
+
+    /**
+     * @return the moving average of the latency of the admitted flows
+     */
+    public Duration getAverageLatency() {
+        return Duration.ofNanos(averageLatencyNanos.get());
+    }
+
+    /**
+     * @return whether the average latency is above the threshold, which lowers the limit of concurrent flows
+     */
+    public boolean isSlow() {
+        return averageLatencyNanos.get() > latencyThresholdNanos;
+    }
+
+    /**
+     * @return how long a rejected caller should wait before trying again
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * @return whether the flow may start; if so, {@link #release(long)} must be called once it completes
+     */
+    boolean tryAdmit() {
+        int limit = isSlow() ? maxConcurrentFlowsWhenSlow : maxConcurrentFlows;
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                shedFlows.incrementAndGet();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                admittedFlows.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    void release(long elapsedNanos) {
+        // the flows admitted while slow keep the average moving, so it recovers once the backend does
+        averageLatencyNanos.accumulateAndGet(elapsedNanos,
+            (average, latest) -> average + ((latest - average) >> LATENCY_WEIGHT_SHIFT));
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Configures an {@link IDXAdmissionController}.
+     */
+    public static final class Builder {
+
+        private int maxConcurrentFlows = 100;
+        private int maxConcurrentFlowsWhenSlow;
+        private Duration latencyThreshold = Duration.ofSeconds(5);
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        private Builder() {
+        }
+
+        /**
+         * @param maxConcurrentFlows the maximum number of flows in progress, 100 by default
+         * @return this builder
+         */
+        public Builder withMaxConcurrentFlows(int maxConcurrentFlows) {
+            Assert.isTrue(maxConcurrentFlows > 0, "maxConcurrentFlows must be greater than zero.");
+            this.maxConcurrentFlows = maxConcurrentFlows;
+            return this;
+        }
+
+        /**
+         * @param maxConcurrentFlowsWhenSlow the maximum number of flows in progress while the average latency is
+         *                                   above the threshold, a quarter of the maximum concurrent flows by
+         *                                   default
+         * @return this builder
+         */
+        public Builder withMaxConcurrentFlowsWhenSlow(int maxConcurrentFlowsWhenSlow) {
+            Assert.isTrue(maxConcurrentFlowsWhenSlow > 0, "maxConcurrentFlowsWhenSlow must be greater than zero.");
+            this.maxConcurrentFlowsWhenSlow = maxConcurrentFlowsWhenSlow;
+            return this;
+        }
+
+        /**
+         * @param latencyThreshold the average flow latency above which fewer flows are admitted, 5 seconds by
+         *                         default
+         * @return this builder
+         */
+        public Builder withLatencyThreshold(Duration latencyThreshold) {
+            Assert.notNull(latencyThreshold, "latencyThreshold cannot be null");
+            this.latencyThreshold = latencyThreshold;
+            return this;
+        }
+
+        /**
+         * @param retryAfter how long a rejected caller should wait before trying again, 1 second by default
+         * @return this builder
+         */
+        public Builder withRetryAfter(Duration retryAfter) {
+            Assert.notNull(retryAfter, "retryAfter cannot be null");
+            this.retryAfter = retryAfter;
+            return this;
+        }
+
+        public IDXAdmissionController build() {
+            return new IDXAdmissionController(this);
+        }
+    }
+}
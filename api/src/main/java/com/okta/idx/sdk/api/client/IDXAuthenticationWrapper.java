@@ -59,11 +59,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.MalformedURLException;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static com.okta.idx.sdk.api.client.WrapperUtil.handleIllegalArgumentException;
@@ -78,11 +85,14 @@ public class IDXAuthenticationWrapper {
 
     private final IDXClient client;
 
+    private final IDXAdmissionController admissionController;
+
     /**
      * Creates {@link IDXAuthenticationWrapper} instance.
      */
     public IDXAuthenticationWrapper() {
         this.client = Clients.builder().build();
+        this.admissionController = null;
     }
 
     /**
@@ -103,6 +113,82 @@ public class IDXAuthenticationWrapper {
                 .setScopes(scopes)
                 .setRedirectUri(redirectUri)
                 .build();
+        this.admissionController = null;
+    }
+
+    /**
+     * Creates {@link IDXAuthenticationWrapper} instance backed by the given client, e.g. one built with
+     * {@link IDXInterceptor}s.
+     *
+     * @param client the client
+     */
+    public IDXAuthenticationWrapper(IDXClient client) {
+        this(client, null);
+    }
+
+    /**
+     * Creates {@link IDXAuthenticationWrapper} instance backed by the given client, whose flows are admitted by the
+     * given {@link IDXAdmissionController}. Flows that are not admitted return right away with the
+     * {@link AuthenticationStatus#BUSY} status, without calling the backend.
+     *
+     * @param client the client
+     * @param admissionController the admission control of the wrapper's flows, or {@code null} to admit every flow
+     */
+    public IDXAuthenticationWrapper(IDXClient client, IDXAdmissionController admissionController) {
+        Assert.notNull(client, "client cannot be null");
+        this.client = client;
+        this.admissionController = admissionController;
+    }
+
+    /**
+     * Returns a wrapper whose calls share a time budget that starts now, e.g. to keep
+     * {@link #authenticate(AuthenticationOptions, ProceedContext)} and the calls it makes within a page's SLA.
+     * <p>
+     * Each idempotent request, such as introspect or poll, may take at most the time left in the budget. Requests that
+     * change the state of the flow, such as answering a challenge, are only sent while time is left. The NIO and
+     * HTTP/2 transports time them out when the budget runs out, like a read timeout, after which the server may still
+     * have applied the step. Other transports do not support a per-request timeout: with them, these requests are
+     * only checked before they start, and then run until the transport's own read timeout. Once the budget is used
+     * up, calls fail without being sent, and the returned {@link AuthenticationResponse} has the
+     * {@link AuthenticationStatus#SERVICE_UNAVAILABLE} status.
+     * <pre>
+     * AuthenticationResponse response = idxAuthenticationWrapper.withDeadline(Duration.ofSeconds(3))
+     *     .authenticate(authenticationOptions, proceedContext);
+     * </pre>
+     *
+     * @param timeout the time budget shared by every call made through the returned wrapper
+     * @return a wrapper bound to the deadline
+     */
+    public IDXAuthenticationWrapper withDeadline(Duration timeout) {
+        Assert.notNull(timeout, "timeout cannot be null");
+        return new IDXAuthenticationWrapper(new DeadlineIDXClient(client, System.nanoTime() + timeout.toNanos()),
+            admissionController);
+    }
+
+    /**
+     * Runs {@code operation} on this wrapper without blocking the calling thread, e.g. to start many flows at once:
+     * <pre>
+     * CompletableFuture&lt;AuthenticationResponse&gt; response = idxAuthenticationWrapper.supplyAsync(
+     *     wrapper -&gt; wrapper.authenticate(authenticationOptions, proceedContext));
+     * </pre>
+     * On Java 21 and later, each operation runs on a virtual thread of its own, which gives its carrier thread back
+     * while it waits for the backend, so thousands of flows in flight cost little more than their stacks. On older
+     * runtimes, operations share a bounded pool of daemon threads, and the future fails with a
+     * {@link RejectedExecutionException} when its queue is full.
+     *
+     * @param operation the wrapper operation to run
+     * @param <T> the result type
+     * @return a future completed with the result of {@code operation}
+     */
+    public <T> CompletableFuture<T> supplyAsync(Function<IDXAuthenticationWrapper, T> operation) {
+        Assert.notNull(operation, "operation cannot be null");
+        try {
+            return CompletableFuture.supplyAsync(() -> operation.apply(this), AsyncExecutor.INSTANCE);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<T> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(e);
+            return rejected;
+        }
     }
 
     /**
@@ -118,61 +204,102 @@ public class IDXAuthenticationWrapper {
      * @return the Authentication response
      */
     public AuthenticationResponse authenticate(AuthenticationOptions authenticationOptions, ProceedContext proceedContext) {
-        try {
-            // Check if identify flow needs to include credentials
-            boolean isIdentifyInOneStep = proceedContext.isIdentifyInOneStep();
-
-            AuthenticationTransaction identifyTransaction = AuthenticationTransaction.proceed(client, proceedContext, () -> {
-                IdentifyRequest identifyRequest;
+        return admitted(() -> {
+            try {
+                // Check if identify flow needs to include credentials
+                boolean isIdentifyInOneStep = proceedContext.isIdentifyInOneStep();
 
-                if (isIdentifyInOneStep) {
-                    Credentials credentials = new Credentials();
-                    credentials.setPasscode(authenticationOptions.getPassword());
+                AuthenticationTransaction identifyTransaction = identify(authenticationOptions, proceedContext);
 
-                    identifyRequest = IdentifyRequestBuilder.builder()
-                            .withIdentifier(authenticationOptions.getUsername())
-                            .withCredentials(credentials)
-                            .withStateHandle(proceedContext.getStateHandle())
-                            .build();
-                } else {
-                    identifyRequest = IdentifyRequestBuilder.builder()
-                            .withIdentifier(authenticationOptions.getUsername())
-                            .withStateHandle(proceedContext.getStateHandle())
-                            .build();
+                AuthenticationResponse identifyResponse = identifyTransaction.asAuthenticationResponse();
+                if (isIdentifyInOneStep ||
+                        identifyResponse.getErrors() != null && !identifyResponse.getErrors().isEmpty()) {
+                    return identifyResponse;
                 }
 
-                // identify user
-                return client.identify(identifyRequest, proceedContext.getHref());
-            });
-
-            AuthenticationResponse identifyResponse = identifyTransaction.asAuthenticationResponse();
-            if (isIdentifyInOneStep ||
-                    identifyResponse.getErrors() != null && !identifyResponse.getErrors().isEmpty()) {
-                return identifyResponse;
+                AuthenticationTransaction passwordTransaction = selectPasswordAuthenticatorIfNeeded(identifyTransaction);
+                return answerPassword(passwordTransaction, authenticationOptions).asAuthenticationResponse();
+            } catch (ProcessingException e) {
+                return handleProcessingException(e);
+            } catch (IllegalArgumentException e) {
+                return handleIllegalArgumentException(e);
             }
+        });
+    }
+
+    /**
+     * Same as {@link #authenticate(AuthenticationOptions, ProceedContext)}, without blocking the calling thread.
+     * <p>
+     * Each call to the backend runs as a task of its own on the executor of {@link #supplyAsync(Function)}, so no
+     * thread is held between calls: on Java 21 and later each call runs on a virtual thread, and on older runtimes
+     * the pool threads serve other flows while this one waits for its next call to be scheduled. The steps in
+     * between, which only read the last response, run on the thread of the call they follow.
+     *
+     * @param authenticationOptions the Authenticator options
+     * @param proceedContext the ProceedContext
+     * @return a future completed with the Authentication response
+     */
+    public CompletableFuture<AuthenticationResponse> authenticateAsync(AuthenticationOptions authenticationOptions,
+                                                                       ProceedContext proceedContext) {
+        return admittedAsync(() -> callAsync(() -> identify(authenticationOptions, proceedContext))
+                .thenCompose(identifyTransaction -> asAuthenticationResponseAsync(identifyTransaction,
+                        AuthenticationStatus.UNKNOWN)
+                        .thenCompose(identifyResponse -> {
+                            if (proceedContext.isIdentifyInOneStep() ||
+                                    identifyResponse.getErrors() != null && !identifyResponse.getErrors().isEmpty()) {
+                                return CompletableFuture.completedFuture(identifyResponse);
+                            }
+                            return selectPasswordAuthenticatorIfNeededAsync(identifyTransaction)
+                                    .thenCompose(passwordTransaction -> callAsync(() ->
+                                            answerPassword(passwordTransaction, authenticationOptions)))
+                                    .thenCompose(answerTransaction -> asAuthenticationResponseAsync(answerTransaction,
+                                            AuthenticationStatus.UNKNOWN));
+                        })));
+    }
 
-            AuthenticationTransaction passwordTransaction = selectPasswordAuthenticatorIfNeeded(identifyTransaction);
-            AuthenticationTransaction answerTransaction = passwordTransaction.proceed(() -> {
-                // answer password authenticator challenge
+    private AuthenticationTransaction identify(AuthenticationOptions authenticationOptions,
+                                               ProceedContext proceedContext) throws ProcessingException {
+        return AuthenticationTransaction.proceed(client, proceedContext, () -> {
+            IdentifyRequest identifyRequest;
+
+            if (proceedContext.isIdentifyInOneStep()) {
                 Credentials credentials = new Credentials();
                 credentials.setPasscode(authenticationOptions.getPassword());
 
-                // build answer password authenticator challenge request
-                AnswerChallengeRequest passwordAuthenticatorAnswerChallengeRequest =
-                        AnswerChallengeRequestBuilder.builder()
-                                .withStateHandle(passwordTransaction.getStateHandle())
-                                .withCredentials(credentials)
-                                .build();
+                identifyRequest = IdentifyRequestBuilder.builder()
+                        .withIdentifier(authenticationOptions.getUsername())
+                        .withCredentials(credentials)
+                        .withStateHandle(proceedContext.getStateHandle())
+                        .build();
+            } else {
+                identifyRequest = IdentifyRequestBuilder.builder()
+                        .withIdentifier(authenticationOptions.getUsername())
+                        .withStateHandle(proceedContext.getStateHandle())
+                        .build();
+            }
 
-                return passwordTransaction.getRemediationOption(RemediationType.CHALLENGE_AUTHENTICATOR)
-                        .proceed(client, passwordAuthenticatorAnswerChallengeRequest);
-            });
-            return answerTransaction.asAuthenticationResponse();
-        } catch (ProcessingException e) {
-            return handleProcessingException(e);
-        } catch (IllegalArgumentException e) {
-            return handleIllegalArgumentException(e);
-        }
+            // identify user
+            return client.identify(identifyRequest, proceedContext.getHref());
+        });
+    }
+
+    private AuthenticationTransaction answerPassword(AuthenticationTransaction passwordTransaction,
+                                                     AuthenticationOptions authenticationOptions) throws ProcessingException {
+        return passwordTransaction.proceed(() -> {
+            // answer password authenticator challenge
+            Credentials credentials = new Credentials();
+            credentials.setPasscode(authenticationOptions.getPassword());
+
+            // build answer password authenticator challenge request
+            AnswerChallengeRequest passwordAuthenticatorAnswerChallengeRequest =
+                    AnswerChallengeRequestBuilder.builder()
+                            .withStateHandle(passwordTransaction.getStateHandle())
+                            .withCredentials(credentials)
+                            .build();
+
+            return passwordTransaction.getRemediationOption(RemediationType.CHALLENGE_AUTHENTICATOR)
+                    .proceed(client, passwordAuthenticatorAnswerChallengeRequest);
+        });
     }
 
     /**
@@ -182,68 +309,126 @@ public class IDXAuthenticationWrapper {
      * @return the Authentication response
      */
     public AuthenticationResponse recoverPassword(String username, ProceedContext proceedContext) {
-        try {
-            boolean isIdentifyInOneStep = proceedContext.isIdentifyInOneStep();
+        return admitted(() -> {
+            try {
+                boolean isIdentifyInOneStep = proceedContext.isIdentifyInOneStep();
 
-            if (isIdentifyInOneStep) {
-                // recover
-                AuthenticationTransaction recoverTransaction = AuthenticationTransaction.proceed(client, proceedContext, () -> {
-                    RecoverRequest recoverRequest = RecoverRequestBuilder.builder()
-                            .withStateHandle(proceedContext.getStateHandle())
-                            .build();
+                if (isIdentifyInOneStep) {
+                    AuthenticationTransaction recoverTransaction = recover(proceedContext);
+                    return identifyRecovery(recoverTransaction, username, proceedContext)
+                            .asAuthenticationResponse(AuthenticationStatus.AWAITING_AUTHENTICATOR_SELECTION);
+                } else {
+                    AuthenticationTransaction identifyTransaction = identify(username, proceedContext);
+                    IDXResponse identifyResponse = identifyTransaction.getResponse();
 
-                    return client.recover(recoverRequest, null);
-                });
+                    if (identifyResponse.getMessages() != null) {
+                        return identifyTransaction.asAuthenticationResponse(AuthenticationStatus.AWAITING_USER_EMAIL_ACTIVATION);
+                    }
 
-                RemediationOption remediationOption = recoverTransaction.getRemediationOption(RemediationType.IDENTIFY_RECOVERY);
+                    // Check if instead of password, user is being prompted for list of authenticators to select
+                    if (identifyResponse.getCurrentAuthenticatorEnrollment() == null) {
+                        identifyTransaction = selectPasswordAuthenticatorIfNeeded(identifyTransaction);
+                    }
 
-                IdentifyRequest identifyRequest = IdentifyRequestBuilder.builder()
-                        .withIdentifier(username)
-                        .withStateHandle(proceedContext.getStateHandle())
-                        .build();
+                    return recoverCurrentAuthenticator(identifyTransaction, proceedContext)
+                            .asAuthenticationResponse(AuthenticationStatus.AWAITING_AUTHENTICATOR_SELECTION);
+                }
+            } catch (ProcessingException e) {
+                return handleProcessingException(e);
+            } catch (IllegalArgumentException e) {
+                return handleIllegalArgumentException(e);
+            }
+        });
+    }
 
-                // identify user
-                return recoverTransaction.proceed(() ->
-                        remediationOption.proceed(client, identifyRequest)
-                ).asAuthenticationResponse(AuthenticationStatus.AWAITING_AUTHENTICATOR_SELECTION);
-            } else {
-                // identify user
-                AuthenticationTransaction identifyTransaction = AuthenticationTransaction.proceed(client, proceedContext, () -> {
-                    IdentifyRequest identifyRequest = IdentifyRequestBuilder.builder()
-                            .withIdentifier(username)
-                            .withStateHandle(proceedContext.getStateHandle())
-                            .build();
-                    return client.identify(identifyRequest, proceedContext.getHref());
-                });
-                IDXResponse identifyResponse = identifyTransaction.getResponse();
+    /**
+     * Same as {@link #recoverPassword(String, ProceedContext)}, without blocking the calling thread.
+     * <p>
+     * As for {@link #authenticateAsync(AuthenticationOptions, ProceedContext)}, each call to the backend runs as a
+     * task of its own, and no thread is held between calls.
+     *
+     * @param username the username
+     * @param proceedContext the ProceedContext
+     * @return a future completed with the Authentication response
+     */
+    public CompletableFuture<AuthenticationResponse> recoverPasswordAsync(String username, ProceedContext proceedContext) {
+        return admittedAsync(() -> callAsync(() -> proceedContext.isIdentifyInOneStep()
+                ? recover(proceedContext) : identify(username, proceedContext))
+                .thenCompose(transaction -> {
+                    if (proceedContext.isIdentifyInOneStep()) {
+                        return callAsync(() -> identifyRecovery(transaction, username, proceedContext))
+                                .thenCompose(recoveryTransaction -> asAuthenticationResponseAsync(recoveryTransaction,
+                                        AuthenticationStatus.AWAITING_AUTHENTICATOR_SELECTION));
+                    }
+
+                    IDXResponse identifyResponse = transaction.getResponse();
+                    if (identifyResponse.getMessages() != null) {
+                        return asAuthenticationResponseAsync(transaction,
+                                AuthenticationStatus.AWAITING_USER_EMAIL_ACTIVATION);
+                    }
+
+                    // Check if instead of password, user is being prompted for list of authenticators to select
+                    CompletableFuture<AuthenticationTransaction> identifyTransaction =
+                            identifyResponse.getCurrentAuthenticatorEnrollment() == null
+                                    ? selectPasswordAuthenticatorIfNeededAsync(transaction)
+                                    : CompletableFuture.completedFuture(transaction);
+
+                    return identifyTransaction.thenCompose(authenticatorTransaction -> callAsync(() ->
+                            recoverCurrentAuthenticator(authenticatorTransaction, proceedContext)))
+                            .thenCompose(recoveryTransaction -> asAuthenticationResponseAsync(recoveryTransaction,
+                                    AuthenticationStatus.AWAITING_AUTHENTICATOR_SELECTION));
+                }));
+    }
 
-                if (identifyResponse.getMessages() != null) {
-                    return identifyTransaction.asAuthenticationResponse(AuthenticationStatus.AWAITING_USER_EMAIL_ACTIVATION);
-                }
+    private AuthenticationTransaction recover(ProceedContext proceedContext) throws ProcessingException {
+        // recover
+        return AuthenticationTransaction.proceed(client, proceedContext, () -> {
+            RecoverRequest recoverRequest = RecoverRequestBuilder.builder()
+                    .withStateHandle(proceedContext.getStateHandle())
+                    .build();
 
-                // Check if instead of password, user is being prompted for list of authenticators to select
-                if (identifyResponse.getCurrentAuthenticatorEnrollment() == null) {
-                    identifyTransaction = selectPasswordAuthenticatorIfNeeded(identifyTransaction);
-                }
+            return client.recover(recoverRequest, null);
+        });
+    }
 
-                Recover recover = identifyTransaction.getResponse()
-                        .getCurrentAuthenticatorEnrollment().getValue().getRecover();
+    private AuthenticationTransaction identifyRecovery(AuthenticationTransaction recoverTransaction, String username,
+                                                       ProceedContext proceedContext) throws ProcessingException {
+        RemediationOption remediationOption = recoverTransaction.getRemediationOption(RemediationType.IDENTIFY_RECOVERY);
 
-                AuthenticationTransaction recoverTransaction = identifyTransaction.proceed(() -> {
-                    // recover password
-                    RecoverRequest recoverRequest = RecoverRequestBuilder.builder()
-                            .withStateHandle(proceedContext.getStateHandle())
-                            .build();
-                    return recover.proceed(client, recoverRequest);
-                });
+        IdentifyRequest identifyRequest = IdentifyRequestBuilder.builder()
+                .withIdentifier(username)
+                .withStateHandle(proceedContext.getStateHandle())
+                .build();
 
-                return recoverTransaction.asAuthenticationResponse(AuthenticationStatus.AWAITING_AUTHENTICATOR_SELECTION);
-            }
-        } catch (ProcessingException e) {
-            return handleProcessingException(e);
-        } catch (IllegalArgumentException e) {
-            return handleIllegalArgumentException(e);
-        }
+        // identify user
+        return recoverTransaction.proceed(() ->
+                remediationOption.proceed(client, identifyRequest)
+        );
+    }
+
+    private AuthenticationTransaction identify(String username, ProceedContext proceedContext) throws ProcessingException {
+        // identify user
+        return AuthenticationTransaction.proceed(client, proceedContext, () -> {
+            IdentifyRequest identifyRequest = IdentifyRequestBuilder.builder()
+                    .withIdentifier(username)
+                    .withStateHandle(proceedContext.getStateHandle())
+                    .build();
+            return client.identify(identifyRequest, proceedContext.getHref());
+        });
+    }
+
+    private AuthenticationTransaction recoverCurrentAuthenticator(AuthenticationTransaction identifyTransaction,
+                                                                  ProceedContext proceedContext) throws ProcessingException {
+        Recover recover = identifyTransaction.getResponse()
+                .getCurrentAuthenticatorEnrollment().getValue().getRecover();
+
+        return identifyTransaction.proceed(() -> {
+            // recover password
+            RecoverRequest recoverRequest = RecoverRequestBuilder.builder()
+                    .withStateHandle(proceedContext.getStateHandle())
+                    .build();
+            return recover.proceed(client, recoverRequest);
+        });
     }
 
     /**
@@ -255,25 +440,27 @@ public class IDXAuthenticationWrapper {
      */
     public AuthenticationResponse register(ProceedContext proceedContext,
                                            UserProfile userProfile) {
-        try {
-            AuthenticationTransaction enrollTransaction = AuthenticationTransaction.proceed(client, proceedContext, () -> {
-                EnrollUserProfileUpdateRequest enrollUserProfileUpdateRequest =
-                        EnrollUserProfileUpdateRequestBuilder.builder()
-                                .withUserProfile(userProfile)
-                                .withStateHandle(proceedContext.getStateHandle())
-                                .build();
-                return client.enrollUpdateUserProfile(enrollUserProfileUpdateRequest, proceedContext.getHref());
-            });
+        return admitted(() -> {
+            try {
+                AuthenticationTransaction enrollTransaction = AuthenticationTransaction.proceed(client, proceedContext, () -> {
+                    EnrollUserProfileUpdateRequest enrollUserProfileUpdateRequest =
+                            EnrollUserProfileUpdateRequestBuilder.builder()
+                                    .withUserProfile(userProfile)
+                                    .withStateHandle(proceedContext.getStateHandle())
+                                    .build();
+                    return client.enrollUpdateUserProfile(enrollUserProfileUpdateRequest, proceedContext.getHref());
+                });
 
-            // Verify the next remediation is correct.
-            enrollTransaction.getRemediationOption(RemediationType.SELECT_AUTHENTICATOR_ENROLL);
+                // Verify the next remediation is correct.
+                enrollTransaction.getRemediationOption(RemediationType.SELECT_AUTHENTICATOR_ENROLL);
 
-            return enrollTransaction.asAuthenticationResponse(AuthenticationStatus.AWAITING_AUTHENTICATOR_SELECTION);
-        } catch (ProcessingException e) {
-            return handleProcessingException(e);
-        } catch (IllegalArgumentException e) {
-            return handleIllegalArgumentException(e);
-        }
+                return enrollTransaction.asAuthenticationResponse(AuthenticationStatus.AWAITING_AUTHENTICATOR_SELECTION);
+            } catch (ProcessingException e) {
+                return handleProcessingException(e);
+            } catch (IllegalArgumentException e) {
+                return handleIllegalArgumentException(e);
+            }
+        });
     }
 
     /**
@@ -285,26 +472,28 @@ public class IDXAuthenticationWrapper {
      */
     public AuthenticationResponse selectAuthenticator(ProceedContext proceedContext,
                                                       com.okta.idx.sdk.api.client.Authenticator authenticator) {
-        try {
-            return AuthenticationTransaction.proceed(client, proceedContext, () -> {
-                Authenticator authenticatorRequest = new Authenticator();
-                authenticatorRequest.setId(authenticator.getId());
-                if (authenticator.hasNestedFactors() && authenticator.getFactors().size() == 1) {
-                    com.okta.idx.sdk.api.client.Authenticator.Factor factor = authenticator.getFactors().get(0);
-                    authenticatorRequest.setMethodType(factor.getMethod());
-                    authenticatorRequest.setEnrollmentId(factor.getEnrollmentId());
-                }
-                ChallengeRequest request = ChallengeRequestBuilder.builder()
-                        .withStateHandle(proceedContext.getStateHandle())
-                        .withAuthenticator(authenticatorRequest)
-                        .build();
-                return client.challenge(request, proceedContext.getHref());
-            }).asAuthenticationResponse();
-        } catch (ProcessingException e) {
-            return handleProcessingException(e);
-        } catch (IllegalArgumentException e) {
-            return handleIllegalArgumentException(e);
-        }
+        return admitted(() -> {
+            try {
+                return AuthenticationTransaction.proceed(client, proceedContext, () -> {
+                    Authenticator authenticatorRequest = new Authenticator();
+                    authenticatorRequest.setId(authenticator.getId());
+                    if (authenticator.hasNestedFactors() && authenticator.getFactors().size() == 1) {
+                        com.okta.idx.sdk.api.client.Authenticator.Factor factor = authenticator.getFactors().get(0);
+                        authenticatorRequest.setMethodType(factor.getMethod());
+                        authenticatorRequest.setEnrollmentId(factor.getEnrollmentId());
+                    }
+                    ChallengeRequest request = ChallengeRequestBuilder.builder()
+                            .withStateHandle(proceedContext.getStateHandle())
+                            .withAuthenticator(authenticatorRequest)
+                            .build();
+                    return client.challenge(request, proceedContext.getHref());
+                }).asAuthenticationResponse();
+            } catch (ProcessingException e) {
+                return handleProcessingException(e);
+            } catch (IllegalArgumentException e) {
+                return handleIllegalArgumentException(e);
+            }
+        });
     }
 
     /**
@@ -316,57 +505,61 @@ public class IDXAuthenticationWrapper {
      */
     public AuthenticationResponse selectFactor(ProceedContext proceedContext,
                                                com.okta.idx.sdk.api.client.Authenticator.Factor factor) {
-        try {
-            return AuthenticationTransaction.proceed(client, proceedContext, () -> {
-                Authenticator authenticator = new Authenticator();
-                authenticator.setId(factor.getId());
-                authenticator.setEnrollmentId(factor.getEnrollmentId());
-                authenticator.setMethodType(factor.getMethod());
-                ChallengeRequest request = ChallengeRequestBuilder.builder()
-                        .withStateHandle(proceedContext.getStateHandle())
-                        .withAuthenticator(authenticator)
-                        .build();
-                return client.challenge(request, proceedContext.getHref());
-            }).asAuthenticationResponse();
-        } catch (ProcessingException e) {
-            return handleProcessingException(e);
-        } catch (IllegalArgumentException e) {
-            return handleIllegalArgumentException(e);
-        }
+        return admitted(() -> {
+            try {
+                return AuthenticationTransaction.proceed(client, proceedContext, () -> {
+                    Authenticator authenticator = new Authenticator();
+                    authenticator.setId(factor.getId());
+                    authenticator.setEnrollmentId(factor.getEnrollmentId());
+                    authenticator.setMethodType(factor.getMethod());
+                    ChallengeRequest request = ChallengeRequestBuilder.builder()
+                            .withStateHandle(proceedContext.getStateHandle())
+                            .withAuthenticator(authenticator)
+                            .build();
+                    return client.challenge(request, proceedContext.getHref());
+                }).asAuthenticationResponse();
+            } catch (ProcessingException e) {
+                return handleProcessingException(e);
+            } catch (IllegalArgumentException e) {
+                return handleIllegalArgumentException(e);
+            }
+        });
     }
 
     public AuthenticationResponse enrollAuthenticator(ProceedContext proceedContext, String authenticatorId) {
-        try {
-            AuthenticationResponse authenticationResponse =
-                    AuthenticationTransaction.proceed(client, proceedContext, () -> {
-                        Authenticator authenticator = new Authenticator();
-                        authenticator.setId(authenticatorId);
-
-                        EnrollRequest enrollRequest = EnrollRequestBuilder.builder()
-                                .withAuthenticator(authenticator)
-                                .withStateHandle(proceedContext.getStateHandle())
-                                .build();
-
-                        return client.enroll(enrollRequest, proceedContext.getHref());
-                    }).asAuthenticationResponse();
-
-            if (authenticationResponse.getWebAuthnParams() != null) {
-                AuthenticatorEnrollments authenticatorEnrollments = authenticationResponse.getAuthenticatorEnrollments();
-
-                Optional<AuthenticatorEnrollment> authenticatorEnrollmentOptional = Arrays.stream(authenticatorEnrollments.getValue())
-                        .filter(x -> "security_key".equals(x.getType()))
-                        .findAny();
+        return admitted(() -> {
+            try {
+                AuthenticationResponse authenticationResponse =
+                        AuthenticationTransaction.proceed(client, proceedContext, () -> {
+                            Authenticator authenticator = new Authenticator();
+                            authenticator.setId(authenticatorId);
+
+                            EnrollRequest enrollRequest = EnrollRequestBuilder.builder()
+                                    .withAuthenticator(authenticator)
+                                    .withStateHandle(proceedContext.getStateHandle())
+                                    .build();
+
+                            return client.enroll(enrollRequest, proceedContext.getHref());
+                        }).asAuthenticationResponse();
+
+                if (authenticationResponse.getWebAuthnParams() != null) {
+                    AuthenticatorEnrollments authenticatorEnrollments = authenticationResponse.getAuthenticatorEnrollments();
+
+                    Optional<AuthenticatorEnrollment> authenticatorEnrollmentOptional = Arrays.stream(authenticatorEnrollments.getValue())
+                            .filter(x -> "security_key".equals(x.getType()))
+                            .findAny();
+
+                    authenticatorEnrollmentOptional.ifPresent(authenticatorEnrollment ->
+                            authenticationResponse.getWebAuthnParams().setWebauthnCredentialId(authenticatorEnrollment.getCredentialId()));
+                }
 
-                authenticatorEnrollmentOptional.ifPresent(authenticatorEnrollment ->
-                        authenticationResponse.getWebAuthnParams().setWebauthnCredentialId(authenticatorEnrollment.getCredentialId()));
+                return authenticationResponse;
+            } catch (ProcessingException e) {
+                return handleProcessingException(e);
+            } catch (IllegalArgumentException e) {
+                return handleIllegalArgumentException(e);
             }
-
-            return authenticationResponse;
-        } catch (ProcessingException e) {
-            return handleProcessingException(e);
-        } catch (IllegalArgumentException e) {
-            return handleIllegalArgumentException(e);
-        }
+        });
     }
 
     /**
@@ -378,25 +571,27 @@ public class IDXAuthenticationWrapper {
      */
     public AuthenticationResponse enrollAuthenticator(ProceedContext proceedContext,
                                                       com.okta.idx.sdk.api.client.Authenticator.Factor factor) {
-        try {
-            return AuthenticationTransaction.proceed(client, proceedContext, () -> {
-                Authenticator authenticator = new Authenticator();
+        return admitted(() -> {
+            try {
+                return AuthenticationTransaction.proceed(client, proceedContext, () -> {
+                    Authenticator authenticator = new Authenticator();
 
-                authenticator.setId(factor.getId());
-                authenticator.setMethodType(factor.getMethod());
+                    authenticator.setId(factor.getId());
+                    authenticator.setMethodType(factor.getMethod());
 
-                EnrollRequest enrollRequest = EnrollRequestBuilder.builder()
-                        .withAuthenticator(authenticator)
-                        .withStateHandle(proceedContext.getStateHandle())
-                        .build();
+                    EnrollRequest enrollRequest = EnrollRequestBuilder.builder()
+                            .withAuthenticator(authenticator)
+                            .withStateHandle(proceedContext.getStateHandle())
+                            .build();
 
-                return client.enroll(enrollRequest, proceedContext.getHref());
-            }).asAuthenticationResponse();
-        } catch (ProcessingException e) {
-            return handleProcessingException(e);
-        } catch (IllegalArgumentException e) {
-            return handleIllegalArgumentException(e);
-        }
+                    return client.enroll(enrollRequest, proceedContext.getHref());
+                }).asAuthenticationResponse();
+            } catch (ProcessingException e) {
+                return handleProcessingException(e);
+            } catch (IllegalArgumentException e) {
+                return handleIllegalArgumentException(e);
+            }
+        });
     }
 
     /**
@@ -408,24 +603,26 @@ public class IDXAuthenticationWrapper {
      */
     public AuthenticationResponse verifyAuthenticator(ProceedContext proceedContext,
                                                       VerifyAuthenticatorOptions verifyAuthenticatorOptions) {
-        try {
-            Credentials credentials = new Credentials();
-            credentials.setPasscode(verifyAuthenticatorOptions.getCode().toCharArray());
+        return admitted(() -> {
+            try {
+                Credentials credentials = new Credentials();
+                credentials.setPasscode(verifyAuthenticatorOptions.getCode().toCharArray());
 
-            // build answer password authenticator challenge request
-            AnswerChallengeRequest challengeAuthenticatorRequest = AnswerChallengeRequestBuilder.builder()
-                    .withStateHandle(proceedContext.getStateHandle())
-                    .withCredentials(credentials)
-                    .build();
+                // build answer password authenticator challenge request
+                AnswerChallengeRequest challengeAuthenticatorRequest = AnswerChallengeRequestBuilder.builder()
+                        .withStateHandle(proceedContext.getStateHandle())
+                        .withCredentials(credentials)
+                        .build();
 
-            return AuthenticationTransaction.proceed(client, proceedContext, () ->
-                    client.answerChallenge(challengeAuthenticatorRequest, proceedContext.getHref())
-            ).asAuthenticationResponse(AuthenticationStatus.AWAITING_PASSWORD_RESET);
-        } catch (ProcessingException e) {
-            return handleProcessingException(e);
-        } catch (IllegalArgumentException e) {
-            return handleIllegalArgumentException(e);
-        }
+                return AuthenticationTransaction.proceed(client, proceedContext, () ->
+                        client.answerChallenge(challengeAuthenticatorRequest, proceedContext.getHref())
+                ).asAuthenticationResponse(AuthenticationStatus.AWAITING_PASSWORD_RESET);
+            } catch (ProcessingException e) {
+                return handleProcessingException(e);
+            } catch (IllegalArgumentException e) {
+                return handleIllegalArgumentException(e);
+            }
+        });
     }
 
     /**
@@ -437,30 +634,32 @@ public class IDXAuthenticationWrapper {
      */
     public AuthenticationResponse verifyWebAuthn(ProceedContext proceedContext,
                                                  WebAuthnRequest webauthnRequest) {
+        return admitted(() -> {
 
-        try {
-            Credentials credentials = new Credentials();
-            credentials.setClientData(webauthnRequest.getClientData());
-            if (webauthnRequest.getAttestation() != null)
-                credentials.setAttestation(webauthnRequest.getAttestation());
-            if (webauthnRequest.getAuthenticatorData() != null)
-                credentials.setAuthenticatorData(webauthnRequest.getAuthenticatorData());
-            if (webauthnRequest.getSignatureData() != null)
-                credentials.setSignatureData(webauthnRequest.getSignatureData());
-
-            AnswerChallengeRequest challengeAuthenticatorRequest = AnswerChallengeRequestBuilder.builder()
-                    .withStateHandle(proceedContext.getStateHandle())
-                    .withCredentials(credentials)
-                    .build();
+            try {
+                Credentials credentials = new Credentials();
+                credentials.setClientData(webauthnRequest.getClientData());
+                if (webauthnRequest.getAttestation() != null)
+                    credentials.setAttestation(webauthnRequest.getAttestation());
+                if (webauthnRequest.getAuthenticatorData() != null)
+                    credentials.setAuthenticatorData(webauthnRequest.getAuthenticatorData());
+                if (webauthnRequest.getSignatureData() != null)
+                    credentials.setSignatureData(webauthnRequest.getSignatureData());
+
+                AnswerChallengeRequest challengeAuthenticatorRequest = AnswerChallengeRequestBuilder.builder()
+                        .withStateHandle(proceedContext.getStateHandle())
+                        .withCredentials(credentials)
+                        .build();
 
-            return AuthenticationTransaction.proceed(client, proceedContext, () ->
-                    client.answerChallenge(challengeAuthenticatorRequest, proceedContext.getHref())
-            ).asAuthenticationResponse();
-        } catch (ProcessingException e) {
-            return handleProcessingException(e);
-        } catch (IllegalArgumentException e) {
-            return handleIllegalArgumentException(e);
-        }
+                return AuthenticationTransaction.proceed(client, proceedContext, () ->
+                        client.answerChallenge(challengeAuthenticatorRequest, proceedContext.getHref())
+                ).asAuthenticationResponse();
+            } catch (ProcessingException e) {
+                return handleProcessingException(e);
+            } catch (IllegalArgumentException e) {
+                return handleIllegalArgumentException(e);
+            }
+        });
     }
 
     /**
@@ -474,27 +673,29 @@ public class IDXAuthenticationWrapper {
     public AuthenticationResponse submitPhoneAuthenticator(ProceedContext proceedContext,
                                                            String phone,
                                                            com.okta.idx.sdk.api.client.Authenticator.Factor factor) {
-        try {
-            Assert.notNull(proceedContext, "proceed context cannot be null");
+        return admitted(() -> {
+            try {
+                Assert.notNull(proceedContext, "proceed context cannot be null");
 
-            Authenticator phoneAuthenticator = new Authenticator();
-            phoneAuthenticator.setId(factor.getId());
-            phoneAuthenticator.setMethodType(factor.getMethod());
-            phoneAuthenticator.setPhoneNumber(phone);
+                Authenticator phoneAuthenticator = new Authenticator();
+                phoneAuthenticator.setId(factor.getId());
+                phoneAuthenticator.setMethodType(factor.getMethod());
+                phoneAuthenticator.setPhoneNumber(phone);
 
-            EnrollRequest enrollRequest = EnrollRequestBuilder.builder()
-                    .withAuthenticator(phoneAuthenticator)
-                    .withStateHandle(proceedContext.getStateHandle())
-                    .build();
+                EnrollRequest enrollRequest = EnrollRequestBuilder.builder()
+                        .withAuthenticator(phoneAuthenticator)
+                        .withStateHandle(proceedContext.getStateHandle())
+                        .build();
 
-            return AuthenticationTransaction.proceed(client, proceedContext, () ->
-                    client.enroll(enrollRequest, proceedContext.getHref())
-            ).asAuthenticationResponse();
-        } catch (ProcessingException e) {
-            return handleProcessingException(e);
-        } catch (IllegalArgumentException e) {
-            return handleIllegalArgumentException(e);
-        }
+                return AuthenticationTransaction.proceed(client, proceedContext, () ->
+                        client.enroll(enrollRequest, proceedContext.getHref())
+                ).asAuthenticationResponse();
+            } catch (ProcessingException e) {
+                return handleProcessingException(e);
+            } catch (IllegalArgumentException e) {
+                return handleIllegalArgumentException(e);
+            }
+        });
     }
 
     /**
@@ -504,20 +705,22 @@ public class IDXAuthenticationWrapper {
      * @return the Authentication response
      */
     public AuthenticationResponse skipAuthenticatorEnrollment(ProceedContext proceedContext) {
-        try {
-            SkipAuthenticatorEnrollmentRequest skipAuthenticatorEnrollmentRequest =
-                    SkipAuthenticatorEnrollmentRequestBuilder.builder()
-                            .withStateHandle(proceedContext.getStateHandle())
-                            .build();
+        return admitted(() -> {
+            try {
+                SkipAuthenticatorEnrollmentRequest skipAuthenticatorEnrollmentRequest =
+                        SkipAuthenticatorEnrollmentRequestBuilder.builder()
+                                .withStateHandle(proceedContext.getStateHandle())
+                                .build();
 
-            return AuthenticationTransaction.proceed(client, proceedContext, () ->
-                    client.skip(skipAuthenticatorEnrollmentRequest, proceedContext.getSkipHref())
-            ).asAuthenticationResponse(AuthenticationStatus.SKIP_COMPLETE);
-        } catch (ProcessingException e) {
-            return handleProcessingException(e);
-        } catch (IllegalArgumentException e) {
-            return handleIllegalArgumentException(e);
-        }
+                return AuthenticationTransaction.proceed(client, proceedContext, () ->
+                        client.skip(skipAuthenticatorEnrollmentRequest, proceedContext.getSkipHref())
+                ).asAuthenticationResponse(AuthenticationStatus.SKIP_COMPLETE);
+            } catch (ProcessingException e) {
+                return handleProcessingException(e);
+            } catch (IllegalArgumentException e) {
+                return handleIllegalArgumentException(e);
+            }
+        });
     }
 
     /**
@@ -527,19 +730,21 @@ public class IDXAuthenticationWrapper {
      * @return the Authentication response
      */
     public AuthenticationResponse resend(ProceedContext proceedContext) {
-        try {
-            return AuthenticationTransaction.proceed(client, proceedContext, () -> {
-                SkipAuthenticatorEnrollmentRequest skipAuthenticatorEnrollmentRequest =
-                        SkipAuthenticatorEnrollmentRequestBuilder.builder()
-                                .withStateHandle(proceedContext.getStateHandle())
-                                .build();
-                return client.skip(skipAuthenticatorEnrollmentRequest, proceedContext.getResendHref());
-            }).asAuthenticationResponse();
-        } catch (ProcessingException e) {
-            return handleProcessingException(e);
-        } catch (IllegalArgumentException e) {
-            return handleIllegalArgumentException(e);
-        }
+        return admitted(() -> {
+            try {
+                return AuthenticationTransaction.proceed(client, proceedContext, () -> {
+                    SkipAuthenticatorEnrollmentRequest skipAuthenticatorEnrollmentRequest =
+                            SkipAuthenticatorEnrollmentRequestBuilder.builder()
+                                    .withStateHandle(proceedContext.getStateHandle())
+                                    .build();
+                    return client.skip(skipAuthenticatorEnrollmentRequest, proceedContext.getResendHref());
+                }).asAuthenticationResponse();
+            } catch (ProcessingException e) {
+                return handleProcessingException(e);
+            } catch (IllegalArgumentException e) {
+                return handleIllegalArgumentException(e);
+            }
+        });
     }
 
     /**
@@ -549,14 +754,16 @@ public class IDXAuthenticationWrapper {
      * @return the Authentication response
      */
     public AuthenticationResponse cancel(ProceedContext proceedContext) {
-        try {
-            return AuthenticationTransaction.proceed(client, proceedContext, () ->
-                    client.cancel(proceedContext.getStateHandle())).asAuthenticationResponse();
-        } catch (ProcessingException e) {
-            return handleProcessingException(e);
-        } catch (IllegalArgumentException e) {
-            return handleIllegalArgumentException(e);
-        }
+        return admitted(() -> {
+            try {
+                return AuthenticationTransaction.proceed(client, proceedContext, () ->
+                        client.cancel(proceedContext.getStateHandle())).asAuthenticationResponse();
+            } catch (ProcessingException e) {
+                return handleProcessingException(e);
+            } catch (IllegalArgumentException e) {
+                return handleIllegalArgumentException(e);
+            }
+        });
     }
 
     /**
@@ -566,18 +773,20 @@ public class IDXAuthenticationWrapper {
      * @return the Authentication response
      */
     public AuthenticationResponse poll(ProceedContext proceedContext) {
-        try {
-            return AuthenticationTransaction.proceed(client, proceedContext, () -> {
-                PollRequest pollRequest = PollRequestBuilder.builder()
-                        .withStateHandle(proceedContext.getStateHandle())
-                        .build();
-                return client.poll(pollRequest, proceedContext.getPollInfo().getHref());
-            }).asAuthenticationResponse();
-        } catch (ProcessingException e) {
-            return handleProcessingException(e);
-        } catch (IllegalArgumentException e) {
-            return handleIllegalArgumentException(e);
-        }
+        return admitted(() -> {
+            try {
+                return AuthenticationTransaction.proceed(client, proceedContext, () -> {
+                    PollRequest pollRequest = PollRequestBuilder.builder()
+                            .withStateHandle(proceedContext.getStateHandle())
+                            .build();
+                    return client.poll(pollRequest, proceedContext.getPollInfo().getHref());
+                }).asAuthenticationResponse();
+            } catch (ProcessingException e) {
+                return handleProcessingException(e);
+            } catch (IllegalArgumentException e) {
+                return handleIllegalArgumentException(e);
+            }
+        });
     }
 
     /**
@@ -625,11 +834,13 @@ public class IDXAuthenticationWrapper {
      * @return a AuthenticationResponse with a status representing the current location in the authentication flow.
      */
     public AuthenticationResponse introspect(IDXClientContext clientContext) {
-        try {
-            return AuthenticationTransaction.introspect(client, clientContext).asAuthenticationResponse();
-        } catch (ProcessingException e) {
-            return handleProcessingException(e);
-        }
+        return admitted(() -> {
+            try {
+                return AuthenticationTransaction.introspect(client, clientContext).asAuthenticationResponse();
+            } catch (ProcessingException e) {
+                return handleProcessingException(e);
+            }
+        });
     }
 
     /**
@@ -639,55 +850,142 @@ public class IDXAuthenticationWrapper {
      * @return the authentication response
      */
     public AuthenticationResponse fetchSignUpFormValues(ProceedContext proceedContext) {
+        return admitted(() -> {
+            try {
+                return signUpFormValues(proceedContext);
+            } catch (ProcessingException e) {
+                return handleProcessingException(e);
+            } catch (IllegalArgumentException e) {
+                return handleIllegalArgumentException(e);
+            }
+        });
+    }
+
+    /**
+     * Same as {@link #fetchSignUpFormValues(ProceedContext)}, without blocking the calling thread.
+     *
+     * @param proceedContext the proceedContext
+     * @return a future completed with the authentication response
+     */
+    public CompletableFuture<AuthenticationResponse> fetchSignUpFormValuesAsync(ProceedContext proceedContext) {
+        return admittedAsync(() -> callAsync(() -> signUpFormValues(proceedContext)));
+    }
+
+    private AuthenticationResponse signUpFormValues(ProceedContext proceedContext) throws ProcessingException {
         AuthenticationResponse newUserRegistrationResponse = new AuthenticationResponse();
 
-        try {
-            Assert.notNull(proceedContext.getSelectProfileEnrollHref(), "Policy not configured.");
+        Assert.notNull(proceedContext.getSelectProfileEnrollHref(), "Policy not configured.");
 
-            // enroll new user
-            AuthenticationTransaction enrollTransaction = AuthenticationTransaction.proceed(client, proceedContext, () -> {
-                EnrollRequest enrollRequest = EnrollRequestBuilder.builder()
-                        .withStateHandle(proceedContext.getStateHandle())
-                        .build();
-                return client.enroll(enrollRequest, proceedContext.getSelectProfileEnrollHref());
-            });
+        // enroll new user
+        AuthenticationTransaction enrollTransaction = AuthenticationTransaction.proceed(client, proceedContext, () -> {
+            EnrollRequest enrollRequest = EnrollRequestBuilder.builder()
+                    .withStateHandle(proceedContext.getStateHandle())
+                    .build();
+            return client.enroll(enrollRequest, proceedContext.getSelectProfileEnrollHref());
+        });
 
-            RemediationOption enrollProfileRemediationOption =
-                    enrollTransaction.getRemediationOption(RemediationType.ENROLL_PROFILE);
+        RemediationOption enrollProfileRemediationOption =
+                enrollTransaction.getRemediationOption(RemediationType.ENROLL_PROFILE);
 
-            List<FormValue> enrollProfileFormValues = Arrays.stream(enrollProfileRemediationOption.form())
-                    .filter(x -> "userProfile".equals(x.getName()))
-                    .collect(Collectors.toList());
+        List<FormValue> enrollProfileFormValues = Arrays.stream(enrollProfileRemediationOption.form())
+                .filter(x -> "userProfile".equals(x.getName()))
+                .collect(Collectors.toList());
 
-            newUserRegistrationResponse.setFormValues(enrollProfileFormValues);
-            newUserRegistrationResponse.setProceedContext(enrollTransaction.createProceedContext());
-            return newUserRegistrationResponse;
-        } catch (ProcessingException e) {
-            return handleProcessingException(e);
-        } catch (IllegalArgumentException e) {
-            return handleIllegalArgumentException(e);
+        newUserRegistrationResponse.setFormValues(enrollProfileFormValues);
+        newUserRegistrationResponse.setProceedContext(enrollTransaction.createProceedContext());
+        return newUserRegistrationResponse;
+    }
+
+    /**
+     * Runs an operation if the admission controller admits it, and answers with a {@link AuthenticationStatus#BUSY}
+     * response otherwise.
+     */
+    private AuthenticationResponse admitted(Supplier<AuthenticationResponse> operation) {
+        if (!admit()) {
+            return busyResponse();
+        }
+        long start = System.nanoTime();
+        try {
+            return operation.get();
+        } finally {
+            release(start);
         }
     }
 
-    // If app sign-on policy is set to "any 1 factor", the next remediation after identify is
-    // select-authenticator-authenticate
-    // Check if that's the case, and proceed to select password authenticator
+    /**
+     * Same as {@link #admitted(Supplier)} for an asynchronous flow, which keeps its admission until it completes.
+     */
+    private CompletableFuture<AuthenticationResponse> admittedAsync(
+            Supplier<CompletableFuture<AuthenticationResponse>> flow) {
+        if (!admit()) {
+            return CompletableFuture.completedFuture(busyResponse());
+        }
+        long start = System.nanoTime();
+        CompletableFuture<AuthenticationResponse> started;
+        try {
+            started = flow.get();
+        } catch (RuntimeException e) {
+            release(start);
+            throw e;
+        }
+        return completeAsync(started, start);
+    }
+
+    private boolean admit() {
+        return admissionController == null || admissionController.tryAdmit();
+    }
+
+    private void release(long start) {
+        if (admissionController != null) {
+            admissionController.release(System.nanoTime() - start);
+        }
+    }
+
+    private AuthenticationResponse busyResponse() {
+        AuthenticationResponse authenticationResponse = new AuthenticationResponse();
+        authenticationResponse.setAuthenticationStatus(AuthenticationStatus.BUSY);
+        authenticationResponse.setRetryAfter(admissionController.getRetryAfter());
+        authenticationResponse.addError("Too many sign-in requests are in progress. Please try again later.");
+        return authenticationResponse;
+    }
+
     private AuthenticationTransaction selectPasswordAuthenticatorIfNeeded(AuthenticationTransaction authenticationTransaction)
             throws ProcessingException {
+        Optional<AuthenticationTransaction.Factory> selectPasswordAuthenticator =
+                selectPasswordAuthenticator(authenticationTransaction);
+        return selectPasswordAuthenticator.isPresent()
+                ? authenticationTransaction.proceed(selectPasswordAuthenticator.get())
+                : authenticationTransaction;
+    }
+
+    private CompletableFuture<AuthenticationTransaction> selectPasswordAuthenticatorIfNeededAsync(
+            AuthenticationTransaction authenticationTransaction) {
+        Optional<AuthenticationTransaction.Factory> selectPasswordAuthenticator =
+                selectPasswordAuthenticator(authenticationTransaction);
+        return selectPasswordAuthenticator.isPresent()
+                ? callAsync(() -> authenticationTransaction.proceed(selectPasswordAuthenticator.get()))
+                : CompletableFuture.completedFuture(authenticationTransaction);
+    }
+
+    // If app sign-on policy is set to "any 1 factor", the next remediation after identify is
+    // select-authenticator-authenticate
+    // Check if that's the case, and return the call that selects the password authenticator
+    private Optional<AuthenticationTransaction.Factory> selectPasswordAuthenticator(
+            AuthenticationTransaction authenticationTransaction) {
         // If remediation contains challenge-authenticator for passcode, we don't need to check SELECT_AUTHENTICATOR_AUTHENTICATE
         Optional<RemediationOption> challengeRemediationOptionOptional =
                 authenticationTransaction.getOptionalRemediationOption(RemediationType.CHALLENGE_AUTHENTICATOR);
 
         if (challengeRemediationOptionOptional.isPresent()) {
             // proceed with password challenge
-            return authenticationTransaction;
+            return Optional.empty();
         }
 
         Optional<RemediationOption> remediationOptionOptional =
                 authenticationTransaction.getOptionalRemediationOption(RemediationType.SELECT_AUTHENTICATOR_AUTHENTICATE);
         if (!remediationOptionOptional.isPresent()) {
             // We don't need to.
-            return authenticationTransaction;
+            return Optional.empty();
         }
         Map<String, String> authenticatorOptions = remediationOptionOptional.get().getAuthenticatorOptions();
 
@@ -699,9 +997,72 @@ public class IDXAuthenticationWrapper {
                 .withAuthenticator(authenticator)
                 .build();
 
-        return authenticationTransaction.proceed(() ->
-                remediationOptionOptional.get().proceed(client, selectAuthenticatorRequest)
-        );
+        return Optional.of(() -> remediationOptionOptional.get().proceed(client, selectAuthenticatorRequest));
+    }
+
+    /**
+     * Runs one call to the backend as a task of its own on the executor of {@link #supplyAsync(Function)}.
+     */
+    private static <T> CompletableFuture<T> callAsync(Call<T> call) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return call.call();
+                } catch (ProcessingException e) {
+                    throw new CompletionException(e);
+                }
+            }, AsyncExecutor.INSTANCE);
+        } catch (RejectedExecutionException e) {
+            // reported as the blocking operations report a backend that cannot be reached
+            CompletableFuture<T> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(new ProcessingException(e));
+            return rejected;
+        }
+    }
+
+    /**
+     * Turns a transaction into its response on the thread that completed the transaction, without a task of its own,
+     * unless the login succeeded: then the interaction code is exchanged for tokens, a call to the backend.
+     */
+    private static CompletableFuture<AuthenticationResponse> asAuthenticationResponseAsync(
+            AuthenticationTransaction transaction, AuthenticationStatus defaultStatus) {
+        if (transaction.getResponse() != null && transaction.getResponse().isLoginSuccessful()) {
+            return callAsync(() -> transaction.asAuthenticationResponse(defaultStatus));
+        }
+        CompletableFuture<AuthenticationResponse> response = new CompletableFuture<>();
+        try {
+            response.complete(transaction.asAuthenticationResponse(defaultStatus));
+        } catch (ProcessingException e) {
+            response.completeExceptionally(e);
+        }
+        return response;
+    }
+
+    /**
+     * Releases the admission of an asynchronous flow once it completes, and turns its failures into responses as
+     * the blocking methods do.
+     */
+    private CompletableFuture<AuthenticationResponse> completeAsync(CompletableFuture<AuthenticationResponse> flow,
+                                                                    long start) {
+        return flow.handle((authenticationResponse, failure) -> {
+            release(start);
+            if (failure == null) {
+                return authenticationResponse;
+            }
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause() : failure;
+            if (cause instanceof ProcessingException) {
+                return handleProcessingException((ProcessingException) cause);
+            }
+            if (cause instanceof IllegalArgumentException) {
+                return handleIllegalArgumentException((IllegalArgumentException) cause);
+            }
+            throw failure instanceof CompletionException ? (CompletionException) failure : new CompletionException(cause);
+        });
+    }
+
+    private interface Call<T> {
+        T call() throws ProcessingException;
     }
 
     /**
@@ -735,31 +1096,44 @@ public class IDXAuthenticationWrapper {
     }
 
     public AuthenticationResponse begin() {
-        try {
-            return AuthenticationTransaction.create(client).asAuthenticationResponse();
-        } catch (ProcessingException e) {
-            return handleProcessingException(e);
-        } catch (IllegalArgumentException e) {
-            return handleIllegalArgumentException(e);
-        }
+        return admitted(() -> {
+            try {
+                return AuthenticationTransaction.create(client).asAuthenticationResponse();
+            } catch (ProcessingException e) {
+                return handleProcessingException(e);
+            } catch (IllegalArgumentException e) {
+                return handleIllegalArgumentException(e);
+            }
+        });
     }
 
     public AuthenticationResponse fetchTokenWithInteractionCode(String issuer,
                                                                 ProceedContext proceedContext,
                                                                 String interactionCode) {
-        AuthenticationResponse authenticationResponse = new AuthenticationResponse();
+        return admitted(() -> {
+            AuthenticationResponse authenticationResponse = new AuthenticationResponse();
+
+            try {
+                TokenResponse tokenResponse =
+                        client.token(ClientUtil.getNormalizedUri(issuer, "/v1/token"),
+                                "interaction_code", interactionCode, proceedContext.getClientContext());
+                authenticationResponse.setTokenResponse(tokenResponse);
+            } catch (ProcessingException e) {
+                return handleProcessingException(e);
+            } catch (MalformedURLException e) {
+                logger.error("Error occurred", e);
+            }
 
-        try {
-            TokenResponse tokenResponse =
-                    client.token(ClientUtil.getNormalizedUri(issuer, "/v1/token"),
-                            "interaction_code", interactionCode, proceedContext.getClientContext());
-            authenticationResponse.setTokenResponse(tokenResponse);
-        } catch (ProcessingException e) {
-            return handleProcessingException(e);
-        } catch (MalformedURLException e) {
-            logger.error("Error occurred", e);
-        }
+            return authenticationResponse;
+        });
+    }
 
-        return authenticationResponse;
+    private static final class AsyncExecutor {
+
+        // created on first use, so that wrappers that never run operations asynchronously start no threads
+        // each step keeps the priority of the thread that submits it, so a whole flow runs at its caller's priority
+        private static final Executor INSTANCE = IDXPriorityScheduler.withCurrentPriority(VirtualThreads.isSupported()
+            ? VirtualThreads.newThreadPerTaskExecutor("okta-idx-wrapper-virtual-")
+            : DefaultIDXClientBuilder.createDefaultAsyncExecutor());
     }
 }
@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client;
+
+import com.okta.commons.http.Response;
+import com.okta.commons.lang.Assert;
+import com.okta.idx.sdk.api.exception.ProcessingException;
+import com.okta.idx.sdk.api.exception.ServiceUnavailableException;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bulkheads that isolate the {@link IDXEndpoint.Family endpoint families} from each other: each family gets its
+ * own limit of concurrent calls and its own queue, so that e.g. a wave of Okta Verify push polls cannot take all
+ * the transport's connections from the token exchanges of users finishing their login.
+ * <p>
+ * A call waits in its family's queue for at most the maximum wait. Calls that find the queue full, or that wait
+ * too long, fail with a {@link ServiceUnavailableException}. Families without a limit are not restricted. A call
+ * keeps its slot until its response has been read and parsed, as the transport keeps its connection until then.
+ * <pre>
+ * IDXBulkhead bulkhead = IDXBulkhead.builder()
+ *     .withMaxConcurrentCalls(IDXEndpoint.Family.POLL, 20)
+ *     .withMaxConcurrentCalls(IDXEndpoint.Family.TOKEN, 10)
+ *     .build();
+ * IDXClient client = Clients.builder().addInterceptor(bulkhead).build();
+ * long queueWait = bulkhead.getMetrics(IDXEndpoint.Family.POLL).getTotalQueueWaitNanos();
+ * </pre>
+ */
+public final class IDXBulkhead implements IDXInterceptor {
+
+    private final Map<IDXEndpoint.Family, Compartment> compartments = new EnumMap<>(IDXEndpoint.Family.class);
+
+    private IDXBulkhead(Builder builder) {
+        for (IDXEndpoint.Family family : IDXEndpoint.Family.values()) {
+            Integer maxConcurrentCalls = builder.maxConcurrentCalls.get(family);
+            if (maxConcurrentCalls != null) {
+                Integer maxQueuedCalls = builder.maxQueuedCalls.get(family);
+                compartments.put(family, new Compartment(family, maxConcurrentCalls,
+                    maxQueuedCalls != null ? maxQueuedCalls : Integer.MAX_VALUE, builder.maxWait.toNanos()));
+            }
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @param family the endpoint family
+     * @return the current metrics of the family's bulkhead, or {@code null} if the family has no limit
+     */
+    public Metrics getMetrics(IDXEndpoint.Family family) {
+        Compartment compartment = compartments.get(family);
+        return compartment != null ? compartment.metrics() : null;
+    }
+
+    @Override
+    public Response intercept(IDXRequestContext context, Chain chain) throws ProcessingException {
+
+        Compartment compartment = compartments.get(context.getEndpoint().getFamily());
+        if (compartment == null) {
+            return chain.proceed(context);
+        }
+
+        context.releaseHeld(this);
+        compartment.acquire();
+        boolean held = false;
+        try {
+            Response response = chain.proceed(context);
+            // the connection is only given back once the response has been read, so the slot is held until then
+            context.holdUntilComplete(this, compartment.permits::release);
+            held = true;
+            return response;
+        } finally {
+            if (!held) {
+                compartment.permits.release();
+            }
+        }
+    }
+
+    private static final class Compartment {
+
+        private final IDXEndpoint.Family family;
+        private final int maxConcurrentCalls;
+        private final int maxQueuedCalls;
+        private final long maxWaitNanos;
+        private final Semaphore permits;
+
+        private final AtomicInteger queuedCalls = new AtomicInteger();
+        private final AtomicLong acquiredCalls = new AtomicLong();
+        private final AtomicLong rejectedCalls = new AtomicLong();
+        private final AtomicLong totalQueueWaitNanos = new AtomicLong();
+        private final AtomicLong maxQueueWaitNanos = new AtomicLong();
+
+        private Compartment(IDXEndpoint.Family family, int maxConcurrentCalls, int maxQueuedCalls, long maxWaitNanos) {
+            this.family = family;
+            this.maxConcurrentCalls = maxConcurrentCalls;
+            this.maxQueuedCalls = maxQueuedCalls;
+            this.maxWaitNanos = maxWaitNanos;
+            this.permits = new Semaphore(maxConcurrentCalls, true);
+        }
+
+        void acquire() throws ProcessingException {
+
+            // callers already queued go first
+            if (queuedCalls.get() == 0 && permits.tryAcquire()) {
+                acquiredCalls.incrementAndGet();
+                return;
+            }
+
+            if (queuedCalls.incrementAndGet() > maxQueuedCalls) {
+                queuedCalls.decrementAndGet();
+                rejectedCalls.incrementAndGet();
+                throw new ServiceUnavailableException("Bulkhead queue for " + family + " calls is full.");
+            }
+
+            long start = System.nanoTime();
+            boolean acquired;
+            try {
+                acquired = permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ProcessingException(e);
+            } finally {
+                queuedCalls.decrementAndGet();
+                long waitNanos = System.nanoTime() - start;
+                totalQueueWaitNanos.addAndGet(waitNanos);
+                maxQueueWaitNanos.accumulateAndGet(waitNanos, Math::max);
+            }
+
+            if (!acquired) {
+                rejectedCalls.incrementAndGet();
+                throw new ServiceUnavailableException("Timed out waiting in the bulkhead queue for " + family + " calls.");
+            }
+            acquiredCalls.incrementAndGet();
+        }
+
+        Metrics metrics() {
+            return new Metrics(maxConcurrentCalls, maxConcurrentCalls - permits.availablePermits(), queuedCalls.get(),
+                acquiredCalls.get(), rejectedCalls.get(), totalQueueWaitNanos.get(), maxQueueWaitNanos.get());
+        }
+    }
+
+    /**
+     * A snapshot of the state of one family's bulkhead. Counters and wait times accumulate from the creation of the
+     * bulkhead.
+     */
+    public static final class Metrics {
+
+        private final int maxConcurrentCalls;
+        private final int activeCalls;
+        private final int queuedCalls;
+        private final long acquiredCalls;
+        private final long rejectedCalls;
+        private final long totalQueueWaitNanos;
+        private final long maxQueueWaitNanos;
+
+        private Metrics(int maxConcurrentCalls, int activeCalls, int queuedCalls, long acquiredCalls,
+                        long rejectedCalls, long totalQueueWaitNanos, long maxQueueWaitNanos) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+            this.activeCalls = activeCalls;
+            this.queuedCalls = queuedCalls;
+            this.acquiredCalls = acquiredCalls;
+            this.rejectedCalls = rejectedCalls;
+            this.totalQueueWaitNanos = totalQueueWaitNanos;
+            this.maxQueueWaitNanos = maxQueueWaitNanos;
+        }
+
+        public int getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        public int getActiveCalls() {
+            return activeCalls;
+        }
+
+        public int getQueuedCalls() {
+            return queuedCalls;
+        }
+
+        public long getAcquiredCalls() {
+            return acquiredCalls;
+        }
+
+        public long getRejectedCalls() {
+            return rejectedCalls;
+        }
+
+        public long getTotalQueueWaitNanos() {
+            return totalQueueWaitNanos;
+        }
+
+        public long getMaxQueueWaitNanos() {
+            return maxQueueWaitNanos;
+        }
+    }
+
+    /**
+     * Configures an {@link IDXBulkhead}.
+     */
+    public static final class Builder {
+
+        private final Map<IDXEndpoint.Family, Integer> maxConcurrentCalls = new EnumMap<>(IDXEndpoint.Family.class);
+        private final Map<IDXEndpoint.Family, Integer> maxQueuedCalls = new EnumMap<>(IDXEndpoint.Family.class);
+        private Duration maxWait = Duration.ofSeconds(5);
+
+        private Builder() {
+        }
+
+        /**
+         * @param family the endpoint family
+         * @param maxConcurrentCalls the maximum number of the family's calls in flight at the same time
+         * @return this builder
+         */
+        public Builder withMaxConcurrentCalls(IDXEndpoint.Family family, int maxConcurrentCalls) {
+            Assert.notNull(family, "family cannot be null");
+            Assert.isTrue(maxConcurrentCalls > 0, "maxConcurrentCalls must be greater than zero.");
+            this.maxConcurrentCalls.put(family, maxConcurrentCalls);
+            return this;
+        }
+
+        /**
+         * @param family the endpoint family
+         * @param maxQueuedCalls the maximum number of the family's calls waiting for a slot, unbounded by default
+         * @return this builder
+         */
+        public Builder withMaxQueuedCalls(IDXEndpoint.Family family, int maxQueuedCalls) {
+            Assert.notNull(family, "family cannot be null");
+            Assert.isTrue(maxQueuedCalls >= 0, "maxQueuedCalls cannot be a negative number.");
+            this.maxQueuedCalls.put(family, maxQueuedCalls);
+            return this;
+        }
+
+        /**
+         * @param maxWait how long a call may wait for a slot, 5 seconds by default
+         * @return this builder
+         */
+        public Builder withMaxWait(Duration maxWait) {
+            Assert.notNull(maxWait, "maxWait cannot be null");
+            this.maxWait = maxWait;
+            return this;
+        }
+
+        public IDXBulkhead build() {
+            return new IDXBulkhead(this);
+        }
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client;
+
+import com.okta.commons.http.HttpException;
+import com.okta.commons.http.Response;
+import com.okta.commons.lang.Assert;
+import com.okta.idx.sdk.api.exception.ProcessingException;
+import com.okta.idx.sdk.api.exception.ServiceUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Circuit breaker around the transport, with one circuit per {@link IDXEndpoint.Family}.
+ * <p>
+ * A circuit records the outcome of its most recent calls. A call fails if the transport fails or the server
+ * answers with a 5xx status, and is slow if it takes longer than the slow call threshold, until its response has
+ * been read. Calls are recorded once they complete, and only by the state of the circuit they started in: a call
+ * that started before the circuit opened or closed does not count towards the new state. Once the window holds
+ * enough calls and either the failure rate or the slow call rate reaches its threshold, the circuit opens: calls
+ * then fail right away with a {@link ServiceUnavailableException}, which {@link IDXAuthenticationWrapper} reports as
+ * {@link com.okta.idx.sdk.api.model.AuthenticationStatus#SERVICE_UNAVAILABLE}. After the open duration one probe
+ * call is let through; the circuit closes again if it succeeds and reopens otherwise.
+ * <pre>
+ * IDXClient client = Clients.builder()
+ *     .addInterceptor(IDXCircuitBreaker.builder().withFailureRateThreshold(50).build())
+ *     .build();
+ * IDXAuthenticationWrapper wrapper = new IDXAuthenticationWrapper(client);
+ * </pre>
+ */
+public final class IDXCircuitBreaker implements IDXInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(IDXCircuitBreaker.class);
+
+    /**
+     * The state of a circuit.
+     */
+    public enum State {
+        /** Calls go through and their outcomes are recorded. */
+        CLOSED,
+        /** Calls fail right away. */
+        OPEN,
+        /** A probe call is let through to decide whether to close the circuit. */
+        HALF_OPEN
+    }
+
+    private final Map<IDXEndpoint.Family, Circuit> circuits = new EnumMap<>(IDXEndpoint.Family.class);
+
+    private IDXCircuitBreaker(Builder builder) {
+        for (IDXEndpoint.Family family : IDXEndpoint.Family.values()) {
+            circuits.put(family, new Circuit(family, builder));
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @param family the endpoint family
+     * @return the current state of the family's circuit
+     */
+    public State getState(IDXEndpoint.Family family) {
+        return circuits.get(family).getState(System.nanoTime());
+    }
+
+    @Override
+    public Response intercept(IDXRequestContext context, Chain chain) throws ProcessingException {
+
+        // the previous attempt of a retried call is over
+        context.releaseHeld(this);
+
+        Circuit circuit = circuits.get(context.getEndpoint().getFamily());
+        long generation = circuit.tryAcquire(System.nanoTime());
+        if (generation == Circuit.NOT_PERMITTED) {
+            throw new ServiceUnavailableException("Circuit breaker for " + circuit.family + " calls is open.");
+        }
+
+        long start = System.nanoTime();
+        boolean recorded = false;
+        try {
+            Response response = chain.proceed(context);
+            boolean failed = response.getHttpStatus() >= 500;
+            // timed until the response has been read, as a slow backend can also be slow to send the body
+            context.holdUntilComplete(this, () -> circuit.record(generation, start, System.nanoTime(), failed));
+            recorded = true;
+            return response;
+        } catch (HttpException e) {
+            circuit.record(generation, start, System.nanoTime(), true);
+            recorded = true;
+            throw e;
+        } finally {
+            if (!recorded) {
+                // failed by an inner interceptor, which says nothing about the health of the backend
+                circuit.release(generation);
+            }
+        }
+    }
+
+    private static final class Circuit {
+
+        static final long NOT_PERMITTED = -1;
+
+        private final IDXEndpoint.Family family;
+        private final int minimumCalls;
+        private final int failureRateThreshold;
+        private final int slowCallRateThreshold;
+        private final long slowCallNanos;
+        private final long openNanos;
+
+        // outcomes of the last calls, as a ring buffer
+        private final boolean[] failed;
+        private final boolean[] slow;
+        private int calls;
+        private int next;
+        private int failedCalls;
+        private int slowCalls;
+
+        private State state = State.CLOSED;
+        // changes with every change of state, so that calls started in an earlier state are not recorded
+        private long generation;
+        private long openedAt;
+        private boolean probing;
+
+        private Circuit(IDXEndpoint.Family family, Builder builder) {
+            this.family = family;
+            this.minimumCalls = builder.minimumCalls;
+            this.failureRateThreshold = builder.failureRateThreshold;
+            this.slowCallRateThreshold = builder.slowCallRateThreshold;
+            this.slowCallNanos = builder.slowCallThreshold.toNanos();
+            this.openNanos = builder.openDuration.toNanos();
+            this.failed = new boolean[builder.windowSize];
+            this.slow = new boolean[builder.windowSize];
+        }
+
+        synchronized State getState(long now) {
+            if (state == State.OPEN && now - openedAt >= openNanos) {
+                return State.HALF_OPEN;
+            }
+            return state;
+        }
+
+        /**
+         * @return the generation of the state the call is let through in, or {@link #NOT_PERMITTED}
+         */
+        synchronized long tryAcquire(long now) {
+            if (state == State.OPEN && now - openedAt >= openNanos) {
+                state = State.HALF_OPEN;
+                generation++;
+                probing = false;
+            }
+            switch (state) {
+                case CLOSED:
+                    return generation;
+                case HALF_OPEN:
+                    if (probing) {
+                        return NOT_PERMITTED;
+                    }
+                    probing = true;
+                    return generation;
+                default:
+                    return NOT_PERMITTED;
+            }
+        }
+
+        synchronized void release(long callGeneration) {
+            if (callGeneration == generation && state == State.HALF_OPEN) {
+                probing = false;
+            }
+        }
+
+        synchronized void record(long callGeneration, long start, long end, boolean callFailed) {
+
+            if (callGeneration != generation) {
+                // a call started before the circuit opened or closed says nothing about its current state
+                return;
+            }
+            boolean callSlow = end - start >= slowCallNanos;
+
+            if (state == State.HALF_OPEN) {
+                if (callFailed || callSlow) {
+                    open(end);
+                } else {
+                    logger.info("Circuit breaker for {} calls closed", family);
+                    state = State.CLOSED;
+                    generation++;
+                    reset();
+                }
+                return;
+            }
+
+            if (calls == failed.length) {
+                failedCalls -= failed[next] ? 1 : 0;
+                slowCalls -= slow[next] ? 1 : 0;
+            } else {
+                calls++;
+            }
+            failed[next] = callFailed;
+            slow[next] = callSlow;
+            failedCalls += callFailed ? 1 : 0;
+            slowCalls += callSlow ? 1 : 0;
+            next = (next + 1) % failed.length;
+
+            if (calls >= minimumCalls
+                && (failedCalls * 100 >= failureRateThreshold * calls || slowCalls * 100 >= slowCallRateThreshold * calls)) {
+                open(end);
+            }
+        }
+
+        private void open(long now) {
+            logger.warn("Circuit breaker for {} calls opened", family);
+            state = State.OPEN;
+            generation++;
+            openedAt = now;
+            probing = false;
+            reset();
+        }
+
+        private void reset() {
+            calls = 0;
+            next = 0;
+            failedCalls = 0;
+            slowCalls = 0;
+        }
+    }
+
+    /**
+     * Configures an {@link IDXCircuitBreaker}. Every circuit of the breaker uses the same settings.
+     */
+    public static final class Builder {
+
+        private int windowSize = 50;
+        private int minimumCalls = 20;
+        private int failureRateThreshold = 50;
+        private int slowCallRateThreshold = 80;
+        private Duration slowCallThreshold = Duration.ofSeconds(5);
+        private Duration openDuration = Duration.ofSeconds(30);
+
+        private Builder() {
+        }
+
+        /**
+         * @param windowSize the number of most recent calls the rates are computed over, 50 by default
+         * @return this builder
+         */
+        public Builder withWindowSize(int windowSize) {
+            Assert.isTrue(windowSize > 0, "windowSize must be greater than zero.");
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        /**
+         * @param minimumCalls the number of calls recorded before the circuit may open, 20 by default
+         * @return this builder
+         */
+        public Builder withMinimumCalls(int minimumCalls) {
+            Assert.isTrue(minimumCalls > 0, "minimumCalls must be greater than zero.");
+            this.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        /**
+         * @param failureRateThreshold the percentage of failed calls that opens the circuit, 50 by default
+         * @return this builder
+         */
+        public Builder withFailureRateThreshold(int failureRateThreshold) {
+            Assert.isTrue(failureRateThreshold > 0 && failureRateThreshold <= 100,
+                "failureRateThreshold must be between 1 and 100.");
+            this.failureRateThreshold = failureRateThreshold;
+            return this;
+        }
+
+        /**
+         * @param slowCallRateThreshold the percentage of slow calls that opens the circuit, 80 by default
+         * @return this builder
+         */
+        public Builder withSlowCallRateThreshold(int slowCallRateThreshold) {
+            Assert.isTrue(slowCallRateThreshold > 0 && slowCallRateThreshold <= 100,
+                "slowCallRateThreshold must be between 1 and 100.");
+            this.slowCallRateThreshold = slowCallRateThreshold;
+            return this;
+        }
+
+        /**
+         * @param slowCallThreshold the duration above which a call is slow, 5 seconds by default
+         * @return this builder
+         */
+        public Builder withSlowCallThreshold(Duration slowCallThreshold) {
+            Assert.notNull(slowCallThreshold, "slowCallThreshold cannot be null");
+            this.slowCallThreshold = slowCallThreshold;
+            return this;
+        }
+
+        /**
+         * @param openDuration how long the circuit stays open before a probe call is let through, 30 seconds by
+         *                     default
+         * @return this builder
+         */
+        public Builder withOpenDuration(Duration openDuration) {
+            Assert.notNull(openDuration, "openDuration cannot be null");
+            this.openDuration = openDuration;
+            return this;
+        }
+
+        public IDXCircuitBreaker build() {
+            Assert.isTrue(minimumCalls <= windowSize, "minimumCalls cannot be greater than windowSize.");
+            return new IDXCircuitBreaker(this);
+        }
+    }
+}
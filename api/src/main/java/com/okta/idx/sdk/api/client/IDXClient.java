@@ -61,4 +61,22 @@ public interface IDXClient {
     void revokeToken(String tokenType, String token) throws ProcessingException;
 
     Response verifyEmailToken(String token) throws ProcessingException;
+
+    /**
+     * Prepares the client for its first logins: resolves the issuer host, opens {@code connections} connections to
+     * it that the transport keeps in its pool, and builds the JSON serializers of the IDX model.
+     *
+     * @param connections the number of connections to open, capped to the maximum connections per route
+     * @return how long each step took
+     * @throws ProcessingException if the issuer could not be resolved or none of the connections could be opened
+     */
+    WarmUpReport warmUp(int connections) throws ProcessingException;
+
+    /**
+     * Reports on the connections behind the client's transport. Cheap enough to be called every few seconds, e.g.
+     * by a metrics scraper.
+     *
+     * @return the statistics of the transport since the client was created
+     */
+    TransportStatistics getTransportStatistics();
 }
@@ -15,19 +15,124 @@
  */
 package com.okta.idx.sdk.api.client;
 
+import com.okta.commons.http.config.Proxy;
+
 import java.util.Set;
+import java.util.concurrent.Executor;
+
+public abstract class IDXClientBuilder {
+
+    public abstract IDXClientBuilder setIssuer(String issuer);
+
+    public abstract IDXClientBuilder setClientId(String clientId);
+
+    public abstract IDXClientBuilder setClientSecret(String clientSecret);
+
+    public abstract IDXClientBuilder setScopes(Set<String> scopes);
+
+    public abstract IDXClientBuilder setRedirectUri(String redirectUri);
+
+    /**
+     * Sets the timeout, in seconds, for opening a connection to and reading from the Okta host. Zero means no timeout.
+     *
+     * @param timeout the connection timeout in seconds
+     * @return this builder
+     */
+    public abstract IDXClientBuilder setConnectionTimeout(int timeout);
+
+    /**
+     * Sets the maximum time, in seconds, a request may take including retries. Zero, the default, disables retries
+     * unless {@link #setRetryMaxAttempts(int)} is set.
+     *
+     * @param timeout the request timeout in seconds
+     * @return this builder
+     */
+    public abstract IDXClientBuilder setRequestTimeout(int timeout);
+
+    /**
+     * Sets the maximum number of times a failed request is retried, with jittered exponential backoff or after the
+     * delay given by the {@code Retry-After} and {@code X-Rate-Limit-Reset} headers. Idempotent calls (introspect,
+     * poll, revoke) are retried on rate limited (429) and unavailable (502, 503, 504) responses and on transport
+     * failures; other calls only when the request cannot have been processed. Zero, the default, disables retries
+     * unless {@link #setRequestTimeout(int)} is set.
+     *
+     * @param maxAttempts the maximum number of retries
+     * @return this builder
+     */
+    public abstract IDXClientBuilder setRetryMaxAttempts(int maxAttempts);
+
+    /**
+     * Sets the maximum number of pooled connections to the Okta host.
+     *
+     * @param maxConnectionsPerRoute the maximum number of connections per route
+     * @return this builder
+     */
+    public abstract IDXClientBuilder setMaxConnectionsPerRoute(int maxConnectionsPerRoute);
+
+    /**
+     * Sets the maximum number of pooled connections across all routes.
+     *
+     * @param maxConnectionsTotal the maximum number of connections
+     * @return this builder
+     */
+    public abstract IDXClientBuilder setMaxConnectionsTotal(int maxConnectionsTotal);
+
+    /**
+     * Sets how long, in seconds, a pooled connection is kept for reuse.
+     *
+     * @param keepAlive the keep-alive duration in seconds
+     * @return this builder
+     */
+    public abstract IDXClientBuilder setKeepAlive(int keepAlive);
 
-abstract class IDXClientBuilder {
+    /**
+     * Sets whether the client asks Okta for gzip or deflate compressed responses, which it decompresses while
+     * parsing them. Disabled by default.
+     *
+     * @param compressionEnabled {@code true} to negotiate compression
+     * @return this builder
+     */
+    public abstract IDXClientBuilder setCompressionEnabled(boolean compressionEnabled);
 
-    protected abstract IDXClientBuilder setIssuer(String issuer);
+    /**
+     * Sets whether backend calls the client makes off the calling thread run on virtual threads: each call of the
+     * {@link AsyncIDXClient}, unless {@link #setAsyncExecutor(Executor)} is set, and the connections opened by
+     * {@link IDXClient#warmUp(int)}. Calls of the blocking {@link IDXClient} run on the calling thread, so call it
+     * from virtual threads to make them cheap to fan out. Requires Java 21 or later; disabled by default.
+     *
+     * @param virtualThreadsEnabled {@code true} to use virtual threads
+     * @return this builder
+     */
+    public abstract IDXClientBuilder setVirtualThreadsEnabled(boolean virtualThreadsEnabled);
 
-    protected abstract IDXClientBuilder setClientId(String clientId);
+    /**
+     * Sets the HTTP proxy used to reach the Okta host.
+     *
+     * @param proxy the proxy
+     * @return this builder
+     */
+    public abstract IDXClientBuilder setProxy(Proxy proxy);
 
-    protected abstract IDXClientBuilder setClientSecret(String clientSecret);
+    /**
+     * Sets the {@link Executor} used by the {@link AsyncIDXClient} to run backend calls. If not set, the client
+     * creates a bounded pool of daemon threads, which fails calls with a
+     * {@link com.okta.idx.sdk.api.exception.ProcessingException} while its queue is full.
+     *
+     * @param executor the executor
+     * @return this builder
+     */
+    public abstract IDXClientBuilder setAsyncExecutor(Executor executor);
 
-    protected abstract IDXClientBuilder setScopes(Set<String> scopes);
+    /**
+     * Adds an {@link IDXInterceptor} to the request pipeline of the clients built. Interceptors run in the order
+     * they are added.
+     *
+     * @param interceptor the interceptor
+     * @return this builder
+     */
+    public abstract IDXClientBuilder addInterceptor(IDXInterceptor interceptor);
 
-    protected abstract IDXClientBuilder setRedirectUri(String redirectUri);
+    public abstract IDXClient build();
 
-    protected abstract IDXClient build();
+    public abstract AsyncIDXClient buildAsync();
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client;
+
+/**
+ * The backend endpoints called by {@link IDXClient}, one per client operation.
+ * <p>
+ * Each endpoint belongs to a {@link Family} of endpoints with similar traffic characteristics and says whether
+ * it is idempotent, i.e. whether the same request may safely reach the server more than once.
+ */
+public enum IDXEndpoint {
+
+    INTERACT(Family.INTERACT, false),
+    INTROSPECT(Family.INTERACT, true),
+    IDENTIFY(Family.REMEDIATION, false),
+    ENROLL(Family.REMEDIATION, false),
+    ENROLL_UPDATE_USER_PROFILE(Family.REMEDIATION, false),
+    SKIP(Family.REMEDIATION, false),
+    CHALLENGE(Family.REMEDIATION, false),
+    ANSWER_CHALLENGE(Family.REMEDIATION, false),
+    CANCEL(Family.REMEDIATION, false),
+    RECOVER(Family.REMEDIATION, false),
+    VERIFY_EMAIL_TOKEN(Family.REMEDIATION, false),
+    POLL(Family.POLL, true),
+    TOKEN(Family.TOKEN, false),
+    REVOKE(Family.REVOKE, true);
+
+    /**
+     * Groups of endpoints with similar traffic characteristics.
+     */
+    public enum Family {
+        /** {@code /v1/interact} and {@code /idp/idx/introspect}, the start of every flow. */
+        INTERACT,
+        /** The {@code /idp/idx/*} remediation steps. */
+        REMEDIATION,
+        /** {@code /idp/idx/challenge/poll}, repeated in the background while a factor is pending. */
+        POLL,
+        /** The OAuth 2.0 {@code /v1/token} exchange that completes a flow. */
+        TOKEN,
+        /** The OAuth 2.0 {@code /v1/revoke} call, typically on logout. */
+        REVOKE
+    }
+
+    private final Family family;
+    private final boolean idempotent;
+
+    IDXEndpoint(Family family, boolean idempotent) {
+        this.family = family;
+        this.idempotent = idempotent;
+    }
+
+    public Family getFamily() {
+        return family;
+    }
+
+    public boolean isIdempotent() {
+        return idempotent;
+    }
+}
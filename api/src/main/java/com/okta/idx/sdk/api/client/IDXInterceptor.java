@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client;
+
+import com.okta.commons.http.Response;
+import com.okta.idx.sdk.api.exception.ProcessingException;
+
+/**
+ * Hook into the request pipeline every {@link IDXClient} call goes through.
+ * <p>
+ * All stages are optional. For each call the pipeline runs, in this order:
+ * <ol>
+ * <li>{@link #beforeSend} of every interceptor, in registration order</li>
+ * <li>{@link #intercept}, the first registered interceptor being the outermost, down to the transport</li>
+ * <li>{@link #afterReceive} of every interceptor with the response, whatever its HTTP status</li>
+ * <li>the client parses the response, turning an error status into a {@link ProcessingException}</li>
+ * <li>{@link #mapError} of every interceptor if the call failed</li>
+ * <li>{@link #onComplete} of every interceptor, with the call's duration and outcome</li>
+ * </ol>
+ * Interceptors are shared by all calls of a client and must be thread safe. They are registered with
+ * {@link IDXClientBuilder#addInterceptor(IDXInterceptor)}.
+ */
+public interface IDXInterceptor {
+
+    /**
+     * Called before the request is sent; may add or change request headers.
+     *
+     * @param context the call being made
+     * @throws ProcessingException to abort the call
+     */
+    default void beforeSend(IDXRequestContext context) throws ProcessingException {
+    }
+
+    /**
+     * Wraps the execution of the request. Implementations call {@link Chain#proceed(IDXRequestContext)} zero or
+     * more times, e.g. to retry, short-circuit or time the exchange.
+     *
+     * @param context the call being made
+     * @param chain the rest of the pipeline, ending with the transport
+     * @return the response
+     * @throws ProcessingException if the call fails
+     */
+    default Response intercept(IDXRequestContext context, Chain chain) throws ProcessingException {
+        return chain.proceed(context);
+    }
+
+    /**
+     * Called with the response of the exchange, before it is parsed.
+     *
+     * @param context the call being made
+     * @param response the response, which may have an error status
+     * @throws ProcessingException to fail the call
+     */
+    default void afterReceive(IDXRequestContext context, Response response) throws ProcessingException {
+    }
+
+    /**
+     * Called when the call fails; may translate the error into a different one.
+     *
+     * @param context the call that failed
+     * @param error the error raised by the transport, an interceptor or the client
+     * @return the error to report, never {@code null}
+     */
+    default ProcessingException mapError(IDXRequestContext context, ProcessingException error) {
+        return error;
+    }
+
+    /**
+     * Called once the call completed, successfully or not.
+     *
+     * @param context the call that completed
+     * @param elapsedNanos time spent in the pipeline, including parsing the response
+     * @param error the error the call failed with, or {@code null} on success
+     */
+    default void onComplete(IDXRequestContext context, long elapsedNanos, Throwable error) {
+    }
+
+    /**
+     * The remainder of the pipeline seen by {@link #intercept(IDXRequestContext, Chain)}.
+     */
+    interface Chain {
+
+        /**
+         * Executes the request through the remaining interceptors and the transport. May be called more than once;
+         * each call sends a fresh copy of the request.
+         *
+         * @param context the call being made
+         * @return the response, whatever its HTTP status
+         * @throws ProcessingException if an interceptor fails the call
+         * @throws com.okta.commons.http.HttpException if the transport fails to complete the exchange
+         */
+        Response proceed(IDXRequestContext context) throws ProcessingException;
+    }
+}
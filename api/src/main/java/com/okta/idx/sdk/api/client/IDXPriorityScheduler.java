@@ -0,0 +1,388 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client;
+
+import com.okta.commons.http.Response;
+import com.okta.commons.lang.Assert;
+import com.okta.idx.sdk.api.exception.ProcessingException;
+import com.okta.idx.sdk.api.exception.ServiceUnavailableException;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits the number of requests in flight and, when more requests wait for a slot, lets the most urgent ones go
+ * first.
+ * <p>
+ * The priority of a call comes from its endpoint: token exchanges, which complete a user's login, are
+ * {@link Priority#HIGH}, background polls and revocations are {@link Priority#LOW}, everything else is
+ * {@link Priority#NORMAL}. It can be changed per endpoint with {@link Builder#withPriority(IDXEndpoint, Priority)},
+ * and per call with {@link #callWithPriority(Priority, PriorityCall)} or by setting the {@link #PRIORITY_ATTRIBUTE}
+ * attribute from an earlier interceptor.
+ * <p>
+ * A waiting request gains one priority level for every aging interval it waits, so low priority requests are
+ * delayed under contention but never starved. Requests that wait longer than the maximum wait fail with a
+ * {@link ServiceUnavailableException}. A call keeps its slot until its response has been read and parsed, as the
+ * transport keeps its connection until then.
+ * <pre>
+ * IDXClient client = Clients.builder()
+ *     .addInterceptor(IDXPriorityScheduler.builder().withMaxConcurrentCalls(20).build())
+ *     .build();
+ * </pre>
+ */
+public final class IDXPriorityScheduler implements IDXInterceptor {
+
+    /**
+     * The {@link IDXRequestContext} attribute holding the {@link Priority} of a call, overriding the priority of
+     * its endpoint.
+     */
+    public static final String PRIORITY_ATTRIBUTE = IDXPriorityScheduler.class.getName() + ".priority";
+
+    private static final ThreadLocal<Priority> CALL_PRIORITY = new ThreadLocal<>();
+
+    /**
+     * The priority of a call; calls of a higher priority are sent first.
+     */
+    public enum Priority {
+        HIGH,
+        NORMAL,
+        LOW
+    }
+
+    private final int maxConcurrentCalls;
+    private final long maxWaitNanos;
+    private final long agingIntervalNanos;
+    private final Map<IDXEndpoint, Priority> priorities;
+    private final Map<Priority, Deque<Waiter>> queues = new EnumMap<>(Priority.class);
+
+    // a lock rather than a monitor, so that virtual threads waiting for a slot do not pin their carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition granted = lock.newCondition();
+    private int inFlight;
+
+    private IDXPriorityScheduler(Builder builder) {
+        this.maxConcurrentCalls = builder.maxConcurrentCalls;
+        this.maxWaitNanos = builder.maxWait.toNanos();
+        this.agingIntervalNanos = builder.agingInterval.toNanos();
+        this.priorities = new EnumMap<>(builder.priorities);
+        for (Priority priority : Priority.values()) {
+            queues.put(priority, new ArrayDeque<>());
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Runs {@code call} with every {@link IDXClient} call it makes scheduled at {@code priority}, e.g. to favor a
+     * user's interactive flow over batch work. The priority follows the calls that {@code call} starts on the current
+     * thread to the threads they continue on: those of {@link IDXAuthenticationWrapper#withDeadline},
+     * {@link AsyncIDXClient}, the asynchronous wrapper operations and hedged requests.
+     * <pre>
+     * AuthenticationResponse response = IDXPriorityScheduler.callWithPriority(Priority.HIGH,
+     *     () -&gt; idxAuthenticationWrapper.authenticate(authenticationOptions, proceedContext));
+     * </pre>
+     *
+     * @param priority the priority of the calls
+     * @param call the code making the calls
+     * @param <T> the result type
+     * @return the result of {@code call}
+     * @throws ProcessingException if {@code call} fails
+     */
+    public static <T> T callWithPriority(Priority priority, PriorityCall<T> call) throws ProcessingException {
+        Assert.notNull(priority, "priority cannot be null");
+        Priority previous = CALL_PRIORITY.get();
+        CALL_PRIORITY.set(priority);
+        try {
+            return call.execute();
+        } finally {
+            if (previous != null) {
+                CALL_PRIORITY.set(previous);
+            } else {
+                CALL_PRIORITY.remove();
+            }
+        }
+    }
+
+    /**
+     * @return the priority set by {@link #callWithPriority(Priority, PriorityCall)} on the current thread, or
+     *         {@code null}
+     */
+    static Priority currentPriority() {
+        return CALL_PRIORITY.get();
+    }
+
+    /**
+     * Wraps a task that continues a call on another thread, e.g. on the executor of an {@link AsyncIDXClient}, so
+     * that it runs with the priority of the thread that creates the task.
+     */
+    static Runnable withCurrentPriority(Runnable task) {
+        Priority priority = CALL_PRIORITY.get();
+        if (priority == null) {
+            return task;
+        }
+        return () -> {
+            Priority previous = CALL_PRIORITY.get();
+            CALL_PRIORITY.set(priority);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) {
+                    CALL_PRIORITY.set(previous);
+                } else {
+                    CALL_PRIORITY.remove();
+                }
+            }
+        };
+    }
+
+    /**
+     * Wraps an executor so that each task it runs gets the priority of the thread that submits it.
+     */
+    static Executor withCurrentPriority(Executor executor) {
+        return task -> executor.execute(withCurrentPriority(task));
+    }
+
+    /**
+     * @return the number of requests in flight
+     */
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param priority the priority
+     * @return the number of requests of that priority waiting for a slot
+     */
+    public int getQueuedCalls(Priority priority) {
+        lock.lock();
+        try {
+            return queues.get(priority).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Response intercept(IDXRequestContext context, Chain chain) throws ProcessingException {
+
+        // the priority of the call is kept by the context, as intercept may run on another thread, e.g. for a hedge
+        Object attribute = context.getAttribute(PRIORITY_ATTRIBUTE);
+        Priority priority = attribute instanceof Priority ? (Priority) attribute
+            : context.getPriority() != null ? context.getPriority() : priorities.get(context.getEndpoint());
+
+        context.releaseHeld(this);
+        acquire(priority);
+        boolean held = false;
+        try {
+            Response response = chain.proceed(context);
+            // the connection is only given back once the response has been read, so the slot is held until then
+            context.holdUntilComplete(this, this::release);
+            held = true;
+            return response;
+        } finally {
+            if (!held) {
+                release();
+            }
+        }
+    }
+
+    private void acquire(Priority priority) throws ProcessingException {
+
+        lock.lock();
+        try {
+            if (inFlight < maxConcurrentCalls && isQueueEmpty()) {
+                inFlight++;
+                return;
+            }
+
+            Waiter waiter = new Waiter(priority, System.nanoTime());
+            queues.get(priority).addLast(waiter);
+            long deadline = waiter.enqueuedNanos + maxWaitNanos;
+            try {
+                while (!waiter.granted) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        queues.get(priority).remove(waiter);
+                        throw new ServiceUnavailableException("Timed out waiting for one of the " + maxConcurrentCalls
+                            + " requests in flight to complete.");
+                    }
+                    granted.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                if (waiter.granted) {
+                    // the slot was handed over already, pass it on
+                    release();
+                } else {
+                    queues.get(priority).remove(waiter);
+                }
+                Thread.currentThread().interrupt();
+                throw new ProcessingException(e);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release() {
+
+        lock.lock();
+        try {
+            Waiter next = next();
+            if (next != null) {
+                // the slot goes straight to the next waiter, so inFlight stays the same
+                queues.get(next.priority).removeFirst();
+                next.granted = true;
+                granted.signalAll();
+            } else {
+                inFlight--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the waiter with the best priority once aged, the oldest on a tie
+     */
+    private Waiter next() {
+
+        long now = System.nanoTime();
+        Waiter next = null;
+        long nextRank = Long.MAX_VALUE;
+        for (Deque<Waiter> queue : queues.values()) {
+            // each queue is in arrival order, so its head has aged the most
+            Waiter head = queue.peekFirst();
+            if (head != null) {
+                long rank = head.priority.ordinal() - (now - head.enqueuedNanos) / agingIntervalNanos;
+                if (next == null || rank < nextRank || rank == nextRank && head.enqueuedNanos < next.enqueuedNanos) {
+                    next = head;
+                    nextRank = rank;
+                }
+            }
+        }
+        return next;
+    }
+
+    private boolean isQueueEmpty() {
+        for (Deque<Waiter> queue : queues.values()) {
+            if (!queue.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Waiter {
+
+        private final Priority priority;
+        private final long enqueuedNanos;
+        private boolean granted;
+
+        private Waiter(Priority priority, long enqueuedNanos) {
+            this.priority = priority;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+
+    /**
+     * Code run by {@link #callWithPriority(Priority, PriorityCall)}.
+     *
+     * @param <T> the result type
+     */
+    public interface PriorityCall<T> {
+        T execute() throws ProcessingException;
+    }
+
+    /**
+     * Configures an {@link IDXPriorityScheduler}.
+     */
+    public static final class Builder {
+
+        private final Map<IDXEndpoint, Priority> priorities = new EnumMap<>(IDXEndpoint.class);
+        private int maxConcurrentCalls = 20;
+        private Duration maxWait = Duration.ofSeconds(5);
+        private Duration agingInterval = Duration.ofMillis(500);
+
+        private Builder() {
+            for (IDXEndpoint endpoint : IDXEndpoint.values()) {
+                priorities.put(endpoint, Priority.NORMAL);
+            }
+            priorities.put(IDXEndpoint.TOKEN, Priority.HIGH);
+            priorities.put(IDXEndpoint.POLL, Priority.LOW);
+            priorities.put(IDXEndpoint.REVOKE, Priority.LOW);
+        }
+
+        /**
+         * @param maxConcurrentCalls the maximum number of requests in flight, 20 by default
+         * @return this builder
+         */
+        public Builder withMaxConcurrentCalls(int maxConcurrentCalls) {
+            Assert.isTrue(maxConcurrentCalls > 0, "maxConcurrentCalls must be greater than zero.");
+            this.maxConcurrentCalls = maxConcurrentCalls;
+            return this;
+        }
+
+        /**
+         * @param maxWait how long a request may wait for a slot, 5 seconds by default
+         * @return this builder
+         */
+        public Builder withMaxWait(Duration maxWait) {
+            Assert.notNull(maxWait, "maxWait cannot be null");
+            this.maxWait = maxWait;
+            return this;
+        }
+
+        /**
+         * @param agingInterval how long a request waits before it gains a priority level, 500 ms by default
+         * @return this builder
+         */
+        public Builder withAgingInterval(Duration agingInterval) {
+            Assert.notNull(agingInterval, "agingInterval cannot be null");
+            Assert.isTrue(!agingInterval.isNegative() && !agingInterval.isZero(), "agingInterval must be greater than zero.");
+            this.agingInterval = agingInterval;
+            return this;
+        }
+
+        /**
+         * @param endpoint the endpoint
+         * @param priority the priority of the endpoint's calls
+         * @return this builder
+         */
+        public Builder withPriority(IDXEndpoint endpoint, Priority priority) {
+            Assert.notNull(endpoint, "endpoint cannot be null");
+            Assert.notNull(priority, "priority cannot be null");
+            this.priorities.put(endpoint, priority);
+            return this;
+        }
+
+        public IDXPriorityScheduler build() {
+            return new IDXPriorityScheduler(this);
+        }
+    }
+}
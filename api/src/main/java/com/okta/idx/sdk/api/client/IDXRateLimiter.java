@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client;
+
+import com.okta.commons.http.Response;
+import com.okta.commons.lang.Assert;
+import com.okta.idx.sdk.api.exception.ProcessingException;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Client-side rate limiter that learns the Okta rate limit budget of each {@link IDXEndpoint.Family} from the
+ * {@code X-Rate-Limit-Limit}, {@code X-Rate-Limit-Remaining} and {@code X-Rate-Limit-Reset} response headers.
+ * <p>
+ * Each family has a bucket holding the requests still allowed in the current rate limit window. Every request
+ * takes one from it, and each response brings it back in line with what the server reports. When the bucket is
+ * empty, a request either waits for the window to reset or fails right away with a 429 {@link ProcessingException},
+ * depending on the {@link Policy}. Until a family's first response is seen its budget is unknown and requests go
+ * through unhindered.
+ * <p>
+ * Register the limiter with {@link IDXClientBuilder#addInterceptor(IDXInterceptor)} and keep a reference to it to
+ * read the current budget:
+ * <pre>
+ * IDXRateLimiter rateLimiter = new IDXRateLimiter(IDXRateLimiter.Policy.QUEUE);
+ * IDXClient client = Clients.builder().addInterceptor(rateLimiter).build();
+ * int remaining = rateLimiter.getRemaining(IDXEndpoint.Family.TOKEN);
+ * </pre>
+ */
+public final class IDXRateLimiter implements IDXInterceptor {
+
+    /**
+     * What happens to a request when its family's budget is used up.
+     */
+    public enum Policy {
+        /** Wait until the rate limit window resets, unless that is further away than the maximum wait. */
+        QUEUE,
+        /** Fail the request right away. */
+        FAIL_FAST
+    }
+
+    static final long DEFAULT_MAX_WAIT_MILLIS = 10_000;
+
+    private final Policy policy;
+    private final long maxWaitMillis;
+    private final Map<IDXEndpoint.Family, Budget> budgets = new EnumMap<>(IDXEndpoint.Family.class);
+
+    public IDXRateLimiter(Policy policy) {
+        this(policy, DEFAULT_MAX_WAIT_MILLIS);
+    }
+
+    /**
+     * @param policy what to do with requests once the budget is used up
+     * @param maxWaitMillis the longest a request is queued for with {@link Policy#QUEUE}
+     */
+    public IDXRateLimiter(Policy policy, long maxWaitMillis) {
+        Assert.notNull(policy, "policy cannot be null");
+        Assert.isTrue(maxWaitMillis >= 0, "maxWaitMillis cannot be a negative number.");
+        this.policy = policy;
+        this.maxWaitMillis = maxWaitMillis;
+        for (IDXEndpoint.Family family : IDXEndpoint.Family.values()) {
+            budgets.put(family, new Budget());
+        }
+    }
+
+    /**
+     * @param family the endpoint family
+     * @return the number of requests allowed per rate limit window, or {@code -1} if not known yet
+     */
+    public int getLimit(IDXEndpoint.Family family) {
+        Budget budget = budgets.get(family);
+        synchronized (budget) {
+            return budget.limit;
+        }
+    }
+
+    /**
+     * @param family the endpoint family
+     * @return the number of requests left in the current rate limit window, or {@code -1} if not known
+     */
+    public int getRemaining(IDXEndpoint.Family family) {
+        Budget budget = budgets.get(family);
+        synchronized (budget) {
+            budget.expire(System.currentTimeMillis());
+            return budget.remaining;
+        }
+    }
+
+    @Override
+    public Response intercept(IDXRequestContext context, Chain chain) throws ProcessingException {
+        IDXEndpoint.Family family = context.getEndpoint().getFamily();
+        Budget budget = budgets.get(family);
+        acquire(family, budget);
+
+        Response response = chain.proceed(context);
+        update(budget, response);
+        return response;
+    }
+
+    private void acquire(IDXEndpoint.Family family, Budget budget) throws ProcessingException {
+        while (true) {
+            long waitMillis;
+            synchronized (budget) {
+                long now = System.currentTimeMillis();
+                budget.expire(now);
+                if (budget.remaining != 0) {
+                    if (budget.remaining > 0) {
+                        budget.remaining--;
+                    }
+                    return;
+                }
+                waitMillis = budget.resetAtMillis - now;
+            }
+
+            if (policy == Policy.FAIL_FAST || waitMillis > maxWaitMillis) {
+                throw new ProcessingException(429, "Rate limit of " + family + " requests exhausted for another "
+                    + waitMillis + " ms.");
+            }
+            try {
+                Thread.sleep(waitMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ProcessingException(e);
+            }
+        }
+    }
+
+    private static void update(Budget budget, Response response) {
+
+        long now = System.currentTimeMillis();
+        Long remaining = RateLimitHeaders.getLong(response.getHeaders(), RateLimitHeaders.X_RATE_LIMIT_REMAINING);
+        long resetMillis = RateLimitHeaders.resetMillis(response, now);
+        if (remaining == null || resetMillis < 0) {
+            return;
+        }
+        Long limit = RateLimitHeaders.getLong(response.getHeaders(), RateLimitHeaders.X_RATE_LIMIT_LIMIT);
+
+        synchronized (budget) {
+            long resetAtMillis = now + resetMillis;
+            if (limit != null) {
+                budget.limit = limit.intValue();
+            }
+            if (budget.remaining < 0 || resetAtMillis > budget.resetAtMillis + 1000) {
+                // a new window
+                budget.remaining = remaining.intValue();
+                budget.resetAtMillis = resetAtMillis;
+            } else {
+                // responses of concurrent requests arrive in any order; the lowest count is the latest
+                budget.remaining = Math.min(budget.remaining, remaining.intValue());
+            }
+        }
+    }
+
+    private static final class Budget {
+
+        private int limit = -1;
+        private int remaining = -1;
+        private long resetAtMillis;
+
+        /**
+         * Forgets the count of a window that has ended; the next response tells what the new window allows.
+         */
+        private void expire(long now) {
+            if (remaining >= 0 && now >= resetAtMillis) {
+                remaining = -1;
+            }
+        }
+    }
+}
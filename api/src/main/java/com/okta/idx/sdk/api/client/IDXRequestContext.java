@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client;
+
+import com.okta.commons.http.DefaultRequest;
+import com.okta.commons.http.HttpHeaders;
+import com.okta.commons.http.HttpMethod;
+import com.okta.commons.http.Request;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A single {@link IDXClient} call as seen by {@link IDXInterceptor}s.
+ * <p>
+ * The request headers are mutable until the request is sent. Attributes let interceptors pass state between
+ * the stages of one call.
+ */
+public final class IDXRequestContext {
+
+    private final IDXEndpoint endpoint;
+    private final HttpMethod method;
+    private final String url;
+    private final HttpHeaders headers;
+    private final RequestBodyBuffer body;
+
+    private Map<String, Object> attributes;
+
+    // set on the thread making the call, and kept by the copies made for other threads
+    private final IDXPriorityScheduler.Priority priority;
+    // the System.nanoTime() deadline of the call, or null, see DeadlineIDXClient
+    private final Long deadlineNanos;
+
+    // shared with the copies made by detach(), which complete with this call
+    private final Completion completion;
+    // resources held by the current attempt of this copy, by holder
+    private Map<Object, Runnable> held;
+
+    IDXRequestContext(IDXEndpoint endpoint, HttpMethod method, String url, HttpHeaders headers, RequestBodyBuffer body) {
+        this(endpoint, method, url, headers, body, IDXPriorityScheduler.currentPriority(),
+            DeadlineIDXClient.currentDeadline(), new Completion());
+    }
+
+    private IDXRequestContext(IDXEndpoint endpoint, HttpMethod method, String url, HttpHeaders headers,
+                              RequestBodyBuffer body, IDXPriorityScheduler.Priority priority, Long deadlineNanos,
+                              Completion completion) {
+        this.priority = priority;
+        this.deadlineNanos = deadlineNanos;
+        this.completion = completion;
+        this.endpoint = endpoint;
+        this.method = method;
+        this.url = url;
+        this.headers = headers;
+        this.body = body;
+
+        // the transports do not send a body with GET requests, so only bodies that are sent get a Content-Length
+        if (method != HttpMethod.GET) {
+            headers.setContentLength(body.size());
+        }
+    }
+
+    public IDXEndpoint getEndpoint() {
+        return endpoint;
+    }
+
+    public HttpMethod getMethod() {
+        return method;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    public int getContentLength() {
+        return body.size();
+    }
+
+    /**
+     * @return the priority the call was made with, see {@link IDXPriorityScheduler#callWithPriority}, or {@code null}
+     */
+    IDXPriorityScheduler.Priority getPriority() {
+        return priority;
+    }
+
+    public Object getAttribute(String name) {
+        return attributes != null ? attributes.get(name) : null;
+    }
+
+    public void setAttribute(String name, Object value) {
+        if (attributes == null) {
+            attributes = new HashMap<>();
+        }
+        attributes.put(name, value);
+    }
+
+    /**
+     * Copies this call so that it can be sent from another thread after the call itself has returned: the copy
+     * owns its headers and body, keeps the priority and deadline of the call, and starts without attributes.
+     */
+    IDXRequestContext detach() {
+        HttpHeaders headersCopy = new HttpHeaders();
+        headers.forEach((name, values) -> headersCopy.put(name, new ArrayList<>(values)));
+        return new IDXRequestContext(endpoint, method, url, headersCopy, body.copy(), priority, deadlineNanos,
+            completion);
+    }
+
+    /**
+     * Holds a resource, e.g. a concurrency permit, until the response of the current attempt is no longer used:
+     * until the call completes, after its response has been parsed, or until {@link #releaseHeld(Object)} is called
+     * for the next attempt. The connection of a response is only given back once its body has been read, so
+     * releasing the resource when the exchange returns would undercount the requests actually in flight.
+     *
+     * @param holder the interceptor holding the resource
+     * @param release releases the resource, run once
+     */
+    void holdUntilComplete(Object holder, Runnable release) {
+        Runnable once = new Runnable() {
+            private boolean released;
+
+            @Override
+            public void run() {
+                synchronized (this) {
+                    if (released) {
+                        return;
+                    }
+                    released = true;
+                }
+                release.run();
+            }
+        };
+        if (held == null) {
+            held = new HashMap<>();
+        }
+        held.put(holder, once);
+        completion.add(once);
+    }
+
+    /**
+     * Releases the resource {@code holder} holds for the previous attempt of this call, before it sends the request
+     * again, e.g. when retried: the previous response has been discarded by then.
+     *
+     * @param holder the interceptor holding the resource
+     */
+    void releaseHeld(Object holder) {
+        Runnable release = held != null ? held.remove(holder) : null;
+        if (release != null) {
+            release.run();
+        }
+    }
+
+    /**
+     * Releases the resources held by the attempts of this call, once it completed.
+     */
+    void complete() {
+        completion.complete();
+    }
+
+    /**
+     * Creates the transport request for this call. Each request reads the body from the start, so the call can be
+     * sent more than once (e.g. when retried). The request of a call with a deadline is a {@link DeadlineRequest}.
+     *
+     * @return a new request
+     */
+    public Request newRequest() {
+        if (deadlineNanos != null) {
+            return new DeadlineRequest(method, url, headers, body.toInputStream(), body.size(), deadlineNanos);
+        }
+        return new DefaultRequest(method, url, null, headers, body.toInputStream(), body.size());
+    }
+
+    private static final class Completion {
+
+        private List<Runnable> actions = new ArrayList<>(2);
+
+        void add(Runnable action) {
+            synchronized (this) {
+                if (actions != null) {
+                    actions.add(action);
+                    return;
+                }
+            }
+            // an attempt that is still running after the call completed, e.g. a hedged request that lost
+            action.run();
+        }
+
+        void complete() {
+            List<Runnable> completed;
+            synchronized (this) {
+                completed = actions;
+                actions = null;
+            }
+            if (completed != null) {
+                completed.forEach(Runnable::run);
+            }
+        }
+    }
+}
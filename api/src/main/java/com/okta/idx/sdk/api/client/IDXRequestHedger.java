@@ -0,0 +1,368 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client;
+
+import com.okta.commons.http.HttpException;
+import com.okta.commons.http.Response;
+import com.okta.commons.lang.Assert;
+import com.okta.idx.sdk.api.exception.ProcessingException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hedges introspect and poll calls: when a response takes longer than the hedging delay, a second, identical
+ * request is sent and whichever response arrives first is used.
+ * <p>
+ * The delay is either fixed or, with {@link Builder#withDelayPercentile(int)}, follows the observed latency of each
+ * endpoint, e.g. its p95. Hedges are capped to a percentage of the calls, so that a slow backend does not get twice
+ * the traffic. The losing request is interrupted and its response, if it still arrives, is discarded.
+ * <p>
+ * Hedged requests are sent from a bounded pool of daemon threads owned by the hedger, or from virtual threads for
+ * calls made on a virtual thread. When every pooled thread is busy, a call is sent from the calling thread without
+ * a hedge, and a hedge that finds no thread is skipped. Interceptors added after the hedger see each request on its
+ * own thread, with its own copy of the {@link IDXRequestContext}.
+ * <pre>
+ * IDXClient client = Clients.builder()
+ *     .addInterceptor(IDXRequestHedger.builder().withDelayPercentile(95).withMaxHedgedPercent(10).build())
+ *     .build();
+ * </pre>
+ */
+public final class IDXRequestHedger implements IDXInterceptor {
+
+    /** The latest latencies per endpoint the percentile delay is computed from. */
+    private static final int SAMPLE_SIZE = 128;
+
+    /** The fixed delay is used until this many latencies are known. */
+    private static final int MIN_SAMPLES = 20;
+
+    /** The unused hedge budget is kept for at most this many hedges. */
+    private static final int MAX_BANKED_HEDGES = 10;
+
+    /** A request and its hedge for each of the calls the budget can hedge at once. */
+    private static final int POOL_SIZE = 2 * MAX_BANKED_HEDGES;
+
+    private final long delayNanos;
+    private final int delayPercentile;
+    private final int maxHedgedPercent;
+    private final ExecutorService executor;
+    private final ExecutorService virtualExecutor;
+
+    private final Latencies introspectLatencies = new Latencies();
+    private final Latencies pollLatencies = new Latencies();
+
+    // hedges available, in hundredths of a hedge: every call adds maxHedgedPercent, every hedge takes 100
+    private int hedgeBudget;
+
+    private IDXRequestHedger(Builder builder) {
+        this.delayNanos = builder.delay.toNanos();
+        this.delayPercentile = builder.delayPercentile;
+        this.maxHedgedPercent = builder.maxHedgedPercent;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        // no queue: a hedge that waits for a thread would be sent too late to help
+        this.executor = new ThreadPoolExecutor(0, POOL_SIZE, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "okta-idx-hedge-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+        this.virtualExecutor = VirtualThreads.isSupported()
+            ? VirtualThreads.newThreadPerTaskExecutor("okta-idx-hedge-virtual-") : null;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public Response intercept(IDXRequestContext context, Chain chain) throws ProcessingException {
+
+        Latencies latencies = latencies(context.getEndpoint());
+        if (latencies == null) {
+            return chain.proceed(context);
+        }
+        if (!creditHedge()) {
+            // no hedge could be sent for this call, so it does not need to leave the calling thread
+            return proceed(context, chain, latencies);
+        }
+
+        CompletionService<Response> completion = new ExecutorCompletionService<>(
+            VirtualThreads.isVirtual(Thread.currentThread()) ? virtualExecutor : executor);
+        // the call's latency, whichever request wins: timing a winning hedge from its own start would skew the
+        // samples low, and with them the delay, so that hedges would be sent more and more often
+        long start = System.nanoTime();
+        Attempt primary = new Attempt(context.detach(), chain);
+        try {
+            primary.future = completion.submit(primary);
+        } catch (RejectedExecutionException e) {
+            // every thread of the pool is busy, so the call is not hedged
+            return proceed(context, chain, latencies);
+        }
+        Attempt hedge = null;
+        Attempt winner = null;
+        int pending = 1;
+
+        try {
+            Future<Response> done = completion.poll(delay(latencies), TimeUnit.NANOSECONDS);
+            if (done == null && acquireHedge()) {
+                hedge = new Attempt(context.detach(), chain);
+                try {
+                    hedge.future = completion.submit(hedge);
+                    pending++;
+                } catch (RejectedExecutionException e) {
+                    // the hedge is skipped, and its budget kept for a later call
+                    hedge = null;
+                    returnHedge();
+                }
+            }
+
+            while (true) {
+                if (done == null) {
+                    done = completion.take();
+                }
+                pending--;
+                try {
+                    Response response = done.get();
+                    winner = done == primary.future ? primary : hedge;
+                    latencies.add(System.nanoTime() - start);
+                    return response;
+                } catch (ExecutionException e) {
+                    if (pending == 0) {
+                        throw unwrap(e);
+                    }
+                    // the other request may still succeed
+                    done = null;
+                }
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessingException(e);
+        } finally {
+            if (primary != winner) {
+                primary.cancel();
+            }
+            if (hedge != null && hedge != winner) {
+                hedge.cancel();
+            }
+        }
+    }
+
+    private static Response proceed(IDXRequestContext context, Chain chain, Latencies latencies)
+            throws ProcessingException {
+        long start = System.nanoTime();
+        Response response = chain.proceed(context);
+        latencies.add(System.nanoTime() - start);
+        return response;
+    }
+
+    private Latencies latencies(IDXEndpoint endpoint) {
+        if (endpoint == IDXEndpoint.INTROSPECT) {
+            return introspectLatencies;
+        }
+        if (endpoint == IDXEndpoint.POLL) {
+            return pollLatencies;
+        }
+        return null;
+    }
+
+    private long delay(Latencies latencies) {
+        if (delayPercentile > 0) {
+            long percentile = latencies.percentile(delayPercentile);
+            if (percentile >= 0) {
+                return percentile;
+            }
+        }
+        return delayNanos;
+    }
+
+    /**
+     * Adds this call's share to the hedge budget.
+     *
+     * @return whether the budget allows hedging this call
+     */
+    private synchronized boolean creditHedge() {
+        // unused budget is kept for a few hedges only, so a burst of slow calls after a quiet period stays bounded
+        hedgeBudget = Math.min(hedgeBudget + maxHedgedPercent, 100 * MAX_BANKED_HEDGES);
+        return hedgeBudget >= 100;
+    }
+
+    private synchronized boolean acquireHedge() {
+        if (hedgeBudget >= 100) {
+            hedgeBudget -= 100;
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized void returnHedge() {
+        hedgeBudget = Math.min(hedgeBudget + 100, 100 * MAX_BANKED_HEDGES);
+    }
+
+    private static ProcessingException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof ProcessingException) {
+            return (ProcessingException) cause;
+        }
+        if (cause instanceof HttpException) {
+            throw (HttpException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new ProcessingException(cause);
+    }
+
+    /**
+     * One of the requests of a hedged call. The response of a request that lost is discarded, whether it arrives
+     * before or after the call has been decided.
+     */
+    private static final class Attempt implements Callable<Response> {
+
+        private final IDXRequestContext context;
+        private final Chain chain;
+        private Future<Response> future;
+
+        private boolean cancelled;
+        private Response response;
+
+        private Attempt(IDXRequestContext context, Chain chain) {
+            this.context = context;
+            this.chain = chain;
+        }
+
+        @Override
+        public Response call() throws ProcessingException {
+            Response received = chain.proceed(context);
+            synchronized (this) {
+                if (!cancelled) {
+                    response = received;
+                    return received;
+                }
+            }
+            discard(received);
+            return null;
+        }
+
+        void cancel() {
+            Response received;
+            synchronized (this) {
+                cancelled = true;
+                received = response;
+            }
+            future.cancel(true);
+            if (received != null) {
+                discard(received);
+            }
+        }
+
+        private static void discard(Response response) {
+            InputStream body = response.getBody();
+            if (body != null) {
+                try {
+                    body.close();
+                } catch (IOException e) {
+                    // the response is dropped anyway
+                }
+            }
+        }
+    }
+
+    private static final class Latencies {
+
+        private final long[] samples = new long[SAMPLE_SIZE];
+        private int count;
+        private int next;
+
+        synchronized void add(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+        }
+
+        synchronized long percentile(int percentile) {
+            if (count < MIN_SAMPLES) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            return sorted[Math.min(count - 1, count * percentile / 100)];
+        }
+    }
+
+    /**
+     * Configures an {@link IDXRequestHedger}.
+     */
+    public static final class Builder {
+
+        private Duration delay = Duration.ofMillis(500);
+        private int delayPercentile;
+        private int maxHedgedPercent = 10;
+
+        private Builder() {
+        }
+
+        /**
+         * @param delay how long to wait for a response before sending the hedged request, 500 ms by default; also
+         *              used with a percentile delay until enough latencies are known
+         * @return this builder
+         */
+        public Builder withDelay(Duration delay) {
+            Assert.notNull(delay, "delay cannot be null");
+            this.delay = delay;
+            return this;
+        }
+
+        /**
+         * @param delayPercentile the percentile of the observed latency of an endpoint after which the hedged
+         *                        request is sent, e.g. 95; 0, the default, uses the fixed delay
+         * @return this builder
+         */
+        public Builder withDelayPercentile(int delayPercentile) {
+            Assert.isTrue(delayPercentile >= 0 && delayPercentile < 100, "delayPercentile must be between 0 and 99.");
+            this.delayPercentile = delayPercentile;
+            return this;
+        }
+
+        /**
+         * @param maxHedgedPercent the maximum percentage of calls that are hedged, 10 by default
+         * @return this builder
+         */
+        public Builder withMaxHedgedPercent(int maxHedgedPercent) {
+            Assert.isTrue(maxHedgedPercent >= 0 && maxHedgedPercent <= 100, "maxHedgedPercent must be between 0 and 100.");
+            this.maxHedgedPercent = maxHedgedPercent;
+            return this;
+        }
+
+        public IDXRequestHedger build() {
+            return new IDXRequestHedger(this);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client;
+
+import com.okta.commons.http.HttpHeaders;
+import com.okta.commons.http.Response;
+import com.okta.commons.lang.Strings;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Reads the rate limit headers Okta returns with IDX and OAuth responses.
+ *
+ * @see <a href="https://developer.okta.com/docs/reference/rl-best-practices/">Rate limit best practices</a>
+ */
+final class RateLimitHeaders {
+
+    static final String X_RATE_LIMIT_LIMIT = "X-Rate-Limit-Limit";
+    static final String X_RATE_LIMIT_REMAINING = "X-Rate-Limit-Remaining";
+    static final String X_RATE_LIMIT_RESET = "X-Rate-Limit-Reset";
+    static final String RETRY_AFTER = "Retry-After";
+
+    private RateLimitHeaders() {
+    }
+
+    /**
+     * Returns how long the server asks the client to wait before sending another request, from the
+     * {@code Retry-After} header, or else, for a 429 response only, from {@code X-Rate-Limit-Reset}. Okta sends the
+     * rate limit headers with every response, so a 5xx response's reset time says when the rate limit window ends,
+     * not when the server will have recovered. The reset time is measured against the response's {@code Date} header
+     * when present, so that local clock skew does not distort the delay.
+     *
+     * @param response the response
+     * @param nowMillis the current time
+     * @return the delay in milliseconds, or {@code -1} if the response does not specify one
+     */
+    static long retryAfterMillis(Response response, long nowMillis) {
+
+        HttpHeaders headers = response.getHeaders();
+        if (headers == null) {
+            return -1;
+        }
+
+        String retryAfter = headers.getFirst(RETRY_AFTER);
+        if (Strings.hasText(retryAfter)) {
+            Long seconds = parseLong(retryAfter);
+            if (seconds != null) {
+                return Math.max(0, seconds * 1000);
+            }
+            Long retryAt = parseHttpDate(retryAfter);
+            if (retryAt != null) {
+                return Math.max(0, retryAt - serverTime(headers, nowMillis));
+            }
+        }
+
+        return response.getHttpStatus() == 429 ? resetMillis(response, nowMillis) : -1;
+    }
+
+    /**
+     * Returns how long until the current rate limit window ends, from the {@code X-Rate-Limit-Reset} header,
+     * measured against the response's {@code Date} header when present.
+     *
+     * @param response the response
+     * @param nowMillis the current time
+     * @return the delay in milliseconds, or {@code -1} if the response does not specify one
+     */
+    static long resetMillis(Response response, long nowMillis) {
+
+        HttpHeaders headers = response.getHeaders();
+        Long reset = getLong(headers, X_RATE_LIMIT_RESET);
+        if (reset != null) {
+            return Math.max(0, reset * 1000 - serverTime(headers, nowMillis));
+        }
+        return -1;
+    }
+
+    /**
+     * @return the value of {@code name} as a long, or {@code null} if it is absent or not a number
+     */
+    static Long getLong(HttpHeaders headers, String name) {
+        return headers != null ? parseLong(headers.getFirst(name)) : null;
+    }
+
+    private static long serverTime(HttpHeaders headers, long nowMillis) {
+        try {
+            long date = headers.getDate();
+            return date > 0 ? date : nowMillis;
+        } catch (IllegalArgumentException e) {
+            return nowMillis;
+        }
+    }
+
+    private static Long parseHttpDate(String value) {
+        try {
+            return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static Long parseLong(String value) {
+        if (!Strings.hasText(value)) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+
+/**
+ * Reusable buffer a request body is encoded into before it is handed to the transport.
+ * <p>
+ * The body is exposed as a {@link ByteArrayInputStream} over the buffer's backing array (no copy), which
+ * supports {@code mark}/{@code reset} so the transport can replay it, and whose exact length is known
+ * up front so requests can be sent with a fixed {@code Content-Length}.
+ *
+ * @see RequestBodyBufferPool
+ */
+final class RequestBodyBuffer extends ByteArrayOutputStream {
+
+    RequestBodyBuffer(int initialCapacity) {
+        super(initialCapacity);
+    }
+
+    /**
+     * Appends {@code value} encoded as UTF-8 without going through an intermediate {@code byte[]}.
+     * Unpaired surrogates are replaced with {@code '?'}, as {@link String#getBytes(java.nio.charset.Charset)} does.
+     */
+    void writeUtf8(CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                write(c);
+            } else if (c < 0x800) {
+                write(0xC0 | (c >> 6));
+                write(0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                write(0xF0 | (codePoint >> 18));
+                write(0x80 | ((codePoint >> 12) & 0x3F));
+                write(0x80 | ((codePoint >> 6) & 0x3F));
+                write(0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                write('?');
+            } else {
+                write(0xE0 | (c >> 12));
+                write(0x80 | ((c >> 6) & 0x3F));
+                write(0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    /**
+     * @return a stream over the bytes written so far; only valid until this buffer is released back to its pool
+     */
+    InputStream toInputStream() {
+        return new ByteArrayInputStream(buf, 0, count);
+    }
+
+    /**
+     * @return an unpooled copy of this buffer, for a request that may outlive the call that wrote it
+     */
+    RequestBodyBuffer copy() {
+        RequestBodyBuffer copy = new RequestBodyBuffer(Math.max(count, 1));
+        copy.write(buf, 0, count);
+        return copy;
+    }
+
+    int capacity() {
+        return buf.length;
+    }
+}
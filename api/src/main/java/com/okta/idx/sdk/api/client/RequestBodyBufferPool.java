@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Bounded pool of {@link RequestBodyBuffer}s shared by the requests of one client.
+ * <p>
+ * {@link #acquire()} never blocks: when the pool is empty a new buffer is created, and buffers released
+ * into a full pool (or that grew past {@link #MAX_RETAINED_CAPACITY}) are simply dropped.
+ */
+final class RequestBodyBufferPool {
+
+    static final int DEFAULT_POOL_SIZE = 32;
+
+    /** IDX request bodies are a few hundred bytes; this fits all of them without growing. */
+    static final int INITIAL_CAPACITY = 2048;
+
+    /** Buffers that had to grow beyond this are not retained, so one large body does not pin memory. */
+    static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private final BlockingQueue<RequestBodyBuffer> buffers;
+
+    RequestBodyBufferPool() {
+        this(DEFAULT_POOL_SIZE);
+    }
+
+    RequestBodyBufferPool(int poolSize) {
+        this.buffers = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    RequestBodyBuffer acquire() {
+        RequestBodyBuffer buffer = buffers.poll();
+        return buffer != null ? buffer : new RequestBodyBuffer(INITIAL_CAPACITY);
+    }
+
+    void release(RequestBodyBuffer buffer) {
+        if (buffer.capacity() <= MAX_RETAINED_CAPACITY) {
+            buffer.reset();
+            buffers.offer(buffer);
+        }
+    }
+
+    int available() {
+        return buffers.size();
+    }
+}
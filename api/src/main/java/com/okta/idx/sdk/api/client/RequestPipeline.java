@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client;
+
+import com.okta.commons.http.HttpException;
+import com.okta.commons.http.Response;
+import com.okta.idx.sdk.api.exception.ProcessingException;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Executes {@link IDXClient} calls: runs the {@link IDXInterceptor} stages around the transport and
+ * hands the response to the caller's {@link ResponseHandler}.
+ * <p>
+ * Without interceptors a call goes straight to the transport, without any of the stage bookkeeping.
+ */
+final class RequestPipeline {
+
+    private final TransportMonitor transport;
+    private final IDXInterceptor[] interceptors;
+
+    RequestPipeline(TransportMonitor transport, List<IDXInterceptor> interceptors) {
+        this.transport = transport;
+        this.interceptors = interceptors.toArray(new IDXInterceptor[0]);
+    }
+
+    <T> T execute(IDXRequestContext context, ResponseHandler<T> handler) throws ProcessingException {
+
+        if (interceptors.length == 0) {
+            try {
+                return handler.handle(transport.execute(context));
+            } catch (IOException | HttpException e) {
+                throw new ProcessingException(e);
+            } finally {
+                context.complete();
+            }
+        }
+
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            for (IDXInterceptor interceptor : interceptors) {
+                interceptor.beforeSend(context);
+            }
+
+            Response response = new Chain(0).proceed(context);
+
+            for (IDXInterceptor interceptor : interceptors) {
+                interceptor.afterReceive(context, response);
+            }
+
+            return handler.handle(response);
+
+        } catch (IOException | HttpException e) {
+            ProcessingException error = mapError(context, new ProcessingException(e));
+            failure = error;
+            throw error;
+        } catch (ProcessingException e) {
+            ProcessingException error = mapError(context, e);
+            failure = error;
+            throw error;
+        } catch (RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            context.complete();
+            long elapsedNanos = System.nanoTime() - start;
+            for (IDXInterceptor interceptor : interceptors) {
+                interceptor.onComplete(context, elapsedNanos, failure);
+            }
+        }
+    }
+
+    private ProcessingException mapError(IDXRequestContext context, ProcessingException error) {
+        for (IDXInterceptor interceptor : interceptors) {
+            error = interceptor.mapError(context, error);
+        }
+        return error;
+    }
+
+    private final class Chain implements IDXInterceptor.Chain {
+
+        private final int index;
+
+        private Chain(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public Response proceed(IDXRequestContext context) throws ProcessingException {
+            if (index == interceptors.length) {
+                return transport.execute(context);
+            }
+            return interceptors[index].intercept(context, new Chain(index + 1));
+        }
+    }
+
+    /**
+     * Turns the transport response of a call into its result.
+     */
+    interface ResponseHandler<T> {
+        T handle(Response response) throws IOException, ProcessingException;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client;
+
+import com.okta.commons.http.HttpException;
+import com.okta.commons.http.Response;
+import com.okta.idx.sdk.api.exception.ProcessingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retries failed {@link IDXClient} calls with jittered exponential backoff.
+ * <p>
+ * What is retried depends on the endpoint:
+ * <ul>
+ * <li>idempotent endpoints ({@link IDXEndpoint#isIdempotent()}) are retried on 429, 502, 503 and 504 responses and
+ * on any transport failure</li>
+ * <li>{@code /v1/interact} and {@code /v1/token} are retried on 429 responses, which Okta returns before acting on
+ * the request, and when the connection could not be opened</li>
+ * <li>the other remediation endpoints, such as answerChallenge, are only retried when the connection could not be
+ * opened, i.e. when the request cannot have reached the server</li>
+ * </ul>
+ * When the response carries {@code Retry-After}, or is a 429 response carrying {@code X-Rate-Limit-Reset}, the client
+ * waits until then instead of its own backoff, unless that is more than {@link #DEFAULT_MAX_DELAY_MILLIS} away. A call gives up once it has
+ * been retried {@code maxAttempts} times, or when the next attempt would start after {@code maxElapsedMillis}; the
+ * last response or failure is then returned to the caller.
+ */
+final class RetryInterceptor implements IDXInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetryInterceptor.class);
+
+    static final long DEFAULT_BASE_DELAY_MILLIS = 300;
+    static final long DEFAULT_MAX_DELAY_MILLIS = 20_000;
+
+    private final int maxAttempts;
+    private final long maxElapsedMillis;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+
+    /**
+     * @param maxAttempts the maximum number of retries of a call, or 0 to bound retries by time only
+     * @param maxElapsedMillis the time after which a call is no longer retried, or 0 to bound retries by count only
+     */
+    RetryInterceptor(int maxAttempts, long maxElapsedMillis) {
+        this(maxAttempts, maxElapsedMillis, DEFAULT_BASE_DELAY_MILLIS, DEFAULT_MAX_DELAY_MILLIS);
+    }
+
+    RetryInterceptor(int maxAttempts, long maxElapsedMillis, long baseDelayMillis, long maxDelayMillis) {
+        this.maxAttempts = maxAttempts;
+        this.maxElapsedMillis = maxElapsedMillis;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    @Override
+    public Response intercept(IDXRequestContext context, Chain chain) throws ProcessingException {
+
+        long start = System.nanoTime();
+        int retries = 0;
+
+        while (true) {
+            Response response;
+            try {
+                response = chain.proceed(context);
+            } catch (HttpException e) {
+                if (!isRetryable(context.getEndpoint(), e)) {
+                    throw e;
+                }
+                long delay = backoff(retries);
+                if (!canRetry(retries, start, delay)) {
+                    throw e;
+                }
+                logger.debug("Retrying {} after transport failure: {}", context.getEndpoint(), e.getMessage());
+                sleep(delay);
+                retries++;
+                continue;
+            }
+
+            if (!isRetryable(context.getEndpoint(), response.getHttpStatus())) {
+                return response;
+            }
+            long serverDelay = RateLimitHeaders.retryAfterMillis(response, System.currentTimeMillis());
+            long delay = serverDelay >= 0 ? serverDelay + jitter() : backoff(retries);
+            if (delay > maxDelayMillis || !canRetry(retries, start, delay)) {
+                return response;
+            }
+            logger.debug("Retrying {} after HTTP status {} in {} ms", context.getEndpoint(), response.getHttpStatus(), delay);
+            discard(response);
+            sleep(delay);
+            retries++;
+        }
+    }
+
+    private static boolean isRetryable(IDXEndpoint endpoint, int httpStatus) {
+        if (endpoint.isIdempotent()) {
+            return httpStatus == 429 || httpStatus == 502 || httpStatus == 503 || httpStatus == 504;
+        }
+        return httpStatus == 429 && (endpoint == IDXEndpoint.INTERACT || endpoint == IDXEndpoint.TOKEN);
+    }
+
+    private static boolean isRetryable(IDXEndpoint endpoint, HttpException e) {
+        return endpoint.isIdempotent() || isConnectFailure(e);
+    }
+
+    private static boolean isConnectFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean canRetry(int retries, long startNanos, long delayMillis) {
+        if (maxAttempts > 0 && retries >= maxAttempts) {
+            return false;
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        return maxElapsedMillis <= 0 || elapsedMillis + delayMillis < maxElapsedMillis;
+    }
+
+    /**
+     * "Full jitter" backoff: a random delay up to {@code baseDelay * 2^retries}, capped at the maximum delay.
+     */
+    private long backoff(int retries) {
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << Math.min(retries, 16));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Spreads out clients that were all told to come back at the same time.
+     */
+    private long jitter() {
+        return ThreadLocalRandom.current().nextLong(baseDelayMillis + 1);
+    }
+
+    private static void sleep(long millis) throws ProcessingException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessingException(e);
+        }
+    }
+
+    private static void discard(Response response) {
+        InputStream body = response.getBody();
+        if (body != null) {
+            try {
+                body.close();
+            } catch (IOException e) {
+                // the response is dropped anyway
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client;
+
+import com.okta.idx.sdk.api.exception.ProcessingException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Coalesces concurrent identical calls: while a call for a key is in flight, other callers with the same key wait
+ * for it and share its result instead of making the call again.
+ * <p>
+ * Only a successful result is shared. A call can fail for reasons of its caller's own, such as an interrupt, a
+ * missed deadline or a circuit breaker that is open for it, so when the call fails, each caller that was waiting on it
+ * makes the call itself and gets its own result or error.
+ * <p>
+ * Only calls that overlap are coalesced; nothing is cached once a call completes. Callers decide what is identical
+ * through the key: {@link BaseIDXClient} uses the URL and the request body, so two users' calls are only coalesced
+ * if they send the same state handle.
+ */
+final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    V execute(K key, Call<V> call) throws ProcessingException {
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return await(existing, call);
+        }
+
+        try {
+            V value = call.call();
+            inFlight.remove(key, future);
+            future.complete(value);
+            return value;
+        } catch (ProcessingException | RuntimeException | Error e) {
+            inFlight.remove(key, future);
+            // the failure is not shared, it only tells the callers waiting to make the call themselves
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+
+    private static <V> V await(CompletableFuture<V> future, Call<V> call) throws ProcessingException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessingException(e);
+        } catch (ExecutionException e) {
+            return call.call();
+        }
+    }
+
+    /**
+     * The call being coalesced.
+     */
+    interface Call<V> {
+        V call() throws ProcessingException;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client;
+
+import com.okta.commons.http.HttpException;
+import com.okta.commons.http.Request;
+import com.okta.commons.http.RequestExecutor;
+import com.okta.commons.http.Response;
+import com.okta.idx.sdk.api.exception.ProcessingException;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hands the requests of a {@link BaseIDXClient} to its transport, and collects its {@link TransportStatistics}.
+ * <p>
+ * An exchange ends once its call completed, i.e. when its response has been read and parsed, as the transport keeps
+ * the connection until then. The transport's pool is read from the transport itself when it is a
+ * {@link ConnectionPoolReporter}, and not guessed otherwise.
+ */
+final class TransportMonitor {
+
+    private final RequestExecutor requestExecutor;
+    private final ConnectionPoolReporter connectionPool;
+    private final int maxConnections;
+
+    private final AtomicInteger activeExchanges = new AtomicInteger();
+    private final AtomicInteger peakActiveExchanges = new AtomicInteger();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder totalExchangeNanos = new LongAdder();
+
+    TransportMonitor(RequestExecutor requestExecutor, Integer maxConnections) {
+        this.requestExecutor = requestExecutor;
+        this.connectionPool = requestExecutor instanceof ConnectionPoolReporter
+            ? (ConnectionPoolReporter) requestExecutor : null;
+        this.maxConnections = maxConnections != null ? maxConnections : 0;
+    }
+
+    /**
+     * Sends the request of {@code context}. The exchange ends when the call completes.
+     */
+    Response execute(IDXRequestContext context) throws HttpException {
+        // a retried call gave up the response of its previous attempt
+        context.releaseHeld(this);
+        long start = begin();
+        boolean held = false;
+        try {
+            Response response = requestExecutor.executeRequest(context.newRequest());
+            context.holdUntilComplete(this, () -> end(start));
+            held = true;
+            return response;
+        } finally {
+            if (!held) {
+                end(start);
+            }
+        }
+    }
+
+    /**
+     * Sends {@code request} outside of a call, e.g. to warm up the pool. The exchange ends once {@code handler}
+     * returned.
+     */
+    <T> T execute(Request request, RequestPipeline.ResponseHandler<T> handler) throws IOException, ProcessingException {
+        long start = begin();
+        try {
+            return handler.handle(requestExecutor.executeRequest(request));
+        } finally {
+            end(start);
+        }
+    }
+
+    TransportStatistics snapshot() {
+        return new TransportStatistics(maxConnections, activeExchanges.get(), peakActiveExchanges.get(),
+            requests.sum(), totalExchangeNanos.sum(),
+            connectionPool != null ? connectionPool.getConnectionPoolStatistics() : null);
+    }
+
+    private long begin() {
+        requests.increment();
+        int active = activeExchanges.incrementAndGet();
+        if (active > peakActiveExchanges.get()) {
+            peakActiveExchanges.accumulateAndGet(active, Math::max);
+        }
+        return System.nanoTime();
+    }
+
+    private void end(long start) {
+        totalExchangeNanos.add(System.nanoTime() - start);
+        activeExchanges.decrementAndGet();
+    }
+}
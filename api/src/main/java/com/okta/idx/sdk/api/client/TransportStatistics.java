@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client;
+
+/**
+ * A snapshot of the connections behind an {@link IDXClient}'s transport, returned by
+ * {@link IDXClient#getTransportStatistics()}. Counters accumulate from the creation of the client.
+ * <p>
+ * Requests and exchanges are measured by the client: an exchange lasts from the moment a request is handed to the
+ * transport until its response has been read and parsed, which is as long as the transport keeps its connection.
+ * The connection pool is only visible for transports that implement {@link ConnectionPoolReporter}, such as the NIO
+ * transport; for the others {@link #isConnectionPoolReported()} is {@code false} and the pool getters return -1.
+ */
+public final class TransportStatistics {
+
+    private final int maxConnections;
+    private final int activeExchanges;
+    private final int peakActiveExchanges;
+    private final long requests;
+    private final long totalExchangeNanos;
+    private final ConnectionPoolStatistics connectionPool;
+
+    TransportStatistics(int maxConnections, int activeExchanges, int peakActiveExchanges, long requests,
+                        long totalExchangeNanos, ConnectionPoolStatistics connectionPool) {
+        this.maxConnections = maxConnections;
+        this.activeExchanges = activeExchanges;
+        this.peakActiveExchanges = peakActiveExchanges;
+        this.requests = requests;
+        this.totalExchangeNanos = totalExchangeNanos;
+        this.connectionPool = connectionPool;
+    }
+
+    /**
+     * @return the configured maximum connections per route, or 0 if the transport's own limit applies
+     */
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * @return the number of requests handed to the transport whose response has not been read and parsed yet
+     */
+    public int getActiveExchanges() {
+        return activeExchanges;
+    }
+
+    /**
+     * @return the highest number of active exchanges at the same time
+     */
+    public int getPeakActiveExchanges() {
+        return peakActiveExchanges;
+    }
+
+    /**
+     * @return the number of requests handed to the transport
+     */
+    public long getRequests() {
+        return requests;
+    }
+
+    /**
+     * @return the total time of the exchanges that ended, waits for a connection and reading the responses included
+     */
+    public long getTotalExchangeNanos() {
+        return totalExchangeNanos;
+    }
+
+    /**
+     * @return whether the transport reports its connection pool, see {@link ConnectionPoolReporter}
+     */
+    public boolean isConnectionPoolReported() {
+        return connectionPool != null;
+    }
+
+    /**
+     * @return the number of open connections carrying an exchange, or -1 if the pool is not reported
+     */
+    public int getActiveConnections() {
+        return connectionPool != null ? connectionPool.getActiveConnections() : -1;
+    }
+
+    /**
+     * @return the number of open connections waiting in the pool for a request, or -1 if the pool is not reported
+     */
+    public int getIdleConnections() {
+        return connectionPool != null ? connectionPool.getIdleConnections() : -1;
+    }
+
+    /**
+     * @return the number of connections the transport opened, each with its own TLS handshake for an {@code https}
+     *         issuer, or -1 if the pool is not reported
+     */
+    public long getNewConnections() {
+        return connectionPool != null ? connectionPool.getOpenedConnections() : -1;
+    }
+
+    /**
+     * @return the number of requests sent over a connection already open, or -1 if the pool is not reported
+     */
+    public long getReusedConnections() {
+        return connectionPool != null ? connectionPool.getReusedConnections() : -1;
+    }
+
+    /**
+     * @return the share of requests sent over a connection already open, between 0 and 1, or -1 if the pool is not
+     *         reported
+     */
+    public double getReuseRatio() {
+        if (connectionPool == null) {
+            return -1;
+        }
+        long sent = connectionPool.getOpenedConnections() + connectionPool.getReusedConnections();
+        return sent > 0 ? (double) connectionPool.getReusedConnections() / sent : 0;
+    }
+
+    /**
+     * @return the number of requests that waited for a connection as every one allowed was busy, or -1 if the pool
+     *         is not reported
+     */
+    public long getConnectionWaits() {
+        return connectionPool != null ? connectionPool.getConnectionWaits() : -1;
+    }
+
+    @Override
+    public String toString() {
+        return "TransportStatistics {maxConnections=" + maxConnections +
+                ", activeExchanges=" + activeExchanges +
+                ", peakActiveExchanges=" + peakActiveExchanges +
+                ", requests=" + requests +
+                ", totalExchangeNanos=" + totalExchangeNanos +
+                ", connectionPool=" + (connectionPool != null ? connectionPool : "unavailable") +
+                "}";
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client;
+
+import java.time.Duration;
+
+/**
+ * How long each step of {@link IDXClient#warmUp(int)} took.
+ */
+public final class WarmUpReport {
+
+    private final Duration transportLoad;
+    private final Duration dnsResolution;
+    private final Duration connections;
+    private final int openedConnections;
+    private final Duration serializers;
+
+    WarmUpReport(long transportLoadNanos, long dnsResolutionNanos, long connectionsNanos, int openedConnections,
+                 long serializersNanos) {
+        this.transportLoad = Duration.ofNanos(transportLoadNanos);
+        this.dnsResolution = Duration.ofNanos(dnsResolutionNanos);
+        this.connections = Duration.ofNanos(connectionsNanos);
+        this.openedConnections = openedConnections;
+        this.serializers = Duration.ofNanos(serializersNanos);
+    }
+
+    /**
+     * @return how long loading the {@link com.okta.commons.http.RequestExecutorFactory} and creating the transport
+     * took, when the client was built; zero for a transport supplied by the caller
+     */
+    public Duration getTransportLoad() {
+        return transportLoad;
+    }
+
+    /**
+     * @return how long resolving the issuer host took
+     */
+    public Duration getDnsResolution() {
+        return dnsResolution;
+    }
+
+    /**
+     * @return how long opening the connections to the issuer took, TLS handshakes included
+     */
+    public Duration getConnections() {
+        return connections;
+    }
+
+    /**
+     * @return the number of requests to the issuer that succeeded, each leaving a connection in the pool
+     */
+    public int getOpenedConnections() {
+        return openedConnections;
+    }
+
+    /**
+     * @return how long building the JSON serializers and deserializers took
+     */
+    public Duration getSerializers() {
+        return serializers;
+    }
+
+    @Override
+    public String toString() {
+        return "WarmUpReport {transportLoad=" + transportLoad +
+                ", dnsResolution=" + dnsResolution +
+                ", connections=" + connections +
+                ", openedConnections=" + openedConnections +
+                ", serializers=" + serializers +
+                "}";
+    }
+}
@@ -15,7 +15,10 @@
  */
 package com.okta.idx.sdk.api.client;
 
+import com.okta.idx.sdk.api.exception.DeadlineExceededException;
 import com.okta.idx.sdk.api.exception.ProcessingException;
+import com.okta.idx.sdk.api.exception.ServiceUnavailableException;
+import com.okta.idx.sdk.api.model.AuthenticationStatus;
 import com.okta.idx.sdk.api.model.RemediationOption;
 import com.okta.idx.sdk.api.response.AuthenticationResponse;
 import com.okta.idx.sdk.api.response.ErrorResponse;
@@ -47,6 +50,9 @@ final class WrapperUtil {
         logger.error("Exception occurred", e);
 
         AuthenticationResponse authenticationResponse = new AuthenticationResponse();
+        if (e instanceof ServiceUnavailableException || e instanceof DeadlineExceededException) {
+            authenticationResponse.setAuthenticationStatus(AuthenticationStatus.SERVICE_UNAVAILABLE);
+        }
         ErrorResponse errorResponse = e.getErrorResponse();
         if (errorResponse != null) {
             if (errorResponse.getMessages() != null) {
@@ -22,7 +22,9 @@ import com.okta.commons.http.config.HttpClientConfiguration;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -36,11 +38,18 @@ import java.util.Set;
  */
 public class ClientConfiguration extends HttpClientConfiguration {
 
+    // request executor parameters read by the okta-commons transports
+    private static final String MAX_CONNECTIONS_PER_ROUTE_PARAM = "maxConnectionsPerRoute";
+    private static final String MAX_CONNECTIONS_TOTAL_PARAM = "maxConnectionsTotal";
+    private static final String CONNECTION_TIME_TO_LIVE_PARAM = "connectionTimeToLive";
+
     private String issuer;
     private String clientId;
     private String clientSecret;
     private Set<String> scopes = new HashSet<>();
     private String redirectUri;
+    private boolean compressionEnabled;
+    private boolean virtualThreadsEnabled;
 
     public String getIssuer() {
         return issuer;
@@ -82,6 +91,92 @@ public class ClientConfiguration extends HttpClientConfiguration {
         this.redirectUri = redirectUri;
     }
 
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    /**
+     * Sets whether the client asks for gzip or deflate compressed responses.
+     *
+     * @param compressionEnabled {@code true} to negotiate compression
+     */
+    public void setCompressionEnabled(boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+
+    public boolean isVirtualThreadsEnabled() {
+        return virtualThreadsEnabled;
+    }
+
+    /**
+     * Sets whether the threads the client starts to make backend calls are virtual threads. Requires Java 21.
+     *
+     * @param virtualThreadsEnabled {@code true} to use virtual threads
+     */
+    public void setVirtualThreadsEnabled(boolean virtualThreadsEnabled) {
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+    }
+
+    public Integer getMaxConnectionsPerRoute() {
+        return getRequestExecutorParam(MAX_CONNECTIONS_PER_ROUTE_PARAM);
+    }
+
+    /**
+     * Sets the maximum number of pooled connections to the Okta host. Honored by transports that pool
+     * connections per route, such as the okta-commons httpclient executor.
+     *
+     * @param maxConnectionsPerRoute the maximum number of connections per route
+     */
+    public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+        setRequestExecutorParam(MAX_CONNECTIONS_PER_ROUTE_PARAM, maxConnectionsPerRoute);
+    }
+
+    public Integer getMaxConnectionsTotal() {
+        return getRequestExecutorParam(MAX_CONNECTIONS_TOTAL_PARAM);
+    }
+
+    /**
+     * Sets the maximum number of pooled connections across all routes. Must not be lower than
+     * {@link #getMaxConnectionsPerRoute()}.
+     *
+     * @param maxConnectionsTotal the maximum number of connections
+     */
+    public void setMaxConnectionsTotal(int maxConnectionsTotal) {
+        setRequestExecutorParam(MAX_CONNECTIONS_TOTAL_PARAM, maxConnectionsTotal);
+    }
+
+    /**
+     * @return how long, in seconds, a pooled connection is kept for reuse, or {@code null} for the transport default
+     */
+    public Integer getKeepAlive() {
+        Integer timeToLiveMillis = getRequestExecutorParam(CONNECTION_TIME_TO_LIVE_PARAM);
+        return timeToLiveMillis != null ? timeToLiveMillis / 1000 : null;
+    }
+
+    /**
+     * Sets how long, in seconds, a pooled connection is kept for reuse.
+     *
+     * @param keepAlive the keep-alive duration in seconds
+     */
+    public void setKeepAlive(int keepAlive) {
+        setRequestExecutorParam(CONNECTION_TIME_TO_LIVE_PARAM, keepAlive * 1000);
+    }
+
+    private Integer getRequestExecutorParam(String name) {
+        Map<String, String> params = getRequestExecutorParams();
+        String value = params != null ? params.get(name) : null;
+        return value != null ? Integer.valueOf(value) : null;
+    }
+
+    private void setRequestExecutorParam(String name, int value) {
+        Map<String, String> params = getRequestExecutorParams();
+        if (params == null) {
+            params = new HashMap<>();
+            setRequestExecutorParams(params);
+        }
+        params.put(name, String.valueOf(value));
+    }
+
     @Override
     public RequestAuthenticator getRequestAuthenticator() {
         return new DisabledAuthenticator();
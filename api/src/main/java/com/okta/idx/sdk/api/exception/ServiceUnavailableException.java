@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.exception;
+
+/**
+ * Thrown when the client refuses a call without sending it, because the backend is known to be unhealthy or the
+ * client is overloaded.
+ */
+public class ServiceUnavailableException extends ProcessingException {
+
+    public ServiceUnavailableException(String message) {
+        super(503, message);
+    }
+}
@@ -41,6 +41,10 @@ public enum AuthenticationStatus {
 
     AWAITING_AUTHENTICATOR_ENROLLMENT("awaiting_authenticator_enrollment"),
 
+    SERVICE_UNAVAILABLE("service_unavailable"),
+
+    BUSY("busy"),
+
     UNKNOWN("unknown");
 
     private String value;
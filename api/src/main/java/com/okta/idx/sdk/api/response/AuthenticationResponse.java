@@ -24,6 +24,7 @@ import com.okta.idx.sdk.api.model.FormValue;
 import com.okta.idx.sdk.api.model.Idp;
 import com.okta.idx.sdk.webauthn.WebAuthnParams;
 
+import java.time.Duration;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -49,6 +50,8 @@ public class AuthenticationResponse {
 
     private WebAuthnParams webAuthnParams = new WebAuthnParams();
 
+    private Duration retryAfter;
+
     public TokenResponse getTokenResponse() {
         return tokenResponse;
     }
@@ -124,4 +127,16 @@ public class AuthenticationResponse {
     public WebAuthnParams getWebAuthnParams() {
         return webAuthnParams;
     }
+
+    /**
+     * @return how long to wait before trying again, for a {@link AuthenticationStatus#BUSY} response; {@code null}
+     * otherwise
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
 }
@@ -23,5 +23,17 @@ public abstract class Constants {
     public static final String DEFAULT_CLIENT_SCOPES_PROPERTY_NAME = "okta.idx.scopes";
     public static final String DEFAULT_CLIENT_REDIRECT_URI_PROPERTY_NAME = "okta.idx.redirectUri";
     public static final String DEFAULT_CLIENT_TESTING_DISABLE_HTTPS_CHECK_PROPERTY_NAME = "okta.testing.disableHttpsCheck";
+    public static final String DEFAULT_CLIENT_CONNECTION_TIMEOUT_PROPERTY_NAME = "okta.idx.client.connectionTimeout";
+    public static final String DEFAULT_CLIENT_REQUEST_TIMEOUT_PROPERTY_NAME = "okta.idx.client.requestTimeout";
+    public static final String DEFAULT_CLIENT_RETRY_MAX_ATTEMPTS_PROPERTY_NAME = "okta.idx.client.retryMaxAttempts";
+    public static final String DEFAULT_CLIENT_MAX_CONNECTIONS_PER_ROUTE_PROPERTY_NAME = "okta.idx.client.maxConnectionsPerRoute";
+    public static final String DEFAULT_CLIENT_MAX_CONNECTIONS_TOTAL_PROPERTY_NAME = "okta.idx.client.maxConnectionsTotal";
+    public static final String DEFAULT_CLIENT_KEEP_ALIVE_PROPERTY_NAME = "okta.idx.client.keepAlive";
+    public static final String DEFAULT_CLIENT_COMPRESSION_PROPERTY_NAME = "okta.idx.client.compression";
+    public static final String DEFAULT_CLIENT_VIRTUAL_THREADS_PROPERTY_NAME = "okta.idx.client.virtualThreads";
+    public static final String DEFAULT_CLIENT_PROXY_HOST_PROPERTY_NAME = "okta.idx.client.proxy.host";
+    public static final String DEFAULT_CLIENT_PROXY_PORT_PROPERTY_NAME = "okta.idx.client.proxy.port";
+    public static final String DEFAULT_CLIENT_PROXY_USERNAME_PROPERTY_NAME = "okta.idx.client.proxy.username";
+    public static final String DEFAULT_CLIENT_PROXY_PASSWORD_PROPERTY_NAME = "okta.idx.client.proxy.password";
 
 }
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.okta.idx.sdk.api.client
+
+import com.okta.commons.http.DefaultResponse
+import com.okta.commons.http.HttpException
+import com.okta.commons.http.MediaType
+import com.okta.commons.http.Request
+import com.okta.commons.http.RequestExecutor
+import com.okta.commons.http.Response
+import com.okta.idx.sdk.api.config.ClientConfiguration
+import com.okta.idx.sdk.api.exception.ProcessingException
+import com.okta.idx.sdk.api.model.IDXClientContext
+import com.okta.idx.sdk.api.response.IDXResponse
+import org.testng.annotations.Test
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+
+import static org.hamcrest.MatcherAssert.assertThat
+import static org.hamcrest.Matchers.instanceOf
+import static org.hamcrest.Matchers.is
+import static org.hamcrest.Matchers.notNullValue
+import static org.mockito.Mockito.any
+import static org.mockito.Mockito.mock
+import static org.mockito.Mockito.when
+import static org.testng.Assert.fail
+
+class BaseAsyncIDXClientTest {
+
+    @Test
+    void testIntrospectCompletesOnExecutor() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        Executor executor = Executors.newSingleThreadExecutor()
+
+        final AsyncIDXClient asyncIDXClient =
+                new BaseAsyncIDXClient(new BaseIDXClient(getClientConfiguration(), requestExecutor), executor)
+
+        when(requestExecutor.executeRequest(any(Request.class))).thenReturn(getResponse("interact-response"))
+
+        IDXClientContext idxClientContext = asyncIDXClient.interact().get(5, TimeUnit.SECONDS)
+        assertThat(idxClientContext.getInteractionHandle(), is("003Q14X7li"))
+
+        when(requestExecutor.executeRequest(any(Request.class))).thenReturn(getResponse("introspect-response"))
+
+        CompletableFuture<IDXResponse> future = asyncIDXClient.introspect(idxClientContext)
+        IDXResponse response = future.get(5, TimeUnit.SECONDS)
+
+        assertThat(response, notNullValue())
+        assertThat(response.remediation().remediationOptions().first().name, is("identify"))
+
+        executor.shutdown()
+    }
+
+    @Test
+    void testFailureCompletesExceptionally() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        Executor executor = Executors.newSingleThreadExecutor()
+
+        final AsyncIDXClient asyncIDXClient =
+                new BaseAsyncIDXClient(new BaseIDXClient(getClientConfiguration(), requestExecutor), executor)
+
+        when(requestExecutor.executeRequest(any(Request.class))).thenThrow(new HttpException("Connection failed!"))
+
+        try {
+            asyncIDXClient.interact().get(5, TimeUnit.SECONDS)
+            fail("Expected ExecutionException to be thrown.")
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(ProcessingException))
+            assertThat(e.getCause().getMessage(), is("com.okta.commons.http.HttpException: Connection failed!"))
+        }
+
+        executor.shutdown()
+    }
+
+    @Test
+    void testErrorCompletesExceptionally() {
+
+        IDXClient client = mock(IDXClient)
+        Executor executor = Executors.newSingleThreadExecutor()
+
+        final AsyncIDXClient asyncIDXClient = new BaseAsyncIDXClient(client, executor)
+
+        when(client.cancel("stateHandle")).thenThrow(new StackOverflowError("too deep"))
+
+        try {
+            asyncIDXClient.cancel("stateHandle").get(5, TimeUnit.SECONDS)
+            fail("Expected ExecutionException to be thrown.")
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(StackOverflowError))
+            assertThat(e.getCause().getMessage(), is("too deep"))
+        }
+
+        executor.shutdown()
+    }
+
+    @Test
+    void testRejectedExecutionCompletesExceptionally() {
+
+        final AsyncIDXClient asyncIDXClient =
+                new BaseAsyncIDXClient(mock(IDXClient), { throw new RejectedExecutionException("full") } as Executor)
+
+        CompletableFuture<IDXResponse> future = asyncIDXClient.cancel("stateHandle")
+
+        assertThat(future.isCompletedExceptionally(), is(true))
+    }
+
+    @Test
+    void testDefaultExecutorRejectsWhenQueueIsFull() {
+
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) DefaultIDXClientBuilder.createDefaultAsyncExecutor()
+        CountDownLatch release = new CountDownLatch(1)
+        final AsyncIDXClient asyncIDXClient = new BaseAsyncIDXClient(mock(IDXClient), executor)
+
+        try {
+            // occupy every thread, then fill the queue
+            (executor.getMaximumPoolSize() + executor.getQueue().remainingCapacity()).times {
+                executor.execute { release.await() }
+            }
+
+            CompletableFuture<IDXResponse> future = asyncIDXClient.cancel("stateHandle")
+
+            assertThat(future.isCompletedExceptionally(), is(true))
+            try {
+                future.join()
+                fail("Expected CompletionException to be thrown.")
+            } catch (CompletionException e) {
+                assertThat(e.getCause(), instanceOf(ProcessingException))
+                assertThat(e.getCause().getCause(), instanceOf(RejectedExecutionException))
+            }
+        } finally {
+            release.countDown()
+            executor.shutdown()
+        }
+    }
+
+    @Test
+    void testBuildAsync() {
+
+        AsyncIDXClient asyncIDXClient = Clients.builder()
+                .setIssuer("https://example.com")
+                .setClientId("test-client-id")
+                .setScopes(["test-scope"] as Set)
+                .setRedirectUri("https://example.com/callback")
+                .buildAsync()
+
+        assertThat(asyncIDXClient, instanceOf(BaseAsyncIDXClient))
+    }
+
+    Response getResponse(String responseName) {
+        return new DefaultResponse(
+                200,
+                MediaType.valueOf("application/ion+json; okta-version=1.0.0"),
+                new FileInputStream(getClass().getClassLoader().getResource(responseName + ".json").getFile()),
+                -1)
+    }
+
+    ClientConfiguration getClientConfiguration() {
+        ClientConfiguration clientConfiguration = new ClientConfiguration()
+        clientConfiguration.setIssuer("http://example.com")
+        clientConfiguration.setClientId("test-client-id")
+        clientConfiguration.setClientSecret("test-client-secret")
+        clientConfiguration.setScopes(["test-scope"] as Set)
+        return clientConfiguration
+    }
+}
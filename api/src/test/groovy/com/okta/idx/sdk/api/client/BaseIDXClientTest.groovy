@@ -49,15 +49,33 @@ import com.okta.idx.sdk.api.request.SkipAuthenticatorEnrollmentRequestBuilder
 import com.okta.idx.sdk.api.response.IDXResponse
 import com.okta.idx.sdk.api.response.TokenResponse
 import com.okta.idx.sdk.api.config.ClientConfiguration
+import org.mockito.ArgumentCaptor
 import org.testng.annotations.Test
 
+import java.time.Duration
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+import java.util.zip.GZIPOutputStream
+
 import static com.okta.idx.sdk.api.util.ClientUtil.getNormalizedUri
 
 import static org.hamcrest.Matchers.arrayWithSize
+import static org.hamcrest.Matchers.containsString
+import static org.hamcrest.Matchers.greaterThan
+import static org.hamcrest.Matchers.instanceOf
 import static org.hamcrest.Matchers.is
+import static org.hamcrest.Matchers.sameInstance
 import static org.mockito.Mockito.any
 import static org.mockito.Mockito.mock
+import static org.mockito.Mockito.times
+import static org.mockito.Mockito.verify
 import static org.mockito.Mockito.when
+import static org.mockito.Mockito.withSettings
 
 import static org.hamcrest.MatcherAssert.assertThat
 import static org.hamcrest.Matchers.equalTo
@@ -1223,6 +1241,41 @@ class BaseIDXClientTest {
         }
     }
 
+    @Test
+    void testRequestBodyIsCompact() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+
+        final IDXClient idxClient =
+                new BaseIDXClient(getClientConfiguration(), requestExecutor)
+
+        final Response stubbedIdentifyResponse = new DefaultResponse(
+                200,
+                MediaType.valueOf("application/ion+json; okta-version=1.0.0"),
+                new FileInputStream(getClass().getClassLoader().getResource("identify-response.json").getFile()),
+                -1)
+
+        when(requestExecutor.executeRequest(any(Request.class))).thenReturn(stubbedIdentifyResponse)
+
+        IdentifyRequest identifyRequest = IdentifyRequestBuilder.builder()
+                .withIdentifier("test-identifier")
+                .withStateHandle("stateHandle")
+                .build()
+
+        idxClient.identify(identifyRequest, "https://foo.oktapreview.com/idp/idx/identify")
+
+        ArgumentCaptor<Request> requestCaptor = ArgumentCaptor.forClass(Request)
+        verify(requestExecutor).executeRequest(requestCaptor.capture())
+
+        Request request = requestCaptor.getValue()
+        byte[] bytes = request.getBody().bytes
+        String body = new String(bytes, "UTF-8")
+        assertThat(body, containsString("\"identifier\":\"test-identifier\""))
+        assertThat(body.contains("\n"), is(false))
+        assertThat(request.getHeaders().getContentLength(), is(bytes.length as long))
+        assertThat(request.getBody().markSupported(), is(true))
+    }
+
     @Test
     void testServiceUnavailableErrorResponse() {
 
@@ -1265,6 +1318,302 @@ class BaseIDXClientTest {
         }
     }
 
+    @Test
+    void testConcurrentIntrospectCallsAreCoalesced() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        CountDownLatch requestSent = new CountDownLatch(1)
+        CountDownLatch releaseResponse = new CountDownLatch(1)
+
+        when(requestExecutor.executeRequest(any(Request.class))).thenAnswer {
+            requestSent.countDown()
+            releaseResponse.await(5, TimeUnit.SECONDS)
+            return new DefaultResponse(
+                    200,
+                    MediaType.valueOf("application/ion+json; okta-version=1.0.0"),
+                    getClass().getClassLoader().getResourceAsStream("introspect-response.json"),
+                    -1)
+        }
+
+        final IDXClient idxClient = new BaseIDXClient(getClientConfiguration(), requestExecutor)
+        IDXClientContext clientContext = new IDXClientContext(null, null, "interactionHandle", null)
+
+        ExecutorService executor = Executors.newFixedThreadPool(2)
+        try {
+            Future<IDXResponse> first = executor.submit({ idxClient.introspect(clientContext) } as Callable<IDXResponse>)
+            requestSent.await(5, TimeUnit.SECONDS)
+            Future<IDXResponse> second = executor.submit({ idxClient.introspect(clientContext) } as Callable<IDXResponse>)
+
+            // let the second caller join the call in flight before the response is released
+            Thread.sleep(100)
+            releaseResponse.countDown()
+
+            assertThat(first.get(5, TimeUnit.SECONDS), notNullValue())
+            assertThat(second.get(5, TimeUnit.SECONDS), sameInstance(first.get()))
+        } finally {
+            executor.shutdownNow()
+        }
+        verify(requestExecutor, times(1)).executeRequest(any(Request.class))
+
+        // calls that do not overlap are not coalesced
+        idxClient.introspect(clientContext)
+        verify(requestExecutor, times(2)).executeRequest(any(Request.class))
+    }
+
+    @Test
+    void testFailedCoalescedCallIsNotShared() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        CountDownLatch requestSent = new CountDownLatch(1)
+        CountDownLatch secondJoined = new CountDownLatch(1)
+
+        when(requestExecutor.executeRequest(any(Request.class))).thenAnswer {
+            if (requestSent.count > 0) {
+                requestSent.countDown()
+                // the first caller is interrupted while its request is in flight
+                secondJoined.await(5, TimeUnit.SECONDS)
+                throw new HttpException("Interrupted", new InterruptedException())
+            }
+            return new DefaultResponse(
+                    200,
+                    MediaType.valueOf("application/ion+json; okta-version=1.0.0"),
+                    getClass().getClassLoader().getResourceAsStream("introspect-response.json"),
+                    -1)
+        }
+
+        final IDXClient idxClient = new BaseIDXClient(getClientConfiguration(), requestExecutor)
+        IDXClientContext clientContext = new IDXClientContext(null, null, "interactionHandle", null)
+
+        ExecutorService executor = Executors.newFixedThreadPool(2)
+        try {
+            Future<IDXResponse> first = executor.submit({ idxClient.introspect(clientContext) } as Callable<IDXResponse>)
+            requestSent.await(5, TimeUnit.SECONDS)
+            Future<IDXResponse> second = executor.submit({ idxClient.introspect(clientContext) } as Callable<IDXResponse>)
+
+            Thread.sleep(100)
+            secondJoined.countDown()
+
+            try {
+                first.get(5, TimeUnit.SECONDS)
+                assert false : "expected the first call to fail"
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), instanceOf(ProcessingException))
+            }
+            // the second caller makes the call again rather than sharing the failure
+            assertThat(second.get(5, TimeUnit.SECONDS), notNullValue())
+        } finally {
+            executor.shutdownNow()
+        }
+        verify(requestExecutor, times(2)).executeRequest(any(Request.class))
+    }
+
+    @Test
+    void testGzipEncodedResponse() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream()
+        new GZIPOutputStream(compressed).withCloseable {
+            it << getClass().getClassLoader().getResourceAsStream("introspect-response.json")
+        }
+        final Response stubbedResponse = new DefaultResponse(
+                200,
+                MediaType.valueOf("application/ion+json; okta-version=1.0.0"),
+                new ByteArrayInputStream(compressed.toByteArray()),
+                -1)
+        stubbedResponse.getHeaders().add("Content-Encoding", "gzip")
+
+        when(requestExecutor.executeRequest(any(Request.class))).thenReturn(stubbedResponse)
+
+        ClientConfiguration clientConfiguration = getClientConfiguration()
+        clientConfiguration.setCompressionEnabled(true)
+        final IDXClient idxClient = new BaseIDXClient(clientConfiguration, requestExecutor)
+        IDXResponse response = idxClient.introspect(new IDXClientContext(null, null, "interactionHandle", null))
+
+        assertThat(response, notNullValue())
+        assertThat(response.remediation(), notNullValue())
+
+        ArgumentCaptor<Request> requestCaptor = ArgumentCaptor.forClass(Request)
+        verify(requestExecutor).executeRequest(requestCaptor.capture())
+        assertThat(requestCaptor.getValue().getHeaders().getFirst("Accept-Encoding"), is("gzip, deflate"))
+    }
+
+    @Test
+    void testCompressionDisabledByDefault() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+
+        final Response stubbedResponse = new DefaultResponse(
+                200,
+                MediaType.valueOf("application/ion+json; okta-version=1.0.0"),
+                getClass().getClassLoader().getResourceAsStream("introspect-response.json"),
+                -1)
+
+        when(requestExecutor.executeRequest(any(Request.class))).thenReturn(stubbedResponse)
+
+        final IDXClient idxClient = new BaseIDXClient(getClientConfiguration(), requestExecutor)
+        idxClient.introspect(new IDXClientContext(null, null, "interactionHandle", null))
+
+        ArgumentCaptor<Request> requestCaptor = ArgumentCaptor.forClass(Request)
+        verify(requestExecutor).executeRequest(requestCaptor.capture())
+        assertThat(requestCaptor.getValue().getHeaders().getFirst("Accept-Encoding"), nullValue())
+    }
+
+    @Test
+    void testWarmUp() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request.class))).thenAnswer {
+            new DefaultResponse(
+                    200,
+                    MediaType.valueOf("application/json"),
+                    new ByteArrayInputStream("{\"issuer\":\"http://localhost:8080/oauth2/default\"}".bytes),
+                    -1)
+        }
+
+        ClientConfiguration clientConfiguration = getClientConfiguration()
+        clientConfiguration.setIssuer("http://localhost:8080/oauth2/default")
+        final IDXClient idxClient = new BaseIDXClient(clientConfiguration, requestExecutor)
+
+        WarmUpReport report = idxClient.warmUp(3)
+
+        assertThat(report.getOpenedConnections(), is(3))
+        assertThat(report.getTransportLoad(), is(Duration.ZERO))
+        assertThat(report.getSerializers(), notNullValue())
+
+        ArgumentCaptor<Request> requestCaptor = ArgumentCaptor.forClass(Request)
+        verify(requestExecutor, times(3)).executeRequest(requestCaptor.capture())
+        assertThat(requestCaptor.getValue().getResourceUrl().toString(),
+                is("http://localhost:8080/oauth2/default/.well-known/openid-configuration"))
+    }
+
+    @Test
+    void testWarmUpFailsWhenNoConnectionOpens() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request.class))).thenThrow(new HttpException("Connection refused"))
+
+        ClientConfiguration clientConfiguration = getClientConfiguration()
+        clientConfiguration.setIssuer("http://localhost:8080/oauth2/default")
+        final IDXClient idxClient = new BaseIDXClient(clientConfiguration, requestExecutor)
+
+        try {
+            idxClient.warmUp(2)
+            assert false : "expected ProcessingException"
+        } catch (ProcessingException e) {
+            assertThat(e.getCause(), instanceOf(HttpException))
+        }
+    }
+
+    @Test
+    void testTransportStatistics() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request.class)))
+            .thenAnswer { introspectResponse() }
+            .thenAnswer { introspectResponse() }
+            .thenThrow(new HttpException("Connection reset"))
+            .thenAnswer { introspectResponse() }
+
+        final IDXClient idxClient = new BaseIDXClient(getClientConfiguration(), requestExecutor)
+        IDXClientContext idxClientContext = new IDXClientContext(null, null, "interactionHandle", null)
+
+        idxClient.introspect(idxClientContext)
+        idxClient.introspect(idxClientContext)
+        try {
+            idxClient.introspect(idxClientContext)
+        } catch (ProcessingException e) {
+            // counted as well
+        }
+        idxClient.introspect(idxClientContext)
+
+        TransportStatistics statistics = idxClient.getTransportStatistics()
+        assertThat(statistics.getRequests(), is(4L))
+        assertThat(statistics.getActiveExchanges(), is(0))
+        assertThat(statistics.getPeakActiveExchanges(), is(1))
+        assertThat(statistics.getTotalExchangeNanos(), greaterThan(0L))
+
+        // a mock transport has no pool to report, so none is made up
+        assertThat(statistics.isConnectionPoolReported(), is(false))
+        assertThat(statistics.getActiveConnections(), is(-1))
+        assertThat(statistics.getIdleConnections(), is(-1))
+        assertThat(statistics.getNewConnections(), is(-1L))
+        assertThat(statistics.getReusedConnections(), is(-1L))
+        assertThat(statistics.getReuseRatio(), is(-1d))
+        assertThat(statistics.getConnectionWaits(), is(-1L))
+    }
+
+    @Test
+    void testTransportStatisticsCountExchangeUntilResponseIsRead() {
+
+        CountDownLatch bodyRead = new CountDownLatch(1)
+        CountDownLatch releaseBody = new CountDownLatch(1)
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request.class))).thenAnswer {
+            InputStream fixture = getClass().getClassLoader().getResourceAsStream("introspect-response.json")
+            // the transport has returned, but the body is still being received
+            InputStream body = new FilterInputStream(fixture) {
+                @Override
+                int read(byte[] b, int off, int len) throws IOException {
+                    bodyRead.countDown()
+                    releaseBody.await(5, TimeUnit.SECONDS)
+                    return super.read(b, off, len)
+                }
+            }
+            return new DefaultResponse(200, MediaType.valueOf("application/ion+json; okta-version=1.0.0"), body, -1)
+        }
+
+        final IDXClient idxClient = new BaseIDXClient(getClientConfiguration(), requestExecutor)
+
+        ExecutorService executor = Executors.newSingleThreadExecutor()
+        try {
+            Future<?> introspect = executor.submit {
+                idxClient.introspect(new IDXClientContext(null, null, "interactionHandle", null))
+            }
+            bodyRead.await(5, TimeUnit.SECONDS)
+            assertThat(idxClient.getTransportStatistics().getActiveExchanges(), is(1))
+
+            releaseBody.countDown()
+            introspect.get(5, TimeUnit.SECONDS)
+        } finally {
+            executor.shutdownNow()
+        }
+        assertThat(idxClient.getTransportStatistics().getActiveExchanges(), is(0))
+    }
+
+    @Test
+    void testTransportStatisticsReportConnectionPool() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor, withSettings().extraInterfaces(ConnectionPoolReporter))
+        when(requestExecutor.executeRequest(any(Request.class))).thenAnswer { introspectResponse() }
+        when(((ConnectionPoolReporter) requestExecutor).getConnectionPoolStatistics())
+            .thenReturn(new ConnectionPoolStatistics(1, 2, 3, 9, 4))
+
+        ClientConfiguration clientConfiguration = getClientConfiguration()
+        clientConfiguration.setMaxConnectionsPerRoute(3)
+        final IDXClient idxClient = new BaseIDXClient(clientConfiguration, requestExecutor)
+        idxClient.introspect(new IDXClientContext(null, null, "interactionHandle", null))
+
+        TransportStatistics statistics = idxClient.getTransportStatistics()
+        assertThat(statistics.getMaxConnections(), is(3))
+        assertThat(statistics.getRequests(), is(1L))
+        assertThat(statistics.isConnectionPoolReported(), is(true))
+        assertThat(statistics.getActiveConnections(), is(1))
+        assertThat(statistics.getIdleConnections(), is(2))
+        assertThat(statistics.getNewConnections(), is(3L))
+        assertThat(statistics.getReusedConnections(), is(9L))
+        assertThat(statistics.getReuseRatio(), is(0.75d))
+        assertThat(statistics.getConnectionWaits(), is(4L))
+    }
+
+    private Response introspectResponse() {
+        return new DefaultResponse(
+            200,
+            MediaType.valueOf("application/ion+json; okta-version=1.0.0"),
+            getClass().getClassLoader().getResourceAsStream("introspect-response.json"),
+            -1)
+    }
+
     ClientConfiguration getClientConfiguration() {
         ClientConfiguration clientConfiguration = new ClientConfiguration()
         clientConfiguration.setIssuer("http://example.com")
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client
+
+import com.okta.commons.http.DefaultResponse
+import com.okta.commons.http.HttpException
+import com.okta.commons.http.MediaType
+import com.okta.commons.http.Request
+import com.okta.commons.http.RequestExecutor
+import com.okta.commons.http.Response
+import com.okta.idx.sdk.api.config.ClientConfiguration
+import com.okta.idx.sdk.api.exception.DeadlineExceededException
+import com.okta.idx.sdk.api.model.AuthenticationStatus
+import com.okta.idx.sdk.api.model.IDXClientContext
+import com.okta.idx.sdk.api.request.AnswerChallengeRequestBuilder
+import com.okta.idx.sdk.api.request.PollRequestBuilder
+import com.okta.idx.sdk.api.response.AuthenticationResponse
+import com.okta.idx.sdk.api.response.IDXResponse
+import org.testng.annotations.Test
+
+import java.time.Duration
+import java.util.concurrent.TimeUnit
+
+import static org.hamcrest.MatcherAssert.assertThat
+import static org.hamcrest.Matchers.greaterThan
+import static org.hamcrest.Matchers.instanceOf
+import static org.hamcrest.Matchers.is
+import static org.hamcrest.Matchers.lessThan
+import static org.hamcrest.Matchers.lessThanOrEqualTo
+import static org.hamcrest.Matchers.not
+import static org.hamcrest.Matchers.notNullValue
+import static org.mockito.Mockito.any
+import static org.mockito.Mockito.mock
+import static org.mockito.Mockito.never
+import static org.mockito.Mockito.times
+import static org.mockito.Mockito.verify
+import static org.mockito.Mockito.when
+
+class DeadlineIDXClientTest {
+
+    @Test
+    void testFlowWithinDeadline() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request)))
+            .thenReturn(response("interact-response.json"))
+            .thenReturn(response("introspect-response.json"))
+
+        IDXAuthenticationWrapper idxAuthenticationWrapper =
+            new IDXAuthenticationWrapper(new BaseIDXClient(getClientConfiguration(), requestExecutor))
+
+        AuthenticationResponse authenticationResponse =
+            idxAuthenticationWrapper.withDeadline(Duration.ofSeconds(5)).begin()
+
+        assertThat(authenticationResponse.getAuthenticationStatus(), not(is(AuthenticationStatus.SERVICE_UNAVAILABLE)))
+        assertThat(authenticationResponse.getErrors().isEmpty(), is(true))
+    }
+
+    @Test
+    void testSlowCallFailsAtDeadline() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request)))
+            .thenReturn(response("interact-response.json"))
+            .thenAnswer {
+                // introspect is idempotent, so it is abandoned at the deadline
+                Thread.sleep(2000)
+                return response("introspect-response.json")
+            }
+
+        IDXAuthenticationWrapper idxAuthenticationWrapper =
+            new IDXAuthenticationWrapper(new BaseIDXClient(getClientConfiguration(), requestExecutor))
+
+        long start = System.currentTimeMillis()
+        AuthenticationResponse authenticationResponse =
+            idxAuthenticationWrapper.withDeadline(Duration.ofMillis(200)).begin()
+
+        assertThat(System.currentTimeMillis() - start, lessThan(1000L))
+        assertThat(authenticationResponse.getAuthenticationStatus(), is(AuthenticationStatus.SERVICE_UNAVAILABLE))
+    }
+
+    @Test
+    void testBudgetIsSharedAcrossCalls() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request)))
+            .thenAnswer {
+                Thread.sleep(500)
+                return response("interact-response.json")
+            }
+            .thenAnswer {
+                Thread.sleep(500)
+                return response("introspect-response.json")
+            }
+
+        IDXAuthenticationWrapper idxAuthenticationWrapper =
+            new IDXAuthenticationWrapper(new BaseIDXClient(getClientConfiguration(), requestExecutor))
+
+        // each call fits the budget on its own, but not both of them
+        long start = System.currentTimeMillis()
+        AuthenticationResponse authenticationResponse =
+            idxAuthenticationWrapper.withDeadline(Duration.ofMillis(800)).begin()
+
+        assertThat(System.currentTimeMillis() - start, lessThan(950L))
+        assertThat(authenticationResponse.getAuthenticationStatus(), is(AuthenticationStatus.SERVICE_UNAVAILABLE))
+        verify(requestExecutor, times(2)).executeRequest(any(Request))
+    }
+
+    @Test
+    void testExpiredDeadlineFailsWithoutSending() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        IDXClient client = new DeadlineIDXClient(new BaseIDXClient(getClientConfiguration(), requestExecutor),
+            System.nanoTime() - 1)
+
+        try {
+            client.introspect(new IDXClientContext(null, null, "interactionHandle", null))
+            assert false : "expected DeadlineExceededException"
+        } catch (DeadlineExceededException e) {
+            assertThat(e.getHttpStatus(), is(504))
+        }
+        verify(requestExecutor, never()).executeRequest(any(Request))
+    }
+
+    @Test
+    void testNonIdempotentCallIsNotAbandoned() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request))).thenAnswer {
+            Thread.sleep(300)
+            return response("answer-challenge-response.json")
+        }
+
+        IDXClient client = new DeadlineIDXClient(new BaseIDXClient(getClientConfiguration(), requestExecutor),
+            System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100))
+
+        // the answer outlives the deadline, but may have been applied by the server, so its response is returned
+        IDXResponse idxResponse = client.answerChallenge(
+            AnswerChallengeRequestBuilder.builder().withStateHandle("stateHandle").build(),
+            "http://example.com/idp/idx/challenge/answer")
+        assertThat(idxResponse, notNullValue())
+
+        // no further call is sent
+        try {
+            client.poll(PollRequestBuilder.builder().withStateHandle("stateHandle").build(), null)
+            assert false : "expected DeadlineExceededException"
+        } catch (DeadlineExceededException e) {
+            assertThat(e.getHttpStatus(), is(504))
+        }
+        verify(requestExecutor, times(1)).executeRequest(any(Request))
+    }
+
+    @Test
+    void testRequestsCarryDeadline() {
+
+        List<Request> requests = []
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request))).thenAnswer {
+            requests.add(it.getArgument(0))
+            return response("answer-challenge-response.json")
+        }
+
+        long budget = TimeUnit.SECONDS.toNanos(5)
+        IDXClient client = new DeadlineIDXClient(new BaseIDXClient(getClientConfiguration(), requestExecutor),
+            System.nanoTime() + budget)
+
+        // sent on the caller's thread, and on a pooled one
+        client.answerChallenge(AnswerChallengeRequestBuilder.builder().withStateHandle("stateHandle").build(),
+            "http://example.com/idp/idx/challenge/answer")
+        client.poll(PollRequestBuilder.builder().withStateHandle("stateHandle").build(),
+            "http://example.com/idp/idx/challenge/poll")
+
+        assertThat(requests.size(), is(2))
+        requests.each { request ->
+            assertThat(request, instanceOf(DeadlineRequest))
+            assertThat(((DeadlineRequest) request).getRemainingNanos(), greaterThan(0L))
+            assertThat(((DeadlineRequest) request).getRemainingNanos(), lessThanOrEqualTo(budget))
+        }
+
+        // calls without a deadline do not carry one
+        new BaseIDXClient(getClientConfiguration(), requestExecutor).answerChallenge(
+            AnswerChallengeRequestBuilder.builder().withStateHandle("stateHandle").build(),
+            "http://example.com/idp/idx/challenge/answer")
+        assertThat(requests.get(2), not(instanceOf(DeadlineRequest)))
+    }
+
+    @Test
+    void testTransportTimeoutAtDeadline() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request))).thenAnswer {
+            // a transport with a per-request timeout gives up at the deadline of the request
+            Thread.sleep(TimeUnit.NANOSECONDS.toMillis(((DeadlineRequest) it.getArgument(0)).getRemainingNanos()) + 1)
+            throw new HttpException("Unable to execute HTTP request: timeout", new SocketTimeoutException("timeout"))
+        }
+
+        IDXClient client = new DeadlineIDXClient(new BaseIDXClient(getClientConfiguration(), requestExecutor),
+            System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100))
+
+        try {
+            client.answerChallenge(AnswerChallengeRequestBuilder.builder().withStateHandle("stateHandle").build(),
+                "http://example.com/idp/idx/challenge/answer")
+            assert false : "expected DeadlineExceededException"
+        } catch (DeadlineExceededException e) {
+            assertThat(e.getHttpStatus(), is(504))
+            assertThat(e.getMessage(), is("Deadline exceeded while waiting for the response. HTTP status: 504"))
+        }
+        verify(requestExecutor, times(1)).executeRequest(any(Request))
+    }
+
+    private Response response(String fixture) {
+        return new DefaultResponse(
+            200,
+            MediaType.valueOf("application/ion+json; okta-version=1.0.0"),
+            getClass().getClassLoader().getResourceAsStream(fixture),
+            -1)
+    }
+
+    ClientConfiguration getClientConfiguration() {
+        ClientConfiguration clientConfiguration = new ClientConfiguration()
+        clientConfiguration.setIssuer("http://example.com")
+        clientConfiguration.setClientId("test-client-id")
+        clientConfiguration.setClientSecret("test-client-secret")
+        clientConfiguration.setScopes(["test-scope"] as Set)
+        clientConfiguration.setRedirectUri("http://example.com/callback")
+        return clientConfiguration
+    }
+}
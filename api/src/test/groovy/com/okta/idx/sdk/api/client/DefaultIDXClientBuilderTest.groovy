@@ -28,6 +28,8 @@ import org.testng.annotations.Listeners
 import org.testng.annotations.Test
 import org.testng.collections.Sets
 
+import java.util.concurrent.CompletableFuture
+
 import static org.mockito.ArgumentMatchers.anyString
 import static org.mockito.Mockito.*
 import static org.testng.Assert.assertEquals
@@ -168,6 +170,73 @@ class DefaultIDXClientBuilderTest {
         }
     }
 
+    @Test
+    void testConfigureTransportProperties() {
+        clearOktaEnvAndSysProps()
+        System.setProperty(Constants.DEFAULT_CLIENT_CONNECTION_TIMEOUT_PROPERTY_NAME, "10")
+        System.setProperty(Constants.DEFAULT_CLIENT_REQUEST_TIMEOUT_PROPERTY_NAME, "30")
+        System.setProperty(Constants.DEFAULT_CLIENT_RETRY_MAX_ATTEMPTS_PROPERTY_NAME, "2")
+        System.setProperty(Constants.DEFAULT_CLIENT_MAX_CONNECTIONS_PER_ROUTE_PROPERTY_NAME, "50")
+        System.setProperty(Constants.DEFAULT_CLIENT_MAX_CONNECTIONS_TOTAL_PROPERTY_NAME, "100")
+        System.setProperty(Constants.DEFAULT_CLIENT_KEEP_ALIVE_PROPERTY_NAME, "120")
+        System.setProperty(Constants.DEFAULT_CLIENT_COMPRESSION_PROPERTY_NAME, "true")
+        System.setProperty(Constants.DEFAULT_CLIENT_VIRTUAL_THREADS_PROPERTY_NAME, "true")
+        System.setProperty(Constants.DEFAULT_CLIENT_PROXY_HOST_PROPERTY_NAME, "proxy.example.com")
+        System.setProperty(Constants.DEFAULT_CLIENT_PROXY_PORT_PROPERTY_NAME, "8080")
+        System.setProperty(Constants.DEFAULT_CLIENT_PROXY_USERNAME_PROPERTY_NAME, "proxy-user")
+        System.setProperty(Constants.DEFAULT_CLIENT_PROXY_PASSWORD_PROPERTY_NAME, "proxy-password")
+
+        DefaultIDXClientBuilder clientBuilder =
+                new DefaultIDXClientBuilder(noDefaultYamlResourceFactory())
+        assertEquals clientBuilder.clientConfig.connectionTimeout, 10
+        assertEquals clientBuilder.clientConfig.retryMaxElapsed, 30
+        assertEquals clientBuilder.clientConfig.retryMaxAttempts, 2
+        assertEquals clientBuilder.clientConfig.maxConnectionsPerRoute, 50
+        assertEquals clientBuilder.clientConfig.maxConnectionsTotal, 100
+        assertEquals clientBuilder.clientConfig.keepAlive, 120
+        assertEquals clientBuilder.clientConfig.compressionEnabled, true
+        assertEquals clientBuilder.clientConfig.virtualThreadsEnabled, true
+        assertEquals clientBuilder.clientConfig.requestExecutorParams, [
+                maxConnectionsPerRoute: "50", maxConnectionsTotal: "100", connectionTimeToLive: "120000"]
+        assertEquals clientBuilder.clientConfig.proxy.host, "proxy.example.com"
+        assertEquals clientBuilder.clientConfig.proxy.port, 8080
+        assertEquals clientBuilder.clientConfig.proxy.username, "proxy-user"
+        assertEquals clientBuilder.clientConfig.proxy.password, "proxy-password"
+
+        clientBuilder.setConnectionTimeout(5).setKeepAlive(60).setCompressionEnabled(false)
+        assertEquals clientBuilder.clientConfig.connectionTimeout, 5
+        assertEquals clientBuilder.clientConfig.keepAlive, 60
+        assertEquals clientBuilder.clientConfig.compressionEnabled, false
+        System.clearProperty(Constants.DEFAULT_CLIENT_COMPRESSION_PROPERTY_NAME)
+        System.clearProperty(Constants.DEFAULT_CLIENT_VIRTUAL_THREADS_PROPERTY_NAME)
+
+        TestUtil.expect(IllegalArgumentException) {
+            clientBuilder.setMaxConnectionsPerRoute(0)
+        }
+    }
+
+    @Test
+    void testVirtualThreads() {
+        clearOktaEnvAndSysProps()
+        IDXClientBuilder clientBuilder = new DefaultIDXClientBuilder(noDefaultYamlNoAppYamlResourceFactory())
+                .setIssuer("https://okta.example.com")
+                .setClientId("some-client-id")
+                .setScopes(["test-scope"] as Set)
+                .setRedirectUri("https://okta.com")
+                .setVirtualThreadsEnabled(true)
+
+        if (!VirtualThreads.isSupported()) {
+            TestUtil.expect(IllegalStateException) {
+                clientBuilder.build()
+            }
+            return
+        }
+
+        BaseAsyncIDXClient client = (BaseAsyncIDXClient) clientBuilder.buildAsync()
+        assertTrue(CompletableFuture.supplyAsync({ VirtualThreads.isVirtual(Thread.currentThread()) },
+                client.executor).get())
+    }
+
     static ResourceFactory noDefaultYamlNoAppYamlResourceFactory() {
         def resourceFactory = spy(new DefaultResourceFactory())
         doAnswer(new Answer<Resource>() {
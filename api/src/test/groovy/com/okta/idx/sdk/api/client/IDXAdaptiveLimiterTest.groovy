@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client
+
+import com.okta.commons.http.DefaultResponse
+import com.okta.commons.http.MediaType
+import com.okta.commons.http.Request
+import com.okta.commons.http.RequestExecutor
+import com.okta.commons.http.Response
+import com.okta.idx.sdk.api.config.ClientConfiguration
+import com.okta.idx.sdk.api.exception.ProcessingException
+import com.okta.idx.sdk.api.exception.ServiceUnavailableException
+import com.okta.idx.sdk.api.request.PollRequestBuilder
+import org.testng.annotations.Test
+
+import java.time.Duration
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+
+import static org.hamcrest.MatcherAssert.assertThat
+import static org.hamcrest.Matchers.is
+import static org.mockito.Mockito.any
+import static org.mockito.Mockito.mock
+import static org.mockito.Mockito.when
+
+class IDXAdaptiveLimiterTest {
+
+    @Test
+    void testLimitShrinksOnErrorsAndGrowsOnSuccess() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request)))
+            .thenAnswer { errorResponse(503) }
+            .thenAnswer { errorResponse(503) }
+            .thenAnswer { response("poll-response.json") }
+
+        IDXAdaptiveLimiter limiter = IDXAdaptiveLimiter.builder()
+            .withInitialLimit(2)
+            .withBackoffRatio(0.5)
+            .build()
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor, [limiter])
+
+        2.times {
+            try {
+                poll(client, "stateHandle")
+                assert false : "expected ProcessingException"
+            } catch (ProcessingException e) {
+                assertThat(e.getHttpStatus(), is(503))
+            }
+        }
+        assertThat(limiter.getLimit(), is(1))
+
+        // a single call in flight uses the whole limit of one, so its success raises the limit
+        poll(client, "stateHandle")
+        assertThat(limiter.getLimit(), is(2))
+        assertThat(limiter.getInFlight(), is(0))
+    }
+
+    @Test
+    void testCallsOverLimitWaitThenFail() {
+
+        CountDownLatch pollSent = new CountDownLatch(1)
+        CountDownLatch releasePoll = new CountDownLatch(1)
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request))).thenAnswer {
+            pollSent.countDown()
+            releasePoll.await(5, TimeUnit.SECONDS)
+            return response("poll-response.json")
+        }
+
+        IDXAdaptiveLimiter limiter = IDXAdaptiveLimiter.builder()
+            .withInitialLimit(1)
+            .withMaxWait(Duration.ofMillis(50))
+            .build()
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor, [limiter])
+
+        ExecutorService executor = Executors.newSingleThreadExecutor()
+        try {
+            Future<?> blocked = executor.submit { poll(client, "stateHandle") }
+            pollSent.await(5, TimeUnit.SECONDS)
+
+            try {
+                poll(client, "otherStateHandle")
+                assert false : "expected ServiceUnavailableException"
+            } catch (ServiceUnavailableException e) {
+                assertThat(e.getHttpStatus(), is(503))
+            }
+
+            releasePoll.countDown()
+            blocked.get(5, TimeUnit.SECONDS)
+        } finally {
+            executor.shutdownNow()
+        }
+        assertThat(limiter.getInFlight(), is(0))
+    }
+
+    @Test
+    void testLatencyIncludesReadingTheResponse() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request))).thenAnswer {
+            InputStream fixture = getClass().getClassLoader().getResourceAsStream("poll-response.json")
+            // the headers arrive at once, the body slowly
+            InputStream body = new FilterInputStream(fixture) {
+                @Override
+                int read(byte[] b, int off, int len) throws IOException {
+                    Thread.sleep(20)
+                    return super.read(b, off, len)
+                }
+            }
+            return new DefaultResponse(200, MediaType.valueOf("application/ion+json; okta-version=1.0.0"), body, -1)
+        }
+
+        IDXAdaptiveLimiter limiter = IDXAdaptiveLimiter.builder()
+            .withInitialLimit(2)
+            .withBackoffRatio(0.5)
+            .withLatencyThreshold(Duration.ofMillis(10))
+            .build()
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor, [limiter])
+
+        poll(client, "stateHandle")
+
+        assertThat(limiter.getLimit(), is(1))
+        assertThat(limiter.getInFlight(), is(0))
+    }
+
+    private static void poll(IDXClient client, String stateHandle) {
+        client.poll(PollRequestBuilder.builder().withStateHandle(stateHandle).build(), null)
+    }
+
+    private static Response errorResponse(int httpStatus) {
+        return new DefaultResponse(httpStatus, MediaType.valueOf("text/plain"), new ByteArrayInputStream("Error".bytes), -1)
+    }
+
+    private Response response(String fixture) {
+        return new DefaultResponse(
+            200,
+            MediaType.valueOf("application/ion+json; okta-version=1.0.0"),
+            getClass().getClassLoader().getResourceAsStream(fixture),
+            -1)
+    }
+
+    ClientConfiguration getClientConfiguration() {
+        ClientConfiguration clientConfiguration = new ClientConfiguration()
+        clientConfiguration.setIssuer("http://example.com")
+        clientConfiguration.setClientId("test-client-id")
+        clientConfiguration.setClientSecret("test-client-secret")
+        clientConfiguration.setScopes(["test-scope"] as Set)
+        return clientConfiguration
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client
+
+import com.okta.commons.http.DefaultResponse
+import com.okta.commons.http.MediaType
+import com.okta.commons.http.Request
+import com.okta.commons.http.RequestExecutor
+import com.okta.commons.http.Response
+import com.okta.idx.sdk.api.config.ClientConfiguration
+import com.okta.idx.sdk.api.model.AuthenticationStatus
+import com.okta.idx.sdk.api.model.IDXClientContext
+import com.okta.idx.sdk.api.response.AuthenticationResponse
+import org.testng.annotations.Test
+
+import java.time.Duration
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+
+import static org.hamcrest.MatcherAssert.assertThat
+import static org.hamcrest.Matchers.is
+import static org.hamcrest.Matchers.not
+import static org.mockito.Mockito.any
+import static org.mockito.Mockito.mock
+import static org.mockito.Mockito.times
+import static org.mockito.Mockito.verify
+import static org.mockito.Mockito.when
+
+class IDXAdmissionControllerTest {
+
+    @Test
+    void testFlowOverLimitIsShed() {
+
+        CountDownLatch interactSent = new CountDownLatch(1)
+        CountDownLatch releaseInteract = new CountDownLatch(1)
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request)))
+            .thenAnswer {
+                interactSent.countDown()
+                releaseInteract.await(5, TimeUnit.SECONDS)
+                return response("interact-response.json")
+            }
+            .thenReturn(response("introspect-response.json"))
+
+        IDXAdmissionController admissionController = IDXAdmissionController.builder()
+            .withMaxConcurrentFlows(1)
+            .withRetryAfter(Duration.ofSeconds(2))
+            .build()
+        IDXAuthenticationWrapper idxAuthenticationWrapper = new IDXAuthenticationWrapper(
+            new BaseIDXClient(getClientConfiguration(), requestExecutor), admissionController)
+
+        ExecutorService executor = Executors.newSingleThreadExecutor()
+        try {
+            Future<AuthenticationResponse> admitted = executor.submit({ idxAuthenticationWrapper.begin() } as Callable<AuthenticationResponse>)
+            interactSent.await(5, TimeUnit.SECONDS)
+            assertThat(admissionController.getInFlight(), is(1))
+
+            AuthenticationResponse shed = idxAuthenticationWrapper.begin()
+            assertThat(shed.getAuthenticationStatus(), is(AuthenticationStatus.BUSY))
+            assertThat(shed.getRetryAfter(), is(Duration.ofSeconds(2)))
+            assertThat(shed.getErrors().isEmpty(), is(false))
+
+            releaseInteract.countDown()
+            assertThat(admitted.get(5, TimeUnit.SECONDS).getAuthenticationStatus(), not(is(AuthenticationStatus.BUSY)))
+        } finally {
+            executor.shutdownNow()
+        }
+
+        assertThat(admissionController.getInFlight(), is(0))
+        assertThat(admissionController.getAdmittedFlows(), is(1L))
+        assertThat(admissionController.getShedFlows(), is(1L))
+        verify(requestExecutor, times(2)).executeRequest(any(Request))
+    }
+
+    @Test
+    void testSlowFlowsLowerTheLimit() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request))).thenAnswer {
+            Thread.sleep(100)
+            return response("introspect-response.json")
+        }
+
+        IDXAdmissionController admissionController = IDXAdmissionController.builder()
+            .withMaxConcurrentFlows(10)
+            .withMaxConcurrentFlowsWhenSlow(1)
+            .withLatencyThreshold(Duration.ofMillis(10))
+            .build()
+        IDXAuthenticationWrapper idxAuthenticationWrapper = new IDXAuthenticationWrapper(
+            new BaseIDXClient(getClientConfiguration(), requestExecutor), admissionController)
+
+        assertThat(admissionController.isSlow(), is(false))
+        idxAuthenticationWrapper.introspect(new IDXClientContext(null, null, "interactionHandle", null))
+        assertThat(admissionController.isSlow(), is(true))
+
+        ExecutorService executor = Executors.newSingleThreadExecutor()
+        try {
+            Future<?> slowFlow = executor.submit {
+                idxAuthenticationWrapper.introspect(new IDXClientContext(null, null, "interactionHandle", null))
+            }
+            while (admissionController.getInFlight() == 0) {
+                Thread.sleep(5)
+            }
+
+            AuthenticationResponse shed = idxAuthenticationWrapper
+                .introspect(new IDXClientContext(null, null, "otherInteractionHandle", null))
+            assertThat(shed.getAuthenticationStatus(), is(AuthenticationStatus.BUSY))
+
+            slowFlow.get(5, TimeUnit.SECONDS)
+        } finally {
+            executor.shutdownNow()
+        }
+        assertThat(admissionController.getShedFlows(), is(1L))
+    }
+
+    private Response response(String fixture) {
+        return new DefaultResponse(
+            200,
+            MediaType.valueOf("application/ion+json; okta-version=1.0.0"),
+            getClass().getClassLoader().getResourceAsStream(fixture),
+            -1)
+    }
+
+    ClientConfiguration getClientConfiguration() {
+        ClientConfiguration clientConfiguration = new ClientConfiguration()
+        clientConfiguration.setIssuer("http://example.com")
+        clientConfiguration.setClientId("test-client-id")
+        clientConfiguration.setClientSecret("test-client-secret")
+        clientConfiguration.setScopes(["test-scope"] as Set)
+        clientConfiguration.setRedirectUri("http://example.com/callback")
+        return clientConfiguration
+    }
+}
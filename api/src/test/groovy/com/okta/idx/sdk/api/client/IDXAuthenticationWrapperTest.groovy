@@ -30,6 +30,7 @@ import com.okta.idx.sdk.api.response.AuthenticationResponse
 import org.testng.annotations.Test
 
 import java.lang.reflect.Field
+import java.util.concurrent.TimeUnit
 
 import static org.hamcrest.MatcherAssert.assertThat
 import static org.hamcrest.Matchers.*
@@ -602,6 +603,121 @@ class IDXAuthenticationWrapperTest {
         assertThat(authenticationResponse.getAuthenticators(), nullValue())
     }
 
+    @Test
+    void testSupplyAsync() {
+
+        def scenario = "scenario_1_1_1"
+        def requestExecutor = mock(RequestExecutor)
+        def idxClient = new BaseIDXClient(getClientConfiguration(), requestExecutor)
+        def idxAuthenticationWrapper = new IDXAuthenticationWrapper(idxClient)
+
+        setMockResponse(requestExecutor, "interact", scenario + "/interact-response", 200, MediaType.APPLICATION_JSON)
+        setMockResponse(requestExecutor, "introspect", scenario + "/introspect-response", 200, mediaTypeAppIonJson)
+        setMockResponse(requestExecutor, "identify", scenario + "/identify-response", 200, mediaTypeAppIonJson)
+        setMockResponse(requestExecutor, "answer", scenario + "/answer-response", 200, mediaTypeAppIonJson)
+        setMockResponse(requestExecutor, "token", scenario + "/token-response", 200, mediaTypeAppIonJson)
+        setMockResponse(requestExecutor, "userinfo", scenario + "/userinfo-response", 200, mediaTypeAppIonJson)
+
+        AuthenticationResponse authenticationResponse = idxAuthenticationWrapper.supplyAsync { wrapper ->
+            AuthenticationResponse beginResponse = wrapper.begin()
+            wrapper.authenticate(new AuthenticationOptions("mary@example.com", "superSecret".toCharArray()),
+                beginResponse.proceedContext)
+        }.get(5, TimeUnit.SECONDS)
+
+        assertThat(authenticationResponse.getErrors(), empty())
+        assertThat(authenticationResponse.getAuthenticationStatus(), is(AuthenticationStatus.SUCCESS))
+    }
+
+    @Test
+    void testAuthenticateAsync() {
+
+        def scenario = "scenario_1_1_1"
+        def requestExecutor = mock(RequestExecutor)
+        def idxClient = new BaseIDXClient(getClientConfiguration(), requestExecutor)
+        def idxAuthenticationWrapper = new IDXAuthenticationWrapper(idxClient)
+
+        setMockResponse(requestExecutor, "interact", scenario + "/interact-response", 200, MediaType.APPLICATION_JSON)
+        setMockResponse(requestExecutor, "introspect", scenario + "/introspect-response", 200, mediaTypeAppIonJson)
+        setMockResponse(requestExecutor, "identify", scenario + "/identify-response", 200, mediaTypeAppIonJson)
+        setMockResponse(requestExecutor, "answer", scenario + "/answer-response", 200, mediaTypeAppIonJson)
+        setMockResponse(requestExecutor, "token", scenario + "/token-response", 200, mediaTypeAppIonJson)
+        setMockResponse(requestExecutor, "userinfo", scenario + "/userinfo-response", 200, mediaTypeAppIonJson)
+
+        AuthenticationResponse beginResponse = idxAuthenticationWrapper.begin()
+        AuthenticationResponse authenticationResponse = idxAuthenticationWrapper.authenticateAsync(
+            new AuthenticationOptions("mary@example.com", "superSecret".toCharArray()), beginResponse.proceedContext)
+            .get(5, TimeUnit.SECONDS)
+
+        assertThat(authenticationResponse.getErrors(), empty())
+        assertThat(authenticationResponse.getAuthenticationStatus(), is(AuthenticationStatus.SUCCESS))
+        assertThat(authenticationResponse.getTokenResponse(), notNullValue())
+    }
+
+    @Test
+    void testAuthenticateAsyncWithIncorrectPassword() {
+
+        def scenario = "scenario_1_1_3"
+        def requestExecutor = mock(RequestExecutor)
+        def idxClient = new BaseIDXClient(getClientConfiguration(), requestExecutor)
+        def idxAuthenticationWrapper = new IDXAuthenticationWrapper(idxClient)
+
+        setMockResponse(requestExecutor, "interact", scenario + "/interact-response", 200, MediaType.APPLICATION_JSON)
+        setMockResponse(requestExecutor, "introspect", scenario + "/introspect-response", 200, mediaTypeAppIonJson)
+        setMockResponse(requestExecutor, "identify", scenario + "/identify-response", 200, mediaTypeAppIonJson)
+        setMockResponse(requestExecutor, "answer", scenario + "/answer-response", 400, mediaTypeAppIonJson)
+
+        AuthenticationResponse beginResponse = idxAuthenticationWrapper.begin()
+        AuthenticationResponse authenticationResponse = idxAuthenticationWrapper.authenticateAsync(
+            new AuthenticationOptions("mary@example.com", "wrong".toCharArray()), beginResponse.proceedContext)
+            .get(5, TimeUnit.SECONDS)
+
+        assertThat(authenticationResponse.getErrors(), hasItem("Password is incorrect"))
+        assertThat(authenticationResponse.getAuthenticators(), nullValue())
+    }
+
+    @Test
+    void testRecoverPasswordAsync() {
+
+        def requestExecutor = mock(RequestExecutor)
+        def idxClient = new BaseIDXClient(getClientConfiguration(), requestExecutor)
+        def idxAuthenticationWrapper = new IDXAuthenticationWrapper(idxClient)
+
+        setMockResponse(requestExecutor, "interact", "interact-response", 200, MediaType.APPLICATION_JSON)
+        setMockResponse(requestExecutor, "introspect", "introspect-identify-first-response", 200, mediaTypeAppIonJson)
+        setMockResponse(requestExecutor, "identify", "identify-response", 200, mediaTypeAppIonJson)
+        setMockResponse(requestExecutor, "challenge", "identify-first-success-response", 200, mediaTypeAppIonJson)
+        setMockResponse(requestExecutor, "recover", "recover-identify-first-response", 200, mediaTypeAppIonJson)
+
+        AuthenticationResponse beginResponse = idxAuthenticationWrapper.begin()
+        AuthenticationResponse authenticationResponse = idxAuthenticationWrapper.recoverPasswordAsync(
+            "joe.coder@example.com", beginResponse.proceedContext).get(5, TimeUnit.SECONDS)
+
+        assertThat(authenticationResponse.getAuthenticationStatus(),
+                equalTo(AuthenticationStatus.AWAITING_AUTHENTICATOR_SELECTION))
+        assertThat(authenticationResponse.getAuthenticators(),
+                hasItem(hasProperty("label", is("Email")))
+        )
+    }
+
+    @Test
+    void testFetchSignUpFormValuesAsync() {
+
+        def requestExecutor = mock(RequestExecutor)
+        def idxClient = new BaseIDXClient(getClientConfiguration(), requestExecutor)
+        def idxAuthenticationWrapper = new IDXAuthenticationWrapper(idxClient)
+
+        setMockResponse(requestExecutor, "interact", "interact-response", 200, MediaType.APPLICATION_JSON)
+        setMockResponse(requestExecutor, "introspect", "introspect-response", 200, mediaTypeAppIonJson)
+        setMockResponse(requestExecutor, "enroll", "enroll-user-response", 200, mediaTypeAppIonJson)
+
+        AuthenticationResponse beginResponse = idxAuthenticationWrapper.begin()
+        AuthenticationResponse newUserRegistrationResponse =
+                idxAuthenticationWrapper.fetchSignUpFormValuesAsync(beginResponse.proceedContext).get(5, TimeUnit.SECONDS)
+
+        assertThat(newUserRegistrationResponse.getErrors(), empty())
+        assertThat(newUserRegistrationResponse.getFormValues(), hasSize(1))
+    }
+
     @Test(testName = "User does not know username")
     void testLoginWithIncorrectUsername() {
 
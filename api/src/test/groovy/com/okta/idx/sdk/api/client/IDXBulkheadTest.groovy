@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client
+
+import com.okta.commons.http.DefaultResponse
+import com.okta.commons.http.MediaType
+import com.okta.commons.http.Request
+import com.okta.commons.http.RequestExecutor
+import com.okta.commons.http.Response
+import com.okta.idx.sdk.api.config.ClientConfiguration
+import com.okta.idx.sdk.api.exception.ServiceUnavailableException
+import com.okta.idx.sdk.api.model.IDXClientContext
+import com.okta.idx.sdk.api.request.PollRequestBuilder
+import org.testng.annotations.Test
+
+import java.time.Duration
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+
+import static org.hamcrest.MatcherAssert.assertThat
+import static org.hamcrest.Matchers.greaterThan
+import static org.hamcrest.Matchers.is
+import static org.hamcrest.Matchers.notNullValue
+import static org.hamcrest.Matchers.nullValue
+import static org.mockito.Mockito.any
+import static org.mockito.Mockito.mock
+import static org.mockito.Mockito.when
+
+class IDXBulkheadTest {
+
+    @Test
+    void testFullFamilyDoesNotBlockOtherFamilies() {
+
+        CountDownLatch pollSent = new CountDownLatch(1)
+        CountDownLatch releasePoll = new CountDownLatch(1)
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request))).thenAnswer { invocation ->
+            Request request = invocation.getArgument(0)
+            if (request.getResourceUrl().getPath().endsWith("poll")) {
+                pollSent.countDown()
+                releasePoll.await(5, TimeUnit.SECONDS)
+                return response("poll-response.json")
+            }
+            return response("introspect-response.json")
+        }
+
+        IDXBulkhead bulkhead = IDXBulkhead.builder()
+            .withMaxConcurrentCalls(IDXEndpoint.Family.POLL, 1)
+            .withMaxQueuedCalls(IDXEndpoint.Family.POLL, 0)
+            .build()
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor, [bulkhead])
+
+        ExecutorService executor = Executors.newSingleThreadExecutor()
+        try {
+            Future<?> poll = executor.submit {
+                client.poll(PollRequestBuilder.builder().withStateHandle("stateHandle").build(), null)
+            }
+            pollSent.await(5, TimeUnit.SECONDS)
+            assertThat(bulkhead.getMetrics(IDXEndpoint.Family.POLL).getActiveCalls(), is(1))
+
+            try {
+                client.poll(PollRequestBuilder.builder().withStateHandle("otherStateHandle").build(), null)
+                assert false : "expected ServiceUnavailableException"
+            } catch (ServiceUnavailableException e) {
+                assertThat(e.getHttpStatus(), is(503))
+            }
+            assertThat(bulkhead.getMetrics(IDXEndpoint.Family.POLL).getRejectedCalls(), is(1L))
+
+            // introspect has no limit and is not held up by the poll in flight
+            assertThat(client.introspect(new IDXClientContext(null, null, "interactionHandle", null)), notNullValue())
+            assertThat(bulkhead.getMetrics(IDXEndpoint.Family.INTERACT), nullValue())
+
+            releasePoll.countDown()
+            poll.get(5, TimeUnit.SECONDS)
+        } finally {
+            executor.shutdownNow()
+        }
+        assertThat(bulkhead.getMetrics(IDXEndpoint.Family.POLL).getActiveCalls(), is(0))
+        assertThat(bulkhead.getMetrics(IDXEndpoint.Family.POLL).getAcquiredCalls(), is(1L))
+    }
+
+    @Test
+    void testQueuedCallWaitsForSlot() {
+
+        CountDownLatch pollSent = new CountDownLatch(1)
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request))).thenAnswer {
+            pollSent.countDown()
+            Thread.sleep(100)
+            return response("poll-response.json")
+        }
+
+        IDXBulkhead bulkhead = IDXBulkhead.builder()
+            .withMaxConcurrentCalls(IDXEndpoint.Family.POLL, 1)
+            .withMaxWait(Duration.ofSeconds(5))
+            .build()
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor, [bulkhead])
+
+        ExecutorService executor = Executors.newSingleThreadExecutor()
+        try {
+            Future<?> poll = executor.submit {
+                client.poll(PollRequestBuilder.builder().withStateHandle("stateHandle").build(), null)
+            }
+            pollSent.await(5, TimeUnit.SECONDS)
+            client.poll(PollRequestBuilder.builder().withStateHandle("otherStateHandle").build(), null)
+            poll.get(5, TimeUnit.SECONDS)
+        } finally {
+            executor.shutdownNow()
+        }
+
+        IDXBulkhead.Metrics metrics = bulkhead.getMetrics(IDXEndpoint.Family.POLL)
+        assertThat(metrics.getAcquiredCalls(), is(2L))
+        assertThat(metrics.getRejectedCalls(), is(0L))
+        assertThat(metrics.getMaxQueueWaitNanos(), greaterThan(0L))
+    }
+
+    @Test
+    void testSlotIsHeldWhileResponseIsRead() {
+
+        CountDownLatch bodyRead = new CountDownLatch(1)
+        CountDownLatch releaseBody = new CountDownLatch(1)
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request))).thenAnswer {
+            InputStream fixture = getClass().getClassLoader().getResourceAsStream("poll-response.json")
+            // the transport has returned, but the body is still being received
+            InputStream body = new FilterInputStream(fixture) {
+                @Override
+                int read(byte[] b, int off, int len) throws IOException {
+                    bodyRead.countDown()
+                    releaseBody.await(5, TimeUnit.SECONDS)
+                    return super.read(b, off, len)
+                }
+            }
+            return new DefaultResponse(200, MediaType.valueOf("application/ion+json; okta-version=1.0.0"), body, -1)
+        }
+
+        IDXBulkhead bulkhead = IDXBulkhead.builder()
+            .withMaxConcurrentCalls(IDXEndpoint.Family.POLL, 1)
+            .build()
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor, [bulkhead])
+
+        ExecutorService executor = Executors.newSingleThreadExecutor()
+        try {
+            Future<?> poll = executor.submit {
+                client.poll(PollRequestBuilder.builder().withStateHandle("stateHandle").build(), null)
+            }
+            bodyRead.await(5, TimeUnit.SECONDS)
+            assertThat(bulkhead.getMetrics(IDXEndpoint.Family.POLL).getActiveCalls(), is(1))
+
+            releaseBody.countDown()
+            poll.get(5, TimeUnit.SECONDS)
+        } finally {
+            executor.shutdownNow()
+        }
+        assertThat(bulkhead.getMetrics(IDXEndpoint.Family.POLL).getActiveCalls(), is(0))
+    }
+
+    @Test
+    void testRetriedCallHoldsOneSlot() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request)))
+            .thenReturn(new DefaultResponse(503, MediaType.valueOf("text/plain"), new ByteArrayInputStream("Error".bytes), -1))
+            .thenReturn(response("poll-response.json"))
+
+        IDXBulkhead bulkhead = IDXBulkhead.builder()
+            .withMaxConcurrentCalls(IDXEndpoint.Family.POLL, 1)
+            .withMaxWait(Duration.ofMillis(100))
+            .build()
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor,
+            [new RetryInterceptor(3, 0, 1, 100), bulkhead])
+
+        assertThat(client.poll(PollRequestBuilder.builder().withStateHandle("stateHandle").build(), null), notNullValue())
+
+        IDXBulkhead.Metrics metrics = bulkhead.getMetrics(IDXEndpoint.Family.POLL)
+        assertThat(metrics.getAcquiredCalls(), is(2L))
+        assertThat(metrics.getActiveCalls(), is(0))
+    }
+
+    private Response response(String fixture) {
+        return new DefaultResponse(
+            200,
+            MediaType.valueOf("application/ion+json; okta-version=1.0.0"),
+            getClass().getClassLoader().getResourceAsStream(fixture),
+            -1)
+    }
+
+    ClientConfiguration getClientConfiguration() {
+        ClientConfiguration clientConfiguration = new ClientConfiguration()
+        clientConfiguration.setIssuer("http://example.com")
+        clientConfiguration.setClientId("test-client-id")
+        clientConfiguration.setClientSecret("test-client-secret")
+        clientConfiguration.setScopes(["test-scope"] as Set)
+        return clientConfiguration
+    }
+}
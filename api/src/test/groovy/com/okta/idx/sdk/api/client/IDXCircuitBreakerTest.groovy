@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client
+
+import com.okta.commons.http.DefaultResponse
+import com.okta.commons.http.HttpException
+import com.okta.commons.http.MediaType
+import com.okta.commons.http.Request
+import com.okta.commons.http.RequestExecutor
+import com.okta.commons.http.Response
+import com.okta.idx.sdk.api.config.ClientConfiguration
+import com.okta.idx.sdk.api.exception.ProcessingException
+import com.okta.idx.sdk.api.exception.ServiceUnavailableException
+import com.okta.idx.sdk.api.model.AuthenticationStatus
+import com.okta.idx.sdk.api.model.IDXClientContext
+import com.okta.idx.sdk.api.response.AuthenticationResponse
+import org.testng.annotations.Test
+
+import java.time.Duration
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+import static org.hamcrest.MatcherAssert.assertThat
+import static org.hamcrest.Matchers.instanceOf
+import static org.hamcrest.Matchers.is
+import static org.hamcrest.Matchers.not
+import static org.hamcrest.Matchers.empty
+import static org.mockito.Mockito.any
+import static org.mockito.Mockito.mock
+import static org.mockito.Mockito.times
+import static org.mockito.Mockito.verify
+import static org.mockito.Mockito.when
+
+class IDXCircuitBreakerTest {
+
+    @Test
+    void testCircuitOpensOnFailureRate() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request))).thenThrow(new HttpException("Connection reset"))
+
+        IDXCircuitBreaker circuitBreaker = IDXCircuitBreaker.builder()
+            .withWindowSize(4)
+            .withMinimumCalls(4)
+            .withFailureRateThreshold(50)
+            .build()
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor, [circuitBreaker])
+
+        4.times {
+            try {
+                client.introspect(new IDXClientContext(null, null, "interactionHandle", null))
+                assert false : "expected ProcessingException"
+            } catch (ProcessingException e) {
+                assertThat(e, not(instanceOf(ServiceUnavailableException)))
+            }
+        }
+        assertThat(circuitBreaker.getState(IDXEndpoint.Family.INTERACT), is(IDXCircuitBreaker.State.OPEN))
+        assertThat(circuitBreaker.getState(IDXEndpoint.Family.TOKEN), is(IDXCircuitBreaker.State.CLOSED))
+
+        try {
+            client.introspect(new IDXClientContext(null, null, "interactionHandle", null))
+            assert false : "expected ServiceUnavailableException"
+        } catch (ServiceUnavailableException e) {
+            assertThat(e.getHttpStatus(), is(503))
+        }
+        verify(requestExecutor, times(4)).executeRequest(any(Request))
+    }
+
+    @Test
+    void testProbeClosesCircuit() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request)))
+            .thenReturn(errorResponse(503))
+            .thenReturn(errorResponse(503))
+            .thenReturn(response("introspect-response.json"))
+
+        IDXCircuitBreaker circuitBreaker = IDXCircuitBreaker.builder()
+            .withWindowSize(2)
+            .withMinimumCalls(2)
+            .withOpenDuration(Duration.ofMillis(50))
+            .build()
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor, [circuitBreaker])
+
+        2.times {
+            try {
+                client.introspect(new IDXClientContext(null, null, "interactionHandle", null))
+                assert false : "expected ProcessingException"
+            } catch (ProcessingException e) {
+                assertThat(e.getHttpStatus(), is(503))
+            }
+        }
+        assertThat(circuitBreaker.getState(IDXEndpoint.Family.INTERACT), is(IDXCircuitBreaker.State.OPEN))
+
+        Thread.sleep(100)
+        assertThat(circuitBreaker.getState(IDXEndpoint.Family.INTERACT), is(IDXCircuitBreaker.State.HALF_OPEN))
+
+        client.introspect(new IDXClientContext(null, null, "interactionHandle", null))
+        assertThat(circuitBreaker.getState(IDXEndpoint.Family.INTERACT), is(IDXCircuitBreaker.State.CLOSED))
+    }
+
+    @Test
+    void testSlowBodyIsSlowCall() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request))).thenAnswer {
+            // the headers arrive right away, the body only after the slow call threshold
+            InputStream body = new FilterInputStream(getClass().getClassLoader()
+                .getResourceAsStream("introspect-response.json")) {
+                private boolean waited
+
+                @Override
+                int read(byte[] b, int off, int len) throws IOException {
+                    if (!waited) {
+                        waited = true
+                        Thread.sleep(200)
+                    }
+                    return super.read(b, off, len)
+                }
+            }
+            return new DefaultResponse(200, MediaType.valueOf("application/ion+json; okta-version=1.0.0"), body, -1)
+        }
+
+        IDXCircuitBreaker circuitBreaker = IDXCircuitBreaker.builder()
+            .withWindowSize(1)
+            .withMinimumCalls(1)
+            .withSlowCallRateThreshold(100)
+            .withSlowCallThreshold(Duration.ofMillis(100))
+            .build()
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor, [circuitBreaker])
+
+        client.introspect(new IDXClientContext(null, null, "interactionHandle", null))
+        assertThat(circuitBreaker.getState(IDXEndpoint.Family.INTERACT), is(IDXCircuitBreaker.State.OPEN))
+    }
+
+    @Test
+    void testCallFromEarlierStateIsNotRecorded() {
+
+        CountDownLatch staleSent = new CountDownLatch(1)
+        CountDownLatch releaseStale = new CountDownLatch(1)
+        CountDownLatch probeSent = new CountDownLatch(1)
+        CountDownLatch releaseProbe = new CountDownLatch(1)
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request))).thenAnswer { invocation ->
+            String body = new String(((Request) invocation.getArgument(0)).getBody().bytes)
+            if (body.contains("stale")) {
+                staleSent.countDown()
+                releaseStale.await(5, TimeUnit.SECONDS)
+                return response("introspect-response.json")
+            }
+            if (body.contains("probe")) {
+                probeSent.countDown()
+                releaseProbe.await(5, TimeUnit.SECONDS)
+                return errorResponse(503)
+            }
+            throw new HttpException("Connection reset")
+        }
+
+        IDXCircuitBreaker circuitBreaker = IDXCircuitBreaker.builder()
+            .withWindowSize(1)
+            .withMinimumCalls(1)
+            .withOpenDuration(Duration.ofMillis(500))
+            .build()
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor, [circuitBreaker])
+
+        // started while the circuit is closed
+        Thread stale = Thread.start {
+            client.introspect(new IDXClientContext(null, null, "stale", null))
+        }
+        staleSent.await(5, TimeUnit.SECONDS)
+
+        try {
+            client.introspect(new IDXClientContext(null, null, "interactionHandle", null))
+            assert false : "expected ProcessingException"
+        } catch (ProcessingException e) {
+            assertThat(e, not(instanceOf(ServiceUnavailableException)))
+        }
+        assertThat(circuitBreaker.getState(IDXEndpoint.Family.INTERACT), is(IDXCircuitBreaker.State.OPEN))
+
+        Thread.sleep(600)
+        Thread probe = Thread.start {
+            try {
+                client.introspect(new IDXClientContext(null, null, "probe", null))
+            } catch (ProcessingException e) {
+                // the probe fails
+            }
+        }
+        probeSent.await(5, TimeUnit.SECONDS)
+
+        // the call that started before the circuit opened succeeds, but does not close it
+        releaseStale.countDown()
+        stale.join(5000)
+        assertThat(circuitBreaker.getState(IDXEndpoint.Family.INTERACT), is(IDXCircuitBreaker.State.HALF_OPEN))
+
+        // the probe decides
+        releaseProbe.countDown()
+        probe.join(5000)
+        assertThat(circuitBreaker.getState(IDXEndpoint.Family.INTERACT), is(IDXCircuitBreaker.State.OPEN))
+    }
+
+    @Test
+    void testOpenCircuitIsReportedByWrapper() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request))).thenThrow(new HttpException("Connection reset"))
+
+        IDXCircuitBreaker circuitBreaker = IDXCircuitBreaker.builder()
+            .withWindowSize(1)
+            .withMinimumCalls(1)
+            .build()
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor, [circuitBreaker])
+        IDXAuthenticationWrapper idxAuthenticationWrapper = new IDXAuthenticationWrapper(client)
+
+        AuthenticationResponse failedResponse = idxAuthenticationWrapper.begin()
+        assertThat(failedResponse.getAuthenticationStatus(), not(is(AuthenticationStatus.SERVICE_UNAVAILABLE)))
+
+        AuthenticationResponse shortCircuitedResponse = idxAuthenticationWrapper.begin()
+        assertThat(shortCircuitedResponse.getAuthenticationStatus(), is(AuthenticationStatus.SERVICE_UNAVAILABLE))
+        assertThat(shortCircuitedResponse.getErrors(), not(empty()))
+        verify(requestExecutor, times(1)).executeRequest(any(Request))
+    }
+
+    private static Response errorResponse(int httpStatus) {
+        return new DefaultResponse(httpStatus, MediaType.valueOf("text/plain"), new ByteArrayInputStream("Error".bytes), -1)
+    }
+
+    private Response response(String fixture) {
+        return new DefaultResponse(
+            200,
+            MediaType.valueOf("application/ion+json; okta-version=1.0.0"),
+            getClass().getClassLoader().getResourceAsStream(fixture),
+            -1)
+    }
+
+    ClientConfiguration getClientConfiguration() {
+        ClientConfiguration clientConfiguration = new ClientConfiguration()
+        clientConfiguration.setIssuer("http://example.com")
+        clientConfiguration.setClientId("test-client-id")
+        clientConfiguration.setClientSecret("test-client-secret")
+        clientConfiguration.setScopes(["test-scope"] as Set)
+        clientConfiguration.setRedirectUri("http://example.com/callback")
+        return clientConfiguration
+    }
+}
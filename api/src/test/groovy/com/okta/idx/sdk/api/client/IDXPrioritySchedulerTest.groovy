@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client
+
+import com.okta.commons.http.DefaultResponse
+import com.okta.commons.http.MediaType
+import com.okta.commons.http.Request
+import com.okta.commons.http.RequestExecutor
+import com.okta.commons.http.Response
+import com.okta.idx.sdk.api.config.ClientConfiguration
+import com.okta.idx.sdk.api.exception.ServiceUnavailableException
+import com.okta.idx.sdk.api.model.IDXClientContext
+import com.okta.idx.sdk.api.request.IdentifyRequestBuilder
+import org.testng.annotations.BeforeMethod
+import org.testng.annotations.Test
+
+import java.time.Duration
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+
+import static org.hamcrest.MatcherAssert.assertThat
+import static org.hamcrest.Matchers.contains
+import static org.hamcrest.Matchers.is
+import static org.mockito.Mockito.any
+import static org.mockito.Mockito.mock
+import static org.mockito.Mockito.when
+
+class IDXPrioritySchedulerTest {
+
+    private CountDownLatch introspectSent
+    private CountDownLatch releaseIntrospect
+    private List<String> sent
+
+    @BeforeMethod
+    void setUp() {
+        introspectSent = new CountDownLatch(1)
+        releaseIntrospect = new CountDownLatch(1)
+        sent = new CopyOnWriteArrayList<>()
+    }
+
+    @Test
+    void testHighPriorityGoesFirst() {
+
+        IDXPriorityScheduler scheduler = IDXPriorityScheduler.builder()
+            .withMaxConcurrentCalls(1)
+            .withAgingInterval(Duration.ofMinutes(1))
+            .build()
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor(), [scheduler])
+
+        ExecutorService executor = Executors.newFixedThreadPool(3)
+        try {
+            Future<?> introspect = executor.submit { introspect(client) }
+            introspectSent.await(5, TimeUnit.SECONDS)
+
+            Future<?> revoke = executor.submit { client.revokeToken("access_token", "token") }
+            awaitQueued(scheduler, IDXPriorityScheduler.Priority.LOW)
+            Future<?> token = executor.submit { token(client) }
+            awaitQueued(scheduler, IDXPriorityScheduler.Priority.HIGH)
+
+            releaseIntrospect.countDown()
+            introspect.get(5, TimeUnit.SECONDS)
+            revoke.get(5, TimeUnit.SECONDS)
+            token.get(5, TimeUnit.SECONDS)
+        } finally {
+            executor.shutdownNow()
+        }
+        assertThat(sent, contains("introspect", "token", "revoke"))
+        assertThat(scheduler.getInFlight(), is(0))
+    }
+
+    @Test
+    void testWaitingCallIsNotStarved() {
+
+        IDXPriorityScheduler scheduler = IDXPriorityScheduler.builder()
+            .withMaxConcurrentCalls(1)
+            .withAgingInterval(Duration.ofMillis(50))
+            .build()
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor(), [scheduler])
+
+        ExecutorService executor = Executors.newFixedThreadPool(3)
+        try {
+            Future<?> introspect = executor.submit { introspect(client) }
+            introspectSent.await(5, TimeUnit.SECONDS)
+
+            Future<?> revoke = executor.submit { client.revokeToken("access_token", "token") }
+            awaitQueued(scheduler, IDXPriorityScheduler.Priority.LOW)
+
+            // long enough for the revocation to age past the token exchange
+            Thread.sleep(200)
+            Future<?> token = executor.submit { token(client) }
+            awaitQueued(scheduler, IDXPriorityScheduler.Priority.HIGH)
+
+            releaseIntrospect.countDown()
+            introspect.get(5, TimeUnit.SECONDS)
+            revoke.get(5, TimeUnit.SECONDS)
+            token.get(5, TimeUnit.SECONDS)
+        } finally {
+            executor.shutdownNow()
+        }
+        assertThat(sent, contains("introspect", "revoke", "token"))
+    }
+
+    @Test
+    void testCallWithPriority() {
+
+        IDXPriorityScheduler scheduler = IDXPriorityScheduler.builder()
+            .withMaxConcurrentCalls(1)
+            .withAgingInterval(Duration.ofMinutes(1))
+            .build()
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor(), [scheduler])
+
+        ExecutorService executor = Executors.newFixedThreadPool(3)
+        try {
+            Future<?> introspect = executor.submit { introspect(client) }
+            introspectSent.await(5, TimeUnit.SECONDS)
+
+            Future<?> identify = executor.submit {
+                client.identify(IdentifyRequestBuilder.builder().withIdentifier("user").withStateHandle("stateHandle").build(),
+                    "http://example.com/idp/idx/identify")
+            }
+            awaitQueued(scheduler, IDXPriorityScheduler.Priority.NORMAL)
+            Future<?> revoke = executor.submit {
+                IDXPriorityScheduler.callWithPriority(IDXPriorityScheduler.Priority.HIGH) {
+                    client.revokeToken("access_token", "token")
+                }
+            }
+            awaitQueued(scheduler, IDXPriorityScheduler.Priority.HIGH)
+
+            releaseIntrospect.countDown()
+            introspect.get(5, TimeUnit.SECONDS)
+            identify.get(5, TimeUnit.SECONDS)
+            revoke.get(5, TimeUnit.SECONDS)
+        } finally {
+            executor.shutdownNow()
+        }
+        assertThat(sent, contains("introspect", "revoke", "identify"))
+    }
+
+    @Test
+    void testCallWithPriorityFollowsAsyncCalls() {
+
+        IDXPriorityScheduler scheduler = IDXPriorityScheduler.builder()
+            .withMaxConcurrentCalls(1)
+            .withAgingInterval(Duration.ofMinutes(1))
+            .build()
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor(), [scheduler])
+
+        ExecutorService executor = Executors.newFixedThreadPool(3)
+        try {
+            AsyncIDXClient asyncClient = new BaseAsyncIDXClient(client, executor)
+            Future<?> introspect = executor.submit { introspect(client) }
+            introspectSent.await(5, TimeUnit.SECONDS)
+
+            Future<?> identify = asyncClient.identify(
+                IdentifyRequestBuilder.builder().withIdentifier("user").withStateHandle("stateHandle").build(),
+                "http://example.com/idp/idx/identify")
+            awaitQueued(scheduler, IDXPriorityScheduler.Priority.NORMAL)
+            Future<?> revoke = IDXPriorityScheduler.callWithPriority(IDXPriorityScheduler.Priority.HIGH) {
+                asyncClient.revokeToken("access_token", "token")
+            }
+            awaitQueued(scheduler, IDXPriorityScheduler.Priority.HIGH)
+            assertThat(scheduler.getQueuedCalls(IDXPriorityScheduler.Priority.HIGH), is(1))
+
+            releaseIntrospect.countDown()
+            introspect.get(5, TimeUnit.SECONDS)
+            identify.get(5, TimeUnit.SECONDS)
+            revoke.get(5, TimeUnit.SECONDS)
+        } finally {
+            executor.shutdownNow()
+        }
+        assertThat(sent, contains("introspect", "revoke", "identify"))
+    }
+
+    @Test
+    void testQueuedCallTimesOut() {
+
+        IDXPriorityScheduler scheduler = IDXPriorityScheduler.builder()
+            .withMaxConcurrentCalls(1)
+            .withMaxWait(Duration.ofMillis(50))
+            .build()
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor(), [scheduler])
+
+        ExecutorService executor = Executors.newSingleThreadExecutor()
+        try {
+            Future<?> introspect = executor.submit { introspect(client) }
+            introspectSent.await(5, TimeUnit.SECONDS)
+
+            try {
+                client.revokeToken("access_token", "token")
+                assert false : "expected ServiceUnavailableException"
+            } catch (ServiceUnavailableException e) {
+                assertThat(e.getHttpStatus(), is(503))
+            }
+            assertThat(scheduler.getQueuedCalls(IDXPriorityScheduler.Priority.LOW), is(0))
+
+            releaseIntrospect.countDown()
+            introspect.get(5, TimeUnit.SECONDS)
+        } finally {
+            executor.shutdownNow()
+        }
+        assertThat(scheduler.getInFlight(), is(0))
+    }
+
+    @Test
+    void testSlotIsHeldWhileResponseIsRead() {
+
+        CountDownLatch bodyRead = new CountDownLatch(1)
+        CountDownLatch releaseBody = new CountDownLatch(1)
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request))).thenAnswer {
+            InputStream fixture = getClass().getClassLoader().getResourceAsStream("introspect-response.json")
+            // the transport has returned, but the body is still being received
+            InputStream body = new FilterInputStream(fixture) {
+                @Override
+                int read(byte[] b, int off, int len) throws IOException {
+                    bodyRead.countDown()
+                    releaseBody.await(5, TimeUnit.SECONDS)
+                    return super.read(b, off, len)
+                }
+            }
+            return new DefaultResponse(200, MediaType.valueOf("application/ion+json; okta-version=1.0.0"), body, -1)
+        }
+
+        IDXPriorityScheduler scheduler = IDXPriorityScheduler.builder()
+            .withMaxConcurrentCalls(1)
+            .build()
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor, [scheduler])
+
+        ExecutorService executor = Executors.newSingleThreadExecutor()
+        try {
+            Future<?> introspect = executor.submit { introspect(client) }
+            bodyRead.await(5, TimeUnit.SECONDS)
+            assertThat(scheduler.getInFlight(), is(1))
+
+            releaseBody.countDown()
+            introspect.get(5, TimeUnit.SECONDS)
+        } finally {
+            executor.shutdownNow()
+        }
+        assertThat(scheduler.getInFlight(), is(0))
+    }
+
+    private RequestExecutor requestExecutor() {
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request))).thenAnswer { invocation ->
+            Request request = invocation.getArgument(0)
+            String path = request.getResourceUrl().getPath()
+            String name = path.substring(path.lastIndexOf('/') + 1)
+            sent.add(name)
+            if (name == "introspect") {
+                introspectSent.countDown()
+                releaseIntrospect.await(5, TimeUnit.SECONDS)
+                return response("introspect-response.json")
+            }
+            if (name == "token") {
+                return new DefaultResponse(200, MediaType.APPLICATION_JSON,
+                    new ByteArrayInputStream('{"access_token":"token"}'.bytes), -1)
+            }
+            if (name == "identify") {
+                return response("identify-response.json")
+            }
+            return new DefaultResponse(200, MediaType.APPLICATION_JSON, new ByteArrayInputStream(new byte[0]), 0)
+        }
+        return requestExecutor
+    }
+
+    private static void introspect(IDXClient client) {
+        client.introspect(new IDXClientContext(null, null, "interactionHandle", null))
+    }
+
+    private static void token(IDXClient client) {
+        client.token("http://example.com/oauth2/v1/token", "interaction_code", "interactionCode",
+            new IDXClientContext("codeVerifier", null, "interactionHandle", null))
+    }
+
+    private static void awaitQueued(IDXPriorityScheduler scheduler, IDXPriorityScheduler.Priority priority) {
+        long deadline = System.currentTimeMillis() + 5000
+        while (scheduler.getQueuedCalls(priority) == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5)
+        }
+    }
+
+    private Response response(String fixture) {
+        return new DefaultResponse(
+            200,
+            MediaType.valueOf("application/ion+json; okta-version=1.0.0"),
+            getClass().getClassLoader().getResourceAsStream(fixture),
+            -1)
+    }
+
+    ClientConfiguration getClientConfiguration() {
+        ClientConfiguration clientConfiguration = new ClientConfiguration()
+        clientConfiguration.setIssuer("http://example.com")
+        clientConfiguration.setClientId("test-client-id")
+        clientConfiguration.setClientSecret("test-client-secret")
+        clientConfiguration.setScopes(["test-scope"] as Set)
+        return clientConfiguration
+    }
+}
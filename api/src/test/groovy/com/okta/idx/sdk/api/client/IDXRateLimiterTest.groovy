@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client
+
+import com.okta.commons.http.HttpHeaders
+import com.okta.commons.http.MediaType
+import com.okta.commons.http.Request
+import com.okta.commons.http.RequestExecutor
+import com.okta.commons.http.Response
+import com.okta.idx.sdk.api.config.ClientConfiguration
+import com.okta.idx.sdk.api.exception.ProcessingException
+import com.okta.idx.sdk.api.request.PollRequestBuilder
+import org.testng.annotations.Test
+
+import static org.hamcrest.MatcherAssert.assertThat
+import static org.hamcrest.Matchers.is
+import static org.mockito.Mockito.any
+import static org.mockito.Mockito.mock
+import static org.mockito.Mockito.times
+import static org.mockito.Mockito.verify
+import static org.mockito.Mockito.when
+
+class IDXRateLimiterTest {
+
+    @Test
+    void testBudgetIsLearnedFromHeaders() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request))).thenAnswer { pollResponse(100, 42, 60) }
+
+        IDXRateLimiter rateLimiter = new IDXRateLimiter(IDXRateLimiter.Policy.FAIL_FAST)
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor, [rateLimiter])
+
+        assertThat(rateLimiter.getRemaining(IDXEndpoint.Family.POLL), is(-1))
+        client.poll(PollRequestBuilder.builder().withStateHandle("stateHandle").build(), null)
+
+        assertThat(rateLimiter.getLimit(IDXEndpoint.Family.POLL), is(100))
+        assertThat(rateLimiter.getRemaining(IDXEndpoint.Family.POLL), is(42))
+        assertThat(rateLimiter.getRemaining(IDXEndpoint.Family.TOKEN), is(-1))
+    }
+
+    @Test
+    void testFailFastWhenBudgetIsUsedUp() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request))).thenAnswer { pollResponse(100, 1, 60) }
+
+        IDXRateLimiter rateLimiter = new IDXRateLimiter(IDXRateLimiter.Policy.FAIL_FAST)
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor, [rateLimiter])
+
+        // the first call learns that one request is left, the second takes it
+        client.poll(PollRequestBuilder.builder().withStateHandle("stateHandle").build(), null)
+        client.poll(PollRequestBuilder.builder().withStateHandle("stateHandle").build(), null)
+        assertThat(rateLimiter.getRemaining(IDXEndpoint.Family.POLL), is(0))
+
+        try {
+            client.poll(PollRequestBuilder.builder().withStateHandle("stateHandle").build(), null)
+            assert false : "expected ProcessingException"
+        } catch (ProcessingException e) {
+            assertThat(e.getHttpStatus(), is(429))
+        }
+        verify(requestExecutor, times(2)).executeRequest(any(Request))
+    }
+
+    @Test
+    void testQueueWaitsForWindowReset() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request)))
+            .thenAnswer { pollResponse(100, 0, 1) }
+            .thenAnswer { pollResponse(100, 99, 60) }
+
+        IDXRateLimiter rateLimiter = new IDXRateLimiter(IDXRateLimiter.Policy.QUEUE, 5000)
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor, [rateLimiter])
+
+        client.poll(PollRequestBuilder.builder().withStateHandle("stateHandle").build(), null)
+        assertThat(rateLimiter.getRemaining(IDXEndpoint.Family.POLL), is(0))
+
+        client.poll(PollRequestBuilder.builder().withStateHandle("stateHandle").build(), null)
+        assertThat(rateLimiter.getRemaining(IDXEndpoint.Family.POLL), is(99))
+        verify(requestExecutor, times(2)).executeRequest(any(Request))
+    }
+
+    private Response pollResponse(int limit, int remaining, int resetInSeconds) {
+        HttpHeaders headers = new HttpHeaders()
+        headers.setContentType(MediaType.valueOf("application/ion+json; okta-version=1.0.0"))
+        headers.set(RateLimitHeaders.X_RATE_LIMIT_LIMIT, String.valueOf(limit))
+        headers.set(RateLimitHeaders.X_RATE_LIMIT_REMAINING, String.valueOf(remaining))
+        headers.set(RateLimitHeaders.X_RATE_LIMIT_RESET,
+            String.valueOf((long) Math.ceil(System.currentTimeMillis() / 1000d) + resetInSeconds))
+
+        Response response = mock(Response)
+        when(response.getHttpStatus()).thenReturn(200)
+        when(response.getHeaders()).thenReturn(headers)
+        when(response.getBody()).thenReturn(getClass().getClassLoader().getResourceAsStream("poll-response.json"))
+        return response
+    }
+
+    ClientConfiguration getClientConfiguration() {
+        ClientConfiguration clientConfiguration = new ClientConfiguration()
+        clientConfiguration.setIssuer("http://example.com")
+        clientConfiguration.setClientId("test-client-id")
+        clientConfiguration.setClientSecret("test-client-secret")
+        clientConfiguration.setScopes(["test-scope"] as Set)
+        return clientConfiguration
+    }
+}
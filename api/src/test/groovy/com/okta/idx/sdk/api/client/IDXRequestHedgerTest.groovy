@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client
+
+import com.okta.commons.http.DefaultResponse
+import com.okta.commons.http.MediaType
+import com.okta.commons.http.Request
+import com.okta.commons.http.RequestExecutor
+import com.okta.commons.http.Response
+import com.okta.idx.sdk.api.config.ClientConfiguration
+import com.okta.idx.sdk.api.request.IdentifyRequestBuilder
+import com.okta.idx.sdk.api.request.PollRequestBuilder
+import com.okta.idx.sdk.api.response.IDXResponse
+import org.testng.annotations.Test
+
+import java.time.Duration
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+import static org.hamcrest.MatcherAssert.assertThat
+import static org.hamcrest.Matchers.greaterThan
+import static org.hamcrest.Matchers.is
+import static org.hamcrest.Matchers.lessThan
+import static org.hamcrest.Matchers.lessThanOrEqualTo
+import static org.hamcrest.Matchers.notNullValue
+import static org.mockito.Mockito.any
+import static org.mockito.Mockito.mock
+import static org.mockito.Mockito.times
+import static org.mockito.Mockito.verify
+import static org.mockito.Mockito.when
+
+class IDXRequestHedgerTest {
+
+    @Test
+    void testSlowPollIsHedged() {
+
+        AtomicInteger requests = new AtomicInteger()
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request))).thenAnswer {
+            if (requests.incrementAndGet() == 1) {
+                Thread.sleep(2000)
+            }
+            return response("poll-response.json")
+        }
+
+        IDXRequestHedger hedger = IDXRequestHedger.builder()
+            .withDelay(Duration.ofMillis(50))
+            .withMaxHedgedPercent(100)
+            .build()
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor, [hedger])
+
+        long start = System.currentTimeMillis()
+        IDXResponse idxResponse = client.poll(PollRequestBuilder.builder().withStateHandle("stateHandle").build(), null)
+
+        assertThat(idxResponse, notNullValue())
+        assertThat(System.currentTimeMillis() - start, lessThan(1000L))
+        assertThat(requests.get(), is(2))
+    }
+
+    @Test
+    void testHedgesAreCapped() {
+
+        AtomicInteger requests = new AtomicInteger()
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request))).thenAnswer {
+            requests.incrementAndGet()
+            Thread.sleep(100)
+            return response("poll-response.json")
+        }
+
+        IDXRequestHedger hedger = IDXRequestHedger.builder()
+            .withDelay(Duration.ofMillis(10))
+            .withMaxHedgedPercent(50)
+            .build()
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor, [hedger])
+
+        4.times {
+            client.poll(PollRequestBuilder.builder().withStateHandle("stateHandle").build(), null)
+        }
+        assertThat(requests.get(), is(6))
+    }
+
+    @Test
+    void testHedgingThreadsAreBounded() {
+
+        AtomicInteger pooled = new AtomicInteger()
+        AtomicInteger peakPooled = new AtomicInteger()
+        AtomicInteger sentByCaller = new AtomicInteger()
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request))).thenAnswer {
+            if (Thread.currentThread().getName().startsWith("okta-idx-hedge-")) {
+                peakPooled.accumulateAndGet(pooled.incrementAndGet(), Math.&max)
+                Thread.sleep(300)
+                pooled.decrementAndGet()
+            } else {
+                sentByCaller.incrementAndGet()
+                Thread.sleep(300)
+            }
+            return response("poll-response.json")
+        }
+
+        IDXRequestHedger hedger = IDXRequestHedger.builder()
+            .withDelay(Duration.ofMillis(10))
+            .withMaxHedgedPercent(100)
+            .build()
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor, [hedger])
+
+        // more calls at once than the pool has threads: the calls that find none are sent without a hedge; each
+        // call polls its own flow, as identical polls in flight would share one request
+        ExecutorService callers = Executors.newFixedThreadPool(40)
+        List<Future<IDXResponse>> responses = callers.invokeAll((1..40).collect { flow ->
+            { ->
+                client.poll(PollRequestBuilder.builder().withStateHandle("stateHandle" + flow).build(), null)
+            } as Callable
+        })
+        responses.each { assertThat(it.get(5, TimeUnit.SECONDS), notNullValue()) }
+        callers.shutdown()
+
+        assertThat(peakPooled.get(), lessThanOrEqualTo(20))
+        assertThat(sentByCaller.get(), greaterThan(0))
+    }
+
+    @Test
+    void testNonIdempotentCallIsNotHedged() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request))).thenAnswer {
+            Thread.sleep(100)
+            return response("identify-response.json")
+        }
+
+        IDXRequestHedger hedger = IDXRequestHedger.builder()
+            .withDelay(Duration.ofMillis(10))
+            .withMaxHedgedPercent(100)
+            .build()
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor, [hedger])
+
+        client.identify(IdentifyRequestBuilder.builder().withIdentifier("user").withStateHandle("stateHandle").build(),
+            "http://example.com/idp/idx/identify")
+        verify(requestExecutor, times(1)).executeRequest(any(Request))
+    }
+
+    private Response response(String fixture) {
+        return new DefaultResponse(
+            200,
+            MediaType.valueOf("application/ion+json; okta-version=1.0.0"),
+            getClass().getClassLoader().getResourceAsStream(fixture),
+            -1)
+    }
+
+    ClientConfiguration getClientConfiguration() {
+        ClientConfiguration clientConfiguration = new ClientConfiguration()
+        clientConfiguration.setIssuer("http://example.com")
+        clientConfiguration.setClientId("test-client-id")
+        clientConfiguration.setClientSecret("test-client-secret")
+        clientConfiguration.setScopes(["test-scope"] as Set)
+        return clientConfiguration
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client
+
+import org.testng.annotations.Test
+
+import java.nio.charset.StandardCharsets
+
+import static org.hamcrest.MatcherAssert.assertThat
+import static org.hamcrest.Matchers.equalTo
+import static org.hamcrest.Matchers.is
+import static org.hamcrest.Matchers.not
+import static org.hamcrest.Matchers.sameInstance
+
+class RequestBodyBufferPoolTest {
+
+    @Test
+    void testWriteUtf8MatchesStringEncoding() {
+
+        String value = "client_id=abc&redirect_uri=https://example.com/caf\u00e9/\u20ac/\uD83D\uDE00&bad=\uD800x"
+
+        RequestBodyBuffer buffer = new RequestBodyBuffer(16)
+        buffer.writeUtf8(value)
+
+        assertThat(buffer.toByteArray(), equalTo(value.getBytes(StandardCharsets.UTF_8)))
+        assertThat(buffer.toInputStream().bytes, equalTo(value.getBytes(StandardCharsets.UTF_8)))
+    }
+
+    @Test
+    void testReleasedBuffersAreReused() {
+
+        RequestBodyBufferPool pool = new RequestBodyBufferPool(1)
+
+        RequestBodyBuffer first = pool.acquire()
+        first.writeUtf8("token=abc")
+        pool.release(first)
+
+        assertThat(pool.available(), is(1))
+
+        RequestBodyBuffer second = pool.acquire()
+        assertThat(second, sameInstance(first))
+        assertThat(second.size(), is(0))
+
+        // pool is bounded: the extra buffer is dropped rather than retained
+        RequestBodyBuffer extra = pool.acquire()
+        pool.release(second)
+        pool.release(extra)
+        assertThat(pool.available(), is(1))
+    }
+
+    @Test
+    void testOversizedBuffersAreNotRetained() {
+
+        RequestBodyBufferPool pool = new RequestBodyBufferPool()
+
+        RequestBodyBuffer buffer = pool.acquire()
+        buffer.write(new byte[RequestBodyBufferPool.MAX_RETAINED_CAPACITY + 1])
+        pool.release(buffer)
+
+        assertThat(pool.available(), is(0))
+        assertThat(pool.acquire(), not(sameInstance(buffer)))
+    }
+}
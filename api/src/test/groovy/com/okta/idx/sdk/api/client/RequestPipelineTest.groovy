@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client
+
+import com.okta.commons.http.DefaultResponse
+import com.okta.commons.http.HttpException
+import com.okta.commons.http.MediaType
+import com.okta.commons.http.Request
+import com.okta.commons.http.RequestExecutor
+import com.okta.commons.http.Response
+import com.okta.idx.sdk.api.config.ClientConfiguration
+import com.okta.idx.sdk.api.exception.ProcessingException
+import com.okta.idx.sdk.api.model.IDXClientContext
+import com.okta.idx.sdk.api.request.PollRequestBuilder
+import com.okta.idx.sdk.api.response.IDXResponse
+import org.testng.annotations.Test
+
+import static org.hamcrest.MatcherAssert.assertThat
+import static org.hamcrest.Matchers.equalTo
+import static org.hamcrest.Matchers.is
+import static org.hamcrest.Matchers.notNullValue
+import static org.hamcrest.Matchers.nullValue
+import static org.hamcrest.Matchers.sameInstance
+import static org.mockito.Mockito.any
+import static org.mockito.Mockito.mock
+import static org.mockito.Mockito.times
+import static org.mockito.Mockito.verify
+import static org.mockito.Mockito.when
+
+class RequestPipelineTest {
+
+    @Test
+    void testStagesRunInOrder() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request))).thenReturn(response("introspect-response.json"))
+
+        List<String> events = []
+        IDXRequestContext completedContext = null
+        Throwable completedError = new Throwable("not called")
+
+        IDXInterceptor recording = new IDXInterceptor() {
+            @Override
+            void beforeSend(IDXRequestContext context) {
+                events.add("beforeSend")
+                context.getHeaders().add("X-Test", "value")
+            }
+
+            @Override
+            Response intercept(IDXRequestContext context, IDXInterceptor.Chain chain) {
+                events.add("intercept")
+                return chain.proceed(context)
+            }
+
+            @Override
+            void afterReceive(IDXRequestContext context, Response response) {
+                events.add("afterReceive " + response.getHttpStatus())
+            }
+
+            @Override
+            void onComplete(IDXRequestContext context, long elapsedNanos, Throwable error) {
+                events.add("onComplete")
+                completedContext = context
+                completedError = error
+            }
+        }
+
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor, [recording])
+        IDXResponse idxResponse = client.introspect(new IDXClientContext(null, null, "interactionHandle", null))
+
+        assertThat(idxResponse, notNullValue())
+        assertThat(events, equalTo(["beforeSend", "intercept", "afterReceive 200", "onComplete"]))
+        assertThat(completedContext.getEndpoint(), is(IDXEndpoint.INTROSPECT))
+        assertThat(completedContext.getEndpoint().getFamily(), is(IDXEndpoint.Family.INTERACT))
+        assertThat(completedContext.getUrl(), equalTo("http://example.com/idp/idx/introspect"))
+        assertThat(completedContext.getHeaders().getFirst("X-Test"), equalTo("value"))
+        assertThat(completedError, nullValue())
+    }
+
+    @Test
+    void testInterceptorCanResendRequest() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request)))
+            .thenThrow(new HttpException("Connection reset"))
+            .thenReturn(response("poll-response.json"))
+
+        IDXInterceptor retryOnce = new IDXInterceptor() {
+            @Override
+            Response intercept(IDXRequestContext context, IDXInterceptor.Chain chain) {
+                try {
+                    return chain.proceed(context)
+                } catch (HttpException e) {
+                    return chain.proceed(context)
+                }
+            }
+        }
+
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor, [retryOnce])
+        IDXResponse idxResponse = client.poll(PollRequestBuilder.builder().withStateHandle("stateHandle").build(), null)
+
+        assertThat(idxResponse, notNullValue())
+        verify(requestExecutor, times(2)).executeRequest(any(Request))
+    }
+
+    @Test
+    void testErrorsAreMappedAndReported() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request))).thenReturn(
+            new DefaultResponse(500, MediaType.valueOf("text/plain"), new ByteArrayInputStream("Internal Error".bytes), -1))
+
+        ProcessingException mapped = new ProcessingException(503, "mapped")
+        Throwable completedError = null
+
+        IDXInterceptor mapping = new IDXInterceptor() {
+            @Override
+            ProcessingException mapError(IDXRequestContext context, ProcessingException error) {
+                assertThat(error.getHttpStatus(), is(500))
+                return mapped
+            }
+
+            @Override
+            void onComplete(IDXRequestContext context, long elapsedNanos, Throwable error) {
+                completedError = error
+            }
+        }
+
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor, [mapping])
+
+        try {
+            client.cancel("stateHandle")
+            assert false : "expected ProcessingException"
+        } catch (ProcessingException e) {
+            assertThat(e, sameInstance(mapped))
+        }
+        assertThat(completedError, sameInstance(mapped))
+    }
+
+    @Test
+    void testTransportFailureWithoutInterceptors() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request))).thenThrow(new HttpException("Connection failed!"))
+
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor)
+
+        try {
+            client.cancel("stateHandle")
+            assert false : "expected ProcessingException"
+        } catch (ProcessingException e) {
+            assertThat(e.getMessage(), is("com.okta.commons.http.HttpException: Connection failed!"))
+        }
+    }
+
+    private Response response(String fixture) {
+        return new DefaultResponse(
+            200,
+            MediaType.valueOf("application/ion+json; okta-version=1.0.0"),
+            getClass().getClassLoader().getResourceAsStream(fixture),
+            -1)
+    }
+
+    ClientConfiguration getClientConfiguration() {
+        ClientConfiguration clientConfiguration = new ClientConfiguration()
+        clientConfiguration.setIssuer("http://example.com")
+        clientConfiguration.setClientId("test-client-id")
+        clientConfiguration.setClientSecret("test-client-secret")
+        clientConfiguration.setScopes(["test-scope"] as Set)
+        return clientConfiguration
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.client
+
+import com.okta.commons.http.DefaultResponse
+import com.okta.commons.http.HttpException
+import com.okta.commons.http.HttpHeaders
+import com.okta.commons.http.MediaType
+import com.okta.commons.http.Request
+import com.okta.commons.http.RequestExecutor
+import com.okta.commons.http.Response
+import com.okta.idx.sdk.api.config.ClientConfiguration
+import com.okta.idx.sdk.api.exception.ProcessingException
+import com.okta.idx.sdk.api.model.IDXClientContext
+import com.okta.idx.sdk.api.request.AnswerChallengeRequestBuilder
+import com.okta.idx.sdk.api.request.PollRequestBuilder
+import com.okta.idx.sdk.api.response.IDXResponse
+import org.testng.annotations.Test
+
+import java.util.concurrent.TimeUnit
+
+import static org.hamcrest.MatcherAssert.assertThat
+import static org.hamcrest.Matchers.is
+import static org.hamcrest.Matchers.notNullValue
+import static org.mockito.Mockito.any
+import static org.mockito.Mockito.mock
+import static org.mockito.Mockito.times
+import static org.mockito.Mockito.verify
+import static org.mockito.Mockito.when
+
+class RetryInterceptorTest {
+
+    @Test
+    void testIdempotentCallIsRetriedOnRateLimit() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request)))
+            .thenReturn(rateLimited("0"))
+            .thenReturn(errorResponse(503))
+            .thenReturn(response("introspect-response.json"))
+
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor, [new RetryInterceptor(3, 0, 1, 100)])
+        IDXResponse idxResponse = client.introspect(new IDXClientContext(null, null, "interactionHandle", null))
+
+        assertThat(idxResponse, notNullValue())
+        verify(requestExecutor, times(3)).executeRequest(any(Request))
+    }
+
+    @Test
+    void testRetriesStopAtMaxAttempts() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request))).thenReturn(errorResponse(503))
+
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor, [new RetryInterceptor(2, 0, 1, 100)])
+
+        try {
+            client.poll(PollRequestBuilder.builder().withStateHandle("stateHandle").build(), null)
+            assert false : "expected ProcessingException"
+        } catch (ProcessingException e) {
+            assertThat(e.getHttpStatus(), is(503))
+        }
+        verify(requestExecutor, times(3)).executeRequest(any(Request))
+    }
+
+    @Test
+    void testRetryAfterBeyondMaxDelayIsNotAwaited() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request))).thenReturn(rateLimited("60"))
+
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor, [new RetryInterceptor(3, 0, 1, 100)])
+
+        try {
+            client.poll(PollRequestBuilder.builder().withStateHandle("stateHandle").build(), null)
+            assert false : "expected ProcessingException"
+        } catch (ProcessingException e) {
+            assertThat(e.getHttpStatus(), is(429))
+        }
+        verify(requestExecutor, times(1)).executeRequest(any(Request))
+    }
+
+    @Test
+    void testServerErrorIgnoresRateLimitReset() {
+
+        // the rate limit window ends in a minute, which only matters to a 429 response
+        HttpHeaders headers = new HttpHeaders()
+        headers.setContentType(MediaType.valueOf("text/plain"))
+        headers.set(RateLimitHeaders.X_RATE_LIMIT_RESET,
+            String.valueOf(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + 60))
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request)))
+            .thenReturn(response(503, headers))
+            .thenReturn(response("poll-response.json"))
+
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor, [new RetryInterceptor(3, 0, 1, 100)])
+        IDXResponse idxResponse = client.poll(PollRequestBuilder.builder().withStateHandle("stateHandle").build(), null)
+
+        assertThat(idxResponse, notNullValue())
+        verify(requestExecutor, times(2)).executeRequest(any(Request))
+    }
+
+    @Test
+    void testAnswerChallengeIsOnlyRetriedOnConnectFailure() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request)))
+            .thenThrow(new HttpException("Unable to connect", new ConnectException("Connection refused")))
+            .thenReturn(errorResponse(503))
+
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor, [new RetryInterceptor(3, 0, 1, 100)])
+
+        try {
+            client.answerChallenge(AnswerChallengeRequestBuilder.builder().withStateHandle("stateHandle").build(),
+                "http://example.com/idp/idx/challenge/answer")
+            assert false : "expected ProcessingException"
+        } catch (ProcessingException e) {
+            assertThat(e.getHttpStatus(), is(503))
+        }
+        verify(requestExecutor, times(2)).executeRequest(any(Request))
+    }
+
+    @Test
+    void testAnswerChallengeIsNotRetriedOnReadFailure() {
+
+        RequestExecutor requestExecutor = mock(RequestExecutor)
+        when(requestExecutor.executeRequest(any(Request)))
+            .thenThrow(new HttpException("Read timed out", new SocketTimeoutException("Read timed out")))
+
+        IDXClient client = new BaseIDXClient(getClientConfiguration(), requestExecutor, [new RetryInterceptor(3, 0, 1, 100)])
+
+        try {
+            client.answerChallenge(AnswerChallengeRequestBuilder.builder().withStateHandle("stateHandle").build(),
+                "http://example.com/idp/idx/challenge/answer")
+            assert false : "expected ProcessingException"
+        } catch (ProcessingException e) {
+            assertThat(e.getCause() instanceof HttpException, is(true))
+        }
+        verify(requestExecutor, times(1)).executeRequest(any(Request))
+    }
+
+    @Test
+    void testRetryAfterHeader() {
+
+        HttpHeaders headers = new HttpHeaders()
+        headers.set(RateLimitHeaders.RETRY_AFTER, "2")
+        assertThat(RateLimitHeaders.retryAfterMillis(response(429, headers), 0), is(2000L))
+
+        headers = new HttpHeaders()
+        headers.set(RateLimitHeaders.X_RATE_LIMIT_RESET, "1000")
+        assertThat(RateLimitHeaders.retryAfterMillis(response(429, headers), 995_000), is(5000L))
+        assertThat(RateLimitHeaders.retryAfterMillis(response(503, headers), 995_000), is(-1L))
+
+        assertThat(RateLimitHeaders.retryAfterMillis(response(429, new HttpHeaders()), 0), is(-1L))
+    }
+
+    private Response rateLimited(String retryAfter) {
+        HttpHeaders headers = new HttpHeaders()
+        headers.setContentType(MediaType.valueOf("application/json"))
+        headers.set(RateLimitHeaders.RETRY_AFTER, retryAfter)
+        return response(429, headers)
+    }
+
+    private static Response response(int httpStatus, HttpHeaders headers) {
+        // a real response, as a mock stubbed here would interrupt the stubbing of the executor that returns it
+        DefaultResponse response = new DefaultResponse(httpStatus, headers.getContentType(),
+            new ByteArrayInputStream("{}".bytes), -1)
+        response.setHeaders(headers)
+        return response
+    }
+
+    private static Response errorResponse(int httpStatus) {
+        return new DefaultResponse(httpStatus, MediaType.valueOf("text/plain"), new ByteArrayInputStream("Error".bytes), -1)
+    }
+
+    private Response response(String fixture) {
+        return new DefaultResponse(
+            200,
+            MediaType.valueOf("application/ion+json; okta-version=1.0.0"),
+            getClass().getClassLoader().getResourceAsStream(fixture),
+            -1)
+    }
+
+    ClientConfiguration getClientConfiguration() {
+        ClientConfiguration clientConfiguration = new ClientConfiguration()
+        clientConfiguration.setIssuer("http://example.com")
+        clientConfiguration.setClientId("test-client-id")
+        clientConfiguration.setClientSecret("test-client-secret")
+        clientConfiguration.setScopes(["test-scope"] as Set)
+        return clientConfiguration
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.benchmark;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.okta.idx.sdk.api.response.IDXResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An experiment for {@link ResponseDeserializationBenchmark}: reads an IDX response whose top-level objects are
+ * decoded on first access rather than up front.
+ * <p>
+ * The response body is kept as is. A single pass over it reads the state handle and notes where each top-level
+ * object or array starts and ends, without binding them. {@link LazyResponse#decode(String, Class)} then binds a
+ * field from those bytes the first time it is asked for, so the parts of a response that are never looked at, e.g.
+ * the {@code user} and {@code app}, are never decoded.
+ * <p>
+ * Reading the remediation, about 40% of each fixture, already costs more this way than binding the whole response
+ * from the stream, so the client does not offer it.
+ */
+final class LazyResponseReader {
+
+    /** The top-level objects of {@link IDXResponse} that have getters, which are decoded on first access. */
+    private static final String[] FIELDS = {
+        "remediation",
+        "messages",
+        "authenticatorEnrollments",
+        "currentAuthenticatorEnrollment",
+        "currentAuthenticator",
+        "authenticators",
+        "successWithInteractionCode",
+    };
+
+    private final ObjectMapper objectMapper;
+    private final ConcurrentMap<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    LazyResponseReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Reads and closes {@code body}.
+     */
+    LazyResponse readValue(InputStream body) throws IOException {
+        try (InputStream in = body) {
+            // sized by available(), which is exact for the buffered bodies of most transports, to copy the body once
+            byte[] json = new byte[Math.max(in.available() + 1, 1024)];
+            int length = 0;
+            int count;
+            while ((count = in.read(json, length, json.length - length)) != -1) {
+                length += count;
+                if (length == json.length) {
+                    json = Arrays.copyOf(json, json.length * 2);
+                }
+            }
+            return readValue(json, length);
+        }
+    }
+
+    private LazyResponse readValue(byte[] json, int length) throws IOException {
+
+        String stateHandle = null;
+        int[] starts = new int[FIELDS.length];
+        int[] ends = new int[FIELDS.length];
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(json, 0, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw JsonMappingException.from(parser, "An IDX response must be an object");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+                    int field = indexOf(name);
+                    if (field >= 0) {
+                        starts[field] = (int) parser.getTokenLocation().getByteOffset();
+                        parser.skipChildren();
+                        ends[field] = (int) parser.getCurrentLocation().getByteOffset();
+                    } else {
+                        parser.skipChildren();
+                    }
+                } else if ("stateHandle".equals(name)) {
+                    stateHandle = parser.getValueAsString();
+                }
+            }
+            if (token != JsonToken.END_OBJECT) {
+                throw JsonMappingException.from(parser, "Unexpected end of IDX response");
+            }
+        }
+
+        return new LazyResponse(this, stateHandle, json, starts, ends);
+    }
+
+    private static int indexOf(String name) {
+        for (int i = 0; i < FIELDS.length; i++) {
+            if (FIELDS[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The body of a lazily read response, the location of its top-level objects, and those decoded so far.
+     */
+    static final class LazyResponse {
+
+        private final LazyResponseReader reader;
+        private final String stateHandle;
+        private final byte[] json;
+        private final int[] starts;
+        /** Zero for the fields the response does not have. */
+        private final int[] ends;
+        private final Object[] decoded = new Object[FIELDS.length];
+
+        private LazyResponse(LazyResponseReader reader, String stateHandle, byte[] json, int[] starts, int[] ends) {
+            this.reader = reader;
+            this.stateHandle = stateHandle;
+            this.json = json;
+            this.starts = starts;
+            this.ends = ends;
+        }
+
+        String getStateHandle() {
+            return stateHandle;
+        }
+
+        /**
+         * @return the field, decoded on the first call, or {@code null} if the response has no such field
+         */
+        <T> T decode(String name, Class<T> type) throws IOException {
+            int field = indexOf(name);
+            if (field < 0 || ends[field] == 0) {
+                return null;
+            }
+            if (decoded[field] == null) {
+                decoded[field] = reader.readers.computeIfAbsent(type, reader.objectMapper::readerFor)
+                    .readValue(json, starts[field], ends[field] - starts[field]);
+            }
+            return type.cast(decoded[field]);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.api.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.okta.idx.sdk.api.model.MessageValue;
+import com.okta.idx.sdk.api.model.Messages;
+import com.okta.idx.sdk.api.model.Remediation;
+import com.okta.idx.sdk.api.model.RemediationOption;
+import com.okta.idx.sdk.api.response.IDXResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Compares the per-response cost of the ways of binding an IDX response body:
+ * building a {@link JsonNode} tree and converting it ({@code readTree} + {@code convertValue}),
+ * binding straight from the stream with a cached {@link ObjectReader},
+ * and reading it with the {@link LazyResponseReader} experiment, then decoding what most wrapper operations look at:
+ * the state handle, the names and hrefs of the remediation options, and the messages.
+ * <p>
+ * Not a unit test; run it manually from the test classpath:
+ * <pre>
+ * java -cp &lt;test-classpath&gt; com.okta.idx.sdk.api.benchmark.ResponseDeserializationBenchmark [iterations]
+ * </pre>
+ * Allocation is measured with {@code com.sun.management.ThreadMXBean}, so a HotSpot based JVM is required.
+ */
+public final class ResponseDeserializationBenchmark {
+
+    private static final String[] FIXTURES = {
+        "enroll-response.json",
+        "challenge-response.json",
+        "introspect-response.json",
+        "identify-response.json",
+        "answer-challenge-response.json",
+    };
+
+    private static final int WARMUP_ITERATIONS = 2_000;
+
+    private ResponseDeserializationBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+
+        ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        ObjectReader reader = objectMapper.readerFor(IDXResponse.class);
+        LazyResponseReader lazyReader = new LazyResponseReader(objectMapper);
+
+        com.sun.management.ThreadMXBean threadMXBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        System.out.printf("%-34s %8s %14s %14s %14s %12s %12s %12s%n",
+            "fixture", "bytes", "tree B/op", "stream B/op", "lazy B/op", "tree us/op", "stream us/op", "lazy us/op");
+
+        for (String fixture : FIXTURES) {
+            byte[] body = load(fixture);
+
+            Codec tree = in -> objectMapper.convertValue(objectMapper.readTree(in), IDXResponse.class);
+            Codec stream = reader::readValue;
+            Codec lazy = in -> touch(lazyReader.readValue(in));
+
+            run(tree, body, WARMUP_ITERATIONS);
+            run(stream, body, WARMUP_ITERATIONS);
+            run(lazy, body, WARMUP_ITERATIONS);
+
+            Result treeResult = measure(threadMXBean, tree, body, iterations);
+            Result streamResult = measure(threadMXBean, stream, body, iterations);
+            Result lazyResult = measure(threadMXBean, lazy, body, iterations);
+
+            System.out.printf("%-34s %8d %14d %14d %14d %12.1f %12.1f %12.1f%n",
+                fixture, body.length,
+                treeResult.allocatedBytes / iterations, streamResult.allocatedBytes / iterations,
+                lazyResult.allocatedBytes / iterations,
+                treeResult.cpuNanos / 1000.0 / iterations, streamResult.cpuNanos / 1000.0 / iterations,
+                lazyResult.cpuNanos / 1000.0 / iterations);
+        }
+    }
+
+    private static Result measure(com.sun.management.ThreadMXBean threadMXBean, Codec codec, byte[] body, int iterations)
+        throws IOException {
+
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        long cpuBefore = threadMXBean.getCurrentThreadCpuTime();
+
+        run(codec, body, iterations);
+
+        long cpuNanos = threadMXBean.getCurrentThreadCpuTime() - cpuBefore;
+        long allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        return new Result(allocatedBytes, cpuNanos);
+    }
+
+    /**
+     * Reads what most wrapper operations read from a response.
+     */
+    private static LazyResponseReader.LazyResponse touch(LazyResponseReader.LazyResponse response) throws IOException {
+        int length = response.getStateHandle() != null ? response.getStateHandle().length() : 0;
+        Remediation remediation = response.decode("remediation", Remediation.class);
+        if (remediation != null) {
+            for (RemediationOption remediationOption : remediation.remediationOptions()) {
+                length += remediationOption.getName().length() + remediationOption.getHref().length();
+            }
+        }
+        Messages messages = response.decode("messages", Messages.class);
+        if (messages != null) {
+            for (MessageValue messageValue : messages.getValue()) {
+                length += messageValue.getMessage().length();
+            }
+        }
+        return length >= 0 ? response : null;
+    }
+
+    private static void run(Codec codec, byte[] body, int iterations) throws IOException {
+        for (int i = 0; i < iterations; i++) {
+            if (codec.read(new ByteArrayInputStream(body)) == null) {
+                throw new IllegalStateException("fixture did not bind");
+            }
+        }
+    }
+
+    private static byte[] load(String fixture) throws IOException {
+        try (InputStream in = ResponseDeserializationBenchmark.class.getClassLoader().getResourceAsStream(fixture)) {
+            if (in == null) {
+                throw new IllegalArgumentException("fixture not found on the classpath: " + fixture);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private interface Codec {
+        Object read(InputStream in) throws IOException;
+    }
+
+    private static final class Result {
+        private final long allocatedBytes;
+        private final long cpuNanos;
+
+        private Result(long allocatedBytes, long cpuNanos) {
+            this.allocatedBytes = allocatedBytes;
+            this.cpuNanos = cpuNanos;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.flow;
+
+import com.okta.commons.lang.Assert;
+import com.okta.idx.sdk.api.client.Authenticator;
+import com.okta.idx.sdk.api.client.IDXAuthenticationWrapper;
+import com.okta.idx.sdk.api.client.ProceedContext;
+import com.okta.idx.sdk.api.model.AuthenticationOptions;
+import com.okta.idx.sdk.api.model.VerifyAuthenticatorOptions;
+import com.okta.idx.sdk.api.response.AuthenticationResponse;
+
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+
+/**
+ * {@link Flow.Publisher} views of the operations of an {@link IDXAuthenticationWrapper}, for reactive applications.
+ * <p>
+ * The publishers are cold: each subscription runs the operation anew, once an element is requested, on the
+ * threads of {@link IDXAuthenticationWrapper#supplyAsync(Function)}, i.e. on virtual threads on Java 21 and later.
+ * Cancelling a subscription interrupts the operation in flight. Single operations publish one
+ * {@link AuthenticationResponse} and complete; {@link #steps(IDXStep)} publishes the response of each step of a
+ * multi-step flow, running the next step only when it is requested:
+ * <pre>
+ * IDXPublishers publishers = new IDXPublishers(idxAuthenticationWrapper);
+ * Flow.Publisher&lt;AuthenticationResponse&gt; login = publishers.steps((wrapper, previous) -&gt; {
+ *     if (previous == null) {
+ *         return wrapper.authenticate(authenticationOptions, beginResponse.getProceedContext());
+ *     }
+ *     if (previous.getAuthenticationStatus() == AuthenticationStatus.AWAITING_AUTHENTICATOR_SELECTION) {
+ *         return wrapper.selectAuthenticator(previous.getProceedContext(), emailAuthenticator);
+ *     }
+ *     return null; // done
+ * });
+ * </pre>
+ * Failures of the backend are reported in the {@link AuthenticationResponse}, as by the wrapper, rather than with
+ * {@code onError}.
+ */
+public final class IDXPublishers {
+
+    private final IDXAuthenticationWrapper wrapper;
+
+    public IDXPublishers(IDXAuthenticationWrapper wrapper) {
+        Assert.notNull(wrapper, "wrapper cannot be null");
+        this.wrapper = wrapper;
+    }
+
+    /**
+     * @param operation the wrapper operation to run for each subscription
+     * @param <T> the result type
+     * @return a publisher of the result of {@code operation}
+     */
+    public <T> Flow.Publisher<T> publish(Function<IDXAuthenticationWrapper, T> operation) {
+        Assert.notNull(operation, "operation cannot be null");
+        return new StepPublisher<>(wrapper, (w, previous) -> operation.apply(w), 1);
+    }
+
+    /**
+     * @param step the steps of the flow
+     * @param <T> the result type of each step
+     * @return a publisher of the result of each step, which completes when a step returns {@code null}
+     */
+    public <T> Flow.Publisher<T> steps(IDXStep<T> step) {
+        Assert.notNull(step, "step cannot be null");
+        return new StepPublisher<>(wrapper, step, Long.MAX_VALUE);
+    }
+
+    /**
+     * @see IDXAuthenticationWrapper#begin()
+     */
+    public Flow.Publisher<AuthenticationResponse> begin() {
+        return publish(IDXAuthenticationWrapper::begin);
+    }
+
+    /**
+     * @see IDXAuthenticationWrapper#authenticate(AuthenticationOptions, ProceedContext)
+     */
+    public Flow.Publisher<AuthenticationResponse> authenticate(AuthenticationOptions authenticationOptions,
+                                                               ProceedContext proceedContext) {
+        return publish(w -> w.authenticate(authenticationOptions, proceedContext));
+    }
+
+    /**
+     * @see IDXAuthenticationWrapper#selectAuthenticator(ProceedContext, Authenticator)
+     */
+    public Flow.Publisher<AuthenticationResponse> selectAuthenticator(ProceedContext proceedContext,
+                                                                      Authenticator authenticator) {
+        return publish(w -> w.selectAuthenticator(proceedContext, authenticator));
+    }
+
+    /**
+     * @see IDXAuthenticationWrapper#verifyAuthenticator(ProceedContext, VerifyAuthenticatorOptions)
+     */
+    public Flow.Publisher<AuthenticationResponse> verifyAuthenticator(ProceedContext proceedContext,
+                                                                      VerifyAuthenticatorOptions verifyAuthenticatorOptions) {
+        return publish(w -> w.verifyAuthenticator(proceedContext, verifyAuthenticatorOptions));
+    }
+
+    /**
+     * @see IDXAuthenticationWrapper#recoverPassword(String, ProceedContext)
+     */
+    public Flow.Publisher<AuthenticationResponse> recoverPassword(String username, ProceedContext proceedContext) {
+        return publish(w -> w.recoverPassword(username, proceedContext));
+    }
+
+    /**
+     * @see IDXAuthenticationWrapper#poll(ProceedContext)
+     */
+    public Flow.Publisher<AuthenticationResponse> poll(ProceedContext proceedContext) {
+        return publish(w -> w.poll(proceedContext));
+    }
+}
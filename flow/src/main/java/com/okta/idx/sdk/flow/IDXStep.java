@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.flow;
+
+import com.okta.idx.sdk.api.client.IDXAuthenticationWrapper;
+
+/**
+ * One step of a multi-step flow published by {@link IDXPublishers#steps(IDXStep)}, e.g. identify, then select an
+ * authenticator, then verify it.
+ *
+ * @param <T> the result of each step
+ */
+@FunctionalInterface
+public interface IDXStep<T> {
+
+    /**
+     * Runs the step after {@code previous}.
+     *
+     * @param wrapper the wrapper to make the step's calls with
+     * @param previous the result of the previous step, or {@code null} for the first step
+     * @return the result of the step, or {@code null} if the flow is complete
+     */
+    T next(IDXAuthenticationWrapper wrapper, T previous);
+}
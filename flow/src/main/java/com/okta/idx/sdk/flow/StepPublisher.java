@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.flow;
+
+import com.okta.idx.sdk.api.client.IDXAuthenticationWrapper;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+
+/**
+ * A cold publisher that runs an {@link IDXStep} per element, off the subscriber's thread, and only once the element
+ * is requested.
+ * <p>
+ * Each subscription runs its own flow. At most one step is in flight at a time, so signals are serialized without
+ * further coordination. Cancelling a subscription interrupts the step in flight and drops its result.
+ */
+final class StepPublisher<T> implements Flow.Publisher<T> {
+
+    private final IDXAuthenticationWrapper wrapper;
+    private final IDXStep<T> step;
+    private final long maxSteps;
+
+    /**
+     * @param maxSteps the number of elements after which the flow completes without running another step
+     */
+    StepPublisher(IDXAuthenticationWrapper wrapper, IDXStep<T> step, long maxSteps) {
+        this.wrapper = wrapper;
+        this.step = step;
+        this.maxSteps = maxSteps;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber cannot be null");
+        subscriber.onSubscribe(new StepSubscription<>(subscriber, wrapper, step, maxSteps));
+    }
+
+    private static final class StepSubscription<T> implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super T> subscriber;
+        private final IDXAuthenticationWrapper wrapper;
+        private final IDXStep<T> step;
+        private final long maxSteps;
+
+        // guarded by this
+        private long demand;
+        /** Whether a step is in flight or its result is being delivered. */
+        private boolean running;
+        /** Whether the subscription completed, failed or was cancelled. */
+        private boolean done;
+        private long steps;
+        private T previous;
+        private Thread worker;
+
+        private StepSubscription(Flow.Subscriber<? super T> subscriber, IDXAuthenticationWrapper wrapper,
+                                 IDXStep<T> step, long maxSteps) {
+            this.subscriber = subscriber;
+            this.wrapper = wrapper;
+            this.step = step;
+            this.maxSteps = maxSteps;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                if (terminate()) {
+                    subscriber.onError(new IllegalArgumentException("n must be greater than zero."));
+                }
+                return;
+            }
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                if (running) {
+                    // picked up once the step in flight is delivered
+                    return;
+                }
+                running = true;
+            }
+            runStep();
+        }
+
+        @Override
+        public synchronized void cancel() {
+            done = true;
+            previous = null;
+            if (worker != null) {
+                worker.interrupt();
+            }
+        }
+
+        private void runStep() {
+            T input;
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                input = previous;
+            }
+            CompletableFuture<T> result;
+            try {
+                result = wrapper.supplyAsync(w -> call(w, input));
+            } catch (RuntimeException e) {
+                // e.g. the executor rejected the step
+                if (terminate()) {
+                    subscriber.onError(e);
+                }
+                return;
+            }
+            result.whenComplete(this::onStep);
+        }
+
+        private T call(IDXAuthenticationWrapper w, T input) {
+            synchronized (this) {
+                if (done) {
+                    return null;
+                }
+                worker = Thread.currentThread();
+            }
+            try {
+                return step.next(w, input);
+            } finally {
+                synchronized (this) {
+                    worker = null;
+                }
+                // an interrupt from cancel() must not leak to the next task of a pooled thread
+                Thread.interrupted();
+            }
+        }
+
+        private void onStep(T result, Throwable failure) {
+            if (failure != null) {
+                if (terminate()) {
+                    subscriber.onError(failure instanceof CompletionException && failure.getCause() != null
+                        ? failure.getCause() : failure);
+                }
+                return;
+            }
+            if (result == null) {
+                if (terminate()) {
+                    subscriber.onComplete();
+                }
+                return;
+            }
+
+            boolean last;
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                steps++;
+                demand--;
+                previous = result;
+                last = steps >= maxSteps;
+            }
+            subscriber.onNext(result);
+            if (last) {
+                if (terminate()) {
+                    subscriber.onComplete();
+                }
+                return;
+            }
+
+            synchronized (this) {
+                if (done || demand == 0) {
+                    running = false;
+                    return;
+                }
+            }
+            runStep();
+        }
+
+        /**
+         * @return whether the subscription was still active, in which case the caller sends the terminal signal
+         */
+        private synchronized boolean terminate() {
+            if (done) {
+                return false;
+            }
+            done = true;
+            previous = null;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.flow
+
+import com.okta.idx.sdk.api.client.IDXAuthenticationWrapper
+import com.okta.idx.sdk.api.client.IDXClient
+import com.okta.idx.sdk.api.exception.ProcessingException
+import com.okta.idx.sdk.api.response.AuthenticationResponse
+import org.testng.annotations.Test
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Flow
+import java.util.concurrent.TimeUnit
+
+import static org.hamcrest.MatcherAssert.assertThat
+import static org.hamcrest.Matchers.contains
+import static org.hamcrest.Matchers.empty
+import static org.hamcrest.Matchers.instanceOf
+import static org.hamcrest.Matchers.is
+import static org.mockito.Mockito.mock
+import static org.mockito.Mockito.when
+
+class IDXPublishersTest {
+
+    @Test
+    void testPublish() {
+        def publishers = new IDXPublishers(new IDXAuthenticationWrapper(mock(IDXClient)))
+        def subscriber = new TestSubscriber<String>()
+
+        publishers.publish { wrapper -> "done" }.subscribe(subscriber)
+        subscriber.request(Long.MAX_VALUE)
+
+        assertThat(subscriber.awaitTerminated(), is(true))
+        assertThat(subscriber.items, contains("done"))
+        assertThat(subscriber.completed, is(true))
+    }
+
+    @Test
+    void testPublishIsCold() {
+        def publishers = new IDXPublishers(new IDXAuthenticationWrapper(mock(IDXClient)))
+        int calls = 0
+        def publisher = publishers.publish { wrapper -> ++calls }
+
+        2.times {
+            def subscriber = new TestSubscriber<Integer>()
+            publisher.subscribe(subscriber)
+            assertThat(calls, is(it))
+            subscriber.request(1)
+            assertThat(subscriber.awaitTerminated(), is(true))
+            assertThat(subscriber.items, contains(it + 1))
+        }
+    }
+
+    @Test
+    void testStepsFollowDemand() {
+        def publishers = new IDXPublishers(new IDXAuthenticationWrapper(mock(IDXClient)))
+        def subscriber = new TestSubscriber<Integer>()
+
+        publishers.steps { wrapper, Integer previous -> previous == null ? 1 : previous < 3 ? previous + 1 : null }
+            .subscribe(subscriber)
+
+        subscriber.request(1)
+        subscriber.awaitItems(1)
+        Thread.sleep(100)
+        // no step runs ahead of demand
+        assertThat(subscriber.items, contains(1))
+
+        subscriber.request(2)
+        subscriber.awaitItems(3)
+        assertThat(subscriber.items, contains(1, 2, 3))
+        assertThat(subscriber.completed, is(false))
+
+        subscriber.request(1)
+        assertThat(subscriber.awaitTerminated(), is(true))
+        assertThat(subscriber.items, contains(1, 2, 3))
+        assertThat(subscriber.completed, is(true))
+    }
+
+    @Test
+    void testCancelInterruptsStep() {
+        def publishers = new IDXPublishers(new IDXAuthenticationWrapper(mock(IDXClient)))
+        def subscriber = new TestSubscriber<String>()
+        def started = new CountDownLatch(1)
+        def interrupted = new CountDownLatch(1)
+
+        publishers.publish { wrapper ->
+            started.countDown()
+            try {
+                Thread.sleep(10_000)
+            } catch (InterruptedException e) {
+                interrupted.countDown()
+            }
+            "late"
+        }.subscribe(subscriber)
+        subscriber.request(1)
+
+        assertThat(started.await(5, TimeUnit.SECONDS), is(true))
+        subscriber.subscription.cancel()
+
+        assertThat(interrupted.await(5, TimeUnit.SECONDS), is(true))
+        Thread.sleep(100)
+        assertThat(subscriber.items, empty())
+        assertThat(subscriber.completed, is(false))
+        assertThat(subscriber.error, is(null))
+    }
+
+    @Test
+    void testInvalidRequest() {
+        def publishers = new IDXPublishers(new IDXAuthenticationWrapper(mock(IDXClient)))
+        def subscriber = new TestSubscriber<String>()
+
+        publishers.publish { wrapper -> "never" }.subscribe(subscriber)
+        subscriber.request(0)
+
+        assertThat(subscriber.awaitTerminated(), is(true))
+        assertThat(subscriber.error, instanceOf(IllegalArgumentException))
+        assertThat(subscriber.items, empty())
+    }
+
+    @Test
+    void testStepFailure() {
+        def publishers = new IDXPublishers(new IDXAuthenticationWrapper(mock(IDXClient)))
+        def subscriber = new TestSubscriber<String>()
+
+        publishers.publish { wrapper -> throw new IllegalStateException("boom") }.subscribe(subscriber)
+        subscriber.request(1)
+
+        assertThat(subscriber.awaitTerminated(), is(true))
+        assertThat(subscriber.error, instanceOf(IllegalStateException))
+        assertThat(subscriber.error.message, is("boom"))
+    }
+
+    @Test
+    void testBeginReportsErrorsInResponse() {
+        def client = mock(IDXClient)
+        when(client.interact()).thenThrow(new ProcessingException(500, "Server error"))
+        def publishers = new IDXPublishers(new IDXAuthenticationWrapper(client))
+        def subscriber = new TestSubscriber<AuthenticationResponse>()
+
+        publishers.begin().subscribe(subscriber)
+        subscriber.request(1)
+
+        assertThat(subscriber.awaitTerminated(), is(true))
+        assertThat(subscriber.completed, is(true))
+        assertThat(subscriber.items.size(), is(1))
+        assertThat(subscriber.items[0].errors, contains("Server error HTTP status: 500"))
+    }
+
+    static class TestSubscriber<T> implements Flow.Subscriber<T> {
+
+        final List<T> items = new CopyOnWriteArrayList<>()
+        final CountDownLatch terminated = new CountDownLatch(1)
+        volatile Flow.Subscription subscription
+        volatile boolean completed
+        volatile Throwable error
+
+        @Override
+        void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription
+        }
+
+        @Override
+        void onNext(T item) {
+            items.add(item)
+        }
+
+        @Override
+        void onError(Throwable throwable) {
+            error = throwable
+            terminated.countDown()
+        }
+
+        @Override
+        void onComplete() {
+            completed = true
+            terminated.countDown()
+        }
+
+        void request(long n) {
+            subscription.request(n)
+        }
+
+        boolean awaitTerminated() {
+            return terminated.await(5, TimeUnit.SECONDS)
+        }
+
+        void awaitItems(int count) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5)
+            while (items.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(10)
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.http2;
+
+import com.okta.commons.http.DefaultResponse;
+import com.okta.commons.http.HttpException;
+import com.okta.commons.http.MediaType;
+import com.okta.commons.http.Request;
+import com.okta.commons.http.RequestExecutor;
+import com.okta.commons.http.Response;
+import com.okta.commons.http.authc.RequestAuthenticator;
+import com.okta.commons.http.config.HttpClientConfiguration;
+import com.okta.commons.http.config.Proxy;
+import com.okta.commons.lang.Assert;
+import com.okta.idx.sdk.api.client.DeadlineRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Authenticator;
+import java.net.InetSocketAddress;
+import java.net.PasswordAuthentication;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link RequestExecutor} built on the JDK's {@link HttpClient}.
+ * <p>
+ * Calls to an {@code https} issuer negotiate HTTP/2, which multiplexes concurrent calls as streams over a single
+ * connection per host, instead of one HTTP/1.1 connection per call in flight. Servers that do not speak HTTP/2 are
+ * called over HTTP/1.1. The pool settings of the request executor parameters do not apply.
+ * <p>
+ * Besides the blocking {@link #executeRequest(Request)}, {@link #executeRequestAsync(Request)} sends a request
+ * without holding a thread until the response arrives.
+ * <p>
+ * The response to a {@link DeadlineRequest} times out when its deadline passes, if that is before
+ * the connection timeout.
+ */
+public final class Http2RequestExecutor implements RequestExecutor {
+
+    /** The headers the {@link HttpClient} sets itself, and refuses from callers. */
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host",
+        "upgrade");
+
+    /** The response headers set from the arguments of the {@link DefaultResponse} constructor. */
+    private static final Set<String> COPIED_HEADERS = Set.of("content-type", "content-length");
+
+    private final HttpClient httpClient;
+    private final RequestAuthenticator requestAuthenticator;
+    private final Duration timeout;
+
+    public Http2RequestExecutor(HttpClientConfiguration clientConfiguration) {
+        this(newHttpClient(clientConfiguration), clientConfiguration);
+    }
+
+    /**
+     * @param httpClient the client to send requests with, e.g. one sharing the application's executor
+     * @param clientConfiguration the request authenticator and timeout to apply
+     */
+    public Http2RequestExecutor(HttpClient httpClient, HttpClientConfiguration clientConfiguration) {
+        Assert.notNull(httpClient, "httpClient cannot be null");
+        Assert.notNull(clientConfiguration, "clientConfiguration cannot be null");
+        this.httpClient = httpClient;
+        this.requestAuthenticator = clientConfiguration.getRequestAuthenticator();
+        this.timeout = clientConfiguration.getConnectionTimeout() > 0
+            ? Duration.ofSeconds(clientConfiguration.getConnectionTimeout()) : null;
+    }
+
+    private static HttpClient newHttpClient(HttpClientConfiguration clientConfiguration) {
+
+        HttpClient.Builder builder = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .followRedirects(HttpClient.Redirect.NEVER);
+
+        if (clientConfiguration.getConnectionTimeout() > 0) {
+            builder.connectTimeout(Duration.ofSeconds(clientConfiguration.getConnectionTimeout()));
+        }
+
+        Proxy proxy = clientConfiguration.getProxy();
+        if (proxy != null) {
+            builder.proxy(ProxySelector.of(new InetSocketAddress(proxy.getHost(), proxy.getPort())));
+            if (proxy.isAuthenticationRequired()) {
+                builder.authenticator(new Authenticator() {
+                    @Override
+                    protected PasswordAuthentication getPasswordAuthentication() {
+                        return getRequestorType() == RequestorType.PROXY
+                            ? new PasswordAuthentication(proxy.getUsername(), proxy.getPassword().toCharArray())
+                            : null;
+                    }
+                });
+            }
+        }
+        return builder.build();
+    }
+
+    @Override
+    public Response executeRequest(Request request) throws HttpException {
+        try {
+            return toResponse(httpClient.send(toHttpRequest(request), HttpResponse.BodyHandlers.ofInputStream()));
+        } catch (IOException e) {
+            throw new HttpException("Unable to execute HTTP request: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HttpException("Interrupted while executing HTTP request", e);
+        }
+    }
+
+    /**
+     * Sends {@code request} without blocking the calling thread.
+     *
+     * @param request the request to send
+     * @return a future completed with the response, or with an {@link HttpException} if the request failed
+     */
+    public CompletableFuture<Response> executeRequestAsync(Request request) {
+        HttpRequest httpRequest;
+        try {
+            httpRequest = toHttpRequest(request);
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e instanceof HttpException
+                ? e : new HttpException("Unable to execute HTTP request: " + e.getMessage(), e));
+        }
+        return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofInputStream())
+            .handle((response, failure) -> {
+                if (failure != null) {
+                    Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+                    throw new HttpException("Unable to execute HTTP request: " + cause.getMessage(), cause);
+                }
+                return toResponse(response);
+            });
+    }
+
+    private Duration timeout(Request request) {
+        if (!(request instanceof DeadlineRequest)) {
+            return timeout;
+        }
+        // a request whose deadline has passed times out right away, as the timeout must be positive
+        Duration remaining = Duration.ofNanos(Math.max(((DeadlineRequest) request).getRemainingNanos(), 1));
+        return timeout != null && timeout.compareTo(remaining) < 0 ? timeout : remaining;
+    }
+
+    private HttpRequest toHttpRequest(Request request) throws IOException {
+
+        if (requestAuthenticator != null) {
+            requestAuthenticator.authenticate(request);
+        }
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri(request));
+        Duration requestTimeout = timeout(request);
+        if (requestTimeout != null) {
+            builder.timeout(requestTimeout);
+        }
+        for (Map.Entry<String, List<String>> header : request.getHeaders().entrySet()) {
+            if (!RESTRICTED_HEADERS.contains(header.getKey().toLowerCase(Locale.ENGLISH))) {
+                for (String value : header.getValue()) {
+                    builder.header(header.getKey(), value);
+                }
+            }
+        }
+
+        // the bodies of IDX requests are small and already in memory, so they go out with a Content-Length
+        InputStream body = request.getBody();
+        byte[] bytes = body != null ? body.readAllBytes() : new byte[0];
+        builder.method(request.getMethod().name(), bytes.length > 0
+            ? HttpRequest.BodyPublishers.ofByteArray(bytes) : HttpRequest.BodyPublishers.noBody());
+        return builder.build();
+    }
+
+    private static URI uri(Request request) {
+        URI resourceUrl = request.getResourceUrl();
+        if (request.getQueryString() == null || request.getQueryString().isEmpty()) {
+            return resourceUrl;
+        }
+        String query = request.getQueryString().entrySet().stream()
+            .map(parameter -> URLEncoder.encode(parameter.getKey(), StandardCharsets.UTF_8) + '='
+                + URLEncoder.encode(parameter.getValue(), StandardCharsets.UTF_8))
+            .collect(Collectors.joining("&"));
+        String url = resourceUrl.toString();
+        return URI.create(url + (url.indexOf('?') < 0 ? '?' : '&') + query);
+    }
+
+    private static Response toResponse(HttpResponse<InputStream> response) {
+
+        HttpHeaders headers = response.headers();
+        MediaType mediaType = headers.firstValue("Content-Type").map(MediaType::valueOf).orElse(null);
+        long contentLength = headers.firstValueAsLong("Content-Length").orElse(-1);
+
+        // the body is handed over as received: callers that asked for a compressed body decompress it
+        DefaultResponse result = new DefaultResponse(response.statusCode(), mediaType, response.body(), contentLength);
+        headers.map().forEach((name, values) -> {
+            // HTTP/2 pseudo headers, e.g. ":status", are not headers of the response
+            if (!name.startsWith(":") && !COPIED_HEADERS.contains(name.toLowerCase(Locale.ENGLISH))) {
+                values.forEach(value -> result.getHeaders().add(name, value));
+            }
+        });
+        return result;
+    }
+}
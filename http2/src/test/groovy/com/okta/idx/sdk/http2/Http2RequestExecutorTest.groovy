@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.http2
+
+import com.okta.commons.http.DefaultRequest
+import com.okta.commons.http.HttpException
+import com.okta.commons.http.HttpHeaders
+import com.okta.commons.http.HttpMethod
+import com.okta.commons.http.Request
+import com.okta.commons.http.RequestExecutor
+import com.okta.commons.http.RequestExecutorFactory
+import com.okta.commons.http.Response
+import com.okta.idx.sdk.api.client.DeadlineRequest
+import com.okta.idx.sdk.api.config.ClientConfiguration
+import com.sun.net.httpserver.HttpExchange
+import com.sun.net.httpserver.HttpServer
+import org.testng.annotations.AfterMethod
+import org.testng.annotations.BeforeMethod
+import org.testng.annotations.Test
+
+import java.net.http.HttpTimeoutException
+import java.nio.charset.StandardCharsets
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+
+import static org.hamcrest.MatcherAssert.assertThat
+import static org.hamcrest.Matchers.instanceOf
+import static org.hamcrest.Matchers.is
+
+class Http2RequestExecutorTest {
+
+    private HttpServer server
+    private HttpExchange lastExchange
+    private String lastBody
+
+    @BeforeMethod
+    void setUp() {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0)
+        server.createContext("/idp/idx/introspect") { HttpExchange exchange ->
+            lastExchange = exchange
+            lastBody = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8)
+            byte[] body = getClass().getClassLoader().getResourceAsStream("introspect-response.json").readAllBytes()
+            exchange.getResponseHeaders().add("Content-Type", "application/ion+json; okta-version=1.0.0")
+            exchange.getResponseHeaders().add("X-Rate-Limit-Remaining", "42")
+            exchange.sendResponseHeaders(200, body.length)
+            exchange.getResponseBody().withCloseable { it.write(body) }
+        }
+        server.createContext("/slow") { HttpExchange exchange ->
+            Thread.sleep(3000)
+            exchange.sendResponseHeaders(204, -1)
+            exchange.close()
+        }
+        server.start()
+    }
+
+    @AfterMethod
+    void tearDown() {
+        server.stop(0)
+    }
+
+    @Test
+    void testExecuteRequest() {
+
+        RequestExecutor requestExecutor = new Http2RequestExecutor(getClientConfiguration())
+
+        Response response = requestExecutor.executeRequest(introspectRequest())
+
+        assertThat(response.getHttpStatus(), is(200))
+        assertThat(response.getHeaders().getContentType().toString().contains("application/ion+json"), is(true))
+        assertThat(response.getHeaders().getFirst("X-Rate-Limit-Remaining"), is("42"))
+        assertThat(new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8).contains("stateHandle"), is(true))
+
+        assertThat(lastExchange.getRequestMethod(), is("POST"))
+        assertThat(lastExchange.getRequestHeaders().getFirst("Accept"), is("application/ion+json; okta-version=1.0.0"))
+        assertThat(lastBody, is('{"interactionHandle":"interactionHandle"}'))
+    }
+
+    @Test
+    void testExecuteRequestAsync() {
+
+        Http2RequestExecutor requestExecutor = new Http2RequestExecutor(getClientConfiguration())
+
+        Response response = requestExecutor.executeRequestAsync(introspectRequest()).get(5, TimeUnit.SECONDS)
+
+        assertThat(response.getHttpStatus(), is(200))
+        assertThat(lastBody, is('{"interactionHandle":"interactionHandle"}'))
+    }
+
+    @Test
+    void testTimeoutAtDeadline() {
+
+        Http2RequestExecutor requestExecutor = new Http2RequestExecutor(getClientConfiguration())
+
+        long start = System.nanoTime()
+        try {
+            requestExecutor.executeRequest(new DeadlineRequest(HttpMethod.GET, baseUrl() + "/slow",
+                new HttpHeaders(), null, 0, start + TimeUnit.MILLISECONDS.toNanos(300)))
+            assert false : "expected HttpException"
+        } catch (HttpException e) {
+            assertThat(e.getCause(), instanceOf(HttpTimeoutException))
+        }
+        // well before the connection timeout of 5 seconds, and the response of the server after 3
+        assertThat(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2), is(true))
+    }
+
+    @Test
+    void testConnectionFailure() {
+
+        Http2RequestExecutor requestExecutor = new Http2RequestExecutor(getClientConfiguration())
+        Request request = introspectRequest()
+        Request asyncRequest = introspectRequest()
+        server.stop(0)
+
+        try {
+            requestExecutor.executeRequest(request)
+            assert false : "expected HttpException"
+        } catch (HttpException e) {
+            assertThat(e.getCause(), instanceOf(IOException))
+        }
+
+        try {
+            requestExecutor.executeRequestAsync(asyncRequest).get(5, TimeUnit.SECONDS)
+            assert false : "expected ExecutionException"
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(HttpException))
+        }
+    }
+
+    @Test
+    void testLoadedAsService() {
+        assertThat(ServiceLoader.load(RequestExecutorFactory).any {
+            it instanceof Http2RequestExecutorFactory
+        }, is(true))
+        assertThat(new Http2RequestExecutorFactory().create(getClientConfiguration()), instanceOf(Http2RequestExecutor))
+    }
+
+    private Request introspectRequest() {
+        byte[] body = '{"interactionHandle":"interactionHandle"}'.getBytes(StandardCharsets.UTF_8)
+        HttpHeaders headers = new HttpHeaders()
+        headers.add("Accept", "application/ion+json; okta-version=1.0.0")
+        headers.add("Content-Type", "application/ion+json; okta-version=1.0.0")
+        return new DefaultRequest(HttpMethod.POST, baseUrl() + "/idp/idx/introspect", null, headers,
+            new ByteArrayInputStream(body), body.length)
+    }
+
+    private String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort()
+    }
+
+    ClientConfiguration getClientConfiguration() {
+        ClientConfiguration clientConfiguration = new ClientConfiguration()
+        clientConfiguration.setIssuer(baseUrl() + "/oauth2/default")
+        clientConfiguration.setConnectionTimeout(5)
+        return clientConfiguration
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.http2;
+
+import com.okta.commons.http.DefaultRequest;
+import com.okta.commons.http.HttpHeaders;
+import com.okta.commons.http.HttpMethod;
+import com.okta.commons.http.Request;
+import com.okta.commons.http.RequestExecutor;
+import com.okta.commons.http.RequestExecutorFactory;
+import com.okta.commons.http.Response;
+import com.okta.idx.sdk.api.config.ClientConfiguration;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the throughput, latency and connection count of every {@link RequestExecutorFactory} on the test
+ * classpath, i.e. the HTTP/2 transport and okhttp, sending concurrent introspect calls.
+ * <p>
+ * By default the calls go to a local stand-in for the IDX API, which answers with the introspect fixture after a
+ * fixed delay and counts the connections it accepts. The stand-in is the JDK's HTTP server, which only speaks
+ * HTTP/1.1; to measure multiplexing, pass the URL of an HTTP/2 server, which the calls then {@code GET}:
+ * <pre>
+ * mvn -pl http2 test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.okta.idx.sdk.http2.TransportBenchmark \
+ *     -Dexec.args="[concurrency=64] [requests=20000] [delayMillis=5] [url]"
+ * </pre>
+ */
+public final class TransportBenchmark {
+
+    private static final String MEDIA_TYPE = "application/ion+json; okta-version=1.0.0";
+    private static final byte[] REQUEST_BODY = "{\"interactionHandle\":\"interactionHandle\"}"
+        .getBytes(StandardCharsets.UTF_8);
+
+    private TransportBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int delayMillis = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        String target = args.length > 3 ? args[3] : null;
+
+        StandInServer server = target == null ? new StandInServer(delayMillis) : null;
+        try {
+            String issuer = server != null ? server.baseUrl() + "/oauth2/default" : target;
+            System.out.printf("%d requests, %d concurrent, against %s%n%n", requests, concurrency,
+                server != null ? "a local stand-in answering after " + delayMillis + " ms" : target);
+            System.out.printf("%-32s %12s %10s %10s %12s%n", "transport", "requests/s", "p50 ms", "p99 ms",
+                "connections");
+
+            for (RequestExecutorFactory factory : ServiceLoader.load(RequestExecutorFactory.class)) {
+                ClientConfiguration clientConfiguration = new ClientConfiguration();
+                clientConfiguration.setIssuer(issuer);
+                clientConfiguration.setConnectionTimeout(30);
+                clientConfiguration.setMaxConnectionsPerRoute(concurrency);
+                clientConfiguration.setMaxConnectionsTotal(concurrency);
+                RequestExecutor requestExecutor = factory.create(clientConfiguration);
+
+                String url = server != null ? server.baseUrl() + "/idp/idx/introspect" : target;
+                boolean post = server != null;
+
+                // warms up the JIT and the connections, which are then counted again
+                run(requestExecutor, url, post, concurrency, Math.max(concurrency, requests / 10));
+                if (server != null) {
+                    server.connections.clear();
+                }
+
+                long start = System.nanoTime();
+                long[] latencies = run(requestExecutor, url, post, concurrency, requests);
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                Arrays.sort(latencies);
+                System.out.printf("%-32s %12.0f %10.2f %10.2f %12s%n",
+                    factory.getClass().getSimpleName(),
+                    requests / seconds,
+                    latencies[latencies.length / 2] / 1e6,
+                    latencies[(int) (latencies.length * 0.99)] / 1e6,
+                    server != null ? String.valueOf(server.connections.size()) : "n/a");
+            }
+        } finally {
+            if (server != null) {
+                server.stop();
+            }
+        }
+    }
+
+    /**
+     * @return the latency of each request, in nanoseconds
+     */
+    private static long[] run(RequestExecutor requestExecutor, String url, boolean post, int concurrency,
+                              int requests) throws Exception {
+
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService callers = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<?>> futures = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(callers.submit(() -> {
+                    for (int index = next.getAndIncrement(); index < requests; index = next.getAndIncrement()) {
+                        long start = System.nanoTime();
+                        Response response = requestExecutor.executeRequest(request(url, post));
+                        drain(response.getBody());
+                        if (response.getHttpStatus() != 200) {
+                            throw new IllegalStateException("Unexpected status " + response.getHttpStatus());
+                        }
+                        latencies[index] = System.nanoTime() - start;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        return latencies;
+    }
+
+    private static Request request(String url, boolean post) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Accept", MEDIA_TYPE);
+        if (!post) {
+            return new DefaultRequest(HttpMethod.GET, url, null, headers, null, 0);
+        }
+        headers.add("Content-Type", MEDIA_TYPE);
+        return new DefaultRequest(HttpMethod.POST, url, null, headers, new ByteArrayInputStream(REQUEST_BODY),
+            REQUEST_BODY.length);
+    }
+
+    private static void drain(InputStream body) throws IOException {
+        if (body != null) {
+            try (InputStream in = body) {
+                byte[] buffer = new byte[4096];
+                while (in.read(buffer) != -1) {
+                    // discarded
+                }
+            }
+        }
+    }
+
+    /**
+     * Answers introspect calls with the introspect fixture, and records the client address of every connection.
+     */
+    private static final class StandInServer {
+
+        private final HttpServer server;
+        private final ExecutorService executor = Executors.newCachedThreadPool();
+        private final Set<SocketAddress> connections = ConcurrentHashMap.newKeySet();
+
+        private StandInServer(int delayMillis) throws IOException {
+            byte[] body;
+            try (InputStream fixture = TransportBenchmark.class.getClassLoader()
+                    .getResourceAsStream("introspect-response.json")) {
+                body = fixture.readAllBytes();
+            }
+
+            // otherwise the response body waits for the client's delayed ACK of the headers, about 40 ms
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+            server.setExecutor(executor);
+            server.createContext("/idp/idx/introspect", exchange -> {
+                connections.add(exchange.getRemoteAddress());
+                drain(exchange.getRequestBody());
+                try {
+                    TimeUnit.MILLISECONDS.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                exchange.getResponseHeaders().add("Content-Type", MEDIA_TYPE);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.start();
+        }
+
+        private String baseUrl() {
+            return "http://127.0.0.1:" + server.getAddress().getPort();
+        }
+
+        private void stop() {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.nio;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * A response body read straight from the pooled buffers the event loop read it into: the segments are views of
+ * those buffers, so the bytes are copied once, into the reader's array. Closing the stream, or reading it to its
+ * end, gives the buffers back to the pool.
+ */
+final class BufferInputStream extends InputStream {
+
+    private final List<ByteBuffer> segments;
+    private final List<ByteBuffer> buffers;
+    private final ByteBufferPool pool;
+    private int segment;
+    private boolean released;
+
+    /**
+     * @param segments the body, as views in read mode
+     * @param buffers the pooled buffers the segments are views of
+     * @param pool the pool to give the buffers back to
+     */
+    BufferInputStream(List<ByteBuffer> segments, List<ByteBuffer> buffers, ByteBufferPool pool) {
+        this.segments = segments;
+        this.buffers = buffers;
+        this.pool = pool;
+    }
+
+    @Override
+    public synchronized int read() {
+        ByteBuffer current = current();
+        return current != null ? current.get() & 0xff : -1;
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) {
+        if (len == 0) {
+            return 0;
+        }
+        ByteBuffer current = current();
+        if (current == null) {
+            return -1;
+        }
+        int count = Math.min(len, current.remaining());
+        current.get(b, off, count);
+        return count;
+    }
+
+    @Override
+    public synchronized long skip(long n) {
+        long skipped = 0;
+        ByteBuffer current;
+        while (skipped < n && (current = current()) != null) {
+            int count = (int) Math.min(n - skipped, current.remaining());
+            current.position(current.position() + count);
+            skipped += count;
+        }
+        return skipped;
+    }
+
+    @Override
+    public synchronized int available() {
+        int available = 0;
+        if (!released) {
+            for (int i = segment; i < segments.size(); i++) {
+                available += segments.get(i).remaining();
+            }
+        }
+        return available;
+    }
+
+    @Override
+    public synchronized void close() {
+        release();
+    }
+
+    /**
+     * @return the segment with bytes left, or {@code null} at the end of the body
+     */
+    private ByteBuffer current() {
+        while (!released && segment < segments.size()) {
+            ByteBuffer current = segments.get(segment);
+            if (current.hasRemaining()) {
+                return current;
+            }
+            segment++;
+        }
+        release();
+        return null;
+    }
+
+    private void release() {
+        if (!released) {
+            released = true;
+            for (ByteBuffer buffer : buffers) {
+                pool.release(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,454 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.nio;
+
+import com.okta.commons.http.Response;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLParameters;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A non-blocking HTTP/1.1 connection, over TLS for {@code https} routes, which carries one exchange at a time.
+ * <p>
+ * All its methods run on the thread of the {@link EventLoop} that owns it. It holds pooled buffers only while an
+ * exchange is in progress, so idle connections cost a socket and, for TLS, a session.
+ */
+final class Connection {
+
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    final Exchange.Route route;
+
+    private final EventLoop eventLoop;
+    private final SocketChannel channel;
+    private final SSLEngine engine;
+    private final ByteBufferPool pool;
+    private final long maxBodyBytes;
+    private final SelectionKey key;
+
+    private boolean connected;
+    private int exchanges;
+    private long idleSince;
+
+    private Exchange exchange;
+    private ResponseParser parser;
+    /** Encrypted bytes read from the channel, in write mode; TLS only. */
+    private ByteBuffer netIn;
+    /** Bytes to write to the channel, in write mode. */
+    private ByteBuffer netOut;
+    /** Response bytes, decrypted for TLS, in write mode; the parser has seen them up to {@link #parsed}. */
+    private ByteBuffer appIn;
+    private int parsed;
+    private boolean appInSliced;
+    /** Full buffers that body segments are views of. */
+    private final List<ByteBuffer> retained = new ArrayList<>();
+
+    private Connection(EventLoop eventLoop, Exchange exchange, SSLContext sslContext, ByteBufferPool pool,
+                       long maxBodyBytes, Selector selector) throws IOException {
+        this.eventLoop = eventLoop;
+        this.route = exchange.route;
+        this.pool = pool;
+        this.maxBodyBytes = maxBodyBytes;
+
+        if (route.tls) {
+            engine = sslContext.createSSLEngine(route.host, route.port);
+            engine.setUseClientMode(true);
+            SSLParameters parameters = engine.getSSLParameters();
+            parameters.setEndpointIdentificationAlgorithm("HTTPS");
+            engine.setSSLParameters(parameters);
+        } else {
+            engine = null;
+        }
+
+        channel = SocketChannel.open();
+        try {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
+            connected = channel.connect(exchange.address);
+            key = channel.register(selector, connected ? 0 : SelectionKey.OP_CONNECT, this);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a connection for {@code exchange}'s route; the connection is established in the background.
+     */
+    static Connection open(EventLoop eventLoop, Exchange exchange, SSLContext sslContext, ByteBufferPool pool,
+                           long maxBodyBytes, Selector selector) throws IOException {
+        return new Connection(eventLoop, exchange, sslContext, pool, maxBodyBytes, selector);
+    }
+
+    long getIdleSince() {
+        return idleSince;
+    }
+
+    /**
+     * Sends {@code next}'s request, then reads its response.
+     */
+    void start(Exchange next) {
+        exchange = next;
+        exchanges++;
+        parser = new ResponseParser(next.headRequest, maxBodyBytes);
+        next.request.rewind();
+        netOut = pool.acquire();
+        appIn = pool.acquire();
+        parsed = 0;
+        appInSliced = false;
+        if (engine != null) {
+            netIn = pool.acquire();
+        }
+        if (connected) {
+            run();
+        }
+    }
+
+    /**
+     * Called by the event loop when the channel is ready.
+     */
+    void ready() {
+        if (exchange == null) {
+            // an idle connection is only readable when the server closes it
+            eventLoop.closed(this);
+            return;
+        }
+        run();
+    }
+
+    /**
+     * Fails the exchange if it is taking longer than its timeout.
+     */
+    void expire(long now) {
+        if (exchange != null && exchange.isExpired(now)) {
+            fail(new SocketTimeoutException("Timed out waiting for the HTTP response"), false);
+        }
+    }
+
+    /**
+     * Fails the exchange, if any, and closes the connection.
+     */
+    void abort(Throwable cause) {
+        fail(cause, false);
+    }
+
+    /**
+     * Closes the connection and gives its buffers back; its exchange, if any, must have been completed.
+     */
+    void close() {
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // closed anyway
+        }
+        if (engine != null) {
+            engine.closeOutbound();
+        }
+        releaseBuffers();
+        for (ByteBuffer buffer : retained) {
+            pool.release(buffer);
+        }
+        retained.clear();
+        exchange = null;
+        parser = null;
+    }
+
+    /**
+     * Waits, while idle in the pool, for the server to close the connection.
+     */
+    void idle(long now) {
+        idleSince = now;
+        key.interestOps(SelectionKey.OP_READ);
+    }
+
+    private void run() {
+        try {
+            if (!connected) {
+                if (!channel.finishConnect()) {
+                    return;
+                }
+                connected = true;
+                if (engine != null) {
+                    engine.beginHandshake();
+                }
+            }
+            advance();
+        } catch (IOException | RuntimeException e) {
+            fail(e, e instanceof IOException);
+        }
+    }
+
+    /**
+     * Makes all the progress possible without blocking, then waits for the channel to be ready again.
+     */
+    private void advance() throws IOException {
+        while (exchange != null) {
+            if (!flush()) {
+                key.interestOps(SelectionKey.OP_WRITE);
+                return;
+            }
+            if (engine != null && isHandshaking()) {
+                SSLEngineResult.HandshakeStatus status = engine.getHandshakeStatus();
+                if (status == SSLEngineResult.HandshakeStatus.NEED_TASK) {
+                    // certificate validation, run here rather than on another thread for simplicity
+                    Runnable task;
+                    while ((task = engine.getDelegatedTask()) != null) {
+                        task.run();
+                    }
+                } else if (status == SSLEngineResult.HandshakeStatus.NEED_WRAP) {
+                    wrap(EMPTY);
+                } else if (!unwrap() && !read()) {
+                    key.interestOps(SelectionKey.OP_READ);
+                    return;
+                }
+                continue;
+            }
+            if (exchange.request.hasRemaining()) {
+                write(exchange.request);
+                continue;
+            }
+            if (!(engine != null && unwrap()) && !read()) {
+                key.interestOps(SelectionKey.OP_READ);
+                return;
+            }
+        }
+    }
+
+    private boolean isHandshaking() {
+        SSLEngineResult.HandshakeStatus status = engine.getHandshakeStatus();
+        return status != SSLEngineResult.HandshakeStatus.NOT_HANDSHAKING
+            && status != SSLEngineResult.HandshakeStatus.FINISHED;
+    }
+
+    /**
+     * @return whether every pending byte was written
+     */
+    private boolean flush() throws IOException {
+        if (netOut.position() == 0) {
+            return true;
+        }
+        netOut.flip();
+        try {
+            channel.write(netOut);
+        } finally {
+            netOut.compact();
+        }
+        return netOut.position() == 0;
+    }
+
+    private void write(ByteBuffer source) throws IOException {
+        if (engine != null) {
+            wrap(source);
+            return;
+        }
+        int count = Math.min(netOut.remaining(), source.remaining());
+        ByteBuffer chunk = source.duplicate();
+        chunk.limit(chunk.position() + count);
+        netOut.put(chunk);
+        source.position(source.position() + count);
+    }
+
+    private void wrap(ByteBuffer source) throws IOException {
+        SSLEngineResult result = engine.wrap(source, netOut);
+        if (result.getStatus() == SSLEngineResult.Status.CLOSED) {
+            throw new SSLException("TLS connection closed by the server");
+        }
+        if (result.getStatus() == SSLEngineResult.Status.BUFFER_OVERFLOW) {
+            // the buffers are at least as large as a TLS record, and netOut was flushed
+            throw new SSLException("TLS record larger than the buffer");
+        }
+    }
+
+    /**
+     * Decrypts the bytes read so far.
+     *
+     * @return whether any progress was made
+     */
+    private boolean unwrap() throws IOException {
+        if (netIn.position() == 0) {
+            return false;
+        }
+        netIn.flip();
+        SSLEngineResult result;
+        try {
+            result = engine.unwrap(netIn, appIn);
+        } finally {
+            netIn.compact();
+        }
+        switch (result.getStatus()) {
+            case BUFFER_OVERFLOW:
+                nextAppIn();
+                return true;
+            case BUFFER_UNDERFLOW:
+                if (!netIn.hasRemaining()) {
+                    throw new SSLException("TLS record larger than the buffer");
+                }
+                return false;
+            case CLOSED:
+                endOfStream();
+                return true;
+            default:
+                if (result.bytesProduced() > 0) {
+                    parse();
+                }
+                return result.bytesConsumed() > 0 || result.bytesProduced() > 0;
+        }
+    }
+
+    /**
+     * Reads what the channel has: encrypted bytes for TLS, response bytes otherwise.
+     *
+     * @return whether any progress was made
+     */
+    private boolean read() throws IOException {
+        int count;
+        if (engine != null) {
+            count = channel.read(netIn);
+        } else {
+            if (!appIn.hasRemaining()) {
+                nextAppIn();
+            }
+            count = channel.read(appIn);
+            if (count > 0) {
+                parse();
+            }
+        }
+        if (count < 0) {
+            endOfStream();
+        }
+        return count != 0;
+    }
+
+    private void parse() throws IOException {
+        ByteBuffer view = appIn.duplicate();
+        view.limit(appIn.position());
+        view.position(parsed);
+        boolean complete = parser.parse(view);
+        parsed = view.position();
+        appInSliced |= parser.takeSliced();
+        if (complete) {
+            complete(view.hasRemaining());
+        }
+    }
+
+    /**
+     * Hands the full response buffer over to the body, or gives it back, and continues in a new one.
+     */
+    private void nextAppIn() {
+        if (appInSliced) {
+            retained.add(appIn);
+        } else {
+            pool.release(appIn);
+        }
+        appIn = pool.acquire();
+        parsed = 0;
+        appInSliced = false;
+    }
+
+    private void endOfStream() throws IOException {
+        if (engine != null) {
+            try {
+                engine.closeInbound();
+            } catch (SSLException e) {
+                // the server closed without a close_notify, which only matters if the response is incomplete
+            }
+        }
+        if (parser.endOfStream()) {
+            complete(true);
+        } else {
+            throw new IOException("Connection closed by the server before the HTTP response was complete");
+        }
+    }
+
+    private void complete(boolean leftover) {
+        Exchange completed = exchange;
+        boolean reusable = !leftover && parser.isKeepAlive() && (engine == null || netIn.position() == 0);
+
+        if (appInSliced) {
+            retained.add(appIn);
+        } else {
+            pool.release(appIn);
+        }
+        appIn = null;
+        Response response = parser.toResponse(new ArrayList<>(retained), pool);
+        retained.clear();
+        releaseBuffers();
+        exchange = null;
+        parser = null;
+
+        if (!completed.future.complete(response)) {
+            // the caller gave up, e.g. on interruption
+            closeQuietly(response);
+        }
+        eventLoop.released(this, reusable);
+    }
+
+    /**
+     * @param retryable whether the request may be sent again on a new connection, if this one was pooled and
+     *                  closed by the server before answering
+     */
+    private void fail(Throwable cause, boolean retryable) {
+        Exchange failed = exchange;
+        boolean retry = retryable && failed != null && !failed.retried && exchanges > 1
+            && parser != null && !parser.hasReceivedBytes();
+        eventLoop.closed(this);
+        if (failed != null) {
+            if (retry) {
+                failed.retried = true;
+                eventLoop.send(failed);
+            } else {
+                failed.fail(cause);
+            }
+        }
+    }
+
+    private void releaseBuffers() {
+        if (netIn != null) {
+            pool.release(netIn);
+            netIn = null;
+        }
+        if (netOut != null) {
+            pool.release(netOut);
+            netOut = null;
+        }
+        if (appIn != null) {
+            pool.release(appIn);
+            appIn = null;
+        }
+    }
+
+    private static void closeQuietly(Response response) {
+        try {
+            response.getBody().close();
+        } catch (IOException e) {
+            // in memory
+        }
+    }
+}
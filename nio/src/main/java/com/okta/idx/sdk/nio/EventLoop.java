@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.nio;
+
+import com.okta.commons.http.HttpException;
+
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A thread multiplexing many {@link Connection}s with a {@link Selector}, and pooling them per route.
+ * <p>
+ * Only the loop's thread touches its connections and pools; other threads hand exchanges over with
+ * {@link #send(Exchange)}. When a route has its maximum connections busy, further exchanges wait, in order, for one
+ * of them.
+ */
+final class EventLoop implements Runnable {
+
+    /** How often timeouts and idle connections are checked while connections are open. */
+    private static final long CHECK_INTERVAL_MILLIS = 250;
+
+    private final Selector selector;
+    private final Thread thread;
+    private final SSLContext sslContext;
+    private final ByteBufferPool pool;
+    private final int maxConnectionsPerRoute;
+    private final long keepAliveNanos;
+    private final long maxBodyBytes;
+
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final Map<Exchange.Route, RoutePool> routes = new HashMap<>();
+    private final Set<Connection> connections = new HashSet<>();
+    private volatile boolean closed;
+
+    // written by the loop's thread only, read by any thread for the pool statistics
+    private volatile int openConnections;
+    private volatile int idleConnections;
+    private volatile long openedConnections;
+    private volatile long reusedConnections;
+    private volatile long connectionWaits;
+
+    /**
+     * @param maxConnectionsPerRoute the maximum connections of the loop to a route, or 0 for no limit
+     */
+    EventLoop(String name, SSLContext sslContext, ByteBufferPool pool, int maxConnectionsPerRoute,
+              long keepAliveNanos, long maxBodyBytes) throws IOException {
+        this.selector = Selector.open();
+        this.sslContext = sslContext;
+        this.pool = pool;
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        this.keepAliveNanos = keepAliveNanos;
+        this.maxBodyBytes = maxBodyBytes;
+        this.thread = new Thread(this, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Sends {@code exchange} over a pooled connection of its route, a new one, or once one is released.
+     */
+    void send(Exchange exchange) {
+        if (closed) {
+            exchange.fail(new HttpException("The HTTP transport is closed"));
+        } else if (Thread.currentThread() == thread) {
+            dispatch(exchange);
+        } else {
+            tasks.add(() -> dispatch(exchange));
+            selector.wakeup();
+        }
+    }
+
+    int getOpenConnections() {
+        return openConnections;
+    }
+
+    int getIdleConnections() {
+        return idleConnections;
+    }
+
+    long getOpenedConnections() {
+        return openedConnections;
+    }
+
+    long getReusedConnections() {
+        return reusedConnections;
+    }
+
+    long getConnectionWaits() {
+        return connectionWaits;
+    }
+
+    void shutdown() {
+        closed = true;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        while (!closed) {
+            try {
+                if (!tasks.isEmpty()) {
+                    selector.selectNow();
+                } else {
+                    selector.select(connections.isEmpty() ? 0 : CHECK_INTERVAL_MILLIS);
+                }
+
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    task.run();
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid()) {
+                        ((Connection) key.attachment()).ready();
+                    }
+                }
+
+                long now = System.nanoTime();
+                expire(now);
+                evictIdle(now);
+            } catch (IOException | RuntimeException e) {
+                // a broken selector cannot recover; anything else concerns one connection, which failed already
+                if (e instanceof IOException) {
+                    closed = true;
+                }
+            }
+        }
+        closeAll();
+    }
+
+    /**
+     * Called by a connection whose exchange completed.
+     *
+     * @param reusable whether the connection may carry another exchange
+     */
+    void released(Connection connection, boolean reusable) {
+        if (!reusable || closed) {
+            closed(connection);
+            return;
+        }
+        RoutePool routePool = routes.get(connection.route);
+        Exchange next = routePool.pending.pollFirst();
+        if (next != null) {
+            reusedConnections++;
+            connection.start(next);
+        } else {
+            connection.idle(System.nanoTime());
+            routePool.idle.addFirst(connection);
+            idleConnections++;
+        }
+    }
+
+    /**
+     * Closes {@code connection}, which frees a place for the next exchange waiting for its route.
+     */
+    void closed(Connection connection) {
+        connection.close();
+        if (connections.remove(connection)) {
+            RoutePool routePool = routes.get(connection.route);
+            routePool.open--;
+            openConnections--;
+            if (routePool.idle.remove(connection)) {
+                idleConnections--;
+            }
+            Exchange next = routePool.pending.pollFirst();
+            if (next != null) {
+                dispatch(next);
+            }
+        }
+    }
+
+    private void dispatch(Exchange exchange) {
+        if (closed) {
+            exchange.fail(new HttpException("The HTTP transport is closed"));
+            return;
+        }
+        RoutePool routePool = routes.computeIfAbsent(exchange.route, route -> new RoutePool());
+
+        // the most recently used connection is the least likely to have been closed by the server
+        Connection connection = routePool.idle.pollFirst();
+        if (connection != null) {
+            idleConnections--;
+            reusedConnections++;
+            connection.start(exchange);
+            return;
+        }
+        if (maxConnectionsPerRoute > 0 && routePool.open >= maxConnectionsPerRoute) {
+            connectionWaits++;
+            routePool.pending.addLast(exchange);
+            return;
+        }
+        try {
+            connection = Connection.open(this, exchange, sslContext, pool, maxBodyBytes, selector);
+        } catch (IOException | RuntimeException e) {
+            exchange.fail(e);
+            return;
+        }
+        connections.add(connection);
+        routePool.open++;
+        openConnections++;
+        openedConnections++;
+        connection.start(exchange);
+    }
+
+    private void expire(long now) {
+        for (Connection connection : new ArrayList<>(connections)) {
+            connection.expire(now);
+        }
+        for (RoutePool routePool : routes.values()) {
+            for (Iterator<Exchange> pending = routePool.pending.iterator(); pending.hasNext(); ) {
+                Exchange exchange = pending.next();
+                if (exchange.isExpired(now)) {
+                    pending.remove();
+                    exchange.fail(new HttpException("Timed out waiting for a connection"));
+                }
+            }
+        }
+    }
+
+    private void evictIdle(long now) {
+        List<Connection> expired = new ArrayList<>();
+        for (RoutePool routePool : routes.values()) {
+            // the least recently used connections are at the end
+            for (Iterator<Connection> idle = routePool.idle.descendingIterator(); idle.hasNext(); ) {
+                Connection connection = idle.next();
+                if (now - connection.getIdleSince() < keepAliveNanos) {
+                    break;
+                }
+                expired.add(connection);
+            }
+        }
+        for (Connection connection : expired) {
+            closed(connection);
+        }
+    }
+
+    private void closeAll() {
+        HttpException closedException = new HttpException("The HTTP transport is closed");
+        // closing a connection sends the next exchange of its route, which fails now that the loop is closed
+        for (Connection connection : new ArrayList<>(connections)) {
+            connection.abort(closedException);
+        }
+        routes.clear();
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            // closed anyway
+        }
+    }
+
+    private static final class RoutePool {
+
+        private final Deque<Connection> idle = new ArrayDeque<>();
+        private final Deque<Exchange> pending = new ArrayDeque<>();
+        private int open;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.nio;
+
+import com.okta.commons.http.HttpException;
+import com.okta.commons.http.Response;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One request and its response, from the calling thread to the event loop that sends it.
+ */
+final class Exchange {
+
+    final Route route;
+    final InetSocketAddress address;
+    final ByteBuffer request;
+    final boolean headRequest;
+    final CompletableFuture<Response> future = new CompletableFuture<>();
+
+    private final long start = System.nanoTime();
+    private final long timeoutNanos;
+
+    /** Whether the request was sent again, after its pooled connection turned out to be closed. */
+    boolean retried;
+
+    /**
+     * @param request the encoded request, head and body, in read mode
+     * @param timeoutNanos how long the exchange may take, or 0 for no limit
+     */
+    Exchange(Route route, InetSocketAddress address, ByteBuffer request, boolean headRequest, long timeoutNanos) {
+        this.route = route;
+        this.address = address;
+        this.request = request;
+        this.headRequest = headRequest;
+        this.timeoutNanos = timeoutNanos;
+    }
+
+    boolean isExpired(long now) {
+        return timeoutNanos > 0 && now - start >= timeoutNanos;
+    }
+
+    void fail(Throwable cause) {
+        future.completeExceptionally(cause instanceof HttpException
+            ? cause : new HttpException("Unable to execute HTTP request: " + cause.getMessage(), cause));
+    }
+
+    /**
+     * A host the event loops keep connections to.
+     */
+    static final class Route {
+
+        final String host;
+        final int port;
+        final boolean tls;
+
+        Route(String host, int port, boolean tls) {
+            this.host = host;
+            this.port = port;
+            this.tls = tls;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Route)) {
+                return false;
+            }
+            Route route = (Route) o;
+            return port == route.port && tls == route.tls && host.equals(route.host);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(host, port, tls);
+        }
+    }
+}
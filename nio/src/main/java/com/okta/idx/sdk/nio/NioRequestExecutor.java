@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.nio;
+
+import com.okta.commons.http.HttpException;
+import com.okta.commons.http.HttpMethod;
+import com.okta.commons.http.Request;
+import com.okta.commons.http.RequestExecutor;
+import com.okta.commons.http.Response;
+import com.okta.commons.http.authc.RequestAuthenticator;
+import com.okta.commons.http.config.HttpClientConfiguration;
+import com.okta.commons.lang.Assert;
+import com.okta.idx.sdk.api.client.ConnectionPoolReporter;
+import com.okta.idx.sdk.api.client.ConnectionPoolStatistics;
+import com.okta.idx.sdk.api.client.DeadlineRequest;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link RequestExecutor} that sends HTTP/1.1 requests over non-blocking sockets, multiplexed by a few event loop
+ * threads, instead of blocking a thread per call in flight.
+ * <p>
+ * Each event loop keeps its own pool of keep-alive connections per host. Bytes are read, and decrypted for
+ * {@code https}, into pooled direct buffers, and response bodies are read straight from those buffers, which go back
+ * to the pool once the body is read or closed.
+ * <p>
+ * Besides the blocking {@link #executeRequest(Request)}, {@link #executeRequestAsync(Request)} sends a request
+ * without holding a thread until the response arrives. Its futures complete on an event loop thread, so dependent
+ * stages that block must run on an executor of their own.
+ * <p>
+ * The executor reports the connections of its pools through {@link #getConnectionPoolStatistics()}, which is
+ * read by {@link com.okta.idx.sdk.api.client.IDXClient#getTransportStatistics()}.
+ * <p>
+ * The exchange of a {@link DeadlineRequest} times out when its deadline passes, if that is before the connection
+ * timeout.
+ * <p>
+ * Proxies are not supported. The executor's threads are daemons; {@link #close()} stops them and fails the calls in
+ * flight.
+ */
+public final class NioRequestExecutor implements RequestExecutor, ConnectionPoolReporter, Closeable {
+
+    static final String MAX_CONNECTIONS_PER_ROUTE_PARAM = "maxConnectionsPerRoute";
+    static final String CONNECTION_TIME_TO_LIVE_PARAM = "connectionTimeToLive";
+
+    private static final long DEFAULT_KEEP_ALIVE_NANOS = TimeUnit.MINUTES.toNanos(5);
+    private static final long MAX_BODY_BYTES = 16 * 1024 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 256;
+
+    /** The headers written from the request itself, rather than copied from its headers. */
+    private static final Set<String> FRAMING_HEADERS = new HashSet<>();
+
+    static {
+        FRAMING_HEADERS.add("host");
+        FRAMING_HEADERS.add("content-length");
+        FRAMING_HEADERS.add("transfer-encoding");
+        FRAMING_HEADERS.add("connection");
+    }
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final RequestAuthenticator requestAuthenticator;
+    private final long timeoutNanos;
+    private final EventLoop[] eventLoops;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public NioRequestExecutor(HttpClientConfiguration clientConfiguration) {
+        this(clientConfiguration, Math.min(2, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * @param clientConfiguration the request authenticator, timeout and pool settings to apply
+     * @param eventLoops the number of event loop threads, which share the connections allowed per host
+     */
+    public NioRequestExecutor(HttpClientConfiguration clientConfiguration, int eventLoops) {
+        Assert.notNull(clientConfiguration, "clientConfiguration cannot be null");
+        Assert.isTrue(eventLoops > 0, "eventLoops must be greater than zero.");
+        Assert.isTrue(clientConfiguration.getProxy() == null, "The NIO transport does not support proxies.");
+
+        this.requestAuthenticator = clientConfiguration.getRequestAuthenticator();
+        this.timeoutNanos = clientConfiguration.getConnectionTimeout() > 0
+            ? TimeUnit.SECONDS.toNanos(clientConfiguration.getConnectionTimeout()) : 0;
+
+        Map<String, String> params = clientConfiguration.getRequestExecutorParams();
+        Integer maxConnectionsPerRoute = intParam(params, MAX_CONNECTIONS_PER_ROUTE_PARAM);
+        Integer connectionTimeToLive = intParam(params, CONNECTION_TIME_TO_LIVE_PARAM);
+        int maxConnectionsPerLoop = maxConnectionsPerRoute != null && maxConnectionsPerRoute > 0
+            ? (maxConnectionsPerRoute + eventLoops - 1) / eventLoops : 0;
+        long keepAliveNanos = connectionTimeToLive != null && connectionTimeToLive > 0
+            ? TimeUnit.MILLISECONDS.toNanos(connectionTimeToLive) : DEFAULT_KEEP_ALIVE_NANOS;
+
+        SSLContext sslContext;
+        try {
+            sslContext = SSLContext.getDefault();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("No default TLS context", e);
+        }
+        // large enough for a TLS record, encrypted or decrypted
+        SSLSession session = sslContext.createSSLEngine().getSession();
+        ByteBufferPool pool = new ByteBufferPool(
+            Math.max(session.getPacketBufferSize(), session.getApplicationBufferSize()), MAX_POOLED_BUFFERS);
+
+        this.eventLoops = new EventLoop[eventLoops];
+        try {
+            for (int i = 0; i < eventLoops; i++) {
+                this.eventLoops[i] = new EventLoop("okta-idx-nio-" + THREAD_COUNT.incrementAndGet(), sslContext,
+                    pool, maxConnectionsPerLoop, keepAliveNanos, MAX_BODY_BYTES);
+            }
+        } catch (IOException e) {
+            close();
+            throw new IllegalStateException("Unable to open a selector", e);
+        }
+    }
+
+    @Override
+    public Response executeRequest(Request request) throws HttpException {
+        try {
+            return executeRequestAsync(request).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof HttpException
+                ? (HttpException) cause : new HttpException("Unable to execute HTTP request: " + cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HttpException("Interrupted while executing HTTP request", e);
+        }
+    }
+
+    /**
+     * Sends {@code request} without blocking the calling thread, other than to resolve its host.
+     *
+     * @param request the request to send
+     * @return a future completed, on an event loop thread, with the response, or with an {@link HttpException} if
+     * the request failed
+     */
+    public CompletableFuture<Response> executeRequestAsync(Request request) {
+        Exchange exchange;
+        try {
+            exchange = toExchange(request);
+        } catch (IOException | RuntimeException e) {
+            CompletableFuture<Response> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e instanceof HttpException
+                ? e : new HttpException("Unable to execute HTTP request: " + e.getMessage(), e));
+            return failed;
+        }
+        eventLoops[Math.floorMod(next.getAndIncrement(), eventLoops.length)].send(exchange);
+        return exchange.future;
+    }
+
+    @Override
+    public ConnectionPoolStatistics getConnectionPoolStatistics() {
+        int open = 0;
+        int idle = 0;
+        long opened = 0;
+        long reused = 0;
+        long waits = 0;
+        for (EventLoop eventLoop : eventLoops) {
+            // each counter is read on its own while the loops run, so the sums may be off by the exchanges in flux
+            open += eventLoop.getOpenConnections();
+            idle += eventLoop.getIdleConnections();
+            opened += eventLoop.getOpenedConnections();
+            reused += eventLoop.getReusedConnections();
+            waits += eventLoop.getConnectionWaits();
+        }
+        return new ConnectionPoolStatistics(Math.max(open - idle, 0), idle, opened, reused, waits);
+    }
+
+    /**
+     * Stops the event loops, which closes their connections and fails the calls in flight.
+     */
+    @Override
+    public void close() {
+        for (EventLoop eventLoop : eventLoops) {
+            if (eventLoop != null) {
+                eventLoop.shutdown();
+            }
+        }
+    }
+
+    private Exchange toExchange(Request request) throws IOException {
+
+        if (requestAuthenticator != null) {
+            requestAuthenticator.authenticate(request);
+        }
+
+        URI uri = request.getResourceUrl();
+        String scheme = uri.getScheme() != null ? uri.getScheme().toLowerCase(Locale.ENGLISH) : null;
+        if (!"http".equals(scheme) && !"https".equals(scheme)) {
+            throw new IllegalArgumentException("Unsupported URL scheme: " + uri);
+        }
+        boolean tls = "https".equals(scheme);
+        String host = uri.getHost();
+        int port = uri.getPort() > 0 ? uri.getPort() : tls ? 443 : 80;
+
+        InetSocketAddress address = new InetSocketAddress(host, port);
+        if (address.isUnresolved()) {
+            throw new UnknownHostException(host);
+        }
+
+        // the bodies of IDX requests are small and already in memory, so they go out with a Content-Length
+        byte[] body = readBody(request.getBody());
+
+        StringBuilder head = new StringBuilder(256)
+            .append(request.getMethod().name()).append(' ').append(target(request)).append(" HTTP/1.1\r\n")
+            .append("Host: ").append(host);
+        if (uri.getPort() > 0) {
+            head.append(':').append(port);
+        }
+        head.append("\r\n");
+        for (Map.Entry<String, List<String>> header : request.getHeaders().entrySet()) {
+            if (!FRAMING_HEADERS.contains(header.getKey().toLowerCase(Locale.ENGLISH))) {
+                for (String value : header.getValue()) {
+                    if (value.indexOf('\r') >= 0 || value.indexOf('\n') >= 0) {
+                        throw new IllegalArgumentException("Invalid value of HTTP header " + header.getKey());
+                    }
+                    head.append(header.getKey()).append(": ").append(value).append("\r\n");
+                }
+            }
+        }
+        if (body.length > 0 || request.getMethod() == HttpMethod.POST || request.getMethod() == HttpMethod.PUT) {
+            head.append("Content-Length: ").append(body.length).append("\r\n");
+        }
+        head.append("\r\n");
+
+        byte[] headBytes = head.toString().getBytes(StandardCharsets.ISO_8859_1);
+        ByteBuffer encoded = ByteBuffer.allocate(headBytes.length + body.length);
+        encoded.put(headBytes).put(body).flip();
+
+        return new Exchange(new Exchange.Route(host, port, tls), address, encoded,
+            request.getMethod() == HttpMethod.HEAD, timeoutNanos(request));
+    }
+
+    private long timeoutNanos(Request request) {
+        if (!(request instanceof DeadlineRequest)) {
+            return timeoutNanos;
+        }
+        // at least a nanosecond, as 0 means no limit: a request whose deadline has passed times out right away
+        long remainingNanos = Math.max(((DeadlineRequest) request).getRemainingNanos(), 1);
+        return timeoutNanos > 0 ? Math.min(timeoutNanos, remainingNanos) : remainingNanos;
+    }
+
+    private static String target(Request request) throws UnsupportedEncodingException {
+        URI uri = request.getResourceUrl();
+        StringBuilder target = new StringBuilder(uri.getRawPath() == null || uri.getRawPath().isEmpty()
+            ? "/" : uri.getRawPath());
+        char separator = '?';
+        if (uri.getRawQuery() != null) {
+            target.append('?').append(uri.getRawQuery());
+            separator = '&';
+        }
+        if (request.getQueryString() != null) {
+            for (Map.Entry<String, String> parameter : request.getQueryString().entrySet()) {
+                target.append(separator)
+                    .append(URLEncoder.encode(parameter.getKey(), "UTF-8")).append('=')
+                    .append(URLEncoder.encode(parameter.getValue(), "UTF-8"));
+                separator = '&';
+            }
+        }
+        return target.toString();
+    }
+
+    private static byte[] readBody(InputStream body) throws IOException {
+        if (body == null) {
+            return new byte[0];
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] chunk = new byte[4096];
+        int count;
+        while ((count = body.read(chunk)) != -1) {
+            bytes.write(chunk, 0, count);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Integer intParam(Map<String, String> params, String name) {
+        String value = params != null ? params.get(name) : null;
+        return value != null ? Integer.valueOf(value) : null;
+    }
+}
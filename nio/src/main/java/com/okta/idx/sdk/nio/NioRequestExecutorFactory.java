@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.nio;
+
+import com.okta.commons.http.RequestExecutor;
+import com.okta.commons.http.RequestExecutorFactory;
+import com.okta.commons.http.config.HttpClientConfiguration;
+
+/**
+ * Creates {@link NioRequestExecutor}s. Registered as a {@link java.util.ServiceLoader service}, so that the IDX
+ * client picks the NIO transport when this module is on the classpath instead of the okhttp one.
+ */
+public final class NioRequestExecutorFactory implements RequestExecutorFactory {
+
+    @Override
+    public RequestExecutor create(HttpClientConfiguration clientConfiguration) {
+        return new NioRequestExecutor(clientConfiguration);
+    }
+}
@@ -0,0 +1,334 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.nio;
+
+import com.okta.commons.http.DefaultResponse;
+import com.okta.commons.http.MediaType;
+import com.okta.commons.http.Response;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parses an HTTP/1.1 response as its bytes arrive, without blocking. The head is decoded into strings; the body is
+ * kept as views of the buffers it arrived in, whatever its framing: {@code Content-Length}, chunked, or up to the
+ * end of the connection.
+ */
+final class ResponseParser {
+
+    private static final int MAX_HEAD_BYTES = 64 * 1024;
+    private static final int MAX_CHUNK_LINE_BYTES = 1024;
+
+    private enum State {
+        HEAD,
+        BODY,
+        CHUNK_SIZE,
+        CHUNK_DATA,
+        CHUNK_DATA_END,
+        TRAILERS,
+        BODY_UNTIL_CLOSE,
+        DONE
+    }
+
+    private final boolean headRequest;
+    private final long maxBodyBytes;
+
+    private State state = State.HEAD;
+    private final StringBuilder line = new StringBuilder();
+    private final List<String> headLines = new ArrayList<>();
+    private int headBytes;
+    private boolean receivedBytes;
+
+    private int status;
+    private boolean http10;
+    private final List<String[]> headers = new ArrayList<>();
+    private String contentType;
+    private long contentLength = -1;
+    private boolean chunked;
+    private boolean connectionClose;
+
+    private long remaining;
+    private long bodyBytes;
+    private final List<ByteBuffer> segments = new ArrayList<>();
+    private boolean sliced;
+
+    /**
+     * @param headRequest whether the request was a {@code HEAD}, whose response has no body
+     * @param maxBodyBytes the largest body accepted
+     */
+    ResponseParser(boolean headRequest, long maxBodyBytes) {
+        this.headRequest = headRequest;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    /**
+     * Parses the bytes of {@code view}, from its position to its limit, and moves its position past the bytes
+     * parsed. Body bytes are kept as views of {@code view}'s buffer: see {@link #takeSliced()}.
+     *
+     * @param view the bytes received
+     * @return whether the response is complete, in which case the bytes left in {@code view} are not part of it
+     * @throws IOException if the response is malformed or too large
+     */
+    boolean parse(ByteBuffer view) throws IOException {
+        if (view.hasRemaining()) {
+            receivedBytes = true;
+        }
+        while (view.hasRemaining() && state != State.DONE) {
+            switch (state) {
+                case HEAD:
+                    parseHead(view);
+                    break;
+                case BODY:
+                    remaining -= slice(view, remaining);
+                    if (remaining == 0) {
+                        state = State.DONE;
+                    }
+                    break;
+                case CHUNK_SIZE:
+                    parseChunkSize(view);
+                    break;
+                case CHUNK_DATA:
+                    remaining -= slice(view, remaining);
+                    if (remaining == 0) {
+                        state = State.CHUNK_DATA_END;
+                    }
+                    break;
+                case CHUNK_DATA_END:
+                    if (readLine(view, MAX_CHUNK_LINE_BYTES) != null) {
+                        state = State.CHUNK_SIZE;
+                    }
+                    break;
+                case TRAILERS:
+                    String trailer = readLine(view, MAX_HEAD_BYTES);
+                    if (trailer != null && trailer.isEmpty()) {
+                        state = State.DONE;
+                    }
+                    break;
+                case BODY_UNTIL_CLOSE:
+                    slice(view, Long.MAX_VALUE);
+                    break;
+                default:
+                    throw new IllegalStateException(state.name());
+            }
+        }
+        return state == State.DONE;
+    }
+
+    /**
+     * Called when the connection is closed by the server.
+     *
+     * @return whether the response is complete, i.e. its body was framed by the end of the connection
+     */
+    boolean endOfStream() {
+        if (state == State.BODY_UNTIL_CLOSE) {
+            state = State.DONE;
+        }
+        return state == State.DONE;
+    }
+
+    /**
+     * @return whether any byte of the response was received, after which a failed request may not be sent again
+     */
+    boolean hasReceivedBytes() {
+        return receivedBytes;
+    }
+
+    /**
+     * @return whether body bytes were kept as views of a buffer since the last call, so that the buffer must be
+     * handed over with the response rather than reused
+     */
+    boolean takeSliced() {
+        boolean result = sliced;
+        sliced = false;
+        return result;
+    }
+
+    /**
+     * @return whether the connection may carry another request once the response is complete
+     */
+    boolean isKeepAlive() {
+        return !http10 && !connectionClose && (chunked || contentLength >= 0 || !hasBody());
+    }
+
+    /**
+     * @param buffers the pooled buffers the body is a view of, given back to {@code pool} once the body is read
+     * @param pool the pool of the buffers
+     * @return the response
+     */
+    Response toResponse(List<ByteBuffer> buffers, ByteBufferPool pool) {
+        MediaType mediaType = contentType != null ? MediaType.valueOf(contentType) : null;
+        DefaultResponse response = new DefaultResponse(status, mediaType,
+            new BufferInputStream(segments, buffers, pool), chunked ? -1 : contentLength);
+        for (String[] header : headers) {
+            String name = header[0].toLowerCase(Locale.ENGLISH);
+            // set from the constructor's arguments
+            if (!"content-type".equals(name) && !"content-length".equals(name)) {
+                response.getHeaders().add(header[0], header[1]);
+            }
+        }
+        return response;
+    }
+
+    private void parseHead(ByteBuffer view) throws IOException {
+        String headLine = readLine(view, MAX_HEAD_BYTES - headBytes);
+        if (headLine == null) {
+            return;
+        }
+        headBytes += headLine.length() + 2;
+        if (!headLine.isEmpty()) {
+            headLines.add(headLine);
+            return;
+        }
+        if (headLines.isEmpty()) {
+            // tolerated before the status line
+            return;
+        }
+        parseStatusLine(headLines.get(0));
+        for (int i = 1; i < headLines.size(); i++) {
+            parseHeader(headLines.get(i));
+        }
+        headLines.clear();
+
+        if (status >= 100 && status < 200) {
+            // an interim response, e.g. 100 Continue, followed by the final one
+            headers.clear();
+            contentType = null;
+            contentLength = -1;
+            chunked = false;
+            connectionClose = false;
+            return;
+        }
+
+        if (!hasBody()) {
+            state = State.DONE;
+        } else if (chunked) {
+            state = State.CHUNK_SIZE;
+        } else if (contentLength >= 0) {
+            checkBodySize(contentLength);
+            remaining = contentLength;
+            state = contentLength > 0 ? State.BODY : State.DONE;
+        } else {
+            state = State.BODY_UNTIL_CLOSE;
+        }
+    }
+
+    private void parseStatusLine(String statusLine) throws IOException {
+        String[] parts = statusLine.split(" ", 3);
+        if (parts.length < 2 || !parts[0].startsWith("HTTP/1.")) {
+            throw new IOException("Invalid HTTP status line: " + statusLine);
+        }
+        http10 = "HTTP/1.0".equals(parts[0]);
+        try {
+            status = Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid HTTP status line: " + statusLine, e);
+        }
+    }
+
+    private void parseHeader(String headerLine) throws IOException {
+        int colon = headerLine.indexOf(':');
+        if (colon <= 0) {
+            throw new IOException("Invalid HTTP header: " + headerLine);
+        }
+        String name = headerLine.substring(0, colon).trim();
+        String value = headerLine.substring(colon + 1).trim();
+        headers.add(new String[] {name, value});
+
+        String lowerCaseName = name.toLowerCase(Locale.ENGLISH);
+        if ("content-type".equals(lowerCaseName)) {
+            contentType = value;
+        } else if ("content-length".equals(lowerCaseName)) {
+            try {
+                contentLength = Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid Content-Length: " + value, e);
+            }
+        } else if ("transfer-encoding".equals(lowerCaseName)) {
+            chunked = value.toLowerCase(Locale.ENGLISH).endsWith("chunked");
+        } else if ("connection".equals(lowerCaseName)) {
+            connectionClose = value.toLowerCase(Locale.ENGLISH).contains("close");
+        }
+    }
+
+    private void parseChunkSize(ByteBuffer view) throws IOException {
+        String chunkLine = readLine(view, MAX_CHUNK_LINE_BYTES);
+        if (chunkLine == null) {
+            return;
+        }
+        int extension = chunkLine.indexOf(';');
+        String size = (extension >= 0 ? chunkLine.substring(0, extension) : chunkLine).trim();
+        try {
+            remaining = Long.parseLong(size, 16);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid chunk size: " + chunkLine, e);
+        }
+        checkBodySize(bodyBytes + remaining);
+        state = remaining > 0 ? State.CHUNK_DATA : State.TRAILERS;
+    }
+
+    /**
+     * Keeps up to {@code max} bytes of {@code view} as a body segment.
+     *
+     * @return the number of bytes kept
+     */
+    private int slice(ByteBuffer view, long max) throws IOException {
+        int count = (int) Math.min(max, view.remaining());
+        checkBodySize(bodyBytes + count);
+        ByteBuffer segment = view.slice();
+        segment.limit(count);
+        segments.add(segment);
+        view.position(view.position() + count);
+        bodyBytes += count;
+        sliced = true;
+        return count;
+    }
+
+    /**
+     * @return the next line without its line terminator, or {@code null} if it is not complete yet
+     */
+    private String readLine(ByteBuffer view, int maxLength) throws IOException {
+        while (view.hasRemaining()) {
+            char c = (char) (view.get() & 0xff);
+            if (c == '\n') {
+                int length = line.length();
+                if (length > 0 && line.charAt(length - 1) == '\r') {
+                    line.setLength(length - 1);
+                }
+                String result = line.toString();
+                line.setLength(0);
+                return result;
+            }
+            if (line.length() >= maxLength) {
+                throw new IOException("HTTP response line too long");
+            }
+            line.append(c);
+        }
+        return null;
+    }
+
+    private boolean hasBody() {
+        return !headRequest && status != 204 && status != 304;
+    }
+
+    private void checkBodySize(long size) throws IOException {
+        if (size > maxBodyBytes) {
+            throw new IOException("HTTP response body larger than " + maxBodyBytes + " bytes");
+        }
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.nio
+
+import com.okta.commons.http.DefaultRequest
+import com.okta.commons.http.HttpException
+import com.okta.commons.http.HttpHeaders
+import com.okta.commons.http.HttpMethod
+import com.okta.commons.http.Request
+import com.okta.commons.http.RequestExecutor
+import com.okta.commons.http.RequestExecutorFactory
+import com.okta.commons.http.Response
+import com.okta.idx.sdk.api.client.ConnectionPoolStatistics
+import com.okta.idx.sdk.api.client.DeadlineRequest
+import com.okta.idx.sdk.api.config.ClientConfiguration
+import com.sun.net.httpserver.HttpExchange
+import com.sun.net.httpserver.HttpServer
+import org.testng.annotations.AfterMethod
+import org.testng.annotations.BeforeMethod
+import org.testng.annotations.Test
+
+import java.nio.charset.StandardCharsets
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+import static org.hamcrest.MatcherAssert.assertThat
+import static org.hamcrest.Matchers.instanceOf
+import static org.hamcrest.Matchers.is
+
+class NioRequestExecutorTest {
+
+    private HttpServer server
+    private ExecutorService serverExecutor
+    private HttpExchange lastExchange
+    private String lastBody
+    private Set<InetSocketAddress> remoteAddresses
+
+    @BeforeMethod
+    void setUp() {
+        // each test gets a server of its own, so it only sees the requests it sent
+        lastExchange = null
+        lastBody = null
+        remoteAddresses = ConcurrentHashMap.newKeySet()
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0)
+        server.createContext("/idp/idx/introspect") { HttpExchange exchange ->
+            lastExchange = exchange
+            lastBody = new String(exchange.getRequestBody().bytes, StandardCharsets.UTF_8)
+            remoteAddresses.add(exchange.getRemoteAddress())
+            byte[] body = getClass().getClassLoader().getResourceAsStream("introspect-response.json").bytes
+            exchange.getResponseHeaders().add("Content-Type", "application/ion+json; okta-version=1.0.0")
+            exchange.getResponseHeaders().add("X-Rate-Limit-Remaining", "42")
+            exchange.sendResponseHeaders(200, body.length)
+            exchange.getResponseBody().withCloseable { it.write(body) }
+        }
+        server.createContext("/chunked") { HttpExchange exchange ->
+            exchange.sendResponseHeaders(200, 0)
+            exchange.getResponseBody().withCloseable { out ->
+                10000.times { out.write("line${it}\n".getBytes(StandardCharsets.UTF_8)) }
+            }
+        }
+        server.createContext("/slow") { HttpExchange exchange ->
+            Thread.sleep(3000)
+            exchange.sendResponseHeaders(204, -1)
+            exchange.close()
+        }
+        serverExecutor = Executors.newFixedThreadPool(8)
+        server.setExecutor(serverExecutor)
+        server.start()
+    }
+
+    @AfterMethod
+    void tearDown() {
+        server.stop(0)
+        serverExecutor.shutdownNow()
+    }
+
+    @Test
+    void testExecuteRequest() {
+
+        NioRequestExecutor requestExecutor = new NioRequestExecutor(getClientConfiguration())
+
+        Response response = requestExecutor.executeRequest(introspectRequest())
+
+        assertThat(response.getHttpStatus(), is(200))
+        assertThat(response.getHeaders().getContentType().toString().contains("application/ion+json"), is(true))
+        assertThat(response.getHeaders().getFirst("X-Rate-Limit-Remaining"), is("42"))
+        assertThat(new String(response.getBody().bytes, StandardCharsets.UTF_8).contains("stateHandle"), is(true))
+
+        assertThat(lastExchange.getRequestMethod(), is("POST"))
+        assertThat(lastExchange.getRequestHeaders().getFirst("Accept"), is("application/ion+json; okta-version=1.0.0"))
+        assertThat(lastBody, is('{"interactionHandle":"interactionHandle"}'))
+
+        requestExecutor.close()
+    }
+
+    @Test
+    void testChunkedResponse() {
+
+        NioRequestExecutor requestExecutor = new NioRequestExecutor(getClientConfiguration())
+
+        Response response = requestExecutor.executeRequest(new DefaultRequest(HttpMethod.GET, baseUrl() + "/chunked",
+            null, new HttpHeaders(), null, 0))
+
+        List<String> lines = new String(response.getBody().bytes, StandardCharsets.UTF_8).readLines()
+        assertThat(lines.size(), is(10000))
+        assertThat(lines.last(), is("line9999"))
+
+        requestExecutor.close()
+    }
+
+    @Test
+    void testConnectionReuse() {
+
+        NioRequestExecutor requestExecutor = new NioRequestExecutor(getClientConfiguration(), 1)
+
+        3.times {
+            requestExecutor.executeRequest(introspectRequest()).getBody().close()
+        }
+
+        assertThat(remoteAddresses.size(), is(1))
+
+        requestExecutor.close()
+    }
+
+    @Test
+    void testConnectionPoolStatistics() {
+
+        NioRequestExecutor requestExecutor = new NioRequestExecutor(getClientConfiguration(), 1)
+
+        3.times {
+            requestExecutor.executeRequest(introspectRequest()).getBody().close()
+        }
+
+        // the connection goes back to the pool on the event loop, once the body has been read
+        ConnectionPoolStatistics statistics = requestExecutor.getConnectionPoolStatistics()
+        long deadline = System.currentTimeMillis() + 5000
+        while (statistics.getIdleConnections() != 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5)
+            statistics = requestExecutor.getConnectionPoolStatistics()
+        }
+        assertThat(statistics.getOpenedConnections(), is(1L))
+        assertThat(statistics.getReusedConnections(), is(2L))
+        assertThat(statistics.getIdleConnections(), is(1))
+        assertThat(statistics.getActiveConnections(), is(0))
+        assertThat(statistics.getConnectionWaits(), is(0L))
+
+        requestExecutor.close()
+    }
+
+    @Test
+    void testConcurrentRequests() {
+
+        ClientConfiguration clientConfiguration = getClientConfiguration()
+        clientConfiguration.setMaxConnectionsPerRoute(4)
+        NioRequestExecutor requestExecutor = new NioRequestExecutor(clientConfiguration, 1)
+
+        List<CompletableFuture<Response>> futures = (1..100).collect {
+            requestExecutor.executeRequestAsync(introspectRequest())
+        }
+
+        futures.each {
+            Response response = it.get(10, TimeUnit.SECONDS)
+            assertThat(response.getHttpStatus(), is(200))
+            response.getBody().close()
+        }
+        // the requests beyond the limit waited for a pooled connection
+        assertThat(remoteAddresses.size() <= 4, is(true))
+
+        requestExecutor.close()
+    }
+
+    @Test
+    void testTimeout() {
+
+        NioRequestExecutor requestExecutor = new NioRequestExecutor(getClientConfiguration(1))
+
+        try {
+            requestExecutor.executeRequest(new DefaultRequest(HttpMethod.GET, baseUrl() + "/slow", null,
+                new HttpHeaders(), null, 0))
+            assert false : "expected HttpException"
+        } catch (HttpException e) {
+            assertThat(e.getCause(), instanceOf(SocketTimeoutException))
+        }
+
+        requestExecutor.close()
+    }
+
+    @Test
+    void testTimeoutAtDeadline() {
+
+        NioRequestExecutor requestExecutor = new NioRequestExecutor(getClientConfiguration())
+
+        long start = System.nanoTime()
+        try {
+            requestExecutor.executeRequest(new DeadlineRequest(HttpMethod.GET, baseUrl() + "/slow",
+                new HttpHeaders(), null, 0, start + TimeUnit.MILLISECONDS.toNanos(300)))
+            assert false : "expected HttpException"
+        } catch (HttpException e) {
+            assertThat(e.getCause(), instanceOf(SocketTimeoutException))
+        }
+        // well before the connection timeout of 5 seconds, and the response of the server after 3
+        assertThat(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2), is(true))
+
+        requestExecutor.close()
+    }
+
+    @Test
+    void testConnectionFailure() {
+
+        NioRequestExecutor requestExecutor = new NioRequestExecutor(getClientConfiguration())
+        Request request = introspectRequest()
+        Request asyncRequest = introspectRequest()
+        server.stop(0)
+
+        try {
+            requestExecutor.executeRequest(request)
+            assert false : "expected HttpException"
+        } catch (HttpException e) {
+            assertThat(e.getCause(), instanceOf(IOException))
+        }
+
+        try {
+            requestExecutor.executeRequestAsync(asyncRequest).get(5, TimeUnit.SECONDS)
+            assert false : "expected ExecutionException"
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(HttpException))
+        }
+
+        requestExecutor.close()
+    }
+
+    @Test
+    void testClose() {
+
+        NioRequestExecutor requestExecutor = new NioRequestExecutor(getClientConfiguration())
+        requestExecutor.close()
+
+        try {
+            requestExecutor.executeRequestAsync(introspectRequest()).get(5, TimeUnit.SECONDS)
+            assert false : "expected ExecutionException"
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(HttpException))
+        }
+    }
+
+    @Test
+    void testLoadedAsService() {
+        assertThat(ServiceLoader.load(RequestExecutorFactory).any {
+            it instanceof NioRequestExecutorFactory
+        }, is(true))
+        RequestExecutor requestExecutor = new NioRequestExecutorFactory().create(getClientConfiguration())
+        assertThat(requestExecutor, instanceOf(NioRequestExecutor))
+        ((NioRequestExecutor) requestExecutor).close()
+    }
+
+    private Request introspectRequest() {
+        byte[] body = '{"interactionHandle":"interactionHandle"}'.getBytes(StandardCharsets.UTF_8)
+        HttpHeaders headers = new HttpHeaders()
+        headers.add("Accept", "application/ion+json; okta-version=1.0.0")
+        headers.add("Content-Type", "application/ion+json; okta-version=1.0.0")
+        return new DefaultRequest(HttpMethod.POST, baseUrl() + "/idp/idx/introspect", null, headers,
+            new ByteArrayInputStream(body), body.length)
+    }
+
+    private String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort()
+    }
+
+    ClientConfiguration getClientConfiguration(int connectionTimeout = 5) {
+        ClientConfiguration clientConfiguration = new ClientConfiguration()
+        clientConfiguration.setIssuer(baseUrl() + "/oauth2/default")
+        clientConfiguration.setConnectionTimeout(connectionTimeout)
+        return clientConfiguration
+    }
+}
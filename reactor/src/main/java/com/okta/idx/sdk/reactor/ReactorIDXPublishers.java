@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.reactor;
+
+import com.okta.commons.lang.Assert;
+import com.okta.idx.sdk.api.client.Authenticator;
+import com.okta.idx.sdk.api.client.IDXAuthenticationWrapper;
+import com.okta.idx.sdk.api.client.ProceedContext;
+import com.okta.idx.sdk.api.model.AuthenticationOptions;
+import com.okta.idx.sdk.api.model.VerifyAuthenticatorOptions;
+import com.okta.idx.sdk.api.response.AuthenticationResponse;
+import com.okta.idx.sdk.flow.IDXPublishers;
+import com.okta.idx.sdk.flow.IDXStep;
+import reactor.adapter.JdkFlowAdapter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+
+/**
+ * {@link Mono} and {@link Flux} views of the {@link IDXPublishers} of an {@link IDXAuthenticationWrapper}.
+ * <p>
+ * The wrapper's calls run on its own threads, not on the subscriber's, so they can be composed on a WebFlux event loop
+ * as they are, without {@code publishOn(Schedulers.boundedElastic())}. Signals arrive on the wrapper's threads; use
+ * {@code publishOn} only to move the downstream work elsewhere.
+ */
+public final class ReactorIDXPublishers {
+
+    private final IDXPublishers publishers;
+
+    public ReactorIDXPublishers(IDXAuthenticationWrapper wrapper) {
+        this(new IDXPublishers(wrapper));
+    }
+
+    public ReactorIDXPublishers(IDXPublishers publishers) {
+        Assert.notNull(publishers, "publishers cannot be null");
+        this.publishers = publishers;
+    }
+
+    /**
+     * @see IDXPublishers#publish(Function)
+     */
+    public <T> Mono<T> mono(Function<IDXAuthenticationWrapper, T> operation) {
+        return Mono.from(JdkFlowAdapter.flowPublisherToFlux(publishers.publish(operation)));
+    }
+
+    /**
+     * @see IDXPublishers#steps(IDXStep)
+     */
+    public <T> Flux<T> steps(IDXStep<T> step) {
+        return JdkFlowAdapter.flowPublisherToFlux(publishers.steps(step));
+    }
+
+    /**
+     * @see IDXAuthenticationWrapper#begin()
+     */
+    public Mono<AuthenticationResponse> begin() {
+        return Mono.from(JdkFlowAdapter.flowPublisherToFlux(publishers.begin()));
+    }
+
+    /**
+     * @see IDXAuthenticationWrapper#authenticate(AuthenticationOptions, ProceedContext)
+     */
+    public Mono<AuthenticationResponse> authenticate(AuthenticationOptions authenticationOptions,
+                                                     ProceedContext proceedContext) {
+        return Mono.from(JdkFlowAdapter.flowPublisherToFlux(
+            publishers.authenticate(authenticationOptions, proceedContext)));
+    }
+
+    /**
+     * @see IDXAuthenticationWrapper#selectAuthenticator(ProceedContext, Authenticator)
+     */
+    public Mono<AuthenticationResponse> selectAuthenticator(ProceedContext proceedContext,
+                                                            Authenticator authenticator) {
+        return Mono.from(JdkFlowAdapter.flowPublisherToFlux(
+            publishers.selectAuthenticator(proceedContext, authenticator)));
+    }
+
+    /**
+     * @see IDXAuthenticationWrapper#verifyAuthenticator(ProceedContext, VerifyAuthenticatorOptions)
+     */
+    public Mono<AuthenticationResponse> verifyAuthenticator(ProceedContext proceedContext,
+                                                            VerifyAuthenticatorOptions verifyAuthenticatorOptions) {
+        return Mono.from(JdkFlowAdapter.flowPublisherToFlux(
+            publishers.verifyAuthenticator(proceedContext, verifyAuthenticatorOptions)));
+    }
+
+    /**
+     * @see IDXAuthenticationWrapper#recoverPassword(String, ProceedContext)
+     */
+    public Mono<AuthenticationResponse> recoverPassword(String username, ProceedContext proceedContext) {
+        return Mono.from(JdkFlowAdapter.flowPublisherToFlux(publishers.recoverPassword(username, proceedContext)));
+    }
+
+    /**
+     * @see IDXAuthenticationWrapper#poll(ProceedContext)
+     */
+    public Mono<AuthenticationResponse> poll(ProceedContext proceedContext) {
+        return Mono.from(JdkFlowAdapter.flowPublisherToFlux(publishers.poll(proceedContext)));
+    }
+}
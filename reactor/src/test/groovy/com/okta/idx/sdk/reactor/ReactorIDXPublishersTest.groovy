@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2021-Present, Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.idx.sdk.reactor
+
+import com.okta.idx.sdk.api.client.IDXAuthenticationWrapper
+import com.okta.idx.sdk.api.client.IDXClient
+import com.okta.idx.sdk.api.exception.ProcessingException
+import org.testng.annotations.Test
+
+import java.time.Duration
+
+import static org.hamcrest.MatcherAssert.assertThat
+import static org.hamcrest.Matchers.contains
+import static org.hamcrest.Matchers.is
+import static org.hamcrest.Matchers.not
+import static org.mockito.Mockito.mock
+import static org.mockito.Mockito.when
+
+class ReactorIDXPublishersTest {
+
+    @Test
+    void testMono() {
+        def publishers = new ReactorIDXPublishers(new IDXAuthenticationWrapper(mock(IDXClient)))
+        def caller = Thread.currentThread()
+
+        Thread thread = publishers.mono { wrapper -> Thread.currentThread() }.block(Duration.ofSeconds(5))
+
+        // the call does not run on the subscribing thread
+        assertThat(thread, not(caller))
+    }
+
+    @Test
+    void testSteps() {
+        def publishers = new ReactorIDXPublishers(new IDXAuthenticationWrapper(mock(IDXClient)))
+
+        List<Integer> steps = publishers.steps { wrapper, Integer previous ->
+            previous == null ? 1 : previous < 3 ? previous + 1 : null
+        }.collectList().block(Duration.ofSeconds(5))
+
+        assertThat(steps, contains(1, 2, 3))
+    }
+
+    @Test
+    void testBegin() {
+        def client = mock(IDXClient)
+        when(client.interact()).thenThrow(new ProcessingException(500, "Server error"))
+        def publishers = new ReactorIDXPublishers(new IDXAuthenticationWrapper(client))
+
+        def response = publishers.begin().block(Duration.ofSeconds(5))
+
+        assertThat(response.errors, contains("Server error HTTP status: 500"))
+    }
+}